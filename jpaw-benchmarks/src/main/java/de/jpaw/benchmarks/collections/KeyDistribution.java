@@ -0,0 +1,69 @@
+package de.jpaw.benchmarks.collections;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/** Key patterns used by the map benchmarks. All generators are deterministic for a given seed. */
+public enum KeyDistribution {
+    /** Dense ascending keys 0, 1, 2... as produced by database sequences. */
+    SEQUENTIAL,
+    /** Uniformly distributed random 64 bit keys. */
+    RANDOM,
+    /** Runs of 64 consecutive keys, starting at random offsets (for example ranges of sequence numbers from different cache blocks). */
+    CLUSTERED;
+
+    private static final int CLUSTER_SIZE = 64;
+
+    /** Creates n distinct keys of this distribution. */
+    public long[] keys(final int n, final long seed) {
+        final long[] result = new long[n];
+        final Random r = new Random(seed);
+        final Set<Long> used = this == SEQUENTIAL ? null : new HashSet<>(2 * n);
+        int i = 0;
+        while (i < n) {
+            switch (this) {
+            case SEQUENTIAL:
+                result[i] = i;
+                ++i;
+                break;
+            case RANDOM:
+                final long k = r.nextLong();
+                if (used.add(k))
+                    result[i++] = k;
+                break;
+            case CLUSTERED:
+                final long base = (r.nextLong() >>> 8) * CLUSTER_SIZE;
+                for (int j = 0; j < CLUSTER_SIZE && i < n; ++j) {
+                    if (used.add(base + j))
+                        result[i++] = base + j;
+                }
+                break;
+            }
+        }
+        return result;
+    }
+
+    /** Creates n keys of the same distribution which are not contained in existing. */
+    public long[] missingKeys(final long[] existing, final int n, final long seed) {
+        if (this == SEQUENTIAL) {
+            final long[] result = new long[n];
+            for (int i = 0; i < n; ++i)
+                result[i] = existing.length + i;
+            return result;
+        }
+        final Set<Long> present = new HashSet<>(2 * existing.length);
+        for (final long k : existing)
+            present.add(k);
+        final long[] result = new long[n];
+        int i = 0;
+        for (long s = seed; i < n; ++s) {
+            final long[] candidates = keys(n, s);
+            for (int j = 0; j < n && i < n; ++j) {
+                if (!present.contains(candidates[j]))
+                    result[i++] = candidates[j];
+            }
+        }
+        return result;
+    }
+}
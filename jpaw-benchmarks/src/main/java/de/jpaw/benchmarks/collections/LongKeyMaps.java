@@ -0,0 +1,151 @@
+package de.jpaw.benchmarks.collections;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.jpaw.primitivecollections.HashMapPrimitiveLongObject;
+
+// Compares HashMapPrimitiveLongObject against HashMap<Long, V>.
+// The sizes range from L1/L2 resident (1000) via LLC sized (100000) to main memory bound (4000000, run with -Xmx4g or more).
+// put* fill a new map per invocation (default capacity, so the resize cost is included, or presized),
+// get*, remove and iterate operate on a map filled during setup. Lookups cycle through the keys in insertion order.
+// Allocation is reported when running with the GC profiler.
+
+//java -Xmx4g -jar target/jpaw-benchmarks.jar -i 5 -f 3 -wf 1 -wi 3 -prof gc ".*LongKeyMaps.*"
+//java -jar target/jpaw-benchmarks.jar -i 5 -f 3 -wf 1 -wi 3 -prof gc -p size=1000 -p loadFactor=0.75 ".*LongKeyMaps.*"
+
+@State(value = Scope.Thread)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class LongKeyMaps {
+    private static final Object VALUE = new Object();
+
+    @Param({"1000", "100000", "4000000"})
+    public int size;
+
+    @Param({"SEQUENTIAL", "RANDOM", "CLUSTERED"})
+    public KeyDistribution distribution;
+
+    @Param({"0.5", "0.75", "1.0"})
+    public float loadFactor;
+
+    private long[] keys;
+    private Long[] boxedKeys;           // pre-boxed, to measure the map and not the boxing of the benchmark code
+    private long[] missingKeys;
+    private int mask;                   // keys are accessed cyclically, this is the largest power of 2 - 1 not exceeding size
+    private int index;
+
+    private HashMapPrimitiveLongObject<Object> primitiveMap;
+    private HashMap<Long, Object> boxedMap;
+
+    @Setup
+    public void init() {
+        keys = distribution.keys(size, 42L);
+        missingKeys = distribution.missingKeys(keys, size, 4711L);
+        boxedKeys = new Long[size];
+        primitiveMap = new HashMapPrimitiveLongObject<>(16, loadFactor);
+        boxedMap = new HashMap<>(16, loadFactor);
+        for (int i = 0; i < size; ++i) {
+            boxedKeys[i] = Long.valueOf(keys[i]);
+            primitiveMap.put(keys[i], VALUE);
+            boxedMap.put(boxedKeys[i], VALUE);
+        }
+        mask = Integer.highestOneBit(size) - 1;
+    }
+
+    private int next() {
+        return index = (index + 1) & mask;
+    }
+
+    @Benchmark
+    public Object primitivePut() {
+        final HashMapPrimitiveLongObject<Object> m = new HashMapPrimitiveLongObject<>(16, loadFactor);
+        for (int i = 0; i < size; ++i)
+            m.put(keys[i], VALUE);
+        return m;
+    }
+
+    @Benchmark
+    public Object boxedPut() {
+        final HashMap<Long, Object> m = new HashMap<>(16, loadFactor);
+        for (int i = 0; i < size; ++i)
+            m.put(keys[i], VALUE);      // includes boxing, as in real code
+        return m;
+    }
+
+    @Benchmark
+    public Object primitivePutPresized() {
+        final HashMapPrimitiveLongObject<Object> m = new HashMapPrimitiveLongObject<>((int)(size / loadFactor) + 1, loadFactor);
+        for (int i = 0; i < size; ++i)
+            m.put(keys[i], VALUE);
+        return m;
+    }
+
+    @Benchmark
+    public Object boxedPutPresized() {
+        final HashMap<Long, Object> m = new HashMap<>((int)(size / loadFactor) + 1, loadFactor);
+        for (int i = 0; i < size; ++i)
+            m.put(keys[i], VALUE);
+        return m;
+    }
+
+    @Benchmark
+    public Object primitiveGetHit() {
+        return primitiveMap.get(keys[next()]);
+    }
+
+    @Benchmark
+    public Object boxedGetHit() {
+        return boxedMap.get(keys[next()]);
+    }
+
+    @Benchmark
+    public Object boxedGetHitPreboxed() {
+        return boxedMap.get(boxedKeys[next()]);
+    }
+
+    @Benchmark
+    public Object primitiveGetMiss() {
+        return primitiveMap.get(missingKeys[next()]);
+    }
+
+    @Benchmark
+    public Object boxedGetMiss() {
+        return boxedMap.get(missingKeys[next()]);
+    }
+
+    /** Removes an entry and inserts it again, to keep the map size constant. */
+    @Benchmark
+    public Object primitiveRemove() {
+        final long key = keys[next()];
+        return primitiveMap.put(key, primitiveMap.remove(key));
+    }
+
+    @Benchmark
+    public Object boxedRemove() {
+        final long key = keys[next()];
+        return boxedMap.put(key, boxedMap.remove(key));
+    }
+
+    @Benchmark
+    public void primitiveIterate(final Blackhole bh) {
+        primitiveMap.forEach((v, k) -> bh.consume(k));
+    }
+
+    @Benchmark
+    public void boxedIterate(final Blackhole bh) {
+        for (final Map.Entry<Long, Object> e : boxedMap.entrySet())
+            bh.consume(e.getKey().longValue());
+    }
+}
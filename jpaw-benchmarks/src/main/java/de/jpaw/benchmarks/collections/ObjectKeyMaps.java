@@ -0,0 +1,130 @@
+package de.jpaw.benchmarks.collections;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.jpaw.primitivecollections.HashMapObjectPrimitiveLong;
+
+// Compares the reverse map HashMapObjectPrimitiveLong against HashMap<String, Long>.
+// Keys are strings derived from the numeric key distributions, the values are the numeric keys.
+// See LongKeyMaps for the meaning of the parameters and the individual benchmarks.
+
+//java -Xmx4g -jar target/jpaw-benchmarks.jar -i 5 -f 3 -wf 1 -wi 3 -prof gc ".*ObjectKeyMaps.*"
+
+@State(value = Scope.Thread)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class ObjectKeyMaps {
+
+    @Param({"1000", "100000", "4000000"})
+    public int size;
+
+    @Param({"SEQUENTIAL", "RANDOM", "CLUSTERED"})
+    public KeyDistribution distribution;
+
+    @Param({"0.5", "0.75", "1.0"})
+    public float loadFactor;
+
+    private long[] values;
+    private String[] keys;
+    private String[] missingKeys;
+    private int mask;
+    private int index;
+
+    private HashMapObjectPrimitiveLong<String> primitiveMap;
+    private HashMap<String, Long> boxedMap;
+
+    @Setup
+    public void init() {
+        values = distribution.keys(size, 42L);
+        final long[] missing = distribution.missingKeys(values, size, 4711L);
+        keys = new String[size];
+        missingKeys = new String[size];
+        primitiveMap = new HashMapObjectPrimitiveLong<>(16, loadFactor);
+        boxedMap = new HashMap<>(16, loadFactor);
+        for (int i = 0; i < size; ++i) {
+            keys[i] = Long.toString(values[i]);
+            keys[i].hashCode();         // compute and cache the hash, as for long-living keys
+            missingKeys[i] = Long.toString(missing[i]);
+            missingKeys[i].hashCode();
+            primitiveMap.put(keys[i], values[i]);
+            boxedMap.put(keys[i], values[i]);
+        }
+        mask = Integer.highestOneBit(size) - 1;
+    }
+
+    private int next() {
+        return index = (index + 1) & mask;
+    }
+
+    @Benchmark
+    public Object primitivePut() {
+        final HashMapObjectPrimitiveLong<String> m = new HashMapObjectPrimitiveLong<>(16, loadFactor);
+        for (int i = 0; i < size; ++i)
+            m.put(keys[i], values[i]);
+        return m;
+    }
+
+    @Benchmark
+    public Object boxedPut() {
+        final HashMap<String, Long> m = new HashMap<>(16, loadFactor);
+        for (int i = 0; i < size; ++i)
+            m.put(keys[i], values[i]);  // includes boxing, as in real code
+        return m;
+    }
+
+    @Benchmark
+    public long primitiveGetHit() {
+        return primitiveMap.get(keys[next()]);
+    }
+
+    @Benchmark
+    public long boxedGetHit() {
+        return boxedMap.get(keys[next()]);
+    }
+
+    @Benchmark
+    public long primitiveGetMiss() {
+        return primitiveMap.get(missingKeys[next()]);
+    }
+
+    @Benchmark
+    public Object boxedGetMiss() {
+        return boxedMap.get(missingKeys[next()]);
+    }
+
+    /** Removes an entry and inserts it again, to keep the map size constant. */
+    @Benchmark
+    public long primitiveRemove() {
+        final String key = keys[next()];
+        return primitiveMap.put(key, primitiveMap.remove(key));
+    }
+
+    @Benchmark
+    public Object boxedRemove() {
+        final String key = keys[next()];
+        return boxedMap.put(key, boxedMap.remove(key));
+    }
+
+    @Benchmark
+    public void primitiveIterate(final Blackhole bh) {
+        primitiveMap.forEach((k, v) -> bh.consume(v));
+    }
+
+    @Benchmark
+    public void boxedIterate(final Blackhole bh) {
+        for (final Map.Entry<String, Long> e : boxedMap.entrySet())
+            bh.consume(e.getValue().longValue());
+    }
+}
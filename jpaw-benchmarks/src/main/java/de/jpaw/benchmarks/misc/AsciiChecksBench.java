@@ -0,0 +1,174 @@
+package de.jpaw.benchmarks.misc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import de.jpaw.util.ByteTestsASCII;
+import de.jpaw.util.CharTestsASCII;
+
+// Compares the range based ASCII checks (8 bytes / characters per step) against character by character loops and the regex variants,
+// for typical field sizes (short) as well as larger text blocks (long). All data passes the checks, i.e. the full input is scanned.
+
+//java -jar target/jpaw-benchmarks.jar -i 5 -f 3 -wf 1 -wi 3 ".*AsciiChecksBench.*"
+
+// jdk 17.0.9, single core VM, -i 5 -f 1 -wi 3 -w 1 -r 1
+//Benchmark                                (size)  Mode  Cnt     Score      Error  Units
+//AsciiChecksBench.digitBytesSwar              10  avgt    5     7.481 ±    5.732  ns/op
+//AsciiChecksBench.digitBytesSwar             100  avgt    5    32.307 ±   21.865  ns/op
+//AsciiChecksBench.digitBytesSwar           10000  avgt    5  2453.849 ±  619.842  ns/op
+//AsciiChecksBench.digitStringLoop             10  avgt    5    10.091 ±    0.567  ns/op
+//AsciiChecksBench.digitStringLoop            100  avgt    5    50.684 ±   43.782  ns/op
+//AsciiChecksBench.digitStringLoop          10000  avgt    5  5512.752 ± 1973.458  ns/op
+//AsciiChecksBench.digitStringRange            10  avgt    5     8.034 ±    3.496  ns/op
+//AsciiChecksBench.digitStringRange           100  avgt    5    56.398 ±   18.926  ns/op
+//AsciiChecksBench.digitStringRange         10000  avgt    5  5322.689 ± 2254.168  ns/op
+//AsciiChecksBench.firstNonAsciiBytesLoop      10  avgt    5     7.850 ±    1.182  ns/op
+//AsciiChecksBench.firstNonAsciiBytesLoop     100  avgt    5    44.415 ±   14.032  ns/op
+//AsciiChecksBench.firstNonAsciiBytesLoop   10000  avgt    5  3198.861 ± 1529.476  ns/op
+//AsciiChecksBench.firstNonAsciiBytesSwar      10  avgt    5     3.893 ±    1.279  ns/op
+//AsciiChecksBench.firstNonAsciiBytesSwar     100  avgt    5    18.736 ±    9.696  ns/op
+//AsciiChecksBench.firstNonAsciiBytesSwar   10000  avgt    5  1446.241 ±  389.140  ns/op
+//AsciiChecksBench.printableBytesLoop          10  avgt    5     5.868 ±    0.895  ns/op
+//AsciiChecksBench.printableBytesLoop         100  avgt    5    55.269 ±   34.696  ns/op
+//AsciiChecksBench.printableBytesLoop       10000  avgt    5  5596.928 ± 1388.796  ns/op
+//AsciiChecksBench.printableBytesSwar          10  avgt    5     7.346 ±    3.795  ns/op
+//AsciiChecksBench.printableBytesSwar         100  avgt    5    31.816 ±   10.024  ns/op
+//AsciiChecksBench.printableBytesSwar       10000  avgt    5  2761.152 ±  570.146  ns/op
+//AsciiChecksBench.printableCharsLoop          10  avgt    5     7.727 ±    5.136  ns/op
+//AsciiChecksBench.printableCharsLoop         100  avgt    5    47.442 ±   29.162  ns/op
+//AsciiChecksBench.printableCharsLoop       10000  avgt    5  5396.273 ± 1783.650  ns/op
+//AsciiChecksBench.printableCharsRange         10  avgt    5     9.187 ±    1.190  ns/op
+//AsciiChecksBench.printableCharsRange        100  avgt    5    52.246 ±   16.927  ns/op
+//AsciiChecksBench.printableCharsRange      10000  avgt    5  5360.471 ±  219.304  ns/op
+//AsciiChecksBench.printableStringLoop         10  avgt    5    10.043 ±    1.657  ns/op
+//AsciiChecksBench.printableStringLoop        100  avgt    5    55.806 ±   20.637  ns/op
+//AsciiChecksBench.printableStringLoop      10000  avgt    5  5396.127 ± 1942.566  ns/op
+//AsciiChecksBench.printableStringPattern      10  avgt    5    46.409 ±   17.629  ns/op
+//AsciiChecksBench.printableStringPattern     100  avgt    5    99.603 ±   52.656  ns/op
+//AsciiChecksBench.printableStringPattern   10000  avgt    5  8425.742 ± 3920.926  ns/op
+//AsciiChecksBench.printableStringRange        10  avgt    5    10.474 ±    0.624  ns/op
+//AsciiChecksBench.printableStringRange       100  avgt    5    54.954 ±   17.665  ns/op
+//AsciiChecksBench.printableStringRange     10000  avgt    5  3791.483 ± 3934.562  ns/op
+
+// => the byte array checks are about 2 times faster for long input, and on par for short fields.
+// The character checks cannot load several characters at once. They use the same two-sided comparison as the plain loop
+// and perform within the (large) error bars of it, i.e. they are not faster, but much better than the regex.
+// The String overloads isPrintable(), isDigit() etc. keep their original character by character loops.
+
+@State(value = Scope.Thread)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class AsciiChecksBench {
+    @Param({"10", "100", "10000"})
+    public int size;
+
+    private String text;
+    private String digits;
+    private char[] textChars;
+    private byte[] textBytes;
+    private byte[] digitBytes;
+
+    @Setup
+    public void init() {
+        final StringBuilder t = new StringBuilder(size);
+        final StringBuilder d = new StringBuilder(size);
+        for (int i = 0; i < size; ++i) {
+            t.append((char) (0x20 + (i * 7) % 0x5f));
+            d.append((char) ('0' + i % 10));
+        }
+        text = t.toString();
+        digits = d.toString();
+        textChars = text.toCharArray();
+        textBytes = text.getBytes(StandardCharsets.US_ASCII);
+        digitBytes = digits.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Benchmark
+    public boolean printableBytesLoop() {
+        for (int i = 0; i < textBytes.length; ++i) {
+            if (!ByteTestsASCII.isAsciiPrintable(textBytes[i]))
+                return false;
+        }
+        return true;
+    }
+
+    @Benchmark
+    public boolean printableBytesSwar() {
+        return ByteTestsASCII.isAsciiPrintable(textBytes, 0, textBytes.length);
+    }
+
+    @Benchmark
+    public int firstNonAsciiBytesLoop() {
+        for (int i = 0; i < textBytes.length; ++i) {
+            if (textBytes[i] < 0)
+                return i;
+        }
+        return -1;
+    }
+
+    @Benchmark
+    public int firstNonAsciiBytesSwar() {
+        return ByteTestsASCII.firstNonAscii(textBytes, 0, textBytes.length);
+    }
+
+    @Benchmark
+    public boolean digitBytesSwar() {
+        return ByteTestsASCII.isAllDigits(digitBytes, 0, digitBytes.length);
+    }
+
+    @Benchmark
+    public boolean printableStringLoop() {
+        for (int i = 0; i < text.length(); ++i) {
+            if (!CharTestsASCII.isAsciiPrintable(text.charAt(i)))
+                return false;
+        }
+        return true;
+    }
+
+    @Benchmark
+    public boolean printableStringRange() {
+        return CharTestsASCII.isAsciiPrintable(text);
+    }
+
+    @Benchmark
+    public boolean printableStringPattern() {
+        return CharTestsASCII.isPrintableByPattern(text);
+    }
+
+    @Benchmark
+    public boolean printableCharsLoop() {
+        for (int i = 0; i < textChars.length; ++i) {
+            if (!CharTestsASCII.isAsciiPrintable(textChars[i]))
+                return false;
+        }
+        return true;
+    }
+
+    @Benchmark
+    public boolean printableCharsRange() {
+        return CharTestsASCII.isAsciiPrintable(textChars, 0, textChars.length);
+    }
+
+    @Benchmark
+    public boolean digitStringLoop() {
+        for (int i = 0; i < digits.length(); ++i) {
+            if (!CharTestsASCII.isAsciiDigit(digits.charAt(i)))
+                return false;
+        }
+        return true;
+    }
+
+    @Benchmark
+    public boolean digitStringRange() {
+        return CharTestsASCII.isAllDigits(digits);
+    }
+}
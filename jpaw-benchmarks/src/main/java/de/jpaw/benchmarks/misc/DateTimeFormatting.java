@@ -0,0 +1,98 @@
+package de.jpaw.benchmarks.misc;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import de.jpaw.util.ByteBuilder;
+import de.jpaw.util.FormattersAndParsers;
+
+// Compares the digit by digit timestamp writers and parsers of FormattersAndParsers against DateTimeFormatter.
+
+//java -jar target/jpaw-benchmarks.jar -i 5 -f 3 -wf 1 -wi 3 ".*DateTimeFormatting.*"
+
+// jdk 17.0.9, single core VM, -i 3 -f 1 -wi 2 (noisy)
+//Benchmark                                    Mode  Cnt     Score      Error  Units
+//DateTimeFormatting.formatAppendable          avgt    3   121.195 ±  369.218  ns/op
+//DateTimeFormatting.formatByteBuilder         avgt    3    45.484 ±  132.165  ns/op
+//DateTimeFormatting.formatCharArray           avgt    3    48.389 ±   14.848  ns/op
+//DateTimeFormatting.formatJdk                 avgt    3   548.464 ±  134.897  ns/op
+//DateTimeFormatting.formatJdkToStringBuilder  avgt    3   446.990 ±  261.050  ns/op
+//DateTimeFormatting.parseBytes                avgt    3    64.769 ±  135.122  ns/op
+//DateTimeFormatting.parseCharSequence         avgt    3    64.347 ±   45.992  ns/op
+//DateTimeFormatting.parseJdk                  avgt    3  1229.784 ± 2948.383  ns/op
+
+// => formatting is about 10 times faster than DateTimeFormatter, parsing about 20 times faster than LocalDateTime.parse
+
+@State(value = Scope.Thread)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class DateTimeFormatting {
+    private final LocalDateTime timestamp = LocalDateTime.of(2024, 2, 29, 13, 45, 17, 123000000);
+    private final StringBuilder sb = new StringBuilder(64);
+    private final ByteBuilder bb = new ByteBuilder(64, null);
+    private final char[] chars = new char[64];
+    private String text;
+    private byte[] bytes;
+
+    @Setup
+    public void init() {
+        text = timestamp.toString();
+        bytes = text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Benchmark
+    public String formatJdk() {
+        return DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(timestamp);
+    }
+
+    @Benchmark
+    public Object formatJdkToStringBuilder() {
+        sb.setLength(0);
+        DateTimeFormatter.ISO_LOCAL_DATE_TIME.formatTo(timestamp, sb);
+        return sb;
+    }
+
+    @Benchmark
+    public Object formatAppendable() throws Exception {
+        sb.setLength(0);
+        FormattersAndParsers.appendLocalDateTime(sb, timestamp, true, false, null);
+        return sb;
+    }
+
+    @Benchmark
+    public Object formatByteBuilder() {
+        bb.setLength(0);
+        FormattersAndParsers.appendLocalDateTime(bb, timestamp, true, false, null);
+        return bb;
+    }
+
+    @Benchmark
+    public int formatCharArray() {
+        return FormattersAndParsers.writeLocalDateTime(chars, 0, timestamp, true, false, null);
+    }
+
+    @Benchmark
+    public LocalDateTime parseJdk() {
+        return LocalDateTime.parse(text);
+    }
+
+    @Benchmark
+    public LocalDateTime parseCharSequence() {
+        return FormattersAndParsers.parseLocalDateTime(text, 0, text.length(), false, false, false);
+    }
+
+    @Benchmark
+    public LocalDateTime parseBytes() {
+        return FormattersAndParsers.parseLocalDateTime(bytes, 0, bytes.length, false, false, false);
+    }
+}
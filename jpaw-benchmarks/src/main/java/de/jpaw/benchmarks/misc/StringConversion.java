@@ -13,6 +13,9 @@ import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 
 import de.jpaw.util.ByteArray;
+import de.jpaw.util.ByteBuilder;
+import de.jpaw.util.Cesu8Charset;
+import de.jpaw.util.Cesu8Decoder;
 import de.jpaw.util.Cesu8Encoder;
 
 //java -jar target/jpaw-benchmarks.jar -i 5 -f 5 -wf 3 -wi 3 ".*StringConversion.*"
@@ -27,6 +30,16 @@ import de.jpaw.util.Cesu8Encoder;
 
 // => WEIRD! WHY IS ENCODING VIA Charset SLOWER????????????
 
+// CESU-8 into ByteBuilder / decoder / Charset, jdk 17.0.9, single core VM, -i 3 -f 1 -wi 2 (noisy)
+//Benchmark                                 Mode  Cnt    Score     Error  Units
+//StringConversion.decodeCesu               avgt    3  202.244 ± 161.064  ns/op
+//StringConversion.decodeCesuCharset        avgt    3  222.065 ± 341.702  ns/op
+//StringConversion.encodeCesu               avgt    3  203.644 ± 373.566  ns/op
+//StringConversion.encodeCesu2              avgt    3  201.797 ±  58.662  ns/op
+//StringConversion.encodeCesuCharset        avgt    3  162.181 ± 188.835  ns/op
+//StringConversion.encodeCesuToByteBuilder  avgt    3  157.969 ± 149.833  ns/op
+//StringConversion.withCharset              avgt    3  257.551 ± 241.652  ns/op
+
 @State(value = Scope.Thread)
 @OutputTimeUnit(TimeUnit.NANOSECONDS)
 @BenchmarkMode(Mode.AverageTime)
@@ -35,10 +48,13 @@ public class StringConversion {
     public String utf8Name = "UTF-8";
     public String sampleText = "ksjdhf ssjkdfh sdf sdjkf sdfkjÄ skjfsÜ skdfs kdfhßsdfksjdfhsk € dfhsdklfj";
     public byte[] sampleByteArray = null;
+    public byte[] sampleCesuArray = null;
+    public ByteBuilder target = new ByteBuilder(256, null);
 
     @Setup
     public void doSetup() throws UnsupportedEncodingException {
         sampleByteArray = sampleText.getBytes("UTF-8");
+        sampleCesuArray = Cesu8Encoder.encodeToCesu8(sampleText);
     }
 
     @Benchmark
@@ -69,4 +85,22 @@ public class StringConversion {
     public byte[] encodeCesu2() {
         return Cesu8Encoder.encodeToCesu8Copy(sampleText);
     }
+    @Benchmark
+    public ByteBuilder encodeCesuToByteBuilder() {
+        target.setLength(0);
+        Cesu8Encoder.encodeTo(target, sampleText);
+        return target;
+    }
+    @Benchmark
+    public byte[] encodeCesuCharset() {
+        return sampleText.getBytes(Cesu8Charset.INSTANCE);
+    }
+    @Benchmark
+    public String decodeCesu() {
+        return Cesu8Decoder.decode(sampleCesuArray, 0, sampleCesuArray.length);
+    }
+    @Benchmark
+    public String decodeCesuCharset() {
+        return new String(sampleCesuArray, Cesu8Charset.INSTANCE);
+    }
 }
@@ -0,0 +1,139 @@
+package de.jpaw.fixedpoint.benchmarks;
+
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import de.jpaw.fixedpoint.FixedPointBase;
+import de.jpaw.fixedpoint.types.Hundreds;
+
+//Benchmarks to compare the heap based selection of roundWithErrorDistribution with the previous implementation, which rescanned all elements per unit of difference
+
+//java -jar target/jpaw-fixedpoint-benchmarks.jar -i 3 -f 1 -wi 2 ".*FPErrorDistribution.*"
+
+// jdk 17.0.9, single core VM, -i 3 -f 1 -wi 2 (noisy)
+//Benchmark                     (distribution)  (size)  Mode  Cnt       Score        Error  Units
+//FPErrorDistribution.current           random      10  avgt    3       0.059 ±      0.006  us/op
+//FPErrorDistribution.current           random    1000  avgt    3       5.112 ±      0.541  us/op
+//FPErrorDistribution.current           random  100000  avgt    3    1298.060 ±    168.454  us/op
+//FPErrorDistribution.current           skewed      10  avgt    3       0.079 ±      0.006  us/op
+//FPErrorDistribution.current           skewed    1000  avgt    3      11.236 ±      1.311  us/op
+//FPErrorDistribution.current           skewed  100000  avgt    3    5017.212 ±    427.184  us/op
+//FPErrorDistribution.previous          random      10  avgt    3       0.041 ±      0.025  us/op
+//FPErrorDistribution.previous          random    1000  avgt    3       5.912 ±      0.590  us/op
+//FPErrorDistribution.previous          random  100000  avgt    3    3284.248 ±     74.422  us/op
+//FPErrorDistribution.previous          skewed      10  avgt    3       0.077 ±      0.013  us/op
+//FPErrorDistribution.previous          skewed    1000  avgt    3     105.361 ±      3.524  us/op
+//FPErrorDistribution.previous          skewed  100000  avgt    3  896030.384 ± 187640.086  us/op
+// => the quadratic behaviour is gone (factor 180 for 100000 skewed elements), small arrays perform the same.
+
+// current vs. intoArray (result written into a provided array), measured in the same (noisier) run, not comparable to the numbers above
+//Benchmark                      (distribution)  (size)  Mode  Cnt      Score       Error  Units
+//FPErrorDistribution.current            random      10  avgt    3      0.149 ±     0.095  us/op
+//FPErrorDistribution.current            random    1000  avgt    3     11.510 ±    19.368  us/op
+//FPErrorDistribution.current            random  100000  avgt    3   2590.527 ±  2625.466  us/op
+//FPErrorDistribution.current            skewed      10  avgt    3      0.193 ±     0.218  us/op
+//FPErrorDistribution.current            skewed    1000  avgt    3     24.621 ±    61.827  us/op
+//FPErrorDistribution.current            skewed  100000  avgt    3   9321.087 ± 12927.949  us/op
+//FPErrorDistribution.intoArray          random      10  avgt    3      0.123 ±     0.107  us/op
+//FPErrorDistribution.intoArray          random    1000  avgt    3      9.416 ±    18.034  us/op
+//FPErrorDistribution.intoArray          random  100000  avgt    3   2159.410 ±  1825.694  us/op
+//FPErrorDistribution.intoArray          skewed      10  avgt    3      0.178 ±     0.361  us/op
+//FPErrorDistribution.intoArray          skewed    1000  avgt    3     22.393 ±    69.012  us/op
+//FPErrorDistribution.intoArray          skewed  100000  avgt    3  10790.518 ± 10508.329  us/op
+// => both variants divide every element once. Reusing the result array saves the allocation, the time is the same within the error.
+
+@State(value = Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class FPErrorDistribution {
+    @Param({ "10", "1000", "100000" })
+    public int size;
+
+    @Param({ "random", "skewed" })
+    public String distribution;     // skewed: all elements are rounded up, the difference is about a third of the size
+
+    long[] unscaled;        // allocation to positions, with 5 decimals, to be rounded to 2 decimals
+    long[] work;
+
+    @Setup
+    public void setUp() {
+        final Random rnd = new Random(777L);
+        unscaled = new long[size + 1];
+        work = new long[size + 1];
+        long sum = 0L;
+        for (int i = 1; i <= size; ++i) {
+            unscaled[i] = distribution.equals("random") ? rnd.nextInt(10_000_000) : 1_500 + rnd.nextInt(400);
+            sum += unscaled[i];
+        }
+        unscaled[0] = sum;
+    }
+
+    @Benchmark
+    public long[] current() {
+        return Hundreds.ZERO.roundWithErrorDistribution(unscaled, 5);
+    }
+
+    @Benchmark
+    public long[] intoArray() {
+        FixedPointBase.roundWithErrorDistribution(unscaled, work, 5, 2);
+        return work;
+    }
+
+    @Benchmark
+    public long[] previous() {
+        return previousImplementation(unscaled, 3);
+    }
+
+    private static long[] previousImplementation(final long[] unscaledAmounts, final int scaleDiff) {
+        final int n = unscaledAmounts.length;
+        final long[] scaledAmounts = new long[n];
+        final long factor = FixedPointBase.getPowerOfTen(scaleDiff);
+        long sum = 0;
+        for (int i = 0; i < n; ++i) {
+            scaledAmounts[i] = FixedPointBase.divide_longs(unscaledAmounts[i], factor, RoundingMode.HALF_EVEN);
+            if (i > 0)
+                sum += scaledAmounts[i];
+        }
+        long diff = scaledAmounts[0] - sum;
+        if (diff != 0) {
+            final long adjustment = diff > 0 ? 1 : -1;
+            final double[] relativeError = new double[n];
+            for (int i = 0; i < n; ++i) {
+                final long thisDiff = unscaledAmounts[i] - scaledAmounts[i] * factor;
+                relativeError[i] = (thisDiff * adjustment * (i > 0 ? 1 : -1) > 0)
+                        ? Math.abs(
+                                scaledAmounts[i] == 0
+                                    ? (double)unscaledAmounts[i] / (double)factor
+                                    : (double)thisDiff / (double)unscaledAmounts[i])
+                        : 0.0;
+            }
+            while (diff != 0) {
+                double maxError = 0.0;
+                int pickedIndex = -1;
+                for (int i = 0; i < n; ++i) {
+                    if (relativeError[i] > maxError) {
+                        maxError = relativeError[i];
+                        pickedIndex = i;
+                    }
+                }
+                relativeError[pickedIndex] = 0.0;
+                if (pickedIndex > 0)
+                    scaledAmounts[pickedIndex] += adjustment;
+                else
+                    scaledAmounts[pickedIndex] -= adjustment;
+                diff -= adjustment;
+            }
+        }
+        return scaledAmounts;
+    }
+}
@@ -0,0 +1,88 @@
+package de.jpaw.fixedpoint.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.jpaw.fixedpoint.types.MicroUnits;
+
+//Benchmarks to measure the effect of the cache of small integral instances (system properties jpaw.fixedpoint.cache.low / high)
+
+//java -jar target/jpaw-fixedpoint-benchmarks.jar -i 3 -f 1 -wi 2 -prof gc ".*FPInstanceCache.*"
+
+// jdk 17.0.9, single core VM, -i 3 -f 1 -wi 2 -w 1 -r 1 (noisy), time per value, default (only ZERO and ONE cached)
+//Benchmark                                           Mode  Cnt      Score      Error   Units
+//FPInstanceCache.addCached                           avgt    3      3.085 ±    2.928   ns/op
+//FPInstanceCache.addCached:gc.alloc.rate.norm        avgt    3     23.952 ±    0.001    B/op
+//FPInstanceCache.ofFractional                        avgt    3      2.458 ±    2.157   ns/op
+//FPInstanceCache.ofFractional:gc.alloc.rate.norm     avgt    3     24.000 ±    0.001    B/op
+//FPInstanceCache.valueOfCached                       avgt    3      2.556 ±    1.286   ns/op
+//FPInstanceCache.valueOfCached:gc.alloc.rate.norm    avgt    3     23.952 ±    0.001    B/op
+//FPInstanceCache.valueOfUncached                     avgt    3      2.444 ±    1.346   ns/op
+//FPInstanceCache.valueOfUncached:gc.alloc.rate.norm  avgt    3     24.000 ±    0.001    B/op
+
+// same with -jvmArgsAppend "-Djpaw.fixedpoint.cache.low=-128 -Djpaw.fixedpoint.cache.high=1024"
+//FPInstanceCache.addCached                           avgt    3      8.101 ±    0.805   ns/op
+//FPInstanceCache.addCached:gc.alloc.rate.norm        avgt    3     ≈ 10⁻⁴              B/op
+//FPInstanceCache.ofFractional                        avgt    3      3.166 ±    3.035   ns/op
+//FPInstanceCache.ofFractional:gc.alloc.rate.norm     avgt    3     24.000 ±    0.001    B/op
+//FPInstanceCache.valueOfCached                       avgt    3      2.782 ±    0.171   ns/op
+//FPInstanceCache.valueOfCached:gc.alloc.rate.norm    avgt    3     ≈ 10⁻⁴              B/op
+//FPInstanceCache.valueOfUncached                     avgt    3      2.554 ±    0.867   ns/op
+//FPInstanceCache.valueOfUncached:gc.alloc.rate.norm  avgt    3     24.000 ±    0.001    B/op
+// => with the wider range, cached values are allocation free, but the division and the extra load of the cached instance
+//    add latency to chains of dependent operations. Therefore the wider range is opt-in, for allocation sensitive workloads only.
+
+@State(value = Scope.Thread)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OperationsPerInvocation(FPInstanceCache.SIZE)
+public class FPInstanceCache {
+    static final int SIZE = 1_000;
+    private static final MicroUnits QUANTITY = MicroUnits.valueOf(2);
+
+    /** Integral values within the cache range, if enabled. */
+    @Benchmark
+    public void valueOfCached(final Blackhole bh) {
+        for (int i = 0; i < SIZE; ++i) {
+            bh.consume(MicroUnits.valueOf(i));
+        }
+    }
+
+    /** Integral values outside of the cache range. */
+    @Benchmark
+    public void valueOfUncached(final Blackhole bh) {
+        for (int i = 0; i < SIZE; ++i) {
+            bh.consume(MicroUnits.valueOf(i + 100_000));
+        }
+    }
+
+    /** Values with fractional digits, which are never cached. */
+    @Benchmark
+    public void ofFractional(final Blackhole bh) {
+        for (int i = 0; i < SIZE; ++i) {
+            bh.consume(MicroUnits.of(i * 1_000_000L + 1L));
+        }
+    }
+
+    /** Arithmetic with results within the cache range, such as accumulated quantities. */
+    @Benchmark
+    public void addCached(final Blackhole bh) {
+        MicroUnits sum = MicroUnits.ZERO;
+        for (int i = 0; i < SIZE / 2; ++i) {
+            sum = sum.add(QUANTITY);
+            bh.consume(sum);
+        }
+        for (int i = 0; i < SIZE / 2; ++i) {
+            sum = sum.subtract(QUANTITY);
+            bh.consume(sum);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package de.jpaw.fixedpoint.benchmarks;
 
 import java.io.UnsupportedEncodingException;
+import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.concurrent.TimeUnit;
 
@@ -15,6 +16,8 @@ import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.infra.Blackhole;
 
+import de.jpaw.fixedpoint.FixedPointMultDiv;
+import de.jpaw.fixedpoint.FixedPointNative;
 import de.jpaw.fixedpoint.types.MicroUnits;
 import de.jpaw.fixedpoint.types.MilliUnits;
 
@@ -59,6 +62,14 @@ import de.jpaw.fixedpoint.types.MilliUnits;
 //FPMult.roundNot                  avgt    9   5.693 ± 0.022  ns/op   15% slower
 //FPMult.roundSlow                 avgt    9  15.516 ± 0.125  ns/op   10% better
 
+// 128 bit intermediate products (multDiv128*), jdk 17.0.9, single core VM, -i 3 -f 1 -wi 2 (noisy)
+//java -Djava.library.path=../jpaw-fixedpoint-core/target/lib -jar target/jpaw-fixedpoint-benchmarks.jar -i 3 -f 1 -wi 2 ".*FPMult.multDiv128.*"
+//Benchmark                          Mode  Cnt    Score    Error  Units
+//FPMult.multDiv128BigDecimal        avgt    3  116.474 ± 47.281  ns/op
+//FPMult.multDiv128Native            avgt    3   25.024 ± 10.924  ns/op
+//FPMult.multDiv128PureJava          avgt    3   16.011 ± 14.314  ns/op
+// => the pure Java fallback is 7 times faster than BigDecimal, and even faster than the JNI call
+
 @State(value = Scope.Thread)
 @OutputTimeUnit(TimeUnit.NANOSECONDS)
 @BenchmarkMode(Mode.AverageTime)
@@ -69,6 +80,11 @@ public class FPMult {
     long[] testNums = {  0L, 1L, 237648264832L, 25L, -444L, -723428748764827364L, 87264L, 242987492L, -55558963L, 87326487543L };
     MicroUnits[] testMicros = new MicroUnits[10];
     MilliUnits[] testMillis = new MilliUnits[10];
+    // operands whose products exceed 64 bits, but the results scaled by 10^9 do not
+    long[] bigA = { 3_037_000_500L, -9_876_543_210_123L, 123_456_789_012_345L, 4_611_686_018_427L, -77_777_777_777_777L,
+                    999_999_999_999_999L, 18_446_744_073L, -5_000_000_000_005L, 271_828_182_845_904L, 314_159_265_358_979L };
+    long[] bigB = { 3_037_000_500L, 1_234_567_890_123L, -98_765_432_109L, 2_000_000_000_000L, 55_555_555_555L,
+                    -999_999_999_999L, 18_446_744_073_709L, 5_000_000_000_005L, -31_415_926_535L, 27_182_818_284L };
 
     @Setup
     public void setUp() throws UnsupportedEncodingException {
@@ -122,6 +138,29 @@ public class FPMult {
         }
     }
 
+    @Benchmark
+    public void multDiv128Native(Blackhole bh) {
+        // uses the JNI library if it has been loaded, else the pure Java implementation
+        for (int i = 0; i < bigA.length; ++i) {
+            bh.consume(FixedPointNative.mult_div(bigA[i], bigB[i], 1_000_000_000L, RoundingMode.HALF_EVEN));
+        }
+    }
+
+    @Benchmark
+    public void multDiv128PureJava(Blackhole bh) {
+        for (int i = 0; i < bigA.length; ++i) {
+            bh.consume(FixedPointMultDiv.multdiv128(bigA[i], bigB[i], 1_000_000_000L, RoundingMode.HALF_EVEN));
+        }
+    }
+
+    @Benchmark
+    public void multDiv128BigDecimal(Blackhole bh) {
+        // the former fallback implementation
+        for (int i = 0; i < bigA.length; ++i) {
+            bh.consume(BigDecimal.valueOf(bigA[i]).multiply(BigDecimal.valueOf(bigB[i])).divide(BigDecimal.valueOf(1_000_000_000L), RoundingMode.HALF_EVEN).longValue());
+        }
+    }
+
     @Benchmark
     public void roundFast(Blackhole bh) {
         for (int i = 0; i < testNums.length; ++i) {
@@ -0,0 +1,290 @@
+package de.jpaw.fixedpoint;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Mutable accumulator for fixed point values of a fixed scale, with a 128 bit running sum.
+ * Values of any scale and raw mantissas can be added, subtracted, or multiplied and added, without creating objects.
+ * Due to the 128 bit headroom, intermediate sums may exceed the range of a long. Overflow is reported only when the
+ * result is extracted, which converts the sum to any fixed point type, rounding as requested.
+ *
+ * Instances of this class are not thread safe. For concurrent accumulation, see {@link StripedFixedPointAccumulator}.
+ */
+public final class FixedPointAccumulator {
+    private static final BigInteger TWO_TO_64 = BigInteger.ONE.shiftLeft(64);
+
+    private final int scale;
+    private long high;              // upper 64 bits of the sum, in two's complement
+    private long low;               // lower 64 bits of the sum
+    private boolean overflow;       // sticky flag, set if the sum exceeded 128 bits at any time
+    private long magnitudeHigh;     // work area for absolute values of intermediate results
+    private long magnitudeLow;
+
+    /** Creates an accumulator with a sum of 0, for the given scale (0..18). */
+    public FixedPointAccumulator(final int scale) {
+        if (scale < 0 || scale > 18) {
+            throw new IllegalArgumentException("Unsupported scale " + scale);
+        }
+        this.scale = scale;
+    }
+
+    /** Get the number of decimals of the sum. */
+    public int scale() {
+        return scale;
+    }
+
+    /** Sets the sum to 0. */
+    public void reset() {
+        high = 0L;
+        low = 0L;
+        overflow = false;
+    }
+
+    /** Returns true if the sum is 0. */
+    public boolean isZero() {
+        return !overflow && (high | low) == 0L;
+    }
+
+    /** Returns true if the sum has exceeded the 128 bit range. Extraction of the result will throw an ArithmeticException then. */
+    public boolean hasOverflowed() {
+        return overflow;
+    }
+
+    private void add128(final long h, final long l) {
+        final long newLow = low + l;
+        final long highIncrement = h + (Long.compareUnsigned(newLow, low) < 0 ? 1L : 0L);
+        final long newHigh = high + highIncrement;
+        if (((high ^ newHigh) & (highIncrement ^ newHigh)) < 0L) {
+            overflow = true;
+        }
+        high = newHigh;
+        low = newLow;
+    }
+
+    /** Adds the value in the work area, with the given sign. */
+    private void addMagnitude(final boolean negative) {
+        if (negative) {
+            final long l = -magnitudeLow;
+            add128(l == 0L ? -magnitudeHigh : ~magnitudeHigh, l);
+        } else {
+            add128(magnitudeHigh, magnitudeLow);
+        }
+    }
+
+    /** Divides the value in the work area by the divisor, and returns the remainder. */
+    private long divideMagnitude(final long divisor) {
+        final long quotientHigh = Long.divideUnsigned(magnitudeHigh, divisor);
+        final long remainderHigh = magnitudeHigh - quotientHigh * divisor;
+        final long quotientLow = remainderHigh == 0L
+          ? Long.divideUnsigned(magnitudeLow, divisor)
+          : FixedPointMultDiv.divideUnsigned128(remainderHigh, magnitudeLow, divisor);
+        final long remainder = magnitudeLow - quotientLow * divisor;
+        magnitudeHigh = quotientHigh;
+        magnitudeLow = quotientLow;
+        return remainder;
+    }
+
+    /** Multiplies the value in the work area by a positive factor. Returns false in case of overflow. */
+    private boolean multiplyMagnitude(final long factor) {
+        final long newHigh = magnitudeHigh * factor;
+        if (Math.multiplyHigh(magnitudeHigh, factor) != 0L || newHigh < 0L) {
+            return false;
+        }
+        // unsigned upper half of magnitudeLow * factor
+        final long carry = Math.multiplyHigh(magnitudeLow, factor) + ((magnitudeLow >> 63) & factor);
+        magnitudeLow *= factor;
+        magnitudeHigh = newHigh + carry;
+        return magnitudeHigh >= 0L;
+    }
+
+    /** Rounds the value in the work area, according to the class of the discarded remainder. */
+    private void roundMagnitude(final int remainderClass, final boolean negative, final RoundingMode rounding) {
+        if (FixedPointMultDiv.roundingIncrement(magnitudeLow, remainderClass, negative, rounding) != 0L) {
+            if (++magnitudeLow == 0L) {
+                ++magnitudeHigh;
+            }
+        }
+    }
+
+    /** Loads the absolute value of a 128 bit number into the work area, and returns its sign. */
+    private boolean loadMagnitude(final long h, final long l) {
+        if (h < 0L) {
+            magnitudeLow = -l;
+            magnitudeHigh = magnitudeLow == 0L ? -h : ~h;
+            return true;
+        }
+        magnitudeHigh = h;
+        magnitudeLow = l;
+        return false;
+    }
+
+    /** Adds a mantissa of the same scale as the accumulator. */
+    public void add(final long mantissa) {
+        add128(mantissa >> 63, mantissa);
+    }
+
+    /** Subtracts a mantissa of the same scale as the accumulator. */
+    public void subtract(final long mantissa) {
+        final long l = -mantissa;
+        add128(l == 0L ? 0L : ~(mantissa >> 63), l);
+    }
+
+    /** Adds a mantissa of any scale. If the scale exceeds the scale of the accumulator, the value is rounded first. */
+    public void add(final long mantissa, final int mantissaScale, final RoundingMode rounding) {
+        if (mantissaScale > scale) {
+            add(FixedPointPowerOfTen.divide(mantissa, mantissaScale - scale, rounding));
+        } else {
+            final long factor = FixedPointBase.getPowerOfTen(scale - mantissaScale);
+            add128(Math.multiplyHigh(mantissa, factor), mantissa * factor);
+        }
+    }
+
+    /** Subtracts a mantissa of any scale. If the scale exceeds the scale of the accumulator, the value is rounded first. */
+    public void subtract(final long mantissa, final int mantissaScale, final RoundingMode rounding) {
+        if (mantissaScale > scale) {
+            subtract(FixedPointPowerOfTen.divide(mantissa, mantissaScale - scale, rounding));
+        } else {
+            final long factor = FixedPointBase.getPowerOfTen(scale - mantissaScale);
+            addMagnitude(!loadMagnitude(Math.multiplyHigh(mantissa, factor), mantissa * factor));
+        }
+    }
+
+    /** Adds a fixed point value. Throws an ArithmeticException if its scale exceeds the scale of the accumulator, and rounding would be required. */
+    public void add(final FixedPointBase<?> value) {
+        add(value.getMantissa(), value.scale(), RoundingMode.UNNECESSARY);
+    }
+
+    /** Adds a fixed point value. If its scale exceeds the scale of the accumulator, the value is rounded first. */
+    public void add(final FixedPointBase<?> value, final RoundingMode rounding) {
+        add(value.getMantissa(), value.scale(), rounding);
+    }
+
+    /** Subtracts a fixed point value. Throws an ArithmeticException if its scale exceeds the scale of the accumulator, and rounding would be required. */
+    public void subtract(final FixedPointBase<?> value) {
+        subtract(value.getMantissa(), value.scale(), RoundingMode.UNNECESSARY);
+    }
+
+    /** Subtracts a fixed point value. If its scale exceeds the scale of the accumulator, the value is rounded first. */
+    public void subtract(final FixedPointBase<?> value, final RoundingMode rounding) {
+        subtract(value.getMantissa(), value.scale(), rounding);
+    }
+
+    /** Adds the sum of another accumulator of the same scale. */
+    public void add(final FixedPointAccumulator other) {
+        if (other.scale != scale) {
+            throw new IllegalArgumentException("Cannot add an accumulator of scale " + other.scale + " to one of scale " + scale);
+        }
+        add128(other.high, other.low);
+        overflow |= other.overflow;
+    }
+
+    /**
+     * Adds the product of two mantissas, whose product has the given scale (the sum of the scales of both factors).
+     * The product is computed with 128 bits. If its scale exceeds the scale of the accumulator, the product is rounded first.
+     */
+    public void multiplyAdd(final long mantissaA, final long mantissaB, final int productScale, final RoundingMode rounding) {
+        final long productHigh = Math.multiplyHigh(mantissaA, mantissaB);
+        final long productLow = mantissaA * mantissaB;
+        if (productScale == scale) {
+            add128(productHigh, productLow);
+            return;
+        }
+        final boolean negative = loadMagnitude(productHigh, productLow);
+        if (productScale < scale) {
+            if (!multiplyMagnitude(FixedPointBase.getPowerOfTen(scale - productScale))) {
+                overflow = true;
+                return;
+            }
+        } else {
+            final int digitsToScale = productScale - scale;
+            final int remainderClass;
+            if (digitsToScale <= 18) {
+                final long divisor = FixedPointBase.getPowerOfTen(digitsToScale);
+                remainderClass = FixedPointMultDiv.remainderClass(divideMagnitude(divisor), divisor);
+            } else {
+                // two steps: the remainder of the first division only matters if the second one is 0 or exactly half
+                final boolean lowerDigitsZero = divideMagnitude(FixedPointBase.getPowerOfTen(digitsToScale - 18)) == 0L;
+                final long divisor = FixedPointBase.getPowerOfTen(18);
+                final int upperClass = FixedPointMultDiv.remainderClass(divideMagnitude(divisor), divisor);
+                if (lowerDigitsZero) {
+                    remainderClass = upperClass;
+                } else if (upperClass == FixedPointMultDiv.REMAINDER_ZERO) {
+                    remainderClass = FixedPointMultDiv.REMAINDER_BELOW_HALF;
+                } else if (upperClass == FixedPointMultDiv.REMAINDER_HALF) {
+                    remainderClass = FixedPointMultDiv.REMAINDER_ABOVE_HALF;
+                } else {
+                    remainderClass = upperClass;
+                }
+            }
+            roundMagnitude(remainderClass, negative, rounding);
+        }
+        addMagnitude(negative);
+    }
+
+    /** Adds the product of two fixed point values. If the scale of the product exceeds the scale of the accumulator, the product is rounded first. */
+    public void multiplyAdd(final FixedPointBase<?> a, final FixedPointBase<?> b, final RoundingMode rounding) {
+        multiplyAdd(a.getMantissa(), b.getMantissa(), a.scale() + b.scale(), rounding);
+    }
+
+    /** Adds the product of a fixed point value and an integral factor, for example a unit price and a quantity. */
+    public void multiplyAdd(final FixedPointBase<?> a, final long factor, final RoundingMode rounding) {
+        multiplyAdd(a.getMantissa(), factor, a.scale(), rounding);
+    }
+
+    /**
+     * Returns the mantissa of the sum for the given scale (0..18), rounded if required.
+     *
+     * @throws ArithmeticException if the sum does not fit into a long of the given scale,
+     *   or if rounding would be required, but the rounding mode is UNNECESSARY
+     */
+    public long getMantissa(final int targetScale, final RoundingMode rounding) {
+        if (overflow) {
+            throw new ArithmeticException("Overflow of the 128 bit sum");
+        }
+        final boolean negative = loadMagnitude(high, low);
+        if (targetScale > scale) {
+            if (!multiplyMagnitude(FixedPointBase.getPowerOfTen(targetScale - scale))) {
+                throw new ArithmeticException("Sum does not fit into a long of scale " + targetScale);
+            }
+        } else if (targetScale < scale) {
+            final long divisor = FixedPointBase.getPowerOfTen(scale - targetScale);
+            roundMagnitude(FixedPointMultDiv.remainderClass(divideMagnitude(divisor), divisor), negative, rounding);
+        }
+        if (magnitudeHigh != 0L || (magnitudeLow < 0L && !(negative && magnitudeLow == Long.MIN_VALUE))) {
+            throw new ArithmeticException("Sum does not fit into a long of scale " + targetScale);
+        }
+        return negative ? -magnitudeLow : magnitudeLow;
+    }
+
+    /** Returns the mantissa of the sum, in the scale of the accumulator. Throws an ArithmeticException if the sum does not fit into a long. */
+    public long getMantissa() {
+        return getMantissa(scale, RoundingMode.UNNECESSARY);
+    }
+
+    /**
+     * Returns the sum as a fixed point value of the same type and scale as the provided instance, rounded if required.
+     * Any instance of the desired type can be passed, for example <code>MicroUnits.ZERO</code>.
+     */
+    public <CLASS extends FixedPointBase<CLASS>> CLASS get(final CLASS prototype, final RoundingMode rounding) {
+        return prototype.newInstanceOf(getMantissa(prototype.scale(), rounding));
+    }
+
+    /** Returns the exact sum as a BigDecimal, which also works for sums exceeding the range of a long. */
+    public BigDecimal toBigDecimal() {
+        if (overflow) {
+            throw new ArithmeticException("Overflow of the 128 bit sum");
+        }
+        BigInteger lowPart = BigInteger.valueOf(low);
+        if (low < 0L) {
+            lowPart = lowPart.add(TWO_TO_64);
+        }
+        return new BigDecimal(BigInteger.valueOf(high).shiftLeft(64).add(lowPart), scale);
+    }
+
+    @Override
+    public String toString() {
+        return overflow ? "(overflow)" : toBigDecimal().toPlainString();
+    }
+}
@@ -31,6 +31,18 @@ public abstract class FixedPointBase<CLASS extends FixedPointBase<CLASS>> extend
      **/
     public static boolean outputToStringMinimized = true;  // if false, all decimals will be printed
 
+    /**
+     * Range of integral values for which each type with a fixed scale keeps canonical instances, similar to <code>Long.valueOf()</code>.
+     * The range is configured by the system properties <code>jpaw.fixedpoint.cache.low</code> and <code>jpaw.fixedpoint.cache.high</code>.
+     * It always includes 0 and 1, and is limited to values which can be represented with 15 decimals.
+     * By default, only 0 and 1 are cached. A wider range avoids allocations for small integral values, but costs a division
+     * for every created instance within the range, which is slower for chains of arithmetic operations (see the FPInstanceCache benchmark).
+     **/
+    protected static final int CACHE_LOW  = Math.max(Math.min(Integer.getInteger("jpaw.fixedpoint.cache.low",  0), 0), -9223);
+    protected static final int CACHE_HIGH = Math.min(Math.max(Integer.getInteger("jpaw.fixedpoint.cache.high", 1), 1),  9223);
+    /** True if values other than 0 and 1 are cached. A constant for the JIT, therefore the default configuration has no overhead. */
+    protected static final boolean CACHE_ENABLED = CACHE_LOW < 0 || CACHE_HIGH > 1;
+
     /** Map to convert rounding mode for negated numbers. */
     private static final EnumMap<RoundingMode, RoundingMode> ROUNDING_MODE_MAPPING = new EnumMap<>(RoundingMode.class);
     static {
@@ -44,10 +56,6 @@ public abstract class FixedPointBase<CLASS extends FixedPointBase<CLASS>> extend
         ROUNDING_MODE_MAPPING.put(RoundingMode.HALF_EVEN, RoundingMode.HALF_EVEN);
     }
 
-    private static final char[] DIGITS = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9' };
-    private static final int[] INT_POWERS_OF_TEN = {
-            1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000, 1_000_000_000
-    };
     protected static final long[] POWERS_OF_TEN = {
             1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000, 1_000_000_000,
             10000000000L,
@@ -170,34 +178,6 @@ public abstract class FixedPointBase<CLASS extends FixedPointBase<CLASS>> extend
         return Math.abs(mantissa - integralDigits * scale);
     }
 
-    // only called for digits != 0 && scale > 0
-    private static void appendFraction(final StringBuilder sb, int scale, int digits, final int minDigits) {
-        final int maxScaleLeft = scale - minDigits;
-        do {
-            final int nextPower = INT_POWERS_OF_TEN[--scale];
-            final int nextDigit = digits / nextPower;
-            sb.append(DIGITS[nextDigit]);
-            digits -= nextDigit * nextPower;
-        } while (digits != 0);  // replace condition by 'scale > 0' to get full length of fractional digits
-        while (scale > maxScaleLeft) {
-            sb.append('0');
-            --scale;
-        }
-    }
-    private static void appendFraction(final StringBuilder sb, int scale, long digits, final int minDigits) {
-        final int maxScaleLeft = scale - minDigits;
-        do {
-            final long nextPower = POWERS_OF_TEN[--scale];
-            final long nextDigit = digits / nextPower;
-            sb.append(DIGITS[(int) nextDigit]);
-            digits -= nextDigit * nextPower;
-        } while (digits != 0L);  // replace condition by 'scale > 0' to get full length of fractional digits
-        while (scale > maxScaleLeft) {
-            sb.append('0');
-            --scale;
-        }
-    }
-
     /**
      * Appends a separately provided mantissa in a human readable form to the provided StringBuilder, based on settings of a reference number (this).
      * This method is also used by external classes.
@@ -205,33 +185,14 @@ public abstract class FixedPointBase<CLASS extends FixedPointBase<CLASS>> extend
     public static void append(final StringBuilder sb, final long mantissa, final int scale) {
         append(sb, mantissa, scale, 0);
     }
-    public static void append(final StringBuilder sb, long mantissa, final int scale, final int minDigits) {
+    public static void append(final StringBuilder sb, final long mantissa, final int scale, final int minDigits) {
         // straightforward implementation discarded due to too much GC overhead (construction of a temporary BigDecimal)
         // return BigDecimal.valueOf(mantissa, scale()).toPlainString();
         // version with double not considered due to precision loss (mantissa of a double is just 15 digits, we want 18)
         if (scale == 0) {
             sb.append(mantissa);
         } else {
-            if (mantissa < 0) {
-                // this code is required to ensure output of sign for negative numbers between -1 and 0 (integral portion 0).
-                sb.append('-');
-                mantissa = -mantissa;
-            }
-            // separate the digits in a way that the fractional ones are not negative
-            final long ten2scale = POWERS_OF_TEN[scale];
-            final long integralDigits = mantissa / ten2scale;
-            final long decimalDigits = Math.abs(mantissa - integralDigits * ten2scale);
-            sb.append(integralDigits);
-            // conditional append of fractional part
-            if (minDigits > 0 || decimalDigits != 0L) {
-                sb.append('.');
-                if (decimalDigits <= 999_999_999) {
-                    // max 9 digits: do it with integers, to avoid costly 6 bit divisions
-                    appendFraction(sb, scale, (int)decimalDigits, minDigits);
-                } else {
-                    appendFraction(sb, scale, decimalDigits, minDigits);
-                }
-            }
+            FixedPointFormatter.append(sb, mantissa, scale, minDigits, FixedPointFormatter.NO_GROUPING);
         }
     }
 
@@ -295,44 +256,14 @@ public abstract class FixedPointBase<CLASS extends FixedPointBase<CLASS>> extend
      * but an ArithmeticException will be raised if there are more significant digits than allowed, i.e. no rounding is allowed.
      *
      * The method should be final, because it is also used as a constructor subrountine.
+     * See {@link FixedPointParser} for parsers which work on ranges of character sequences or byte arrays, and support rounding.
      *
      * @param src  - the input string
      * @param targetScale - the number of digits the result will be scaled for.
      * @return the mantissa in the specified scale
      */
     protected static final long parseMantissa(final String src, final int targetScale) {
-        final int indexOfDecimalPoint = src.indexOf('.');
-        if (indexOfDecimalPoint < 0) {
-            // no point included, easy case, integral number
-            return Long.parseLong(src) * POWERS_OF_TEN[targetScale];
-        } else {
-            // parse the integral part, then the fractional part. Support special case to capture -.4 or +.4 (Long.parse("-") won't work!)
-            final long integralPart = (
-                    indexOfDecimalPoint == 1 && (src.charAt(0) == '-' || src.charAt(0) == '+'))
-                    ? 0
-                    : Long.parseLong(src.substring(0, indexOfDecimalPoint)) * POWERS_OF_TEN[targetScale];
-            final int decimalDigitsFound = src.length() - indexOfDecimalPoint - 1;
-            if (decimalDigitsFound == 0) {   // the "1." case => same as integral case
-                return integralPart;
-            }
-            final String fraction = src.substring(indexOfDecimalPoint + 1);
-            if (fraction.charAt(0) == '-' || fraction.charAt(0) == '+')
-                throw new NumberFormatException("Extra sign found at start of fractional digits");
-            long fractionalPart = Long.parseLong(fraction);  // parseUnsignedLong still allows a leading plus sign
-            // apply the sign to the fractional part. checking integralPart won't work here, because that may be "-0"
-            if (src.charAt(0) == '-')
-                fractionalPart = -fractionalPart;
-            final int fractionalDigitsDiff = targetScale - fraction.length();
-            if (fractionalDigitsDiff >= 0) {
-                // no rounding required
-                return integralPart + fractionalPart * POWERS_OF_TEN[fractionalDigitsDiff];
-            } else {
-                // if we have too may significant digits, throw an Exception
-                if (fractionalPart % POWERS_OF_TEN[-fractionalDigitsDiff] != 0)
-                    throw new NumberFormatException("Too many significant fractional digits specified: " + src + ", allowed: " + targetScale);
-                return integralPart + fractionalPart / POWERS_OF_TEN[-fractionalDigitsDiff];
-            }
-        }
+        return FixedPointParser.parseMantissa(src, targetScale);
     }
 
     public static final long mantissaFor(final String src, final int targetScale) {
@@ -355,14 +286,14 @@ public abstract class FixedPointBase<CLASS extends FixedPointBase<CLASS>> extend
             return currentMantissa * POWERS_OF_TEN[toMultiplyWithExponent];
         } else {
             if (!allowRounding) {
-                if (toMultiplyWithExponent < -18 || currentMantissa % POWERS_OF_TEN[-toMultiplyWithExponent] != 0L) {
+                if (toMultiplyWithExponent < -18 || FixedPointPowerOfTen.remainder(currentMantissa, -toMultiplyWithExponent) != 0L) {
                     throw new ArithmeticException("Rounding required but not allowed");
                 }
             }
             if (toMultiplyWithExponent < -18) {
                 return 0L; // underflow
             }
-            return currentMantissa / POWERS_OF_TEN[-toMultiplyWithExponent];
+            return FixedPointPowerOfTen.divide(currentMantissa, -toMultiplyWithExponent);
         }
     }
 
@@ -444,46 +375,7 @@ public abstract class FixedPointBase<CLASS extends FixedPointBase<CLASS>> extend
      */
     @Override
     public int compareTo(final FixedPointBase<?> that) {
-        // first, tackle the case of same scale, which reduces to integer comparison. This is done first, because it should be the most common case
-        final int scaleDiff = this.scale() - that.scale();
-        if (scaleDiff == 0) {
-            // simple: compare the mantissas
-            if (this.mantissa == that.mantissa)
-                return 0;
-            return this.mantissa < that.mantissa ? -1 : 1;
-        }
-
-        // next check is on signum only, to avoid incorrect responses due to integral overflow (MIN_VALUE must be < than MAX_VALUE)
-        final int signumThis = Long.signum(this.mantissa);
-        final int signumThat = Long.signum(that.mantissa);
-        if (signumThis != signumThat) {
-            // simple case, number differs by sign already
-            return signumThis < signumThat ? -1 : 1;
-        }
-        if (signumThat == 0)
-            return 0; // both are 0
-        // here, both are either negative or positive
-        // medium difficulty: they have the same scale
-        // both operands have the same sign, but differ in scaling. Scale down first, and only if the numbers then are the same, scale up
-        if (scaleDiff < 0) {
-            long diff = mantissa - that.mantissa / POWERS_OF_TEN[-scaleDiff];
-            if (diff != 0)
-                return diff < 0 ? -1 : 1;
-            // scaled difference is 0. In this case, scaling up cannot result in an overflow.
-            diff = mantissa * POWERS_OF_TEN[-scaleDiff] - that.mantissa;
-            if (diff != 0)
-                return diff < 0 ? -1 : 1;
-            return 0;
-        } else {
-            long diff = mantissa  / POWERS_OF_TEN[scaleDiff] - that.mantissa;
-            if (diff != 0)
-                return diff < 0 ? -1 : 1;
-            // scaled difference is 0. In this case, scaling up cannot result in an overflow.
-            diff = mantissa - that.mantissa * POWERS_OF_TEN[scaleDiff];
-            if (diff != 0)
-                return diff < 0 ? -1 : 1;
-            return 0;
-        }
+        return FixedPointMantissas.compare(mantissa, scale(), that.mantissa, that.scale());
     }
 
     /** Xtend syntax sugar. spaceship maps to the compareTo method. */
@@ -738,13 +630,13 @@ public abstract class FixedPointBase<CLASS extends FixedPointBase<CLASS>> extend
             // check if we can do it with a long
             if (((mantissaA | mantissaB) & 0xffffffff80000000L) == 0L) {
                 // both have 31 bits only => result is surely positive
-                productAbsolute = roundMantissa(mantissaA * mantissaB, POWERS_OF_TEN[digitsToScale], negateResult ? ROUNDING_MODE_MAPPING.get(rounding) : rounding);
+                productAbsolute = roundMantissa(mantissaA * mantissaB, digitsToScale, negateResult ? ROUNDING_MODE_MAPPING.get(rounding) : rounding);
             } else {
                 if (Math.multiplyHigh(mantissaA, mantissaB) == 0) {
                     // another chance to do it within a single multiplication - this covers additional asymmetric operands
                     final long prodTmp = mantissaA * mantissaB;
                     if (prodTmp >= 0) {
-                        productAbsolute = roundMantissa(prodTmp, POWERS_OF_TEN[digitsToScale], negateResult ? ROUNDING_MODE_MAPPING.get(rounding) : rounding);
+                        productAbsolute = roundMantissa(prodTmp, digitsToScale, negateResult ? ROUNDING_MODE_MAPPING.get(rounding) : rounding);
                         return negateResult ? -productAbsolute : productAbsolute;
                     }
                     // as we do not have a true 128 bit multiplication, we first try to shave off any extra powers of ten
@@ -789,7 +681,7 @@ public abstract class FixedPointBase<CLASS extends FixedPointBase<CLASS>> extend
                         if (Math.multiplyHigh(newMantissaA, newMantissaB) == 0) {
                             final long newProdTmp = newMantissaA * newMantissaB;
                             if (newProdTmp >= 0) {
-                                productAbsolute = roundMantissa(newProdTmp, POWERS_OF_TEN[newDigitsToScale], negateResult ? ROUNDING_MODE_MAPPING.get(rounding) : rounding);
+                                productAbsolute = roundMantissa(newProdTmp, newDigitsToScale, negateResult ? ROUNDING_MODE_MAPPING.get(rounding) : rounding);
                                 return negateResult ? -productAbsolute : productAbsolute;
                             }
                         }
@@ -802,9 +694,10 @@ public abstract class FixedPointBase<CLASS extends FixedPointBase<CLASS>> extend
         return negateResult ? -productAbsolute : productAbsolute;
     }
 
-    private static long roundMantissa(final long in, final long powerOfTen, final RoundingMode roundingMode) {
-        final long quot = in / powerOfTen;
-        final long remainder = in % powerOfTen;
+    private static long roundMantissa(final long in, final int power, final RoundingMode roundingMode) {
+        final long powerOfTen = POWERS_OF_TEN[power];
+        final long quot = FixedPointPowerOfTen.divide(in, power);
+        final long remainder = in - quot * powerOfTen;
         if (remainder == 0L) {
             return quot;
         }
@@ -852,9 +745,9 @@ public abstract class FixedPointBase<CLASS extends FixedPointBase<CLASS>> extend
         final long div = POWERS_OF_TEN[power];
         final long newMantissa;
         if (mantissa < 0L) {
-            newMantissa = -roundMantissa(-mantissa, div, ROUNDING_MODE_MAPPING.get(rounding)) * div;
+            newMantissa = -roundMantissa(-mantissa, power, ROUNDING_MODE_MAPPING.get(rounding)) * div;
         } else {
-            newMantissa = roundMantissa(mantissa, div, rounding) * div;
+            newMantissa = roundMantissa(mantissa, power, rounding) * div;
         }
         if (newMantissa == mantissa) {
             return getMyself();
@@ -868,53 +761,19 @@ public abstract class FixedPointBase<CLASS extends FixedPointBase<CLASS>> extend
         final long mod = a % b;
         if (mod == 0)
             return tmp;  // no rounding required: same for all modes...
+        return roundQuotient(a, b, tmp, mod, rounding);
+    }
 
-        switch (rounding) {
-        case UP:              // round towards bigger absolute value
-            return tmp + (a >= 0 ? 1 : -1);
-        case DOWN:            // // round towards smaller absolute value
-            return tmp;
-        case CEILING:         // round towards bigger numerical value
-            return a >= 0 ? tmp + 1 : tmp;
-        case FLOOR:           // round towards smaller numerical value
-            return a < 0 ? tmp - 1 : tmp;
-        case HALF_UP:
-            if (a >= 0) {
-                return mod >= (b >> 1) ? tmp + 1 : tmp;
-            } else {
-                return mod <= -(b >> 1) ? tmp - 1 : tmp;
-            }
-        case HALF_DOWN:
-            if (a >= 0) {
-                return mod > (b >> 1) ? tmp + 1 : tmp;
-            } else {
-                return mod < -(b >> 1) ? tmp - 1 : tmp;
-            }
-        case HALF_EVEN:
-            if (a >= 0) {
-                if (mod > (b >> 1)) {
-                    return tmp + 1;
-                } else if (mod < (b >> 1)) {
-                    return tmp;
-                } else {
-                    // in this case, the rounding also depends on the last digit of the result. In case of equidistant numbers, it is rounded towards the nearest even number.
-                    return tmp + (tmp & 1);
-                }
-            } else {
-                if (mod < -(b >> 1)) {
-                    return tmp - 1;
-                } else if (mod > -(b >> 1)) {
-                    return tmp;
-                } else {
-                    // in this case, the rounding also depends on the last digit of the result. In case of equidistant numbers, it is rounded towards the nearest even number.
-                    return tmp - (tmp & 1);
-                }
-            }
-        case UNNECESSARY:
-            throw new ArithmeticException("Rounding required but forbidden by roundingMode parameter");
-        default:
-            return tmp;
-        }
+    /**
+     * Applies the rounding to the truncated quotient tmp = a / b, for a nonzero remainder mod = a % b. Shared with FixedPointPowerOfTen.
+     * The remainder is classified relative to the divisor in the same way as by FixedPointMultDiv, which is correct for any sign and parity of b.
+     */
+    static long roundQuotient(final long a, final long b, final long tmp, final long mod, final RoundingMode rounding) {
+        final boolean negative = (a ^ b) < 0L;      // sign of the exact quotient
+        final long absDivisor = b < 0L ? -b : b;    // Long.MIN_VALUE stays, which is correct when interpreted as unsigned number
+        final int remainderClass = FixedPointMultDiv.remainderClass(mod < 0L ? -mod : mod, absDivisor);
+        final long increment = FixedPointMultDiv.roundingIncrement(tmp, remainderClass, negative, rounding);
+        return negative ? tmp - increment : tmp + increment;
     }
 
     /** Multiplies a fixed point number by an another one. The type / scale of the result is undefined. */
@@ -1173,73 +1032,127 @@ public abstract class FixedPointBase<CLASS extends FixedPointBase<CLASS>> extend
      *
      * As an initial strategy, the banker's rounding (aka Gaussian rounding / twopenny rounding) for all elements is performed.
      * If the scaled sum matches, that result is returned.
-     * Otherwise, elements are picked for a different rounding strategy in order of increasing relative error.
+     * Otherwise, elements are picked for a different rounding strategy in order of decreasing relative error
+     * (and increasing index for equal errors).
      *
      * @param unscaledAmounts
      * @return scaled values
      */
     public long[] roundWithErrorDistribution(final long[] unscaledAmounts, final int sourceScale) {
-        final int scaleDiff = scale() - sourceScale;
-        if (scaleDiff == 0)
+        if (scale() == sourceScale)
             return unscaledAmounts;
-        final int n = unscaledAmounts.length;
-        final long scaledAmounts[] = new long[n];
+        final long[] scaledAmounts = new long[unscaledAmounts.length];
+        roundWithErrorDistribution(unscaledAmounts, scaledAmounts, sourceScale, scale());
+        return scaledAmounts;
+    }
 
-        if (scaleDiff > 0) {
-            final long factor = FixedPointBase.POWERS_OF_TEN[scaleDiff];
+    /**
+     * Scales the mantissas of unscaledAmounts from sourceScale to targetScale and stores the result in scaledAmounts,
+     * which must be a different array of at least the same length. It can be reused across calls.
+     * See roundWithErrorDistribution(long[], int) for the conditions and the rounding strategy.
+     *
+     * Every element is divided once. The elements to adjust are selected with a heap of the |difference| best candidates,
+     * which takes O(n log n) time at most. Apart from that heap, no objects are allocated.
+     *
+     * @throws IllegalArgumentException if both arrays are the same, or if element 0 of unscaledAmounts is not the sum of the others
+     */
+    public static void roundWithErrorDistribution(final long[] unscaledAmounts, final long[] scaledAmounts, final int sourceScale, final int targetScale) {
+        if (unscaledAmounts == scaledAmounts)
+            throw new IllegalArgumentException("Rounding in place is not supported, the unscaled amounts are required to distribute the error");
+        final int scaleDiff = targetScale - sourceScale;
+        final int n = unscaledAmounts.length;
+        if (scaleDiff >= 0) {
+            final long factor = POWERS_OF_TEN[scaleDiff];
             for (int i = 0; i < n; ++i) {
                 scaledAmounts[i] = factor * unscaledAmounts[i];
             }
-        } else {
-            final long factor = FixedPointBase.POWERS_OF_TEN[-scaleDiff];
-            long sum = 0;
-            for (int i = 0; i < n; ++i) {
-                scaledAmounts[i] = divide_longs(unscaledAmounts[i], factor, RoundingMode.HALF_EVEN);
-                if (i > 0)
-                    sum += scaledAmounts[i];
-            }
-            long diff = scaledAmounts[0] - sum; // > 0 : increment scaled amounts
-            if (diff != 0) {  // > 0: rounded sum is bigger than sum of elements => increment elements
-                // error distribution is required.
-                final long adjustment = diff > 0 ? 1 : -1;
-                // System.out.println("compareSign=" + compareSign + ", difference="+difference.toPlainString());
-                assert (Math.abs(diff) < n);  // can have an error of 1 per item, at most
-                final double[] relativeError = new double[n];
-                for (int i = 0; i < n; ++i) {
-                    // only items are eligible, which have been rounded in the "wrong" way. Namely, only items which have been rounded at all!
-                    final long thisDiff = unscaledAmounts[i] - scaledAmounts[i] * factor;
-                    // take into account: sign of adjustment, sign of thisDiff, i > 0
-                    relativeError[i] = (thisDiff * adjustment * (i > 0 ? 1 : -1) > 0)
-                            ? Math.abs(
-                                    scaledAmounts[i] == 0
-                                        ? (double)unscaledAmounts[i] / (double)factor
-                                        : (double)thisDiff / (double)unscaledAmounts[i])
-                            : 0.0;
-                    // relative error is <= 1 by definition: if unscaled <= 0.5: diff = unscaled, else unscaled > 0.5 and therefore > diff
-                    // System.out.println("relative error[" + i + "] = " + relativeError[i]);
-                }
-                while (diff != 0) {
-                    // pick the entry which has the worst error in the current conversion
-                    double maxError = 0.0;
-                    int pickedIndex = -1;
-                    for (int i = 0; i < n; ++i) {
-                        if (relativeError[i] > maxError) {
-                            maxError = relativeError[i];
-                            pickedIndex = i;
-                        }
-                    }
-                    assert (pickedIndex >= 0);             // did actually find one
-                    // System.out.println("adjusting index " + pickedIndex);
-                    relativeError[pickedIndex] = 0.0;     // mark it "used"
-                    if (pickedIndex > 0)
-                        scaledAmounts[pickedIndex] += adjustment;
-                    else
-                        scaledAmounts[pickedIndex] -= adjustment;
-                    diff -= adjustment;
+            return;
+        }
+        final long factor = POWERS_OF_TEN[-scaleDiff];
+        long diff = 0; // > 0 : rounded sum is bigger than sum of elements => increment elements
+        for (int i = 0; i < n; ++i) {
+            final long scaled = FixedPointPowerOfTen.divide(unscaledAmounts[i], -scaleDiff, RoundingMode.HALF_EVEN);
+            diff += i > 0 ? -scaled : scaled;
+            scaledAmounts[i] = scaled;
+        }
+        if (diff == 0)
+            return;
+        // error distribution is required: select the |diff| entries with the worst error in the current conversion
+        final long adjustment = diff > 0 ? 1 : -1;
+        final int numberToPick = Math.abs(diff) < n ? (int)Math.abs(diff) : n;   // can have an error of 1 per item, at most
+        final int[] pickedIndexes = new int[numberToPick];
+        final double[] pickedErrors = new double[numberToPick];
+        int numberPicked = 0;
+        for (int i = 0; i < n; ++i) {
+            final double error = relativeRoundingError(unscaledAmounts[i], scaledAmounts[i], factor, i > 0 ? adjustment : -adjustment);
+            if (error > 0.0) {
+                if (numberPicked < numberToPick) {
+                    siftUp(pickedIndexes, pickedErrors, numberPicked++, i, error);
+                } else if (error > pickedErrors[0]) {
+                    // replace the least relevant entry. For equal errors, the lower index has been seen first and wins
+                    siftDown(pickedIndexes, pickedErrors, numberPicked, i, error);
                 }
             }
         }
-        return scaledAmounts;
+        if (numberPicked < Math.abs(diff))
+            throw new IllegalArgumentException("Element 0 is not the sum of the other elements");
+        for (int j = 0; j < numberPicked; ++j) {
+            final int pickedIndex = pickedIndexes[j];
+            if (pickedIndex > 0)
+                scaledAmounts[pickedIndex] += adjustment;
+            else
+                scaledAmounts[pickedIndex] -= adjustment;
+        }
+    }
+
+    /**
+     * Returns the relative rounding error of an element, or 0 if the element is not eligible for an adjustment in the given direction.
+     * Only items are eligible, which have been rounded in the "wrong" way. Namely, only items which have been rounded at all!
+     * The relative error is <= 1 by definition: if unscaled <= 0.5: diff = unscaled, else unscaled > 0.5 and therefore > diff.
+     */
+    private static double relativeRoundingError(final long unscaled, final long scaled, final long factor, final long direction) {
+        final long thisDiff = unscaled - scaled * factor;
+        if (thisDiff * direction <= 0)
+            return 0.0;
+        return Math.abs(scaled == 0 ? (double)unscaled / (double)factor : (double)thisDiff / (double)unscaled);
+    }
+
+    /** Ordering of the heap of picked entries: the root is the least relevant one, with the smallest error and the highest index. */
+    private static boolean isLessRelevant(final int index1, final double error1, final int index2, final double error2) {
+        return error1 < error2 || (error1 == error2 && index1 > index2);
+    }
+
+    /** Inserts an entry into the heap of picked entries, at position pos. */
+    private static void siftUp(final int[] indexes, final double[] errors, int pos, final int index, final double error) {
+        while (pos > 0) {
+            final int parent = (pos - 1) >>> 1;
+            if (!isLessRelevant(index, error, indexes[parent], errors[parent]))
+                break;
+            indexes[pos] = indexes[parent];
+            errors[pos] = errors[parent];
+            pos = parent;
+        }
+        indexes[pos] = index;
+        errors[pos] = error;
+    }
+
+    /** Replaces the root of the heap of picked entries. */
+    private static void siftDown(final int[] indexes, final double[] errors, final int size, final int index, final double error) {
+        int pos = 0;
+        for (;;) {
+            int child = 2 * pos + 1;
+            if (child >= size)
+                break;
+            if (child + 1 < size && isLessRelevant(indexes[child + 1], errors[child + 1], indexes[child], errors[child]))
+                ++child;
+            if (!isLessRelevant(indexes[child], errors[child], index, error))
+                break;
+            indexes[pos] = indexes[child];
+            errors[pos] = errors[child];
+            pos = child;
+        }
+        indexes[pos] = index;
+        errors[pos] = error;
     }
 
     @Override
@@ -1280,7 +1193,7 @@ public abstract class FixedPointBase<CLASS extends FixedPointBase<CLASS>> extend
             if (power < -18) {
                 return getZero();
             } else {
-                return newInstanceOf(mantissa / POWERS_OF_TEN[-power]);
+                return newInstanceOf(FixedPointPowerOfTen.divide(mantissa, -power));
             }
         } else {
             if (power > 18) {
@@ -1300,6 +1213,6 @@ public abstract class FixedPointBase<CLASS extends FixedPointBase<CLASS>> extend
             return true;
         }
         final int digitsToScrap = scale() - digits;
-        return mantissa % POWERS_OF_TEN[digitsToScrap] == 0L;
+        return FixedPointPowerOfTen.remainder(mantissa, digitsToScrap) == 0L;
     }
 }
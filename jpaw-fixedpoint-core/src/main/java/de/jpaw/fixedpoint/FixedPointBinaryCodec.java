@@ -0,0 +1,229 @@
+package de.jpaw.fixedpoint;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import de.jpaw.fixedpoint.types.VariableUnits;
+import de.jpaw.util.ByteBuilder;
+
+/**
+ * Compact binary encoding of mantissas, as an alternative to the text and Java serialization formats.
+ * A mantissa is zig-zag encoded (0, -1, 1, -2, 2... map to 0, 1, 2, 3, 4...) and written as an unsigned varint,
+ * 7 bits per byte, least significant group first, with the high bit set on all but the last byte.
+ * Values of small magnitude therefore take few bytes: up to +/- 63 a single byte, up to +/- 8191 two bytes, at most 10 bytes.
+ *
+ * For the types of fixed scale, the scale is implied by the type and not written. For values of arbitrary scale
+ * (VariableUnits), the "WithScale" variants precede the mantissa by a single byte holding the scale.
+ * Columns of mantissas are written as a plain sequence of varints, the scale and the number of elements
+ * are up to the caller.
+ *
+ * No objects are allocated per value. Truncated input raises an IndexOutOfBoundsException for arrays and a
+ * BufferUnderflowException for ByteBuffers, varints of more than 64 bits an IllegalArgumentException.
+ * Writing to a ByteBuffer with insufficient space raises a BufferOverflowException. In case of an exception,
+ * the positions and the contents of the target are undefined.
+ */
+public final class FixedPointBinaryCodec {
+    /** The maximum number of bytes of an encoded mantissa. */
+    public static final int MAX_LENGTH = 10;
+
+    private FixedPointBinaryCodec() { }
+
+    /** Maps signed to unsigned values, keeping small magnitudes small. */
+    public static long zigZagEncode(final long n) {
+        return (n << 1) ^ (n >> 63);
+    }
+
+    /** Reverses zigZagEncode. */
+    public static long zigZagDecode(final long n) {
+        return (n >>> 1) ^ -(n & 1L);
+    }
+
+    /** Returns the number of bytes of the encoded mantissa. */
+    public static int encodedLength(final long mantissa) {
+        final int bits = 64 - Long.numberOfLeadingZeros(zigZagEncode(mantissa) | 1L);
+        return (bits + 6) / 7;
+    }
+
+    private static IllegalArgumentException malformed() {
+        return new IllegalArgumentException("Malformed varint: more than 64 bits");
+    }
+
+    /** Writes an encoded mantissa into a byte array, which must have space for it. Returns the offset behind the written bytes. */
+    public static int put(final byte[] dst, int offset, final long mantissa) {
+        long v = zigZagEncode(mantissa);
+        while ((v & ~0x7FL) != 0L) {
+            dst[offset++] = (byte)(v | 0x80L);
+            v >>>= 7;
+        }
+        dst[offset++] = (byte)v;
+        return offset;
+    }
+
+    /**
+     * Decodes length mantissas from src, starting at srcOffset, and stores them into dst, starting at dstOffset.
+     * Returns the offset in src behind the last decoded byte.
+     */
+    public static int get(final byte[] src, final int srcOffset, final long[] dst, final int dstOffset, final int length) {
+        final int end = decode(src, srcOffset, src.length, dst, dstOffset, length);
+        if (end < 0) {
+            throw new IndexOutOfBoundsException("Truncated varint");
+        }
+        return end;
+    }
+
+    /** Decodes into dst, without reading beyond end. Returns the position behind the last decoded byte, or -1 if the input is truncated. */
+    private static int decode(final byte[] src, int pos, final int end, final long[] dst, final int dstOffset, final int length) {
+        for (int i = dstOffset; i < dstOffset + length; ++i) {
+            if (pos >= end) {
+                return -1;
+            }
+            long b = src[pos++];
+            if (b >= 0L) {
+                dst[i] = zigZagDecode(b);  // single byte, the most frequent case for small deltas and quantities
+                continue;
+            }
+            long v = b & 0x7FL;
+            int shift = 7;
+            do {
+                if (pos >= end) {
+                    return -1;
+                }
+                b = src[pos++];
+                if (shift == 63 && (b & 0xFEL) != 0L) {
+                    throw malformed();  // the tenth byte can only contribute the highest bit
+                }
+                v |= (b & 0x7FL) << shift;
+                shift += 7;
+            } while (b < 0L);
+            dst[i] = zigZagDecode(v);
+        }
+        return pos;
+    }
+
+    /** Appends an encoded mantissa to a ByteBuilder. */
+    public static void append(final ByteBuilder dst, final long mantissa) {
+        dst.require(MAX_LENGTH);
+        dst.setLength(put(dst.getCurrentBuffer(), dst.length(), mantissa));
+    }
+
+    /** Appends the mantissa of a fixed point value to a ByteBuilder. The scale is implied by the type and not written. */
+    public static void append(final ByteBuilder dst, final FixedPointBase<?> value) {
+        append(dst, value.getMantissa());
+    }
+
+    /** Appends the scale and the mantissa of a fixed point value to a ByteBuilder. */
+    public static void appendWithScale(final ByteBuilder dst, final FixedPointBase<?> value) {
+        dst.require(1 + MAX_LENGTH);
+        final byte[] buffer = dst.getCurrentBuffer();
+        final int offset = dst.length();
+        buffer[offset] = (byte)value.scale();
+        dst.setLength(put(buffer, offset + 1, value.getMantissa()));
+    }
+
+    /** Appends length mantissas of src, starting at offset, to a ByteBuilder. */
+    public static void append(final ByteBuilder dst, final long[] src, final int offset, final int length) {
+        dst.require(length * MAX_LENGTH);
+        final byte[] buffer = dst.getCurrentBuffer();
+        int pos = dst.length();
+        for (int i = offset; i < offset + length; ++i) {
+            pos = put(buffer, pos, src[i]);
+        }
+        dst.setLength(pos);
+    }
+
+    /** Writes an encoded mantissa to a ByteBuffer. */
+    public static void put(final ByteBuffer dst, final long mantissa) {
+        if (dst.hasArray()) {
+            final int pos = dst.arrayOffset() + dst.position();
+            if (dst.remaining() < MAX_LENGTH && dst.remaining() < encodedLength(mantissa)) {
+                throw new BufferOverflowException();
+            }
+            dst.position(put(dst.array(), pos, mantissa) - dst.arrayOffset());
+            return;
+        }
+        long v = zigZagEncode(mantissa);
+        while ((v & ~0x7FL) != 0L) {
+            dst.put((byte)(v | 0x80L));
+            v >>>= 7;
+        }
+        dst.put((byte)v);
+    }
+
+    /** Writes the mantissa of a fixed point value to a ByteBuffer. The scale is implied by the type and not written. */
+    public static void put(final ByteBuffer dst, final FixedPointBase<?> value) {
+        put(dst, value.getMantissa());
+    }
+
+    /** Writes the scale and the mantissa of a fixed point value to a ByteBuffer. */
+    public static void putWithScale(final ByteBuffer dst, final FixedPointBase<?> value) {
+        dst.put((byte)value.scale());
+        put(dst, value.getMantissa());
+    }
+
+    /** Writes length mantissas of src, starting at offset, to a ByteBuffer. */
+    public static void put(final ByteBuffer dst, final long[] src, final int offset, final int length) {
+        if (!dst.hasArray()) {
+            for (int i = offset; i < offset + length; ++i) {
+                put(dst, src[i]);
+            }
+            return;
+        }
+        final byte[] buffer = dst.array();
+        final int end = dst.arrayOffset() + dst.limit();
+        int pos = dst.arrayOffset() + dst.position();
+        for (int i = offset; i < offset + length; ++i) {
+            final long mantissa = src[i];
+            if (end - pos < MAX_LENGTH && end - pos < encodedLength(mantissa)) {
+                throw new BufferOverflowException();
+            }
+            pos = put(buffer, pos, mantissa);
+        }
+        dst.position(pos - dst.arrayOffset());
+    }
+
+    /** Reads an encoded mantissa from a ByteBuffer. */
+    public static long getMantissa(final ByteBuffer src) {
+        long b = src.get();
+        if (b >= 0L) {
+            return zigZagDecode(b);
+        }
+        long v = b & 0x7FL;
+        int shift = 7;
+        do {
+            b = src.get();
+            if (shift == 63 && (b & 0xFEL) != 0L) {
+                throw malformed();
+            }
+            v |= (b & 0x7FL) << shift;
+            shift += 7;
+        } while (b < 0L);
+        return zigZagDecode(v);
+    }
+
+    /** Reads a mantissa from a ByteBuffer and returns it as an instance of the same type (and scale) as the prototype. */
+    public static <CLASS extends FixedPointBase<CLASS>> CLASS get(final ByteBuffer src, final CLASS prototype) {
+        return prototype.newInstanceOf(getMantissa(src));
+    }
+
+    /** Reads a scale and a mantissa, as written by putWithScale or appendWithScale, from a ByteBuffer. */
+    public static VariableUnits getWithScale(final ByteBuffer src) {
+        final int scale = VariableUnits.scaleCheck(src.get());
+        return VariableUnits.valueOf(getMantissa(src), scale);
+    }
+
+    /** Reads length mantissas from a ByteBuffer and stores them into dst, starting at offset. */
+    public static void get(final ByteBuffer src, final long[] dst, final int offset, final int length) {
+        if (!src.hasArray()) {
+            for (int i = offset; i < offset + length; ++i) {
+                dst[i] = getMantissa(src);
+            }
+            return;
+        }
+        final int end = decode(src.array(), src.arrayOffset() + src.position(), src.arrayOffset() + src.limit(), dst, offset, length);
+        if (end < 0) {
+            throw new BufferUnderflowException();
+        }
+        src.position(end - src.arrayOffset());
+    }
+}
@@ -0,0 +1,186 @@
+package de.jpaw.fixedpoint;
+
+import java.math.RoundingMode;
+
+/**
+ * Bulk operations on columns of mantissas, which share an implied scale.
+ * The methods work on primitive long arrays and do not create any objects, which allows to aggregate large volumes of
+ * fixed point values without allocating one instance per intermediate result.
+ *
+ * Overflow is not checked per element: the additive loops collect the overflow conditions of all elements in a bit mask,
+ * which is tested once after the loop. This keeps the loop bodies free of branches, so that the JIT can vectorize them.
+ * In case of an ArithmeticException, the contents of the result array is undefined.
+ * The result array may be the same as one of the input arrays.
+ */
+public final class FixedPointColumns {
+    private static final long LOW_32_BITS = 0xffffffffL;
+
+    private FixedPointColumns() { }
+
+    private static ArithmeticException overflow(final String operation) {
+        return new ArithmeticException("Overflow in bulk " + operation);
+    }
+
+    /** Returns the mantissa of a fixed point value, converted to the given scale. Throws an ArithmeticException if rounding would be required. */
+    public static long mantissaAt(final FixedPointBase<?> value, final int scale) {
+        return rescale(value.getMantissa(), value.scale(), scale, RoundingMode.UNNECESSARY);
+    }
+
+    /** Converts a single mantissa from one scale to another one, rounding if required. */
+    public static long rescale(final long mantissa, final int fromScale, final int toScale, final RoundingMode rounding) {
+        return FixedPointMantissas.rescale(mantissa, fromScale, toScale, rounding);
+    }
+
+    /** Computes result[i] = a[i] + b[i] for the first length elements. */
+    public static void add(final long[] a, final long[] b, final long[] result, final int length) {
+        long overflowBits = 0L;
+        for (int i = 0; i < length; ++i) {
+            final long x = a[i];
+            final long y = b[i];
+            final long r = x + y;
+            overflowBits |= (x ^ r) & (y ^ r);      // sign of the result differs from the sign of both operands
+            result[i] = r;
+        }
+        if (overflowBits < 0L) {
+            throw overflow("add");
+        }
+    }
+
+    /** Computes result[i] = a[i] - b[i] for the first length elements. */
+    public static void subtract(final long[] a, final long[] b, final long[] result, final int length) {
+        long overflowBits = 0L;
+        for (int i = 0; i < length; ++i) {
+            final long x = a[i];
+            final long y = b[i];
+            final long r = x - y;
+            overflowBits |= (x ^ y) & (x ^ r);      // operands of different sign, and sign of the result differs from the minuend
+            result[i] = r;
+        }
+        if (overflowBits < 0L) {
+            throw overflow("subtract");
+        }
+    }
+
+    /** Computes result[i] = a[i] * factor for the first length elements. The scale stays the same. */
+    public static void multiply(final long[] a, final long factor, final long[] result, final int length) {
+        long overflowBits = 0L;
+        for (int i = 0; i < length; ++i) {
+            final long x = a[i];
+            final long r = x * factor;
+            overflowBits |= Math.multiplyHigh(x, factor) ^ (r >> 63);  // the upper 64 bits must be the sign extension of the lower ones
+            result[i] = r;
+        }
+        if (overflowBits != 0L) {
+            throw overflow("multiply");
+        }
+    }
+
+    /**
+     * Computes result[i] = a[i] * factor / 10^factorScale for the first length elements, rounded as specified.
+     * This is the multiplication by a fixed point value of scale factorScale, the scale of the result is the same as the scale of a.
+     * Products which exceed 64 bits are computed with 128 bit precision.
+     */
+    public static void multiply(final long[] a, final long factor, final int factorScale, final RoundingMode rounding, final long[] result, final int length) {
+        if (factorScale == 0) {
+            multiply(a, factor, result, length);
+            return;
+        }
+        final long divisor = FixedPointBase.getPowerOfTen(factorScale);
+        for (int i = 0; i < length; ++i) {
+            final long x = a[i];
+            final long lo = x * factor;
+            if (Math.multiplyHigh(x, factor) == (lo >> 63)) {
+                result[i] = FixedPointPowerOfTen.divide(lo, factorScale, rounding);
+            } else {
+                result[i] = FixedPointMultDiv.multdiv128(x, factor, divisor, rounding);
+            }
+        }
+    }
+
+    /** Computes result[i] = a[i] * factor, rounded to the scale of a, for the first length elements. */
+    public static void multiply(final long[] a, final FixedPointBase<?> factor, final RoundingMode rounding, final long[] result, final int length) {
+        multiply(a, factor.getMantissa(), factor.scale(), rounding, result, length);
+    }
+
+    /** Converts the first length mantissas from one scale to another one, rounding if required. */
+    public static void rescale(final long[] a, final int fromScale, final int toScale, final RoundingMode rounding, final long[] result, final int length) {
+        if (toScale >= fromScale) {
+            multiply(a, FixedPointBase.getPowerOfTen(toScale - fromScale), result, length);
+            return;
+        }
+        final int power = fromScale - toScale;
+        for (int i = 0; i < length; ++i) {
+            result[i] = FixedPointPowerOfTen.divide(a[i], power, rounding);
+        }
+    }
+
+    /**
+     * Returns the sum of the first length elements.
+     * The upper and lower 32 bits of the elements are summed up separately, which cannot overflow for any array size,
+     * and the partial sums are combined at the end. Both loops are plain reductions, which the JIT can vectorize.
+     */
+    public static long sum(final long[] a, final int length) {
+        long sumHigh = 0L;
+        long sumLow = 0L;
+        for (int i = 0; i < length; ++i) {
+            final long x = a[i];
+            sumHigh += x >> 32;             // signed upper half
+            sumLow  += x & LOW_32_BITS;     // unsigned lower half
+        }
+        final long high = sumHigh + (sumLow >>> 32);
+        if (high != (int)high) {
+            throw overflow("sum");
+        }
+        return (high << 32) | (sumLow & LOW_32_BITS);
+    }
+
+    /** Returns the smallest of the first length elements, or Long.MAX_VALUE if length is 0. */
+    public static long min(final long[] a, final int length) {
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < length; ++i) {
+            min = Math.min(min, a[i]);
+        }
+        return min;
+    }
+
+    /** Returns the biggest of the first length elements, or Long.MIN_VALUE if length is 0. */
+    public static long max(final long[] a, final int length) {
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < length; ++i) {
+            max = Math.max(max, a[i]);
+        }
+        return max;
+    }
+
+    /**
+     * Sets mask[i] to true if a[i] is greater than the threshold, and false otherwise, for the first length elements.
+     * As mantissas are integral, a test for "greater or equal" can be done by passing threshold - 1.
+     *
+     * @return the number of elements above the threshold
+     */
+    public static int greaterThan(final long[] a, final long threshold, final boolean[] mask, final int length) {
+        int count = 0;
+        for (int i = 0; i < length; ++i) {
+            final boolean above = a[i] > threshold;
+            mask[i] = above;
+            count += above ? 1 : 0;
+        }
+        return count;
+    }
+
+    /**
+     * Sets mask[i] to true if a[i] is less than the threshold, and false otherwise, for the first length elements.
+     * As mantissas are integral, a test for "less or equal" can be done by passing threshold + 1.
+     *
+     * @return the number of elements below the threshold
+     */
+    public static int lessThan(final long[] a, final long threshold, final boolean[] mask, final int length) {
+        int count = 0;
+        for (int i = 0; i < length; ++i) {
+            final boolean below = a[i] < threshold;
+            mask[i] = below;
+            count += below ? 1 : 0;
+        }
+        return count;
+    }
+}
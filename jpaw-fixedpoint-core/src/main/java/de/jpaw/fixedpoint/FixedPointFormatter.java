@@ -0,0 +1,197 @@
+package de.jpaw.fixedpoint;
+
+import java.io.IOException;
+
+import de.jpaw.util.ByteBuilder;
+
+/**
+ * Formatters which write the text representation of a mantissa and scale directly into a ByteBuilder, a byte or char array,
+ * or an Appendable, without creating temporary Strings or builders.
+ * The digits are produced two at a time, using lookup tables.
+ *
+ * The output consists of an optional minus sign, the integral digits, optionally grouped by a separator every 3 digits,
+ * and the fractional digits, if any, after a decimal point. Trailing zeros of the fractional part are suppressed,
+ * but at least minFractionalDigits fractional digits are written. Passing the scale as minFractionalDigits therefore
+ * outputs all fractional digits, and values above the scale pad with zeros.
+ * For the byte oriented targets, the grouping separator must be an ASCII character.
+ */
+public final class FixedPointFormatter {
+    /** Value of the grouping separator parameter to indicate that the integral digits should not be grouped. */
+    public static final char NO_GROUPING = '\0';
+
+    private static final byte[] DIGIT_TENS = new byte[100];
+    private static final byte[] DIGIT_ONES = new byte[100];
+    static {
+        for (int i = 0; i < 100; ++i) {
+            DIGIT_TENS[i] = (byte)('0' + i / 10);
+            DIGIT_ONES[i] = (byte)('0' + i % 10);
+        }
+    }
+    private static final int MAX_LENGTH_INTEGRAL = 1 + 19 + 6;     // sign, 19 digits and up to 6 grouping separators
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[MAX_LENGTH_INTEGRAL + 1 + 18]);
+
+    private FixedPointFormatter() { }
+
+    /** Returns the maximum number of characters required to format a number of the given scale. */
+    public static int maxLength(final int scale, final int minFractionalDigits) {
+        return MAX_LENGTH_INTEGRAL + 1 + Math.max(scale, minFractionalDigits);
+    }
+
+    /** Writes a number as ASCII into a byte array, starting at offset, and returns the offset after the last written byte. */
+    public static int format(final long mantissa, final int scale, final int minFractionalDigits, final char groupingSeparator,
+      final byte[] dst, final int offset) {
+        return format(mantissa, scale, minFractionalDigits, groupingSeparator, dst, null, offset);
+    }
+
+    /** Writes a number into a char array, starting at offset, and returns the offset after the last written character. */
+    public static int format(final long mantissa, final int scale, final int minFractionalDigits, final char groupingSeparator,
+      final char[] dst, final int offset) {
+        return format(mantissa, scale, minFractionalDigits, groupingSeparator, null, dst, offset);
+    }
+
+    /** Appends a number as ASCII to a ByteBuilder. */
+    public static void append(final ByteBuilder dst, final long mantissa, final int scale, final int minFractionalDigits, final char groupingSeparator) {
+        dst.require(maxLength(scale, minFractionalDigits));
+        dst.setLength(format(mantissa, scale, minFractionalDigits, groupingSeparator, dst.getCurrentBuffer(), null, dst.length()));
+    }
+
+    /** Appends a fixed point value as ASCII to a ByteBuilder, with the same digits as toString(). */
+    public static void append(final ByteBuilder dst, final FixedPointBase<?> value) {
+        append(dst, value.getMantissa(), value.scale(), FixedPointBase.outputToStringMinimized ? 0 : value.scale(), NO_GROUPING);
+    }
+
+    /** Appends a number to a StringBuilder. */
+    public static void append(final StringBuilder dst, final long mantissa, final int scale, final int minFractionalDigits, final char groupingSeparator) {
+        final char[] buffer = buffer(scale, minFractionalDigits);
+        dst.append(buffer, 0, format(mantissa, scale, minFractionalDigits, groupingSeparator, null, buffer, 0));
+    }
+
+    /** Appends a number to any Appendable, character by character. */
+    public static void append(final Appendable dst, final long mantissa, final int scale, final int minFractionalDigits, final char groupingSeparator)
+      throws IOException {
+        final char[] buffer = buffer(scale, minFractionalDigits);
+        final int length = format(mantissa, scale, minFractionalDigits, groupingSeparator, null, buffer, 0);
+        for (int i = 0; i < length; ++i) {
+            dst.append(buffer[i]);
+        }
+    }
+
+    /** Appends a fixed point value to any Appendable, with the same digits as toString(). */
+    public static void append(final Appendable dst, final FixedPointBase<?> value) throws IOException {
+        append(dst, value.getMantissa(), value.scale(), FixedPointBase.outputToStringMinimized ? 0 : value.scale(), NO_GROUPING);
+    }
+
+    /** Returns a number as String. Only the String itself is allocated. */
+    public static String toString(final long mantissa, final int scale, final int minFractionalDigits, final char groupingSeparator) {
+        final char[] buffer = buffer(scale, minFractionalDigits);
+        return new String(buffer, 0, format(mantissa, scale, minFractionalDigits, groupingSeparator, null, buffer, 0));
+    }
+
+    /** Returns the thread local work buffer, replacing it by a bigger one if required. */
+    private static char[] buffer(final int scale, final int minFractionalDigits) {
+        final char[] buffer = BUFFER.get();
+        final int required = maxLength(scale, minFractionalDigits);
+        if (buffer.length >= required) {
+            return buffer;
+        }
+        final char[] biggerBuffer = new char[required];
+        BUFFER.set(biggerBuffer);
+        return biggerBuffer;
+    }
+
+    /** Exactly one of the two destinations is not null. */
+    private static void put(final byte[] bytes, final char[] chars, final int pos, final int c) {
+        if (bytes != null) {
+            bytes[pos] = (byte)c;
+        } else {
+            chars[pos] = (char)c;
+        }
+    }
+
+    /** Writes the two digits of a number in range 0..99. */
+    private static void putTwoDigits(final byte[] bytes, final char[] chars, final int pos, final int value) {
+        if (bytes != null) {
+            bytes[pos]     = DIGIT_TENS[value];
+            bytes[pos + 1] = DIGIT_ONES[value];
+        } else {
+            chars[pos]     = (char)DIGIT_TENS[value];
+            chars[pos + 1] = (char)DIGIT_ONES[value];
+        }
+    }
+
+    private static int format(final long mantissa, final int scale, final int minFractionalDigits, final char groupingSeparator,
+      final byte[] bytes, final char[] chars, int pos) {
+        // work with non positive numbers, in order to cover Long.MIN_VALUE
+        final long negativeMantissa = mantissa < 0L ? mantissa : -mantissa;
+        final long unit = FixedPointBase.getPowerOfTen(scale);
+        final long negativeIntegral = negativeMantissa / unit;
+        long fraction = negativeIntegral * unit - negativeMantissa;
+        if (mantissa < 0L) {
+            put(bytes, chars, pos++, '-');
+        }
+        pos = formatIntegral(negativeIntegral, groupingSeparator, bytes, chars, pos);
+
+        // suppress trailing zeros of the fractional part
+        int fractionalDigits = scale;
+        while (fractionalDigits > minFractionalDigits && fraction % 10L == 0L) {
+            fraction /= 10L;
+            --fractionalDigits;
+        }
+        if (fractionalDigits > 0 || minFractionalDigits > 0) {
+            put(bytes, chars, pos++, '.');
+            int i = pos + fractionalDigits;
+            pos = i;
+            while (i - 2 >= pos - fractionalDigits) {
+                i -= 2;
+                putTwoDigits(bytes, chars, i, (int)(fraction % 100L));
+                fraction /= 100L;
+            }
+            if (i > pos - fractionalDigits) {
+                put(bytes, chars, i - 1, '0' + (int)fraction);
+            }
+            // pad beyond the scale
+            for (int j = fractionalDigits; j < minFractionalDigits; ++j) {
+                put(bytes, chars, pos++, '0');
+            }
+        }
+        return pos;
+    }
+
+    /** Writes the digits of the absolute value of a non positive number. */
+    private static int formatIntegral(long value, final char groupingSeparator, final byte[] bytes, final char[] chars, final int pos) {
+        int numberOfDigits = 1;
+        while (numberOfDigits < 19 && value <= -FixedPointBase.getPowerOfTen(numberOfDigits)) {
+            ++numberOfDigits;
+        }
+        if (groupingSeparator != NO_GROUPING) {
+            final int end = pos + numberOfDigits + (numberOfDigits - 1) / 3;
+            int i = end;
+            int digitsInGroup = 0;
+            do {
+                if (digitsInGroup == 3) {
+                    put(bytes, chars, --i, groupingSeparator);
+                    digitsInGroup = 0;
+                }
+                final long quotient = value / 10L;
+                put(bytes, chars, --i, '0' + (int)(quotient * 10L - value));
+                ++digitsInGroup;
+                value = quotient;
+            } while (value != 0L);
+            return end;
+        }
+        final int end = pos + numberOfDigits;
+        int i = end;
+        while (value <= -100L) {
+            final long quotient = value / 100L;
+            i -= 2;
+            putTwoDigits(bytes, chars, i, (int)(quotient * 100L - value));
+            value = quotient;
+        }
+        if (value <= -10L) {
+            putTwoDigits(bytes, chars, i - 2, (int)-value);
+        } else {
+            put(bytes, chars, i - 1, '0' - (int)value);
+        }
+        return end;
+    }
+}
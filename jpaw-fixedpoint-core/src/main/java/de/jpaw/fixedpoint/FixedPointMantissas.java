@@ -0,0 +1,191 @@
+package de.jpaw.fixedpoint;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Arithmetic on mantissas with an implied scale, as an allocation free alternative to the instance methods of FixedPointBase.
+ * Inner loops can work on (long mantissa, int scale) pairs and wrap only the final result into a fixed point instance.
+ * The results are the same as those of the corresponding instance methods, the rounding is that of
+ * <code>FixedPointBase.divide_longs</code>, and extends it to 128 bit intermediate results where required.
+ *
+ * All scales must be in range 0..18. Overflows raise an ArithmeticException, as well as a rounding mode of UNNECESSARY if rounding is required.
+ */
+public final class FixedPointMantissas {
+    private FixedPointMantissas() { }
+
+    /** Returns a + b, for mantissas of the same scale. */
+    public static long add(final long a, final long b) {
+        return Math.addExact(a, b);
+    }
+
+    /** Returns a - b, for mantissas of the same scale. */
+    public static long subtract(final long a, final long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    /** Returns the mantissa of a + b, with the bigger scale of both operands. */
+    public static long add(final long a, final int scaleA, final long b, final int scaleB) {
+        if (scaleA == scaleB) {
+            return Math.addExact(a, b);
+        }
+        if (scaleA > scaleB) {
+            return Math.addExact(a, Math.multiplyExact(b, FixedPointBase.getPowerOfTen(scaleA - scaleB)));
+        }
+        return Math.addExact(Math.multiplyExact(a, FixedPointBase.getPowerOfTen(scaleB - scaleA)), b);
+    }
+
+    /** Returns the mantissa of a - b, with the bigger scale of both operands. */
+    public static long subtract(final long a, final int scaleA, final long b, final int scaleB) {
+        if (scaleA == scaleB) {
+            return Math.subtractExact(a, b);
+        }
+        if (scaleA > scaleB) {
+            return Math.subtractExact(a, Math.multiplyExact(b, FixedPointBase.getPowerOfTen(scaleA - scaleB)));
+        }
+        return Math.subtractExact(Math.multiplyExact(a, FixedPointBase.getPowerOfTen(scaleB - scaleA)), b);
+    }
+
+    /** Returns the mantissa multiplied by an integral factor, with unchanged scale. */
+    public static long multiply(final long mantissa, final long factor) {
+        return Math.multiplyExact(mantissa, factor);
+    }
+
+    /** Returns the mantissa of a * b with the scale resultScale, rounded if required. The intermediate product has 128 bits. */
+    public static long multiply(final long a, final int scaleA, final long b, final int scaleB, final int resultScale, final RoundingMode rounding) {
+        final int digitsToScale = scaleA + scaleB - resultScale;
+        if (digitsToScale <= 0) {
+            return Math.multiplyExact(Math.multiplyExact(a, b), FixedPointBase.getPowerOfTen(-digitsToScale));
+        }
+        final long product = a * b;
+        if (digitsToScale <= 18 && Math.multiplyHigh(a, b) == product >> 63) {
+            // the product fits into a long
+            return FixedPointPowerOfTen.divide(product, digitsToScale, rounding);
+        }
+        return FixedPointMultDiv.multiply_and_scale(a, b, digitsToScale, rounding);
+    }
+
+    /** Returns the mantissa divided by an integral divisor, with unchanged scale, rounded if required. */
+    public static long divide(final long mantissa, final long divisor, final RoundingMode rounding) {
+        if (divisor == 0L) {
+            throw new ArithmeticException("Division by 0");
+        }
+        return FixedPointBase.divide_longs(mantissa, divisor, rounding);
+    }
+
+    /** Returns the mantissa of a / b with the scale resultScale, rounded if required. */
+    public static long divide(final long a, final int scaleA, final long b, final int scaleB, final int resultScale, final RoundingMode rounding) {
+        if (b == 0L) {
+            throw new ArithmeticException("Division by 0");
+        }
+        // the result mantissa is a * 10^exponent / b
+        final int exponent = scaleB + resultScale - scaleA;
+        if (exponent == 0) {
+            return FixedPointBase.divide_longs(a, b, rounding);
+        }
+        if (exponent < 0) {
+            final long powerOfTen = FixedPointBase.getPowerOfTen(-exponent);
+            final long divisor = b * powerOfTen;
+            if (Math.multiplyHigh(b, powerOfTen) == divisor >> 63) {
+                return FixedPointBase.divide_longs(a, divisor, rounding);
+            }
+            // the divisor exceeds 64 bits, the quotient is less than 1
+            return divideUsingBigDecimal(a, exponent, b, rounding);
+        }
+        if (exponent <= 18) {
+            final long powerOfTen = FixedPointBase.getPowerOfTen(exponent);
+            final long dividend = a * powerOfTen;
+            if (Math.multiplyHigh(a, powerOfTen) == dividend >> 63) {
+                return FixedPointBase.divide_longs(dividend, b, rounding);
+            }
+            return FixedPointMultDiv.multdiv128(a, powerOfTen, b, rounding);
+        }
+        // more than 18 digits: scale up in two steps, if the first one does not overflow
+        final long powerOfTen = FixedPointBase.getPowerOfTen(exponent - 18);
+        final long dividend = a * powerOfTen;
+        if (Math.multiplyHigh(a, powerOfTen) == dividend >> 63) {
+            return FixedPointMultDiv.multdiv128(dividend, FixedPointBase.getPowerOfTen(18), b, rounding);
+        }
+        return divideUsingBigDecimal(a, exponent, b, rounding);
+    }
+
+    /** Computes a * 10^exponent / b for the rare cases which exceed 128 bits. This fallback creates temporary objects. */
+    private static long divideUsingBigDecimal(final long a, final int exponent, final long b, final RoundingMode rounding) {
+        return BigDecimal.valueOf(a).scaleByPowerOfTen(exponent).divide(BigDecimal.valueOf(b), 0, rounding).longValueExact();
+    }
+
+    /** Converts a mantissa from one scale to another one, rounding if required. */
+    public static long rescale(final long mantissa, final int fromScale, final int toScale, final RoundingMode rounding) {
+        if (fromScale == toScale) {
+            return mantissa;
+        }
+        if (toScale > fromScale) {
+            return Math.multiplyExact(mantissa, FixedPointBase.getPowerOfTen(toScale - fromScale));
+        }
+        return FixedPointPowerOfTen.divide(mantissa, fromScale - toScale, rounding);
+    }
+
+    /**
+     * Compares two numbers of possibly different scale, and returns -1, 0 or 1, if a is less than, equal to or greater than b.
+     * Special care is taken in this implementation to work around any kind of integral overflows.
+     */
+    public static int compare(final long a, final int scaleA, final long b, final int scaleB) {
+        // first, tackle the case of same scale, which reduces to integer comparison. This is done first, because it should be the most common case
+        final int scaleDiff = scaleA - scaleB;
+        if (scaleDiff == 0) {
+            // simple: compare the mantissas
+            if (a == b)
+                return 0;
+            return a < b ? -1 : 1;
+        }
+
+        // next check is on signum only, to avoid incorrect responses due to integral overflow (MIN_VALUE must be < than MAX_VALUE)
+        final int signumA = Long.signum(a);
+        final int signumB = Long.signum(b);
+        if (signumA != signumB) {
+            // simple case, number differs by sign already
+            return signumA < signumB ? -1 : 1;
+        }
+        if (signumB == 0)
+            return 0; // both are 0
+        // here, both are either negative or positive
+        // both operands have the same sign, but differ in scaling. Scale down first, and only if the numbers then are the same, scale up
+        if (scaleDiff < 0) {
+            long diff = a - FixedPointPowerOfTen.divide(b, -scaleDiff);
+            if (diff != 0)
+                return diff < 0 ? -1 : 1;
+            // scaled difference is 0. In this case, scaling up cannot result in an overflow.
+            diff = a * FixedPointBase.getPowerOfTen(-scaleDiff) - b;
+            if (diff != 0)
+                return diff < 0 ? -1 : 1;
+            return 0;
+        } else {
+            long diff = FixedPointPowerOfTen.divide(a, scaleDiff) - b;
+            if (diff != 0)
+                return diff < 0 ? -1 : 1;
+            // scaled difference is 0. In this case, scaling up cannot result in an overflow.
+            diff = a - b * FixedPointBase.getPowerOfTen(scaleDiff);
+            if (diff != 0)
+                return diff < 0 ? -1 : 1;
+            return 0;
+        }
+    }
+
+    /** Parses a number in text representation into a mantissa of the given scale. See {@link FixedPointParser}. */
+    public static long parse(final CharSequence text, final int scale, final RoundingMode rounding) {
+        return FixedPointParser.parseMantissa(text, 0, text.length(), scale, rounding);
+    }
+
+    /** Returns the text representation of a mantissa, in the same format as FixedPointBase.toString(). */
+    public static String toString(final long mantissa, final int scale) {
+        if (scale == 0) {
+            return Long.toString(mantissa);
+        }
+        return FixedPointFormatter.toString(mantissa, scale, FixedPointBase.outputToStringMinimized ? 0 : scale, FixedPointFormatter.NO_GROUPING);
+    }
+
+    /** Appends the text representation of a mantissa, in the same format as FixedPointBase.toString(). */
+    public static void append(final StringBuilder sb, final long mantissa, final int scale) {
+        FixedPointBase.append(sb, mantissa, scale, FixedPointBase.outputToStringMinimized ? 0 : scale);
+    }
+}
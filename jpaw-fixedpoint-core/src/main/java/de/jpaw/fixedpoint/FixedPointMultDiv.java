@@ -0,0 +1,206 @@
+package de.jpaw.fixedpoint;
+
+import java.math.RoundingMode;
+
+/**
+ * Pure Java implementation of a * b / c with a 128 bit intermediate product, as an alternative to the JNI library.
+ * The product is obtained via Math.multiplyHigh, the 128 by 64 bit division follows the classic long division
+ * with two 32 bit digits (Knuth, algorithm D, as described in Hacker's Delight, divlu).
+ * The result is rounded exactly as BigDecimal would do, for every rounding mode. No objects are created.
+ */
+public final class FixedPointMultDiv {
+    private static final long LOW_32_BITS = 0xffffffffL;
+    private static final long DIGIT_BASE = 1L << 32;
+
+    /** Classification of a remainder relative to the divisor, as required for rounding. */
+    static final int REMAINDER_ZERO = 0;
+    static final int REMAINDER_BELOW_HALF = 1;
+    static final int REMAINDER_HALF = 2;
+    static final int REMAINDER_ABOVE_HALF = 3;
+
+    private FixedPointMultDiv() { }
+
+    /**
+     * Computes a * b / c, with a 128 bit intermediate result, and rounds according to the rounding mode.
+     *
+     * @throws ArithmeticException if c is zero, if the result does not fit into a long,
+     *   or if rounding would be required, but the rounding mode is UNNECESSARY
+     */
+    public static long multdiv128(final long a, final long b, long c, final RoundingMode rounding) {
+        if (c == 0L) {
+            throw new ArithmeticException("Division by zero");
+        }
+        long hi = Math.multiplyHigh(a, b);
+        long lo = a * b;
+        boolean negative = hi < 0L;
+        if (negative) {
+            // negate the 128 bit product, to obtain its absolute value
+            lo = -lo;
+            hi = lo == 0L ? -hi : ~hi;
+        }
+        if (c < 0L) {
+            negative = !negative;
+            c = -c;     // Long.MIN_VALUE stays, which is correct when interpreted as unsigned number
+        }
+        final long quotient;
+        final long remainder;
+        if (hi == 0L) {
+            quotient  = Long.divideUnsigned(lo, c);
+            remainder = lo - quotient * c;
+        } else {
+            if (Long.compareUnsigned(hi, c) >= 0) {
+                throw new ArithmeticException("Overflow computing " + a + " * " + b + " / " + c);
+            }
+            quotient  = divideUnsigned128(hi, lo, c);
+            remainder = lo - quotient * c;   // the upper bits cancel out, because the true remainder is less than c
+        }
+        return roundAndApplySign(quotient, remainderClass(remainder, c), negative, rounding);
+    }
+
+    /** Computes a * POWERS_OF_TEN[decimalsScale] / c, with a 128 bit intermediate result. decimalsScale is in range 0..18. */
+    public static long scale_and_divide(final long mantissa, final int decimalsScale, final long divisor, final RoundingMode rounding) {
+        return multdiv128(mantissa, FixedPointBase.POWERS_OF_TEN[decimalsScale], divisor, rounding);
+    }
+
+    /**
+     * Computes a * b / 10^decimalsScale, with a 128 bit intermediate result. decimalsScale is in range 0..36, which covers
+     * the product of any two mantissas with scale 0..18. For more than 18 digits, the divisor exceeds 64 bits, and the division
+     * is done in two steps, keeping track of a nonzero remainder of the first one for the rounding.
+     */
+    public static long multiply_and_scale(final long mantissaA, final long mantissaB, final int decimalsScale, final RoundingMode rounding) {
+        if (decimalsScale <= 18) {
+            return multdiv128(mantissaA, mantissaB, FixedPointBase.POWERS_OF_TEN[decimalsScale], rounding);
+        }
+        long hi = Math.multiplyHigh(mantissaA, mantissaB);
+        long lo = mantissaA * mantissaB;
+        final boolean negative = hi < 0L;
+        if (negative) {
+            // negate the 128 bit product, to obtain its absolute value
+            lo = -lo;
+            hi = lo == 0L ? -hi : ~hi;
+        }
+        // first step: 128 bit quotient, of the remainder only the fact whether it is nonzero is relevant
+        final long firstDivisor = FixedPointBase.POWERS_OF_TEN[decimalsScale - 18];
+        final long firstHi = Long.divideUnsigned(hi, firstDivisor);
+        final long firstLo = divideUnsigned128(hi - firstHi * firstDivisor, lo, firstDivisor);
+        final boolean sticky = lo - firstLo * firstDivisor != 0L;
+        // second step
+        final long divisor = FixedPointBase.POWERS_OF_TEN[18];
+        if (Long.compareUnsigned(firstHi, divisor) >= 0) {
+            throw new ArithmeticException("Overflow computing " + mantissaA + " * " + mantissaB + " / 10^" + decimalsScale);
+        }
+        final long quotient = divideUnsigned128(firstHi, firstLo, divisor);
+        int remainderClass = remainderClass(firstLo - quotient * divisor, divisor);
+        if (sticky) {
+            // the discarded digits of the first step are between the classes of the second one
+            if (remainderClass == REMAINDER_ZERO) {
+                remainderClass = REMAINDER_BELOW_HALF;
+            } else if (remainderClass == REMAINDER_HALF) {
+                remainderClass = REMAINDER_ABOVE_HALF;
+            }
+        }
+        return roundAndApplySign(quotient, remainderClass, negative, rounding);
+    }
+
+    /**
+     * Rounds the absolute value of a quotient, which is an unsigned 64 bit number, and applies the sign.
+     *
+     * @throws ArithmeticException if the result does not fit into a long (including the case that rounding up overflows 64 bits)
+     */
+    static long roundAndApplySign(final long quotient, final int remainderClass, final boolean negative, final RoundingMode rounding) {
+        final long increment = roundingIncrement(quotient, remainderClass, negative, rounding);
+        if (increment != 0L && quotient == -1L) {
+            throw new ArithmeticException("Overflow: rounded result exceeds 64 bits");
+        }
+        final long absResult = quotient + increment;
+        if (negative) {
+            if (Long.compareUnsigned(absResult, Long.MIN_VALUE) > 0) {
+                throw new ArithmeticException("Overflow: result " + Long.toUnsignedString(absResult) + " below the range of long");
+            }
+            return -absResult;
+        }
+        if (absResult < 0L) {
+            throw new ArithmeticException("Overflow: result " + Long.toUnsignedString(absResult) + " above the range of long");
+        }
+        return absResult;
+    }
+
+    /** Classifies a remainder, which is less than the divisor (both unsigned, and the divisor is less than 2^63 or exactly 2^63). */
+    static int remainderClass(final long remainder, final long divisor) {
+        if (remainder == 0L) {
+            return REMAINDER_ZERO;
+        }
+        final int cmp = Long.compareUnsigned(remainder, divisor - remainder);
+        return cmp < 0 ? REMAINDER_BELOW_HALF : cmp == 0 ? REMAINDER_HALF : REMAINDER_ABOVE_HALF;
+    }
+
+    /**
+     * Returns 1 if the absolute value of the quotient must be incremented, else 0.
+     * The remainder class describes the discarded fraction of the absolute value.
+     */
+    static long roundingIncrement(final long quotient, final int remainderClass, final boolean negative, final RoundingMode rounding) {
+        if (remainderClass == REMAINDER_ZERO) {
+            return 0L;
+        }
+        switch (rounding) {
+        case UP:              // round towards bigger absolute value
+            return 1L;
+        case DOWN:            // round towards smaller absolute value
+            return 0L;
+        case CEILING:         // round towards bigger numerical value
+            return negative ? 0L : 1L;
+        case FLOOR:           // round towards smaller numerical value
+            return negative ? 1L : 0L;
+        case HALF_UP:
+            return remainderClass >= REMAINDER_HALF ? 1L : 0L;
+        case HALF_DOWN:
+            return remainderClass == REMAINDER_ABOVE_HALF ? 1L : 0L;
+        case HALF_EVEN:
+            if (remainderClass == REMAINDER_HALF) {
+                // exactly in the middle
+                return quotient & 1L;
+            }
+            return remainderClass == REMAINDER_ABOVE_HALF ? 1L : 0L;
+        case UNNECESSARY:
+            throw new ArithmeticException("Rounding required but forbidden by roundingMode parameter");
+        default:
+            return 0L;
+        }
+    }
+
+    /** Unsigned division of a 128 bit number by a 64 bit number. The caller ensures that hi is less than the divisor, therefore the quotient fits into 64 bits. */
+    static long divideUnsigned128(final long hi, final long lo, long divisor) {
+        // normalize the divisor, such that its highest bit is set
+        final int shift = Long.numberOfLeadingZeros(divisor);
+        divisor <<= shift;
+        final long divisorHi = divisor >>> 32;
+        final long divisorLo = divisor & LOW_32_BITS;
+        final long numerator32 = shift == 0 ? hi : (hi << shift) | (lo >>> (64 - shift));
+        final long numerator10 = lo << shift;
+        final long numerator1 = numerator10 >>> 32;
+        final long numerator0 = numerator10 & LOW_32_BITS;
+
+        // first digit of the quotient
+        long q1 = Long.divideUnsigned(numerator32, divisorHi);
+        long rhat = numerator32 - q1 * divisorHi;
+        while (q1 >= DIGIT_BASE || Long.compareUnsigned(q1 * divisorLo, (rhat << 32) | numerator1) > 0) {
+            --q1;
+            rhat += divisorHi;
+            if (rhat >= DIGIT_BASE) {
+                break;
+            }
+        }
+        // second digit of the quotient
+        final long numerator21 = (numerator32 << 32) + numerator1 - q1 * divisor;
+        long q0 = Long.divideUnsigned(numerator21, divisorHi);
+        rhat = numerator21 - q0 * divisorHi;
+        while (q0 >= DIGIT_BASE || Long.compareUnsigned(q0 * divisorLo, (rhat << 32) | numerator0) > 0) {
+            --q0;
+            rhat += divisorHi;
+            if (rhat >= DIGIT_BASE) {
+                break;
+            }
+        }
+        return (q1 << 32) | q0;
+    }
+}
@@ -1,9 +1,9 @@
 package de.jpaw.fixedpoint;
 
-import java.math.BigDecimal;
 import java.math.RoundingMode;
 
-/** Support class which performs 64 * 64 bit to 128 bit multiplication, and subsequent scaling. */
+/** Support class which performs 64 * 64 bit to 128 bit multiplication, and subsequent scaling.
+ * If the native library is not available, the pure Java implementation in {@link FixedPointMultDiv} is used. */
 public final class FixedPointNative {
     private static final String LIBRARY_NAME = "jpawFP128";
     private static volatile boolean nativeAvailable = false;
@@ -21,6 +21,11 @@ public final class FixedPointNative {
 
     private FixedPointNative() { }
 
+    /** Returns true if the native library has been loaded, false if the pure Java implementation is used. */
+    public static boolean isNativeAvailable() {
+        return nativeAvailable;
+    }
+
     /** Computes a * b / c, with a 128 bit intermediate result. c is known to be a strictly positive number. */
     private static native long multdiv128(long a, long b, long c, int roundingMode);
 
@@ -29,21 +34,15 @@ public final class FixedPointNative {
         if (nativeAvailable) {
             return multdiv128(a, p, q, rounding.ordinal());
         }
-        // fallback implementation.
-        final BigDecimal product = BigDecimal.valueOf(a).multiply(BigDecimal.valueOf(p)).divide(BigDecimal.valueOf(q), rounding);
-        return product.longValue();
+        return FixedPointMultDiv.multdiv128(a, p, q, rounding);
     }
 
-
     /** decimalsScale is in range 0..18 */
     public static long multiply_and_scale(final long mantissaA, final long mantissaB, final int decimalsScale, final RoundingMode rounding) {
         if (nativeAvailable) {
             return multdiv128(mantissaA, mantissaB, FixedPointBase.POWERS_OF_TEN[decimalsScale], rounding.ordinal());
         }
-        // fallback implementation. Is there a better one with just BigInteger?
-        final BigDecimal product = BigDecimal.valueOf(mantissaA).multiply(BigDecimal.valueOf(mantissaB, decimalsScale));
-        final BigDecimal scaledProduct = product.setScale(0, rounding);
-        return scaledProduct.longValue();
+        return FixedPointMultDiv.multiply_and_scale(mantissaA, mantissaB, decimalsScale, rounding);
     }
 
     /** decimalsScale is in range 0..18 */
@@ -56,9 +55,7 @@ public final class FixedPointNative {
         if (nativeAvailable) {
             return multdiv128(mantissa, FixedPointBase.POWERS_OF_TEN[decimalsScale], divisor, rounding.ordinal());
         }
-        // fallback implementation. Is there a better one with just BigInteger?
-        final BigDecimal quotient = BigDecimal.valueOf(mantissa).divide(BigDecimal.valueOf(divisor, decimalsScale), 0, rounding);
-        return quotient.longValue();
+        return FixedPointMultDiv.scale_and_divide(mantissa, decimalsScale, divisor, rounding);
     }
 
 }
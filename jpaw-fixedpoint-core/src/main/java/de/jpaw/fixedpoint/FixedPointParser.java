@@ -0,0 +1,169 @@
+package de.jpaw.fixedpoint;
+
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parsers for the text representation of fixed point numbers, which work on ranges of a CharSequence, a char array or an ASCII byte array.
+ * The digits are accumulated in a single pass, without creating temporary Strings or other objects, which allows to parse
+ * fields of CSV files or JSON tokens without materializing them as String first.
+ *
+ * The accepted syntax is an optional sign, followed by integral digits, and optionally a decimal point and fractional digits.
+ * At least one digit is required, and either the integral or the fractional digits may be missing ("-.5", "1.").
+ * Fractional digits beyond the target scale are accepted if they are all zero. Otherwise the value is rounded as specified,
+ * or rejected if the rounding mode is UNNECESSARY.
+ *
+ * All parse errors, including values exceeding the range of a long, raise a NumberFormatException.
+ */
+public final class FixedPointParser {
+    private static final long MULTIPLY_LIMIT = Long.MIN_VALUE / 10;
+
+    private FixedPointParser() { }
+
+    /** Parses a String or other character sequence, without rounding. */
+    public static long parseMantissa(final CharSequence src, final int targetScale) {
+        return parse(src, null, null, 0, src.length(), targetScale, RoundingMode.UNNECESSARY);
+    }
+
+    /** Parses the characters from start (inclusive) to end (exclusive) of a character sequence, rounding excess fractional digits. */
+    public static long parseMantissa(final CharSequence src, final int start, final int end, final int targetScale, final RoundingMode rounding) {
+        return parse(src, null, null, start, end, targetScale, rounding);
+    }
+
+    /** Parses length characters of a char array, starting at offset, rounding excess fractional digits. */
+    public static long parseMantissa(final char[] src, final int offset, final int length, final int targetScale, final RoundingMode rounding) {
+        return parse(null, src, null, offset, offset + length, targetScale, rounding);
+    }
+
+    /** Parses length bytes of an ASCII encoded byte array, starting at offset, rounding excess fractional digits. */
+    public static long parseMantissa(final byte[] src, final int offset, final int length, final int targetScale, final RoundingMode rounding) {
+        return parse(null, null, src, offset, offset + length, targetScale, rounding);
+    }
+
+    /**
+     * Returns the number of fractional digits of a number in text representation, which is the scale required to represent it without loss.
+     * Does not validate the input.
+     */
+    public static int fractionalDigits(final CharSequence src, final int start, final int end) {
+        for (int i = start; i < end; ++i) {
+            if (src.charAt(i) == '.') {
+                return end - i - 1;
+            }
+        }
+        return 0;
+    }
+
+    /** Exactly one of the three sources is not null. */
+    private static int charAt(final CharSequence cs, final char[] chars, final byte[] bytes, final int i) {
+        if (cs != null) {
+            return cs.charAt(i);
+        }
+        return chars != null ? chars[i] : bytes[i] & 0xff;
+    }
+
+    private static NumberFormatException error(final String reason, final CharSequence cs, final char[] chars, final byte[] bytes,
+      final int start, final int end) {
+        final String text;
+        if (cs != null) {
+            text = cs.subSequence(start, end).toString();
+        } else if (chars != null) {
+            text = new String(chars, start, end - start);
+        } else {
+            text = new String(bytes, start, end - start, StandardCharsets.ISO_8859_1);
+        }
+        return new NumberFormatException(reason + ": \"" + text + "\"");
+    }
+
+    private static long parse(final CharSequence cs, final char[] chars, final byte[] bytes, final int start, final int end,
+      final int targetScale, final RoundingMode rounding) {
+        int pos = start;
+        boolean negative = false;
+        if (pos < end) {
+            final int c = charAt(cs, chars, bytes, pos);
+            if (c == '-') {
+                negative = true;
+                ++pos;
+            } else if (c == '+') {
+                ++pos;
+            }
+        }
+        // the value is accumulated as a negative number, to cover Long.MIN_VALUE
+        long accumulated = 0L;
+        int numberOfDigits = 0;
+        int fractionalDigits = -1;          // -1 as long as no decimal point has been seen
+        int firstExcessDigit = 0;           // the first fractional digit beyond the target scale
+        boolean moreExcessDigits = false;   // any nonzero fractional digit after the first excess one
+        for (; pos < end; ++pos) {
+            final int c = charAt(cs, chars, bytes, pos);
+            if (c >= '0' && c <= '9') {
+                final int digit = c - '0';
+                ++numberOfDigits;
+                if (fractionalDigits >= 0) {
+                    if (fractionalDigits >= targetScale) {
+                        // excess digit
+                        if (fractionalDigits++ == targetScale) {
+                            firstExcessDigit = digit;
+                        } else if (digit != 0) {
+                            moreExcessDigits = true;
+                        }
+                        continue;
+                    }
+                    ++fractionalDigits;
+                }
+                if (accumulated < MULTIPLY_LIMIT) {
+                    throw error("Value out of range", cs, chars, bytes, start, end);
+                }
+                accumulated *= 10;
+                if (accumulated < Long.MIN_VALUE + digit) {
+                    throw error("Value out of range", cs, chars, bytes, start, end);
+                }
+                accumulated -= digit;
+            } else if (c == '.' && fractionalDigits < 0) {
+                fractionalDigits = 0;
+            } else {
+                throw error("Invalid character in number", cs, chars, bytes, start, end);
+            }
+        }
+        if (numberOfDigits == 0) {
+            throw error("No digits found", cs, chars, bytes, start, end);
+        }
+        if (fractionalDigits > targetScale) {
+            final int remainderClass;
+            if (firstExcessDigit == 5) {
+                remainderClass = moreExcessDigits ? FixedPointMultDiv.REMAINDER_ABOVE_HALF : FixedPointMultDiv.REMAINDER_HALF;
+            } else if (firstExcessDigit > 5) {
+                remainderClass = FixedPointMultDiv.REMAINDER_ABOVE_HALF;
+            } else {
+                remainderClass = firstExcessDigit > 0 || moreExcessDigits ? FixedPointMultDiv.REMAINDER_BELOW_HALF : FixedPointMultDiv.REMAINDER_ZERO;
+            }
+            if (remainderClass != FixedPointMultDiv.REMAINDER_ZERO) {
+                if (rounding == RoundingMode.UNNECESSARY) {
+                    throw error("Too many significant fractional digits specified, allowed: " + targetScale, cs, chars, bytes, start, end);
+                }
+                if (FixedPointMultDiv.roundingIncrement(accumulated, remainderClass, negative, rounding) != 0L) {
+                    if (accumulated == Long.MIN_VALUE) {
+                        throw error("Value out of range", cs, chars, bytes, start, end);
+                    }
+                    --accumulated;
+                }
+            }
+        } else {
+            // scale up for missing fractional digits
+            final int missingDigits = targetScale - Math.max(fractionalDigits, 0);
+            if (missingDigits > 0) {
+                final long factor = FixedPointBase.getPowerOfTen(missingDigits);
+                if (accumulated < Long.MIN_VALUE / factor) {
+                    throw error("Value out of range", cs, chars, bytes, start, end);
+                }
+                accumulated *= factor;
+            }
+        }
+        if (negative) {
+            return accumulated;
+        }
+        if (accumulated == Long.MIN_VALUE) {
+            throw error("Value out of range", cs, chars, bytes, start, end);
+        }
+        return -accumulated;
+    }
+}
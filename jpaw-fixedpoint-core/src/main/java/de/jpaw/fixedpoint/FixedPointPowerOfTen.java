@@ -0,0 +1,60 @@
+package de.jpaw.fixedpoint;
+
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Division of longs by powers of ten (10^0 to 10^18) without a hardware division instruction.
+ * The divisor of a rescaling operation is only known at runtime, therefore the JIT cannot replace the division by a multiplication,
+ * as it does for constant divisors. This class does it explicitly, using a table of precomputed reciprocals ("magic numbers"):
+ * For d = 10^n and l = ceil(log2(d)), the factor m = ceil(2^(63 + l) / d) fits into 64 unsigned bits,
+ * and floor(x * m / 2^(63 + l)) equals floor(x / d) for every magnitude 0 &lt;= x &lt;= 2^63 (Granlund / Montgomery).
+ * The high part of the 128 bit product is obtained via Math.multiplyHigh.
+ *
+ * The results are identical to those of the division operators and of <code>FixedPointBase.divide_longs</code>, for every rounding mode.
+ */
+public final class FixedPointPowerOfTen {
+    private static final long[] MAGIC = new long[19];
+    private static final int[] SHIFT = new int[19];
+    static {
+        for (int power = 1; power <= 18; ++power) {
+            final long divisor = FixedPointBase.getPowerOfTen(power);
+            final int l = 64 - Long.numberOfLeadingZeros(divisor - 1L);
+            final BigInteger[] qr = BigInteger.ONE.shiftLeft(63 + l).divideAndRemainder(BigInteger.valueOf(divisor));
+            MAGIC[power] = qr[0].add(qr[1].signum() != 0 ? BigInteger.ONE : BigInteger.ZERO).longValue();  // unsigned 64 bit
+            SHIFT[power] = l - 1;
+        }
+    }
+
+    private FixedPointPowerOfTen() { }
+
+    /** Returns dividend / 10^power, truncated towards zero, as the / operator does. The power must be in range 0..18. */
+    public static long divide(final long dividend, final int power) {
+        if (power == 0) {
+            return dividend;
+        }
+        final long sign = dividend >> 63;
+        final long magnitude = (dividend ^ sign) - sign;        // unsigned, 2^63 for Long.MIN_VALUE
+        final long m = MAGIC[power];
+        // unsigned high part of the product
+        final long high = Math.multiplyHigh(magnitude, m) + ((magnitude >> 63) & m) + ((m >> 63) & magnitude);
+        final long quotient = high >>> SHIFT[power];
+        return (quotient ^ sign) - sign;
+    }
+
+    /** Returns dividend % 10^power, which has the sign of the dividend, as the % operator does. The power must be in range 0..18. */
+    public static long remainder(final long dividend, final int power) {
+        return dividend - divide(dividend, power) * FixedPointBase.getPowerOfTen(power);
+    }
+
+    /** Returns dividend / 10^power, rounded as specified, with the same results as <code>FixedPointBase.divide_longs</code>. The power must be in range 0..18. */
+    public static long divide(final long dividend, final int power, final RoundingMode rounding) {
+        final long quotient = divide(dividend, power);
+        final long divisor = FixedPointBase.getPowerOfTen(power);
+        final long remainder = dividend - quotient * divisor;
+        if (remainder == 0L) {
+            return quotient;  // no rounding required: same for all modes...
+        }
+        return FixedPointBase.roundQuotient(dividend, divisor, quotient, remainder, rounding);
+    }
+}
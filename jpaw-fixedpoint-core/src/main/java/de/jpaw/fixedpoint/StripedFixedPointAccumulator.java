@@ -0,0 +1,132 @@
+package de.jpaw.fixedpoint;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Thread safe variant of {@link FixedPointAccumulator}, for accumulation by many threads concurrently.
+ * Similar to <code>java.util.concurrent.atomic.LongAdder</code>, the sum is distributed over several cells, and every thread
+ * updates the cell selected by its thread ID. As a 128 bit sum cannot be updated atomically, each cell is guarded by its own lock,
+ * which is rarely contended.
+ *
+ * The extraction methods combine the cells. Similar to LongAdder, the result is not an atomic snapshot if updates happen concurrently.
+ */
+public final class StripedFixedPointAccumulator {
+    private final int scale;
+    private final FixedPointAccumulator[] cells;
+    private final int mask;
+
+    /** Creates an accumulator with a sum of 0, for the given scale (0..18), using a number of cells suitable for the number of processors. */
+    public StripedFixedPointAccumulator(final int scale) {
+        this(scale, Runtime.getRuntime().availableProcessors());
+    }
+
+    /** Creates an accumulator with a sum of 0, for the given scale (0..18). The number of cells is rounded up to a power of 2. */
+    public StripedFixedPointAccumulator(final int scale, final int minimumNumberOfCells) {
+        final int numberOfCells = minimumNumberOfCells <= 1 ? 1 : Integer.highestOneBit(minimumNumberOfCells - 1) << 1;
+        this.scale = scale;
+        this.cells = new FixedPointAccumulator[numberOfCells];
+        this.mask = numberOfCells - 1;
+        for (int i = 0; i < numberOfCells; ++i) {
+            cells[i] = new FixedPointAccumulator(scale);
+        }
+    }
+
+    /** Get the number of decimals of the sum. */
+    public int scale() {
+        return scale;
+    }
+
+    private FixedPointAccumulator cell() {
+        final long id = Thread.currentThread().getId();
+        return cells[(int)((id * 0x9e3779b97f4a7c15L) >>> 32) & mask];
+    }
+
+    /** Adds a mantissa of the same scale as the accumulator. */
+    public void add(final long mantissa) {
+        final FixedPointAccumulator cell = cell();
+        synchronized (cell) {
+            cell.add(mantissa);
+        }
+    }
+
+    /** Subtracts a mantissa of the same scale as the accumulator. */
+    public void subtract(final long mantissa) {
+        final FixedPointAccumulator cell = cell();
+        synchronized (cell) {
+            cell.subtract(mantissa);
+        }
+    }
+
+    /** Adds a fixed point value. If its scale exceeds the scale of the accumulator, the value is rounded first. */
+    public void add(final FixedPointBase<?> value, final RoundingMode rounding) {
+        final FixedPointAccumulator cell = cell();
+        synchronized (cell) {
+            cell.add(value, rounding);
+        }
+    }
+
+    /** Subtracts a fixed point value. If its scale exceeds the scale of the accumulator, the value is rounded first. */
+    public void subtract(final FixedPointBase<?> value, final RoundingMode rounding) {
+        final FixedPointAccumulator cell = cell();
+        synchronized (cell) {
+            cell.subtract(value, rounding);
+        }
+    }
+
+    /** Adds the product of two fixed point values. If the scale of the product exceeds the scale of the accumulator, the product is rounded first. */
+    public void multiplyAdd(final FixedPointBase<?> a, final FixedPointBase<?> b, final RoundingMode rounding) {
+        final FixedPointAccumulator cell = cell();
+        synchronized (cell) {
+            cell.multiplyAdd(a, b, rounding);
+        }
+    }
+
+    /** Adds the product of a fixed point value and an integral factor. */
+    public void multiplyAdd(final FixedPointBase<?> a, final long factor, final RoundingMode rounding) {
+        final FixedPointAccumulator cell = cell();
+        synchronized (cell) {
+            cell.multiplyAdd(a, factor, rounding);
+        }
+    }
+
+    /** Sets the sum to 0. Updates which happen concurrently may get lost. */
+    public void reset() {
+        for (final FixedPointAccumulator cell : cells) {
+            synchronized (cell) {
+                cell.reset();
+            }
+        }
+    }
+
+    /** Returns the combined sum of all cells, as a new non thread safe accumulator. */
+    public FixedPointAccumulator combine() {
+        final FixedPointAccumulator sum = new FixedPointAccumulator(scale);
+        for (final FixedPointAccumulator cell : cells) {
+            synchronized (cell) {
+                sum.add(cell);
+            }
+        }
+        return sum;
+    }
+
+    /** Returns the mantissa of the sum for the given scale, rounded if required. See {@link FixedPointAccumulator#getMantissa(int, RoundingMode)}. */
+    public long getMantissa(final int targetScale, final RoundingMode rounding) {
+        return combine().getMantissa(targetScale, rounding);
+    }
+
+    /** Returns the sum as a fixed point value of the same type and scale as the provided instance, rounded if required. */
+    public <CLASS extends FixedPointBase<CLASS>> CLASS get(final CLASS prototype, final RoundingMode rounding) {
+        return combine().get(prototype, rounding);
+    }
+
+    /** Returns the exact sum as a BigDecimal. */
+    public BigDecimal toBigDecimal() {
+        return combine().toBigDecimal();
+    }
+
+    @Override
+    public String toString() {
+        return combine().toString();
+    }
+}
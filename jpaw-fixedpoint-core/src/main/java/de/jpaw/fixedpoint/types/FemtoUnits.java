@@ -4,6 +4,7 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 
 import de.jpaw.fixedpoint.FixedPointBase;
+import de.jpaw.fixedpoint.FixedPointPowerOfTen;
 
 /** Instances of this class represent numbers with a fixed precision of 15 decimals, and up to 18 total digits precision. */
 public final class FemtoUnits extends FixedPointBase<FemtoUnits> {
@@ -19,7 +20,17 @@ public final class FemtoUnits extends FixedPointBase<FemtoUnits> {
     /** The representation of the number 1 in this class. This implementation attempts to maintain a single instance of 0 only. */
     public static final FemtoUnits ONE = new FemtoUnits(UNIT_MANTISSA);
 
-    // external callers use valueOf factory method, which returns existing objects for 0 and 1. This constructor is used by the factory methods
+    /** Canonical instances for the integral values CACHE_LOW to CACHE_HIGH, returned by the factory methods. */
+    private static final FemtoUnits[] CACHE = new FemtoUnits[CACHE_HIGH - CACHE_LOW + 1];
+    private static final long MIN_CACHED_MANTISSA = CACHE_LOW * UNIT_MANTISSA;
+    private static final long MAX_CACHED_MANTISSA = CACHE_HIGH * UNIT_MANTISSA;
+    static {
+        for (int i = CACHE_LOW; i <= CACHE_HIGH; ++i) {
+            CACHE[i - CACHE_LOW] = i == 0 ? ZERO : i == 1 ? ONE : new FemtoUnits(i * UNIT_MANTISSA);
+        }
+    }
+
+    // external callers use valueOf factory method, which returns existing objects for small integral values. This constructor is used by the factory methods
     private FemtoUnits(final long mantissa) {
         super(mantissa);
     }
@@ -31,6 +42,11 @@ public final class FemtoUnits extends FixedPointBase<FemtoUnits> {
             return ZERO;
         if (mantissa == UNIT_MANTISSA)
             return ONE;
+        if (CACHE_ENABLED && mantissa >= MIN_CACHED_MANTISSA && mantissa <= MAX_CACHED_MANTISSA) {
+            final long value = mantissa / UNIT_MANTISSA;    // a single division, only for mantissas within the cached range
+            if (value * UNIT_MANTISSA == mantissa)
+                return CACHE[(int)value - CACHE_LOW];
+        }
         return new FemtoUnits(mantissa);
     }
 
@@ -63,7 +79,7 @@ public final class FemtoUnits extends FixedPointBase<FemtoUnits> {
         if (scaleDiff >= 0)
             return FemtoUnits.of(that.getMantissa() * POWERS_OF_TEN[scaleDiff]);
         // rescale
-        return  FemtoUnits.of(divide_longs(that.getMantissa(), POWERS_OF_TEN[-scaleDiff], rounding));
+        return  FemtoUnits.of(FixedPointPowerOfTen.divide(that.getMantissa(), -scaleDiff, rounding));
     }
 
     /** Constructs an instance with a value specified via a parameter of type <code>BigDecimal</code>.
@@ -137,12 +153,17 @@ public final class FemtoUnits extends FixedPointBase<FemtoUnits> {
         return UNIT_SCALE_AS_DOUBLE_FACTOR;
     }
 
-    /** ReadResolve is required to ensure that we keep the singleton property of ZERO and ONE after Serialization. */
+    /** ReadResolve is required to ensure that we keep the singleton property of ZERO, ONE and the other cached instances after Serialization. */
     private Object readResolve() {
         if (mantissa == 0L)
             return ZERO;
         if (mantissa == UNIT_MANTISSA)
             return ONE;
+        if (CACHE_ENABLED && mantissa >= MIN_CACHED_MANTISSA && mantissa <= MAX_CACHED_MANTISSA) {
+            final long value = mantissa / UNIT_MANTISSA;
+            if (value * UNIT_MANTISSA == mantissa)
+                return CACHE[(int)value - CACHE_LOW];
+        }
         return this;
      }
 }
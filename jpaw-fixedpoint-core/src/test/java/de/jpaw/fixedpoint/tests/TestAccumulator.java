@@ -0,0 +1,157 @@
+package de.jpaw.fixedpoint.tests;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.jpaw.fixedpoint.FixedPointAccumulator;
+import de.jpaw.fixedpoint.FixedPointBase;
+import de.jpaw.fixedpoint.StripedFixedPointAccumulator;
+import de.jpaw.fixedpoint.types.FemtoUnits;
+import de.jpaw.fixedpoint.types.Hundreds;
+import de.jpaw.fixedpoint.types.MicroUnits;
+import de.jpaw.fixedpoint.types.MilliUnits;
+import de.jpaw.fixedpoint.types.NanoUnits;
+import de.jpaw.fixedpoint.types.Units;
+import de.jpaw.fixedpoint.types.VariableUnits;
+
+public class TestAccumulator {
+
+    private static BigDecimal bd(final FixedPointBase<?> value) {
+        return BigDecimal.valueOf(value.getMantissa(), value.scale());
+    }
+
+    @Test
+    public void testAddAcrossScales() throws Exception {
+        final FixedPointAccumulator acc = new FixedPointAccumulator(6);
+        acc.add(Units.of(3L));
+        acc.add(Hundreds.of(250L));
+        acc.subtract(MilliUnits.of(1L));
+        acc.add(NanoUnits.of(1_499L), RoundingMode.HALF_EVEN);     // rounded to 0.000001
+        acc.add(7L);                                                // raw mantissa
+        Assertions.assertEquals(5_499_008L, acc.getMantissa());
+        Assertions.assertEquals(MicroUnits.of(5_499_008L), acc.get(MicroUnits.ZERO, RoundingMode.UNNECESSARY));
+        Assertions.assertEquals(MilliUnits.of(5_499L), acc.get(MilliUnits.ZERO, RoundingMode.HALF_EVEN));
+        Assertions.assertEquals(Units.of(6L), acc.get(Units.ZERO, RoundingMode.CEILING));
+        Assertions.assertThrows(ArithmeticException.class, () -> acc.get(Units.ZERO, RoundingMode.UNNECESSARY));
+        Assertions.assertThrows(ArithmeticException.class, () -> acc.add(NanoUnits.of(1L)));
+        Assertions.assertEquals(new BigDecimal("5.499008"), acc.toBigDecimal());
+        Assertions.assertEquals(5_499_008_000L, acc.get(VariableUnits.valueOf(0L, 9), RoundingMode.UNNECESSARY).getMantissa());
+    }
+
+    @Test
+    public void testHeadroom() throws Exception {
+        final FixedPointAccumulator acc = new FixedPointAccumulator(2);
+        for (int i = 0; i < 10; ++i) {
+            acc.add(Long.MAX_VALUE);
+        }
+        Assertions.assertFalse(acc.hasOverflowed());
+        Assertions.assertThrows(ArithmeticException.class, () -> acc.getMantissa());
+        Assertions.assertEquals(BigDecimal.valueOf(Long.MAX_VALUE, 2).multiply(BigDecimal.TEN), acc.toBigDecimal());
+        for (int i = 0; i < 10; ++i) {
+            acc.subtract(Long.MAX_VALUE);
+        }
+        acc.subtract(Long.MIN_VALUE);
+        acc.add(Long.MIN_VALUE);
+        acc.add(Long.MIN_VALUE);
+        Assertions.assertEquals(Long.MIN_VALUE, acc.getMantissa());
+        Assertions.assertEquals(Units.of(Long.MIN_VALUE / 100L), acc.get(Units.ZERO, RoundingMode.DOWN));
+        acc.reset();
+        Assertions.assertTrue(acc.isZero());
+    }
+
+    @Test
+    public void testOverflow() throws Exception {
+        final FixedPointAccumulator acc = new FixedPointAccumulator(18);
+        for (int i = 0; i < 4; ++i) {
+            acc.multiplyAdd(Long.MAX_VALUE, Long.MAX_VALUE, 18, RoundingMode.UNNECESSARY);
+        }
+        Assertions.assertTrue(acc.hasOverflowed());
+        Assertions.assertThrows(ArithmeticException.class, () -> acc.toBigDecimal());
+        acc.reset();
+        acc.multiplyAdd(Long.MAX_VALUE, Long.MAX_VALUE, 0, RoundingMode.UNNECESSARY);   // needs a factor of 10^18
+        Assertions.assertTrue(acc.hasOverflowed());
+    }
+
+    @Test
+    public void testMultiplyAddAgainstBigDecimal() throws Exception {
+        final Random rnd = new Random(4711L);
+        for (final RoundingMode rounding : new RoundingMode[] { RoundingMode.HALF_EVEN, RoundingMode.HALF_UP, RoundingMode.HALF_DOWN,
+          RoundingMode.UP, RoundingMode.DOWN, RoundingMode.CEILING, RoundingMode.FLOOR }) {
+            for (final int scale : new int[] { 0, 2, 6, 18 }) {
+                final FixedPointAccumulator acc = new FixedPointAccumulator(scale);
+                BigDecimal expected = BigDecimal.ZERO.setScale(scale);
+                for (int i = 0; i < 200; ++i) {
+                    final FixedPointBase<?> a;
+                    final FixedPointBase<?> b;
+                    switch (i % 4) {
+                    case 0:
+                        a = MicroUnits.of(rnd.nextLong() >> 20);
+                        b = MilliUnits.of(rnd.nextLong() >> 30);
+                        break;
+                    case 1:
+                        a = FemtoUnits.of(rnd.nextLong());
+                        b = FemtoUnits.of(rnd.nextLong());      // product scale 30
+                        break;
+                    case 2:
+                        a = VariableUnits.valueOf(rnd.nextLong() >> 30, 18);
+                        b = VariableUnits.valueOf(rnd.nextLong() >> 30, 18);   // product scale 36
+                        break;
+                    default:
+                        a = Units.of(rnd.nextInt(100_000));
+                        b = Hundreds.of(-rnd.nextInt(100_000));
+                        break;
+                    }
+                    acc.multiplyAdd(a, b, rounding);
+                    expected = expected.add(bd(a).multiply(bd(b)).setScale(scale, rounding));
+                }
+                Assertions.assertEquals(expected, acc.toBigDecimal(), "scale " + scale + ", " + rounding);
+                final BigDecimal expectedMillis = expected.setScale(3, rounding);
+                if (expectedMillis.unscaledValue().bitLength() < 64) {
+                    Assertions.assertEquals(expectedMillis.unscaledValue().longValueExact(), acc.getMantissa(3, rounding));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTies() throws Exception {
+        // 0.5 and 2.5 (as product of two values with scale 18) in various modes
+        final long half = 500_000_000L;
+        final FixedPointAccumulator acc = new FixedPointAccumulator(0);
+        acc.multiplyAdd(half, 1_000_000_000L, 18, RoundingMode.HALF_EVEN);
+        Assertions.assertEquals(0L, acc.getMantissa());
+        acc.multiplyAdd(half, 1_000_000_000L, 18, RoundingMode.HALF_UP);
+        Assertions.assertEquals(1L, acc.getMantissa());
+        acc.multiplyAdd(-half, 5_000_000_000L, 18, RoundingMode.HALF_EVEN);
+        Assertions.assertEquals(-1L, acc.getMantissa());
+        acc.multiplyAdd(-half - 1L, 1_000_000_000L, 18, RoundingMode.HALF_DOWN);
+        Assertions.assertEquals(-2L, acc.getMantissa());
+    }
+
+    @Test
+    public void testStriped() throws Exception {
+        final StripedFixedPointAccumulator acc = new StripedFixedPointAccumulator(2, 4);
+        final Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; ++t) {
+            threads[t] = new Thread(() -> {
+                for (int i = 1; i <= 10_000; ++i) {
+                    acc.add(i);
+                    acc.multiplyAdd(Hundreds.of(150L), 2L, RoundingMode.UNNECESSARY);
+                    acc.subtract(MilliUnits.of(3_000L), RoundingMode.UNNECESSARY);
+                }
+            });
+            threads[t].start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        Assertions.assertEquals(4L * 50_005_000L, acc.getMantissa(2, RoundingMode.UNNECESSARY));
+        Assertions.assertEquals(Hundreds.of(4L * 50_005_000L), acc.get(Hundreds.ZERO, RoundingMode.UNNECESSARY));
+        acc.reset();
+        Assertions.assertTrue(acc.combine().isZero());
+    }
+}
@@ -0,0 +1,122 @@
+package de.jpaw.fixedpoint.tests;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.jpaw.fixedpoint.FixedPointBinaryCodec;
+import de.jpaw.fixedpoint.types.MicroUnits;
+import de.jpaw.fixedpoint.types.Units;
+import de.jpaw.fixedpoint.types.VariableUnits;
+import de.jpaw.util.ByteBuilder;
+
+public class TestBinaryCodec {
+    private static final long[] EDGE_VALUES = {
+        0L, 1L, -1L, 63L, -64L, 64L, -65L, 8191L, -8192L, 8192L, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE,
+        Long.MAX_VALUE - 1L, Long.MIN_VALUE + 1L
+    };
+
+    private static long[] randomColumn(final int length) {
+        final Random rnd = new Random(6060L);
+        final long[] values = new long[length];
+        for (int i = 0; i < length; ++i) {
+            values[i] = rnd.nextLong() >> rnd.nextInt(64);
+        }
+        System.arraycopy(EDGE_VALUES, 0, values, 0, EDGE_VALUES.length);
+        return values;
+    }
+
+    @Test
+    public void testEncodedLength() throws Exception {
+        Assertions.assertEquals(1, FixedPointBinaryCodec.encodedLength(0L));
+        Assertions.assertEquals(1, FixedPointBinaryCodec.encodedLength(63L));
+        Assertions.assertEquals(1, FixedPointBinaryCodec.encodedLength(-64L));
+        Assertions.assertEquals(2, FixedPointBinaryCodec.encodedLength(64L));
+        Assertions.assertEquals(2, FixedPointBinaryCodec.encodedLength(-8192L));
+        Assertions.assertEquals(3, FixedPointBinaryCodec.encodedLength(8192L));
+        Assertions.assertEquals(10, FixedPointBinaryCodec.encodedLength(Long.MAX_VALUE));
+        Assertions.assertEquals(10, FixedPointBinaryCodec.encodedLength(Long.MIN_VALUE));
+        final byte[] buffer = new byte[FixedPointBinaryCodec.MAX_LENGTH];
+        for (final long value : randomColumn(10_000)) {
+            Assertions.assertEquals(FixedPointBinaryCodec.encodedLength(value), FixedPointBinaryCodec.put(buffer, 0, value), Long.toString(value));
+            Assertions.assertEquals(value, FixedPointBinaryCodec.zigZagDecode(FixedPointBinaryCodec.zigZagEncode(value)));
+        }
+        Assertions.assertEquals(3L, FixedPointBinaryCodec.zigZagEncode(-2L));
+        Assertions.assertEquals(4L, FixedPointBinaryCodec.zigZagEncode(2L));
+    }
+
+    @Test
+    public void testColumnViaByteBuilder() throws Exception {
+        final long[] values = randomColumn(10_000);
+        final ByteBuilder out = new ByteBuilder(16, null);
+        out.append((byte)42);    // some leading contents
+        FixedPointBinaryCodec.append(out, values, 0, values.length);
+        final long[] decoded = new long[values.length + 2];
+        final int end = FixedPointBinaryCodec.get(out.getCurrentBuffer(), 1, decoded, 2, values.length);
+        Assertions.assertEquals(out.length(), end);
+        Assertions.assertArrayEquals(values, Arrays.copyOfRange(decoded, 2, decoded.length));
+    }
+
+    @Test
+    public void testColumnViaByteBuffer() throws Exception {
+        final long[] values = randomColumn(10_000);
+        for (final ByteBuffer buffer : new ByteBuffer[] {
+                ByteBuffer.allocate(values.length * FixedPointBinaryCodec.MAX_LENGTH + 10).position(3).slice(),
+                ByteBuffer.allocateDirect(values.length * FixedPointBinaryCodec.MAX_LENGTH) }) {
+            FixedPointBinaryCodec.put(buffer, values, 0, values.length);
+            FixedPointBinaryCodec.put(buffer, -1L);
+            buffer.flip();
+            final long[] decoded = new long[values.length];
+            FixedPointBinaryCodec.get(buffer, decoded, 0, values.length);
+            Assertions.assertArrayEquals(values, decoded);
+            Assertions.assertEquals(-1L, FixedPointBinaryCodec.getMantissa(buffer));
+            Assertions.assertFalse(buffer.hasRemaining());
+        }
+    }
+
+    @Test
+    public void testSingleValues() throws Exception {
+        final ByteBuilder out = new ByteBuilder();
+        FixedPointBinaryCodec.append(out, MicroUnits.of(-1_250_000L));
+        FixedPointBinaryCodec.appendWithScale(out, VariableUnits.valueOf(12345L, 3));
+        FixedPointBinaryCodec.append(out, Units.of(7L));
+        Assertions.assertEquals(4 + 1 + 3 + 1, out.length());
+
+        final ByteBuffer in = ByteBuffer.wrap(out.getBytes());
+        Assertions.assertEquals(MicroUnits.of(-1_250_000L), FixedPointBinaryCodec.get(in, MicroUnits.ZERO));
+        final VariableUnits variable = FixedPointBinaryCodec.getWithScale(in);
+        Assertions.assertEquals(3, variable.scale());
+        Assertions.assertEquals(12345L, variable.getMantissa());
+        Assertions.assertEquals(Units.of(7L), FixedPointBinaryCodec.get(in, Units.ZERO));
+
+        final ByteBuffer buffer = ByteBuffer.allocate(32);
+        FixedPointBinaryCodec.putWithScale(buffer, VariableUnits.valueOf(-5L, 18));
+        FixedPointBinaryCodec.put(buffer, MicroUnits.of(3L));
+        buffer.flip();
+        Assertions.assertEquals(VariableUnits.valueOf(-5L, 18), FixedPointBinaryCodec.getWithScale(buffer));
+        Assertions.assertEquals(MicroUnits.of(3L), FixedPointBinaryCodec.get(buffer, MicroUnits.ZERO));
+    }
+
+    @Test
+    public void testErrors() throws Exception {
+        final byte[] truncated = { (byte)0x80, (byte)0x80 };
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> FixedPointBinaryCodec.get(truncated, 0, new long[1], 0, 1));
+        Assertions.assertThrows(BufferUnderflowException.class, () -> FixedPointBinaryCodec.get(ByteBuffer.wrap(truncated), new long[1], 0, 1));
+        Assertions.assertThrows(BufferUnderflowException.class, () -> FixedPointBinaryCodec.getMantissa(ByteBuffer.wrap(truncated)));
+
+        final byte[] tooLong = new byte[11];
+        Arrays.fill(tooLong, (byte)0xFF);
+        tooLong[10] = 0;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> FixedPointBinaryCodec.get(tooLong, 0, new long[1], 0, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> FixedPointBinaryCodec.getMantissa(ByteBuffer.wrap(tooLong)));
+
+        Assertions.assertThrows(BufferOverflowException.class, () -> FixedPointBinaryCodec.put(ByteBuffer.allocate(9), Long.MAX_VALUE));
+        Assertions.assertThrows(BufferOverflowException.class, () -> FixedPointBinaryCodec.put(ByteBuffer.allocate(15), new long[] { 1L, Long.MIN_VALUE, 2L, 3L, 4L, 5L, 6L }, 0, 7));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> FixedPointBinaryCodec.getWithScale(ByteBuffer.wrap(new byte[] { 19, 0 })));
+    }
+}
@@ -0,0 +1,124 @@
+package de.jpaw.fixedpoint.tests;
+
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.jpaw.fixedpoint.FixedPointColumns;
+import de.jpaw.fixedpoint.types.MicroUnits;
+import de.jpaw.fixedpoint.types.MilliUnits;
+import de.jpaw.fixedpoint.types.Units;
+
+public class TestColumns {
+    private static final int SIZE = 1000;
+
+    private static long[] randomMantissas(final Random rnd, final int bits) {
+        final long[] result = new long[SIZE];
+        for (int i = 0; i < SIZE; ++i) {
+            result[i] = rnd.nextLong() >> (64 - bits);
+        }
+        return result;
+    }
+
+    @Test
+    public void testAddSubtract() throws Exception {
+        final Random rnd = new Random(1L);
+        final long[] a = randomMantissas(rnd, 60);
+        final long[] b = randomMantissas(rnd, 60);
+        final long[] sum = new long[SIZE];
+        final long[] diff = new long[SIZE];
+        FixedPointColumns.add(a, b, sum, SIZE);
+        FixedPointColumns.subtract(a, b, diff, SIZE);
+        for (int i = 0; i < SIZE; ++i) {
+            Assertions.assertEquals(MicroUnits.of(a[i]).add(MicroUnits.of(b[i])).getMantissa(), sum[i]);
+            Assertions.assertEquals(MicroUnits.of(a[i]).subtract(MicroUnits.of(b[i])).getMantissa(), diff[i]);
+        }
+    }
+
+    @Test
+    public void testOverflow() throws Exception {
+        final long[] a = { 1L, Long.MAX_VALUE, -5L };
+        final long[] b = { 2L, 1L, 3L };
+        final long[] result = new long[3];
+        Assertions.assertThrows(ArithmeticException.class, () -> FixedPointColumns.add(a, b, result, 3));
+        FixedPointColumns.add(a, b, result, 1);       // the overflowing element is not part of the batch
+        Assertions.assertEquals(3L, result[0]);
+        Assertions.assertThrows(ArithmeticException.class, () -> FixedPointColumns.subtract(new long[] { Long.MIN_VALUE }, b, result, 1));
+        Assertions.assertThrows(ArithmeticException.class, () -> FixedPointColumns.multiply(a, 2L, result, 3));
+        Assertions.assertThrows(ArithmeticException.class, () -> FixedPointColumns.multiply(new long[] { Long.MIN_VALUE }, -1L, result, 1));
+        Assertions.assertThrows(ArithmeticException.class, () -> FixedPointColumns.sum(new long[] { Long.MAX_VALUE, 1L }, 2));
+        Assertions.assertThrows(ArithmeticException.class, () -> FixedPointColumns.sum(new long[] { Long.MIN_VALUE, -1L }, 2));
+    }
+
+    @Test
+    public void testSum() throws Exception {
+        final Random rnd = new Random(2L);
+        final long[] a = randomMantissas(rnd, 63);
+        BigInteger expected = BigInteger.ZERO;
+        for (int n = 0; n < SIZE; ++n) {
+            final BigInteger reference = expected;
+            if (reference.bitLength() < 64) {
+                Assertions.assertEquals(reference.longValueExact(), FixedPointColumns.sum(a, n));
+            } else {
+                final int length = n;
+                Assertions.assertThrows(ArithmeticException.class, () -> FixedPointColumns.sum(a, length));
+            }
+            expected = expected.add(BigInteger.valueOf(a[n]));
+        }
+        Assertions.assertEquals(Long.MIN_VALUE, FixedPointColumns.sum(new long[] { Long.MIN_VALUE + 5L, -5L }, 2));
+        Assertions.assertEquals(Long.MAX_VALUE, FixedPointColumns.sum(new long[] { Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE, 1L }, 4));
+    }
+
+    @Test
+    public void testMultiply() throws Exception {
+        final Random rnd = new Random(3L);
+        final long[] a = randomMantissas(rnd, 45);
+        final long[] result = new long[SIZE];
+        final MilliUnits factor = MilliUnits.of(-123_456_789L);
+        for (final RoundingMode rounding : new RoundingMode[] { RoundingMode.HALF_EVEN, RoundingMode.HALF_UP, RoundingMode.FLOOR, RoundingMode.UP }) {
+            FixedPointColumns.multiply(a, factor, rounding, result, SIZE);
+            for (int i = 0; i < SIZE; ++i) {
+                Assertions.assertEquals(MicroUnits.of(a[i]).multiply(factor, rounding).getMantissa(), result[i]);
+            }
+        }
+        FixedPointColumns.multiply(a, 7L, result, SIZE);
+        for (int i = 0; i < SIZE; ++i) {
+            Assertions.assertEquals(7L * a[i], result[i]);
+        }
+    }
+
+    @Test
+    public void testRescale() throws Exception {
+        final Random rnd = new Random(4L);
+        final long[] a = randomMantissas(rnd, 40);
+        final long[] result = new long[SIZE];
+        FixedPointColumns.rescale(a, 6, 3, RoundingMode.HALF_EVEN, result, SIZE);
+        for (int i = 0; i < SIZE; ++i) {
+            Assertions.assertEquals(MilliUnits.of(MicroUnits.of(a[i]), RoundingMode.HALF_EVEN).getMantissa(), result[i]);
+        }
+        FixedPointColumns.rescale(a, 3, 6, RoundingMode.UNNECESSARY, result, SIZE);
+        for (int i = 0; i < SIZE; ++i) {
+            Assertions.assertEquals(MicroUnits.of(MilliUnits.of(a[i])).getMantissa(), result[i]);
+        }
+        Assertions.assertEquals(2500L, FixedPointColumns.mantissaAt(Units.of(25L), 2));
+        Assertions.assertThrows(ArithmeticException.class, () -> FixedPointColumns.mantissaAt(MilliUnits.of(25L), 2));
+    }
+
+    @Test
+    public void testMinMaxAndMasks() throws Exception {
+        final long[] a = { 5L, -3L, 12L, 0L, 7L, -8L, 100L };
+        Assertions.assertEquals(-8L, FixedPointColumns.min(a, a.length));
+        Assertions.assertEquals(100L, FixedPointColumns.max(a, a.length));
+        Assertions.assertEquals(12L, FixedPointColumns.max(a, 4));
+        Assertions.assertEquals(Long.MAX_VALUE, FixedPointColumns.min(a, 0));
+
+        final boolean[] mask = new boolean[a.length];
+        Assertions.assertEquals(3, FixedPointColumns.greaterThan(a, 5L, mask, a.length));
+        Assertions.assertArrayEquals(new boolean[] { false, false, true, false, true, false, true }, mask);
+        Assertions.assertEquals(3, FixedPointColumns.lessThan(a, 1L, mask, a.length));
+        Assertions.assertArrayEquals(new boolean[] { false, true, false, true, false, true, false }, mask);
+    }
+}
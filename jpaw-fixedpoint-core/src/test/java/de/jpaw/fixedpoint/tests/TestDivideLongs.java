@@ -0,0 +1,86 @@
+package de.jpaw.fixedpoint.tests;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.jpaw.fixedpoint.FixedPointBase;
+
+// regression tests for the rounding of divide_longs, for odd and negative divisors, which are not covered by the power of ten tests
+
+public class TestDivideLongs {
+    private static final long EXCEPTION = 99999;
+    private static final RoundingMode[] MODES = {
+        RoundingMode.UP, RoundingMode.DOWN,
+        RoundingMode.CEILING, RoundingMode.FLOOR,
+        RoundingMode.HALF_UP, RoundingMode.HALF_DOWN,
+        RoundingMode.HALF_EVEN, RoundingMode.UNNECESSARY
+    };
+    private static final long[][] TESTS = {
+        // dividend, divisor, then the results for UP, DOWN, CEILING, FLOOR, HALF_UP, HALF_DOWN, HALF_EVEN, UNNECESSARY
+        // even divisors
+        {   7,   2,   4,   3,   4,   3,   4,   3,   4, EXCEPTION },
+        {  -7,   2,  -4,  -3,  -3,  -4,  -4,  -3,  -4, EXCEPTION },
+        {   7,  -2,  -4,  -3,  -3,  -4,  -4,  -3,  -4, EXCEPTION },
+        {  -7,  -2,   4,   3,   4,   3,   4,   3,   4, EXCEPTION },
+        {   5,   2,   3,   2,   3,   2,   3,   2,   2, EXCEPTION },
+        {  -5,  -2,   3,   2,   3,   2,   3,   2,   2, EXCEPTION },
+        {   9,   4,   3,   2,   3,   2,   2,   2,   2, EXCEPTION },
+        {  -9,  -4,   3,   2,   3,   2,   2,   2,   2, EXCEPTION },
+        // odd divisors
+        {   1,   3,   1,   0,   1,   0,   0,   0,   0, EXCEPTION },
+        {   2,   3,   1,   0,   1,   0,   1,   1,   1, EXCEPTION },
+        {  -2,   3,  -1,   0,   0,  -1,  -1,  -1,  -1, EXCEPTION },
+        {   2,  -3,  -1,   0,   0,  -1,  -1,  -1,  -1, EXCEPTION },
+        {  -2,  -3,   1,   0,   1,   0,   1,   1,   1, EXCEPTION },
+        {   7,   3,   3,   2,   3,   2,   2,   2,   2, EXCEPTION },
+        {  -7,   3,  -3,  -2,  -2,  -3,  -2,  -2,  -2, EXCEPTION },
+        // negative powers of ten
+        {   5, -10,  -1,   0,   0,  -1,  -1,   0,   0, EXCEPTION },
+        {  15, -10,  -2,  -1,  -1,  -2,  -2,  -1,  -2, EXCEPTION },
+        {   3, -10,  -1,   0,   0,  -1,   0,   0,   0, EXCEPTION },
+        {   7, -10,  -1,   0,   0,  -1,  -1,  -1,  -1, EXCEPTION },
+        {  -7, -10,   1,   0,   1,   0,   1,   1,   1, EXCEPTION },
+        // halves of even divisors which are not powers of two
+        {  15,   6,   3,   2,   3,   2,   3,   2,   2, EXCEPTION },
+        {  21,  -6,  -4,  -3,  -3,  -4,  -4,  -3,  -4, EXCEPTION },
+        { -21,  -6,   4,   3,   4,   3,   4,   3,   4, EXCEPTION },
+        {   9,  -6,  -2,  -1,  -1,  -2,  -2,  -1,  -2, EXCEPTION },
+        // exact quotients
+        {   6,  -3,  -2,  -2,  -2,  -2,  -2,  -2,  -2,        -2 },
+        {  -8,   4,  -2,  -2,  -2,  -2,  -2,  -2,  -2,        -2 }
+    };
+
+    @Test
+    public void testExamples() throws Exception {
+        for (final long[] test : TESTS) {
+            Assertions.assertEquals(2 + MODES.length, test.length);    // detect typos in test case
+            for (int i = 0; i < MODES.length; ++i) {
+                final String text = test[0] + " / " + test[1] + ", mode " + MODES[i].name();
+                if (test[2 + i] != EXCEPTION) {
+                    Assertions.assertEquals(test[2 + i], FixedPointBase.divide_longs(test[0], test[1], MODES[i]), text);
+                } else {
+                    Assertions.assertThrows(ArithmeticException.class, () -> FixedPointBase.divide_longs(test[0], test[1], RoundingMode.UNNECESSARY), text);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRandomDivisors() throws Exception {
+        final Random rnd = new Random(4711L);
+        for (int i = 0; i < 20_000; ++i) {
+            final long dividend = rnd.nextLong() >> rnd.nextInt(64);
+            final long divisor = rnd.nextLong() >> rnd.nextInt(64);     // odd and even, positive and negative
+            if (divisor != 0L) {
+                for (int j = 0; j < MODES.length - 1; ++j) {            // all except UNNECESSARY
+                    final long expected = new BigDecimal(dividend).divide(new BigDecimal(divisor), 0, MODES[j]).longValueExact();
+                    Assertions.assertEquals(expected, FixedPointBase.divide_longs(dividend, divisor, MODES[j]), dividend + " / " + divisor + " " + MODES[j]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package de.jpaw.fixedpoint.tests;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.jpaw.fixedpoint.FixedPointFormatter;
+import de.jpaw.fixedpoint.types.MicroUnits;
+import de.jpaw.fixedpoint.types.Units;
+import de.jpaw.util.ByteBuilder;
+
+public class TestFormatting {
+
+    /** Formats via all targets, checks that the results agree, and returns the result. */
+    private static String formatAll(final long mantissa, final int scale, final int minFractionalDigits, final char grouping) throws Exception {
+        final String expected = FixedPointFormatter.toString(mantissa, scale, minFractionalDigits, grouping);
+
+        final byte[] bytes = new byte[3 + FixedPointFormatter.maxLength(scale, minFractionalDigits)];
+        final int byteEnd = FixedPointFormatter.format(mantissa, scale, minFractionalDigits, grouping, bytes, 3);
+        Assertions.assertEquals(expected, new String(bytes, 3, byteEnd - 3, StandardCharsets.US_ASCII));
+
+        final char[] chars = new char[3 + FixedPointFormatter.maxLength(scale, minFractionalDigits)];
+        final int charEnd = FixedPointFormatter.format(mantissa, scale, minFractionalDigits, grouping, chars, 3);
+        Assertions.assertEquals(expected, new String(chars, 3, charEnd - 3));
+
+        final ByteBuilder bb = new ByteBuilder(4, StandardCharsets.US_ASCII);    // small initial size, to force growth
+        bb.append((byte)'x');
+        FixedPointFormatter.append(bb, mantissa, scale, minFractionalDigits, grouping);
+        Assertions.assertEquals("x" + expected, new String(bb.getBytes(), StandardCharsets.US_ASCII));
+
+        final StringWriter writer = new StringWriter();
+        FixedPointFormatter.append(writer, mantissa, scale, minFractionalDigits, grouping);
+        Assertions.assertEquals(expected, writer.toString());
+
+        final StringBuilder sb = new StringBuilder("x");
+        FixedPointFormatter.append(sb, mantissa, scale, minFractionalDigits, grouping);
+        Assertions.assertEquals("x" + expected, sb.toString());
+        return expected;
+    }
+
+    @Test
+    public void testExamples() throws Exception {
+        final char none = FixedPointFormatter.NO_GROUPING;
+        Assertions.assertEquals("0", formatAll(0L, 0, 0, none));
+        Assertions.assertEquals("0", formatAll(0L, 6, 0, none));
+        Assertions.assertEquals("0.00", formatAll(0L, 6, 2, none));
+        Assertions.assertEquals("-0.5", formatAll(-500_000L, 6, 0, none));
+        Assertions.assertEquals("-0.500", formatAll(-500_000L, 6, 3, none));
+        Assertions.assertEquals("1.000001", formatAll(1_000_001L, 6, 2, none));
+        Assertions.assertEquals("12.50000000", formatAll(1_250L, 2, 8, none));
+        Assertions.assertEquals("7.0", formatAll(7L, 0, 1, none));
+        Assertions.assertEquals("1,234,567.89", formatAll(123_456_789L, 2, 0, ','));
+        Assertions.assertEquals("-123'456", formatAll(-123_456L, 0, 0, '\''));
+        Assertions.assertEquals("-12.3", formatAll(-123L, 1, 0, ','));
+        Assertions.assertEquals("9223372036854775807", formatAll(Long.MAX_VALUE, 0, 0, none));
+        Assertions.assertEquals("-9223372036854775808", formatAll(Long.MIN_VALUE, 0, 0, none));
+        Assertions.assertEquals("-9.223372036854775808", formatAll(Long.MIN_VALUE, 18, 0, none));
+        Assertions.assertEquals("-9 223 372 036 854 775 808", formatAll(Long.MIN_VALUE, 0, 0, ' '));
+    }
+
+    @Test
+    public void testAgainstBigDecimal() throws Exception {
+        final Random rnd = new Random(2718L);
+        for (int i = 0; i < 20_000; ++i) {
+            final long mantissa = rnd.nextLong() >> rnd.nextInt(64);
+            final int scale = rnd.nextInt(19);
+            final BigDecimal value = BigDecimal.valueOf(mantissa, scale);
+            Assertions.assertEquals(value.toPlainString(), formatAll(mantissa, scale, scale, FixedPointFormatter.NO_GROUPING));
+            final BigDecimal stripped = value.signum() == 0 ? BigDecimal.ZERO : value.stripTrailingZeros();
+            Assertions.assertEquals(stripped.scale() <= 0 ? stripped.toBigInteger().toString() : stripped.toPlainString(),
+              formatAll(mantissa, scale, 0, FixedPointFormatter.NO_GROUPING));
+        }
+    }
+
+    @Test
+    public void testCompatibility() throws Exception {
+        Assertions.assertEquals("-0.000001", MicroUnits.of(-1L).toString());
+        Assertions.assertEquals("3.14", MicroUnits.of(3_140_000L).toString());
+        Assertions.assertEquals("3.1400", MicroUnits.of(3_140_000L).toString(4));
+        Assertions.assertEquals("42", Units.of(42L).toString(2));
+        final ByteBuilder bb = new ByteBuilder(0, StandardCharsets.US_ASCII);
+        FixedPointFormatter.append(bb, MicroUnits.of(-2_500_000L));
+        Assertions.assertEquals("-2.5", new String(bb.getBytes(), StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,53 @@
+package de.jpaw.fixedpoint.tests;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.jpaw.fixedpoint.types.FemtoUnits;
+import de.jpaw.fixedpoint.types.Hundreds;
+import de.jpaw.fixedpoint.types.MicroUnits;
+import de.jpaw.fixedpoint.types.MilliUnits;
+import de.jpaw.fixedpoint.types.Units;
+
+/** Tests the optional cache of small integral values. Requires that the test runs in its own JVM (surefire reuseForks=false). */
+public class TestInstanceCache {
+    static {
+        // must be set before the fixed point classes are initialized
+        System.setProperty("jpaw.fixedpoint.cache.low",  "-128");
+        System.setProperty("jpaw.fixedpoint.cache.high", "1024");
+    }
+
+    @Test
+    public void testFactoryMethods() throws Exception {
+        Assertions.assertSame(MicroUnits.valueOf(42), MicroUnits.of(42_000_000L));
+        Assertions.assertSame(MicroUnits.valueOf(-128), MicroUnits.valueOf("-128.000"));
+        Assertions.assertSame(MicroUnits.valueOf(1024), MicroUnits.valueOf(new BigDecimal("1024.0")));
+        Assertions.assertSame(MicroUnits.valueOf(7), MicroUnits.valueOf(7.0));
+        Assertions.assertSame(MicroUnits.valueOf(7), MicroUnits.of(MilliUnits.valueOf(7)));
+        Assertions.assertSame(Units.valueOf(3), Units.of(MicroUnits.of(2_500_001L), RoundingMode.HALF_EVEN));
+        Assertions.assertSame(Units.ZERO, Units.valueOf(0));
+        Assertions.assertSame(FemtoUnits.ONE, FemtoUnits.valueOf(1));
+        Assertions.assertSame(FemtoUnits.valueOf(-100), FemtoUnits.of(-100_000_000_000_000_000L));
+    }
+
+    @Test
+    public void testNotCached() throws Exception {
+        Assertions.assertNotSame(MicroUnits.of(42_000_001L), MicroUnits.of(42_000_001L));     // not integral
+        Assertions.assertNotSame(MicroUnits.valueOf(1025), MicroUnits.valueOf(1025));           // out of range
+        Assertions.assertNotSame(MicroUnits.valueOf(-129), MicroUnits.valueOf(-129));
+        Assertions.assertNotSame(Hundreds.of(150L), Hundreds.of(150L));
+    }
+
+    @Test
+    public void testArithmeticResults() throws Exception {
+        final MilliUnits a = MilliUnits.of(2_500L);
+        Assertions.assertSame(MilliUnits.valueOf(5), a.add(a));
+        Assertions.assertSame(MilliUnits.valueOf(-5), a.add(a).negate());
+        Assertions.assertSame(MilliUnits.valueOf(10), a.multiply(4));
+        Assertions.assertSame(MilliUnits.valueOf(2), a.subtract(MilliUnits.of(500L)));
+        Assertions.assertSame(Units.valueOf(900), Units.valueOf(30).multiply(30));
+    }
+}
@@ -0,0 +1,148 @@
+package de.jpaw.fixedpoint.tests;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.jpaw.fixedpoint.FixedPointBase;
+import de.jpaw.fixedpoint.FixedPointMantissas;
+import de.jpaw.fixedpoint.types.FemtoUnits;
+import de.jpaw.fixedpoint.types.Hundreds;
+import de.jpaw.fixedpoint.types.MicroUnits;
+import de.jpaw.fixedpoint.types.MilliUnits;
+import de.jpaw.fixedpoint.types.NanoUnits;
+import de.jpaw.fixedpoint.types.Units;
+import de.jpaw.fixedpoint.types.VariableUnits;
+
+public class TestMantissas {
+    private static final RoundingMode[] ROUNDING_MODES = {
+        RoundingMode.UP, RoundingMode.DOWN, RoundingMode.CEILING, RoundingMode.FLOOR, RoundingMode.HALF_UP, RoundingMode.HALF_DOWN, RoundingMode.HALF_EVEN
+    };
+
+    private static FixedPointBase<?> randomValue(final Random rnd) {
+        final long mantissa = rnd.nextLong() >> (24 + rnd.nextInt(40));
+        switch (rnd.nextInt(7)) {
+        case 0:
+            return Units.of(mantissa);
+        case 1:
+            return Hundreds.of(mantissa);
+        case 2:
+            return MilliUnits.of(mantissa);
+        case 3:
+            return MicroUnits.of(mantissa);
+        case 4:
+            return NanoUnits.of(mantissa);
+        case 5:
+            return FemtoUnits.of(mantissa);
+        default:
+            return VariableUnits.valueOf(mantissa, rnd.nextInt(19));
+        }
+    }
+
+    private static BigDecimal bd(final FixedPointBase<?> value) {
+        return BigDecimal.valueOf(value.getMantissa(), value.scale());
+    }
+
+    /** Returns the mantissa of the value for the given scale, or null if it does not fit into a long. */
+    private static Long mantissaOf(final BigDecimal value, final int scale, final RoundingMode rounding) {
+        final BigDecimal scaled = value.setScale(scale, rounding);
+        return scaled.unscaledValue().bitLength() < 64 ? scaled.unscaledValue().longValue() : null;
+    }
+
+    @Test
+    public void testAgainstObjectApi() throws Exception {
+        final Random rnd = new Random(8080L);
+        for (int i = 0; i < 20_000; ++i) {
+            final FixedPointBase<?> a = randomValue(rnd);
+            final FixedPointBase<?> b = randomValue(rnd);
+            final long ma = a.getMantissa();
+            final long mb = b.getMantissa();
+            final int sa = a.scale();
+            final int sb = b.scale();
+            final String text = a + " and " + b;
+
+            Assertions.assertEquals(a.compareTo(b), FixedPointMantissas.compare(ma, sa, mb, sb), text);
+            Assertions.assertEquals(bd(a).compareTo(bd(b)), FixedPointMantissas.compare(ma, sa, mb, sb), text);
+            Assertions.assertEquals(a.toString(), FixedPointMantissas.toString(ma, sa), text);
+            Assertions.assertEquals(ma, FixedPointMantissas.parse(a.toString(), sa, RoundingMode.UNNECESSARY), text);
+
+            final Long sum = mantissaOf(bd(a).add(bd(b)), Math.max(sa, sb), RoundingMode.UNNECESSARY);
+            if (sum != null && Math.abs(sum) < Long.MAX_VALUE / 1000) {
+                Assertions.assertEquals(sum.longValue(), FixedPointMantissas.add(ma, sa, mb, sb), text);
+                Assertions.assertEquals(ma, FixedPointMantissas.subtract(sum, Math.max(sa, sb), mb, sb) / FixedPointBase.getPowerOfTen(Math.max(sa, sb) - sa), text);
+            }
+
+            for (final RoundingMode rounding : ROUNDING_MODES) {
+                final Long product = mantissaOf(bd(a).multiply(bd(b)), sa, rounding);
+                if (product != null && Math.abs(ma) < (1L << 40) && Math.abs(mb) < (1L << 40)) {
+                    Assertions.assertEquals(product.longValue(), FixedPointMantissas.multiply(ma, sa, mb, sb, sa, rounding), text + " " + rounding);
+                    Assertions.assertEquals(a.multiply(b, rounding).getMantissa(), FixedPointMantissas.multiply(ma, sa, mb, sb, sa, rounding), text + " " + rounding);
+                }
+                if (mb != 0L) {
+                    final Long quotient = mantissaOf(bd(a).divide(bd(b), sa, rounding), sa, RoundingMode.UNNECESSARY);
+                    if (quotient != null) {
+                        Assertions.assertEquals(quotient.longValue(), FixedPointMantissas.divide(ma, sa, mb, sb, sa, rounding), text + " " + rounding);
+                        Assertions.assertEquals(a.divide(b, rounding).getMantissa(), FixedPointMantissas.divide(ma, sa, mb, sb, sa, rounding), text + " " + rounding);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testAnyResultScaleAgainstBigDecimal() throws Exception {
+        final Random rnd = new Random(9090L);
+        for (int i = 0; i < 20_000; ++i) {
+            final FixedPointBase<?> a = randomValue(rnd);
+            final FixedPointBase<?> b = randomValue(rnd);
+            final int resultScale = rnd.nextInt(19);
+            final String text = a + " and " + b + " to scale " + resultScale;
+            for (final RoundingMode rounding : ROUNDING_MODES) {
+                final Long product = mantissaOf(bd(a).multiply(bd(b)), resultScale, rounding);
+                if (product != null) {
+                    Assertions.assertEquals(product.longValue(),
+                      FixedPointMantissas.multiply(a.getMantissa(), a.scale(), b.getMantissa(), b.scale(), resultScale, rounding), text + " " + rounding);
+                }
+                if (b.getMantissa() != 0L) {
+                    final Long quotient = mantissaOf(bd(a).divide(bd(b), resultScale, rounding), resultScale, RoundingMode.UNNECESSARY);
+                    if (quotient != null) {
+                        Assertions.assertEquals(quotient.longValue(),
+                          FixedPointMantissas.divide(a.getMantissa(), a.scale(), b.getMantissa(), b.scale(), resultScale, rounding), text + " " + rounding);
+                    }
+                }
+                final Long rescaled = mantissaOf(bd(a), resultScale, rounding);
+                if (rescaled != null) {
+                    Assertions.assertEquals(rescaled.longValue(), FixedPointMantissas.rescale(a.getMantissa(), a.scale(), resultScale, rounding), text);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testIntegralDivisors() throws Exception {
+        final Random rnd = new Random(7070L);
+        for (int i = 0; i < 20_000; ++i) {
+            final long mantissa = rnd.nextLong() >> rnd.nextInt(64);
+            final long divisor = (rnd.nextLong() >> rnd.nextInt(64)) | 1L;     // odd and negative ones included
+            for (final RoundingMode rounding : ROUNDING_MODES) {
+                final long expected = new BigDecimal(mantissa).divide(new BigDecimal(divisor), 0, rounding).longValueExact();
+                Assertions.assertEquals(expected, FixedPointMantissas.divide(mantissa, divisor, rounding), mantissa + " / " + divisor + " " + rounding);
+            }
+        }
+    }
+
+    @Test
+    public void testOverflowAndErrors() throws Exception {
+        Assertions.assertThrows(ArithmeticException.class, () -> FixedPointMantissas.add(Long.MAX_VALUE, 1L));
+        Assertions.assertThrows(ArithmeticException.class, () -> FixedPointMantissas.subtract(Long.MIN_VALUE, 1L));
+        Assertions.assertThrows(ArithmeticException.class, () -> FixedPointMantissas.add(Long.MAX_VALUE / 5, 0, 1L, 1));
+        Assertions.assertThrows(ArithmeticException.class, () -> FixedPointMantissas.multiply(Long.MAX_VALUE, 2, 1000L, 2, 2, RoundingMode.HALF_EVEN));
+        Assertions.assertThrows(ArithmeticException.class, () -> FixedPointMantissas.divide(1L, 2, 0L, 2, 2, RoundingMode.HALF_EVEN));
+        Assertions.assertThrows(ArithmeticException.class, () -> FixedPointMantissas.rescale(1_234L, 3, 2, RoundingMode.UNNECESSARY));
+        Assertions.assertEquals(Long.MAX_VALUE, FixedPointMantissas.multiply(Long.MAX_VALUE, 18, FixedPointBase.getPowerOfTen(18), 18, 18, RoundingMode.UNNECESSARY));
+        Assertions.assertEquals(MicroUnits.of(1_500_000L), MicroUnits.of(FixedPointMantissas.rescale(FixedPointMantissas.add(1L, 0, 50L, 2), 2, 6, RoundingMode.UNNECESSARY)));
+    }
+}
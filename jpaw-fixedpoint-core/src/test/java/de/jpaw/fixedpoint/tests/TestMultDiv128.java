@@ -0,0 +1,165 @@
+package de.jpaw.fixedpoint.tests;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.jpaw.fixedpoint.FixedPointMultDiv;
+import de.jpaw.fixedpoint.types.MicroUnits;
+import de.jpaw.fixedpoint.types.MilliUnits;
+
+public class TestMultDiv128 {
+    private static final BigInteger LONG_MIN = BigInteger.valueOf(Long.MIN_VALUE);
+    private static final BigInteger LONG_MAX = BigInteger.valueOf(Long.MAX_VALUE);
+    private static final long[] EDGE_VALUES = {
+        0L, 1L, -1L, 2L, 5L, -5L, 15L, 25L, -25L, 999_999_999L, 1L << 31, 1L << 32, -(1L << 32), 3_037_000_499L, 3_037_000_500L,
+        1_000_000_000_000_000_000L, -999_999_999_999_999_999L, Long.MAX_VALUE, Long.MIN_VALUE + 1, Long.MIN_VALUE
+    };
+    private static final long[] EDGE_DIVISORS = {
+        1L, 2L, 3L, 7L, 10L, 1000L, 65_536L, (1L << 32) - 1, 1L << 32, (1L << 32) + 1, 1_000_000_000_000_000_000L, Long.MAX_VALUE, -1L, -10L, Long.MIN_VALUE
+    };
+
+    /** Computes the reference result using BigDecimal, or returns null if an exception is expected. */
+    private static Long reference(final long a, final long b, final long c, final RoundingMode rounding) {
+        try {
+            final BigInteger result = BigDecimal.valueOf(a).multiply(BigDecimal.valueOf(b)).divide(BigDecimal.valueOf(c), 0, rounding).toBigIntegerExact();
+            if (result.compareTo(LONG_MIN) < 0 || result.compareTo(LONG_MAX) > 0) {
+                return null;
+            }
+            return result.longValue();
+        } catch (final ArithmeticException e) {
+            return null;
+        }
+    }
+
+    private static void check(final long a, final long b, final long c, final RoundingMode rounding) {
+        final Long expected = reference(a, b, c, rounding);
+        if (expected == null) {
+            Assertions.assertThrows(ArithmeticException.class, () -> FixedPointMultDiv.multdiv128(a, b, c, rounding),
+              () -> a + " * " + b + " / " + c + " with " + rounding + " should throw");
+        } else {
+            Assertions.assertEquals(expected.longValue(), FixedPointMultDiv.multdiv128(a, b, c, rounding),
+              () -> a + " * " + b + " / " + c + " with " + rounding);
+        }
+    }
+
+    @Test
+    public void testEdgeValues() throws Exception {
+        for (final RoundingMode rounding : RoundingMode.values()) {
+            for (final long a : EDGE_VALUES) {
+                for (final long b : EDGE_VALUES) {
+                    for (final long c : EDGE_DIVISORS) {
+                        check(a, b, c, rounding);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTies() throws Exception {
+        // products which end in exactly 5 after the division point, with and without a 128 bit intermediate result
+        for (final RoundingMode rounding : RoundingMode.values()) {
+            check(15L, 1L, 10L, rounding);
+            check(-25L, 1L, 10L, rounding);
+            check(5_000_000_000_000_000_005L / 10L, 10L, 100L, rounding);
+            check(4_611_686_018_427_387_905L, 10L, 100L, rounding);
+            check(-4_611_686_018_427_387_905L, 10L, 100L, rounding);
+            check(9_223_372_036_854_775_805L, 1_000_000_000L, 10_000_000_000L, rounding);
+        }
+    }
+
+    @Test
+    public void testRandomPowersOfTen() throws Exception {
+        final Random rnd = new Random(4711L);
+        for (int i = 0; i < 20_000; ++i) {
+            final long a = rnd.nextLong() >> rnd.nextInt(63);
+            final long b = rnd.nextLong() >> rnd.nextInt(63);
+            final int decimals = rnd.nextInt(19);
+            for (final RoundingMode rounding : RoundingMode.values()) {
+                check(a, b, BigInteger.TEN.pow(decimals).longValueExact(), rounding);
+            }
+        }
+    }
+
+    @Test
+    public void testRandomDivisors() throws Exception {
+        final Random rnd = new Random(815L);
+        for (int i = 0; i < 20_000; ++i) {
+            final long a = rnd.nextLong() >> rnd.nextInt(63);
+            final long b = rnd.nextLong() >> rnd.nextInt(63);
+            final long c = rnd.nextLong() >> rnd.nextInt(63);
+            if (c != 0L) {
+                for (final RoundingMode rounding : RoundingMode.values()) {
+                    check(a, b, c, rounding);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRoundingBeyond64Bits() throws Exception {
+        // the unsigned quotient is 2^64 - 1, with a nonzero remainder: rounding up must not wrap around to 0
+        final long a = 9217488051413591236L;
+        final long b = 8239732847869052869L;
+        final long c = 4117238184071579054L;
+        for (final RoundingMode rounding : RoundingMode.values()) {
+            check(a, b, c, rounding);
+            check(-a, b, c, rounding);
+        }
+        Assertions.assertThrows(ArithmeticException.class, () -> FixedPointMultDiv.multdiv128(a, b, c, RoundingMode.UP));
+    }
+
+    @Test
+    public void testMultiplyAndScaleBeyond18Digits() throws Exception {
+        final Random rnd = new Random(1234L);
+        final long[] values = { Long.MIN_VALUE, Long.MIN_VALUE + 1, Long.MAX_VALUE, -1L, 1L, 5L, 0L };
+        for (int decimals = 19; decimals <= 36; ++decimals) {
+            final BigDecimal divisor = BigDecimal.TEN.pow(decimals);
+            for (int i = 0; i < 500 + values.length * values.length; ++i) {
+                final long a = i < 500 ? rnd.nextLong() >> rnd.nextInt(20) : values[(i - 500) / values.length];
+                final long b = i < 500 ? rnd.nextLong() >> rnd.nextInt(20) : values[(i - 500) % values.length];
+                for (final RoundingMode rounding : RoundingMode.values()) {
+                    final int scale = decimals;
+                    BigInteger expected;
+                    try {
+                        expected = BigDecimal.valueOf(a).multiply(BigDecimal.valueOf(b)).divide(divisor, 0, rounding).toBigIntegerExact();
+                    } catch (final ArithmeticException e) {
+                        expected = null;
+                    }
+                    if (expected == null) {
+                        Assertions.assertThrows(ArithmeticException.class, () -> FixedPointMultDiv.multiply_and_scale(a, b, scale, rounding));
+                    } else {
+                        Assertions.assertEquals(expected.longValueExact(), FixedPointMultDiv.multiply_and_scale(a, b, scale, rounding),
+                          () -> a + " * " + b + " / 10^" + scale + " with " + rounding);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDivisionByZero() throws Exception {
+        Assertions.assertThrows(ArithmeticException.class, () -> FixedPointMultDiv.multdiv128(1L, 1L, 0L, RoundingMode.HALF_EVEN));
+    }
+
+    @Test
+    public void testMultiplicationAcrossScales() throws Exception {
+        final Random rnd = new Random(42L);
+        for (int i = 0; i < 10_000; ++i) {
+            final MicroUnits a = MicroUnits.of(rnd.nextLong() >> 20);
+            final MilliUnits b = MilliUnits.of(rnd.nextLong() >> 20);
+            for (final RoundingMode rounding : RoundingMode.values()) {
+                final Long expected = reference(a.getMantissa(), b.getMantissa(), 1_000_000_000L, rounding);
+                if (expected != null) {
+                    Assertions.assertEquals(expected.longValue(), a.mantissa_of_multiplication(b, 0, rounding));
+                    Assertions.assertEquals(expected.longValue(), a.mantissa_of_multiplication_using_BD(b, 0, rounding));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package de.jpaw.fixedpoint.tests;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.jpaw.fixedpoint.FixedPointParser;
+import de.jpaw.fixedpoint.types.MicroUnits;
+
+public class TestParsing {
+    private static final RoundingMode[] ROUNDING_MODES = {
+        RoundingMode.UP, RoundingMode.DOWN, RoundingMode.CEILING, RoundingMode.FLOOR, RoundingMode.HALF_UP, RoundingMode.HALF_DOWN, RoundingMode.HALF_EVEN
+    };
+
+    /** Parses the text embedded in other characters, via all entry points, and checks that the results agree. */
+    private static long parseAll(final String text, final int targetScale, final RoundingMode rounding) {
+        final String embedded = "x;" + text + ";y";
+        final int end = 2 + text.length();
+        final long fromCharSequence = FixedPointParser.parseMantissa(new StringBuilder(embedded), 2, end, targetScale, rounding);
+        final long fromChars = FixedPointParser.parseMantissa(embedded.toCharArray(), 2, text.length(), targetScale, rounding);
+        final long fromBytes = FixedPointParser.parseMantissa(embedded.getBytes(StandardCharsets.US_ASCII), 2, text.length(), targetScale, rounding);
+        Assertions.assertEquals(fromCharSequence, fromChars, text);
+        Assertions.assertEquals(fromCharSequence, fromBytes, text);
+        return fromCharSequence;
+    }
+
+    private static void assertInvalid(final String text, final int targetScale, final RoundingMode rounding) {
+        final byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+        Assertions.assertThrows(NumberFormatException.class, () -> FixedPointParser.parseMantissa(text, 0, text.length(), targetScale, rounding), text);
+        Assertions.assertThrows(NumberFormatException.class, () -> FixedPointParser.parseMantissa(text.toCharArray(), 0, text.length(), targetScale, rounding), text);
+        Assertions.assertThrows(NumberFormatException.class, () -> FixedPointParser.parseMantissa(bytes, 0, bytes.length, targetScale, rounding), text);
+    }
+
+    @Test
+    public void testBasicSyntax() throws Exception {
+        Assertions.assertEquals(1_500_000L, parseAll("1.5", 6, RoundingMode.UNNECESSARY));
+        Assertions.assertEquals(-500_000L, parseAll("-.5", 6, RoundingMode.UNNECESSARY));
+        Assertions.assertEquals(500_000L, parseAll(".5", 6, RoundingMode.UNNECESSARY));
+        Assertions.assertEquals(2_000_000L, parseAll("+2.", 6, RoundingMode.UNNECESSARY));
+        Assertions.assertEquals(0L, parseAll("-0", 6, RoundingMode.UNNECESSARY));
+        Assertions.assertEquals(-3_140L, parseAll("-3.14000000000000000000000", 3, RoundingMode.UNNECESSARY));
+        Assertions.assertEquals(Long.MAX_VALUE, parseAll("9223372036854775807", 0, RoundingMode.UNNECESSARY));
+        Assertions.assertEquals(Long.MIN_VALUE, parseAll("-9223372.036854775808", 12, RoundingMode.UNNECESSARY));
+        Assertions.assertEquals(7L, parseAll("0000000000000000000000000007", 0, RoundingMode.UNNECESSARY));
+
+        assertInvalid("", 2, RoundingMode.UNNECESSARY);
+        assertInvalid("-", 2, RoundingMode.UNNECESSARY);
+        assertInvalid("-.", 2, RoundingMode.UNNECESSARY);
+        assertInvalid("1.2.3", 2, RoundingMode.UNNECESSARY);
+        assertInvalid("-3.-14", 2, RoundingMode.UNNECESSARY);
+        assertInvalid("1e5", 2, RoundingMode.UNNECESSARY);
+        assertInvalid(" 1", 2, RoundingMode.UNNECESSARY);
+        assertInvalid("3.14159", 3, RoundingMode.UNNECESSARY);
+        assertInvalid("9223372036854775808", 0, RoundingMode.UNNECESSARY);
+        assertInvalid("92233720368547758.08", 3, RoundingMode.UNNECESSARY);
+        assertInvalid("9223372036854775807.5", 0, RoundingMode.UP);
+    }
+
+    @Test
+    public void testRoundingAgainstBigDecimal() throws Exception {
+        final Random rnd = new Random(31415L);
+        for (int i = 0; i < 10_000; ++i) {
+            final BigDecimal value = BigDecimal.valueOf(rnd.nextLong() >> rnd.nextInt(40), rnd.nextInt(12));
+            final String text = (i & 1) == 0 || value.scale() == 0 ? value.toPlainString() : value.toPlainString() + "000";   // trailing zeros
+            final int targetScale = rnd.nextInt(10);
+            for (final RoundingMode rounding : ROUNDING_MODES) {
+                final BigDecimal expected = value.setScale(targetScale, rounding);
+                if (expected.unscaledValue().bitLength() < 64) {
+                    Assertions.assertEquals(expected.unscaledValue().longValue(), parseAll(text, targetScale, rounding),
+                      text + " to scale " + targetScale + " with " + rounding);
+                } else {
+                    assertInvalid(text, targetScale, rounding);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTies() throws Exception {
+        Assertions.assertEquals(2L, parseAll("2.5", 0, RoundingMode.HALF_EVEN));
+        Assertions.assertEquals(4L, parseAll("3.5", 0, RoundingMode.HALF_EVEN));
+        Assertions.assertEquals(-2L, parseAll("-2.50", 0, RoundingMode.HALF_EVEN));
+        Assertions.assertEquals(-3L, parseAll("-2.500001", 0, RoundingMode.HALF_EVEN));
+        Assertions.assertEquals(2L, parseAll("2.5", 0, RoundingMode.HALF_DOWN));
+        Assertions.assertEquals(3L, parseAll("2.5000000000000000000001", 0, RoundingMode.HALF_DOWN));
+        Assertions.assertEquals(-3L, parseAll("-2.1", 0, RoundingMode.FLOOR));
+        Assertions.assertEquals(-2L, parseAll("-2.9", 0, RoundingMode.CEILING));
+    }
+
+    @Test
+    public void testCompatibility() throws Exception {
+        Assertions.assertEquals(MicroUnits.of(-1_230_000L), MicroUnits.valueOf("-1.23"));
+        Assertions.assertEquals(FixedPointParser.parseMantissa("12.5", 6), MicroUnits.valueOf("12.5").getMantissa());
+        Assertions.assertEquals(2, FixedPointParser.fractionalDigits("x19.80", 1, 6));
+    }
+}
@@ -0,0 +1,70 @@
+package de.jpaw.fixedpoint.tests;
+
+import java.math.RoundingMode;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.jpaw.fixedpoint.FixedPointBase;
+import de.jpaw.fixedpoint.FixedPointPowerOfTen;
+import de.jpaw.fixedpoint.types.MicroUnits;
+import de.jpaw.fixedpoint.types.NanoUnits;
+import de.jpaw.fixedpoint.types.Units;
+
+public class TestPowerOfTenDivision {
+
+    private static void check(final long dividend) {
+        for (int power = 0; power <= 18; ++power) {
+            final long divisor = FixedPointBase.getPowerOfTen(power);
+            Assertions.assertEquals(dividend / divisor, FixedPointPowerOfTen.divide(dividend, power), dividend + " / 10^" + power);
+            Assertions.assertEquals(dividend % divisor, FixedPointPowerOfTen.remainder(dividend, power), dividend + " % 10^" + power);
+            for (final RoundingMode rounding : RoundingMode.values()) {
+                if (rounding == RoundingMode.UNNECESSARY && dividend % divisor != 0L) {
+                    final int p = power;
+                    Assertions.assertThrows(ArithmeticException.class, () -> FixedPointPowerOfTen.divide(dividend, p, rounding));
+                } else {
+                    Assertions.assertEquals(FixedPointBase.divide_longs(dividend, divisor, rounding), FixedPointPowerOfTen.divide(dividend, power, rounding),
+                      dividend + " / 10^" + power + " " + rounding);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEdgeValues() throws Exception {
+        for (int power = 0; power <= 18; ++power) {
+            final long p = FixedPointBase.getPowerOfTen(power);
+            for (long delta = -2; delta <= 2; ++delta) {
+                check(p + delta);
+                check(-p + delta);
+                check(p / 2 + delta);       // ties
+                check(-p / 2 + delta);
+                check(Long.MAX_VALUE + delta);      // wraps around to MIN_VALUE as well
+                check(Long.MAX_VALUE / p * p + delta);
+                check(Long.MIN_VALUE / p * p + delta);
+            }
+        }
+    }
+
+    @Test
+    public void testRandom() throws Exception {
+        final Random rnd = new Random(1010L);
+        for (int i = 0; i < 50_000; ++i) {
+            check(rnd.nextLong() >> rnd.nextInt(64));
+        }
+    }
+
+    @Test
+    public void testConversions() throws Exception {
+        Assertions.assertEquals(Units.of(3L), Units.of(MicroUnits.of(2_500_000L), RoundingMode.UP));
+        Assertions.assertEquals(Units.of(-2L), Units.of(MicroUnits.of(-2_500_000L), RoundingMode.HALF_EVEN));
+        Assertions.assertEquals(MicroUnits.of(-1L), MicroUnits.of(NanoUnits.of(-500L), RoundingMode.HALF_UP));
+        Assertions.assertTrue(MicroUnits.of(1_000_001L).compareTo(Units.ONE) > 0);
+        Assertions.assertTrue(Units.ONE.compareTo(NanoUnits.of(999_999_999L)) > 0);
+        Assertions.assertEquals(0, NanoUnits.of(-3_000_000_000L).compareTo(Units.of(-3L)));
+        Assertions.assertEquals(MicroUnits.of(1_500_000L), MicroUnits.of(1_499_999L).round(2, RoundingMode.HALF_EVEN));
+        Assertions.assertTrue(MicroUnits.of(1_230_000L).hasMaxScale(2));
+        Assertions.assertFalse(MicroUnits.of(1_230_001L).hasMaxScale(2));
+    }
+}
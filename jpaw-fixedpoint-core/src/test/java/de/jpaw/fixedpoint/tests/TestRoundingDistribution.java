@@ -1,8 +1,13 @@
 package de.jpaw.fixedpoint.tests;
 
+import java.math.RoundingMode;
+import java.util.Random;
+
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import de.jpaw.fixedpoint.FixedPointBase;
+import de.jpaw.fixedpoint.types.MilliUnits;
 import de.jpaw.fixedpoint.types.Units;
 
 
@@ -40,4 +45,80 @@ public class TestRoundingDistribution {
         final long[] i = {   3,  1,  0,  1,  0,  0,  1,  0 };
         runTestScaleDown(h, i, 2);
     }
+
+    /** The original implementation, which rescans all elements for every unit of difference. */
+    private static long[] referenceImplementation(final long[] unscaledAmounts, final int scaleDiff) {
+        final int n = unscaledAmounts.length;
+        final long[] scaledAmounts = new long[n];
+        final long factor = FixedPointBase.getPowerOfTen(scaleDiff);
+        long sum = 0;
+        for (int i = 0; i < n; ++i) {
+            scaledAmounts[i] = FixedPointBase.divide_longs(unscaledAmounts[i], factor, RoundingMode.HALF_EVEN);
+            if (i > 0)
+                sum += scaledAmounts[i];
+        }
+        long diff = scaledAmounts[0] - sum;
+        if (diff != 0) {
+            final long adjustment = diff > 0 ? 1 : -1;
+            final double[] relativeError = new double[n];
+            for (int i = 0; i < n; ++i) {
+                final long thisDiff = unscaledAmounts[i] - scaledAmounts[i] * factor;
+                relativeError[i] = (thisDiff * adjustment * (i > 0 ? 1 : -1) > 0)
+                        ? Math.abs(
+                                scaledAmounts[i] == 0
+                                    ? (double)unscaledAmounts[i] / (double)factor
+                                    : (double)thisDiff / (double)unscaledAmounts[i])
+                        : 0.0;
+            }
+            while (diff != 0) {
+                double maxError = 0.0;
+                int pickedIndex = -1;
+                for (int i = 0; i < n; ++i) {
+                    if (relativeError[i] > maxError) {
+                        maxError = relativeError[i];
+                        pickedIndex = i;
+                    }
+                }
+                relativeError[pickedIndex] = 0.0;
+                if (pickedIndex > 0)
+                    scaledAmounts[pickedIndex] += adjustment;
+                else
+                    scaledAmounts[pickedIndex] -= adjustment;
+                diff -= adjustment;
+            }
+        }
+        return scaledAmounts;
+    }
+
+    @Test
+    public void testAgainstReferenceImplementation() throws Exception {
+        final Random rnd = new Random(1234L);
+        for (int run = 0; run < 5_000; ++run) {
+            final int n = 2 + rnd.nextInt(run < 4_000 ? 20 : 2_000);
+            final int range = 1 + rnd.nextInt(run % 3 == 0 ? 10 : 100_000);    // small ranges produce many ties
+            final boolean mixedSigns = rnd.nextBoolean();
+            final long[] unscaled = new long[n];
+            long sum = 0;
+            for (int i = 1; i < n; ++i) {
+                unscaled[i] = mixedSigns ? rnd.nextInt(2 * range + 1) - range : rnd.nextInt(range + 1);
+                sum += unscaled[i];
+            }
+            unscaled[0] = sum;
+            final long[] copy = unscaled.clone();
+            final long[] expected = referenceImplementation(unscaled, 3);
+            Assertions.assertArrayEquals(expected, Units.ZERO.roundWithErrorDistribution(unscaled, 3), "run " + run);
+            Assertions.assertArrayEquals(copy, unscaled);       // input not modified
+            final long[] target = new long[n];
+            FixedPointBase.roundWithErrorDistribution(unscaled, target, 3, 0);
+            Assertions.assertArrayEquals(expected, target, "run " + run + " into provided array");
+        }
+    }
+
+    @Test
+    public void testScaleUpAndInvalidInput() throws Exception {
+        final long[] amounts = { 3, 1, 2 };
+        Assertions.assertArrayEquals(new long[] { 3000, 1000, 2000 }, MilliUnits.ZERO.roundWithErrorDistribution(amounts, 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> FixedPointBase.roundWithErrorDistribution(amounts, amounts, 0, 3));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Units.ZERO.roundWithErrorDistribution(new long[] { 2000, 0, 0 }, 3));
+    }
 }
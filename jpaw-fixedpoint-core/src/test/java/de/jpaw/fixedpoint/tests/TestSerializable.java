@@ -34,9 +34,10 @@ public class TestSerializable {
 
     @Test
     public void testFixedPointIsSerializable() throws Exception {
-        run(2, false);
+        run(2, false);                  // by default, only 0 and 1 are cached
         run(1, true);
         run(0, true);
         run(-1, false);
+        run(1_000_000, false);
     }
 }
@@ -1,7 +1,11 @@
 package de.jpaw.api;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /** Describes a generic data provider, which can provide read-only access to some configuration, or perform R/W operations.
  * Implementations have to provide much less functionality than for a Map.
@@ -35,4 +39,40 @@ public interface DataProvider<KEY extends Serializable, DATA> {
      */
     List<DATA> getAll();
 
+    /** Returns the data for the given keys. Keys for which no data exists are not contained in the result.
+     * The default implementation calls {@link #get(Serializable)} for every key,
+     * providers backed by a remote store should override it to retrieve all keys in a single round trip.
+     */
+    default Map<KEY, DATA> getAll(final Collection<KEY> keys) {
+        final Map<KEY, DATA> result = new LinkedHashMap<>(2 * keys.size());
+        for (final KEY key : keys) {
+            final DATA data = get(key);
+            if (data != null) {
+                result.put(key, data);
+            }
+        }
+        return result;
+    }
+
+    /** Returns the data for a given key asynchronously. The future completes with null if the data does not exist.
+     * The default implementation performs a synchronous {@link #get(Serializable)} and returns a completed future.
+     */
+    default CompletableFuture<DATA> getAsync(final KEY key) {
+        try {
+            return CompletableFuture.completedFuture(get(key));
+        } catch (final RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /** Returns the data for the given keys asynchronously, with the same result as {@link #getAll(Collection)}.
+     * The default implementation performs a synchronous {@link #getAll(Collection)} and returns a completed future.
+     */
+    default CompletableFuture<Map<KEY, DATA>> getAllAsync(final Collection<KEY> keys) {
+        try {
+            return CompletableFuture.completedFuture(getAll(keys));
+        } catch (final RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 }
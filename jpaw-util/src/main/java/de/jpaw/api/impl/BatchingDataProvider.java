@@ -0,0 +1,193 @@
+package de.jpaw.api.impl;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import de.jpaw.api.DataProvider;
+
+/** An adapter which coalesces single key requests into bulk requests to another data provider.
+ * <p>
+ * A request opens a batch, which is sent to {@link DataProvider#getAll(Collection)} of the delegate after the configured time window,
+ * or as soon as it contains the maximum number of keys. All requests arriving in the meantime are added to the same batch,
+ * multiple requests for the same key share a single future.
+ * This amortizes round trips to remote stores when many threads (or asynchronous callers) look up keys concurrently.
+ * Synchronous calls of {@link #get(Serializable)} wait for the batch, and therefore have an additional latency of up to the time window.
+ * <p>
+ * The bulk requests are executed on the provided scheduler. If the scheduler rejects a batch (for example after it has been shut down),
+ * the futures of that batch are completed exceptionally. All other methods are passed through to the delegate.
+ * The timer of a batch which is sent due to its size is cancelled. With a ScheduledThreadPoolExecutor, cancelled tasks are removed from
+ * its queue only if {@link java.util.concurrent.ScheduledThreadPoolExecutor#setRemoveOnCancelPolicy(boolean)} is set.
+ *
+ * @param <KEY>
+ * @param <DATA>
+ */
+public class BatchingDataProvider<KEY extends Serializable, DATA> implements DataProvider<KEY, DATA> {
+    private final DataProvider<KEY, DATA> delegate;
+    private final long windowMicros;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService scheduler;
+    private Batch<KEY, DATA> pending = null;     // the currently open batch, guarded by this
+
+    /** The requests of one batch. The fields are guarded by the enclosing instance, until the batch has been sent. */
+    private static final class Batch<KEY, DATA> {
+        private final Map<KEY, CompletableFuture<DATA>> futures = new LinkedHashMap<>();
+        private boolean sent = false;
+        private ScheduledFuture<?> timer = null;    // the flush after the time window
+    }
+
+    /**
+     * Creates a batching adapter.
+     *
+     * @param delegate      the data provider which receives the bulk requests
+     * @param windowMicros  the time after the first request of a batch at which the batch is sent
+     * @param maxBatchSize  the number of keys after which a batch is sent immediately
+     * @param scheduler     the executor to run the bulk requests on
+     */
+    public BatchingDataProvider(final DataProvider<KEY, DATA> delegate, final long windowMicros, final int maxBatchSize,
+      final ScheduledExecutorService scheduler) {
+        if (windowMicros < 0 || maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Invalid batch parameters: window " + windowMicros + ", max batch size " + maxBatchSize);
+        }
+        this.delegate = delegate;
+        this.windowMicros = windowMicros;
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public CompletableFuture<DATA> getAsync(final KEY key) {
+        final CompletableFuture<DATA> future;
+        Batch<KEY, DATA> full = null;
+        synchronized (this) {
+            if (pending == null) {
+                final Batch<KEY, DATA> batch = new Batch<>();
+                try {
+                    batch.timer = scheduler.schedule(() -> flush(batch), windowMicros, TimeUnit.MICROSECONDS);
+                } catch (final RuntimeException e) {
+                    // rejected: do not open the batch, because nobody would send it
+                    return CompletableFuture.failedFuture(e);
+                }
+                pending = batch;
+            }
+            future = pending.futures.computeIfAbsent(key, k -> new CompletableFuture<>());
+            if (pending.futures.size() >= maxBatchSize) {
+                full = pending;
+                pending = null;
+            }
+        }
+        if (full != null) {
+            final Batch<KEY, DATA> batch = full;
+            batch.timer.cancel(false);      // the batch is sent now, otherwise the timer task would remain queued until the window ends
+            try {
+                scheduler.execute(() -> flush(batch));
+            } catch (final RuntimeException e) {
+                fail(batch, e);
+            }
+        }
+        return future;
+    }
+
+    /** Completes all futures of a batch exceptionally, unless it has been sent already. */
+    private void fail(final Batch<KEY, DATA> batch, final Throwable cause) {
+        synchronized (this) {
+            if (batch.sent) {
+                return;
+            }
+            batch.sent = true;
+            if (pending == batch) {
+                pending = null;
+            }
+        }
+        for (final CompletableFuture<DATA> future : batch.futures.values()) {
+            future.completeExceptionally(cause);
+        }
+    }
+
+    /** Sends a batch to the delegate and completes its futures. A batch which has been sent already is ignored. */
+    private void flush(final Batch<KEY, DATA> batch) {
+        synchronized (this) {
+            if (batch.sent) {
+                return;     // timer of a batch which has been sent due to its size, and which could not be cancelled in time
+            }
+            batch.sent = true;
+            if (pending == batch) {
+                pending = null;
+            }
+        }
+        final List<KEY> keys = new ArrayList<>(batch.futures.keySet());
+        try {
+            final Map<KEY, DATA> result = delegate.getAll(keys);
+            for (final Map.Entry<KEY, CompletableFuture<DATA>> e : batch.futures.entrySet()) {
+                e.getValue().complete(result.get(e.getKey()));
+            }
+        } catch (final Throwable ex) {
+            // also for Errors, because callers wait for the futures
+            for (final CompletableFuture<DATA> future : batch.futures.values()) {
+                future.completeExceptionally(ex);
+            }
+            if (ex instanceof Error) {
+                throw (Error)ex;
+            }
+        }
+    }
+
+    /**
+     * Returns the data for a key. The request is added to the current batch, and the method waits for its result.
+     * This method must not be called from a thread of the scheduler, because the batch could then not be sent (deadlock).
+     * Use {@link #getAsync(Serializable)} there.
+     */
+    @Override
+    public DATA get(final KEY key) {
+        try {
+            return getAsync(key).join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException)e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error)e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /** Sends the keys to the delegate directly, because they form a batch already. */
+    @Override
+    public Map<KEY, DATA> getAll(final Collection<KEY> keys) {
+        return delegate.getAll(keys);
+    }
+
+    @Override
+    public CompletableFuture<Map<KEY, DATA>> getAllAsync(final Collection<KEY> keys) {
+        return CompletableFuture.supplyAsync(() -> delegate.getAll(keys), scheduler);
+    }
+
+    @Override
+    public void set(final KEY key, final DATA data) {
+        delegate.set(key, data);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public void init() {
+        delegate.init();
+    }
+
+    @Override
+    public List<DATA> getAll() {
+        return delegate.getAll();
+    }
+}
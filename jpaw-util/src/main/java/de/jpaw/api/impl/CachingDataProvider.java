@@ -0,0 +1,403 @@
+package de.jpaw.api.impl;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.jpaw.api.DataProvider;
+
+/** A decorator which caches the results of another data provider.
+ * <p>
+ * Entries expire after a time to live. If refresh-ahead is configured, a hit on an entry which is close to expiry
+ * triggers an asynchronous reload, while the current value is still returned, so that frequently used entries never expire on the caller's thread.
+ * Concurrent misses for the same key are coalesced into a single load (single flight), the other callers wait for its result.
+ * Negative results (null) are cached as well, if a time to live for them is configured.
+ * <p>
+ * If the number of entries exceeds the configured maximum, expired entries and then the oldest quarter of the entries are evicted.
+ * Writes via {@link #set(Serializable, Object)} are passed through to the delegate and invalidate the cached entry.
+ * Loads which are in progress during a write or invalidation return their result to their callers, but do not store it in the cache.
+ * {@link #getAll()} is passed through without caching. {@link #getAll(Collection)} serves the cached keys,
+ * and retrieves all missing keys with a single call to the delegate.
+ *
+ * @param <KEY>
+ * @param <DATA>
+ */
+public class CachingDataProvider<KEY extends Serializable, DATA> implements DataProvider<KEY, DATA> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingDataProvider.class);
+
+    /** Snapshot of the cache statistics. */
+    public record Statistics(long hits, long negativeHits, long misses, long loads, long loadFailures, long totalLoadTimeNanos,
+      long refreshes, long evictions) {
+
+        /** Returns the ratio of hits (including negative hits) to all requests, or 0 if there were no requests. */
+        public double hitRatio() {
+            final long requests = hits + negativeHits + misses;
+            return requests == 0 ? 0.0 : (double)(hits + negativeHits) / requests;
+        }
+
+        /** Returns the average duration of a load in nanoseconds, or 0 if nothing has been loaded. */
+        public long averageLoadTimeNanos() {
+            return loads == 0 ? 0 : totalLoadTimeNanos / loads;
+        }
+    }
+
+    /** A cached result. The data is null for a negative entry. */
+    private static final class Entry<DATA> {
+        private final DATA data;
+        private final long loadedAt;    // System.nanoTime() of the load
+
+        private Entry(final DATA data, final long loadedAt) {
+            this.data = data;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private final DataProvider<KEY, DATA> delegate;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final long refreshAheadNanos;
+    private final long negativeTtlNanos;
+    private final Executor refreshExecutor;
+    private final ConcurrentHashMap<KEY, Entry<DATA>> cache;
+    private final ConcurrentHashMap<KEY, CompletableFuture<Entry<DATA>>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder totalLoadTimeNanos = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /** Creates a cache with the given size and time to live, without refresh-ahead and without negative caching. */
+    public CachingDataProvider(final DataProvider<KEY, DATA> delegate, final int maxSize, final long ttlMillis) {
+        this(delegate, maxSize, ttlMillis, 0L, 0L, null);
+    }
+
+    /**
+     * Creates a caching data provider.
+     *
+     * @param delegate            the data provider which is queried for missing or expired entries
+     * @param maxSize             the maximum number of cached entries
+     * @param ttlMillis           the time to live of an entry
+     * @param refreshAheadMillis  if positive, entries are reloaded asynchronously when they are hit during this period before their expiry
+     * @param negativeTtlMillis   if positive, null results are cached for this time
+     * @param refreshExecutor     the executor for the asynchronous reloads, or null to use the common ForkJoinPool
+     */
+    public CachingDataProvider(final DataProvider<KEY, DATA> delegate, final int maxSize, final long ttlMillis, final long refreshAheadMillis,
+      final long negativeTtlMillis, final Executor refreshExecutor) {
+        if (maxSize <= 0 || ttlMillis <= 0 || refreshAheadMillis < 0 || refreshAheadMillis >= ttlMillis || negativeTtlMillis < 0) {
+            throw new IllegalArgumentException("Invalid cache parameters: maxSize " + maxSize + ", TTL " + ttlMillis
+              + ", refresh ahead " + refreshAheadMillis + ", negative TTL " + negativeTtlMillis);
+        }
+        this.delegate = delegate;
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.refreshAheadNanos = TimeUnit.MILLISECONDS.toNanos(refreshAheadMillis);
+        this.negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(negativeTtlMillis);
+        this.refreshExecutor = refreshExecutor != null ? refreshExecutor : ForkJoinPool.commonPool();
+        this.cache = new ConcurrentHashMap<>(Math.min(maxSize, 1024));
+    }
+
+    @Override
+    public DATA get(final KEY key) {
+        final Entry<DATA> entry = cache.get(key);
+        if (entry != null) {
+            final long age = System.nanoTime() - entry.loadedAt;
+            if (entry.data == null) {
+                if (age < negativeTtlNanos) {
+                    negativeHits.increment();
+                    return null;
+                }
+            } else if (age < ttlNanos) {
+                hits.increment();
+                if (refreshAheadNanos > 0 && age >= ttlNanos - refreshAheadNanos) {
+                    refreshAsync(key);
+                }
+                return entry.data;
+            }
+        }
+        misses.increment();
+        return load(key).data;
+    }
+
+    /** Checks for a valid cached entry, and if found, counts the hit and stores positive results into result. Returns true for a hit. */
+    private boolean lookup(final KEY key, final Map<KEY, DATA> result) {
+        final Entry<DATA> entry = cache.get(key);
+        if (entry == null) {
+            return false;
+        }
+        final long age = System.nanoTime() - entry.loadedAt;
+        if (entry.data == null) {
+            if (age < negativeTtlNanos) {
+                negativeHits.increment();
+                return true;
+            }
+            return false;
+        }
+        if (age < ttlNanos) {
+            hits.increment();
+            if (refreshAheadNanos > 0 && age >= ttlNanos - refreshAheadNanos) {
+                refreshAsync(key);
+            }
+            result.put(key, entry.data);
+            return true;
+        }
+        return false;
+    }
+
+    /** Returns the data for the given keys. Cached entries are served from the cache, all others are retrieved from the delegate
+     * with a single bulk request. Keys which are currently being loaded by other threads are part of the bulk request as well,
+     * but only the load which has been started first stores its result. */
+    @Override
+    public Map<KEY, DATA> getAll(final Collection<KEY> keys) {
+        final Map<KEY, DATA> result = new LinkedHashMap<>(2 * keys.size());
+        final List<KEY> missing = new ArrayList<>();
+        for (final KEY key : keys) {
+            if (!lookup(key, result)) {
+                misses.increment();
+                missing.add(key);
+            }
+        }
+        if (!missing.isEmpty()) {
+            // register the keys as in flight, so that concurrent single key requests wait for this load, and writes can fence it
+            final List<CompletableFuture<Entry<DATA>>> futures = new ArrayList<>(missing.size());
+            for (final KEY key : missing) {
+                final CompletableFuture<Entry<DATA>> future = new CompletableFuture<>();
+                futures.add(inFlight.putIfAbsent(key, future) == null ? future : null);    // null: loaded by another thread, which stores it
+            }
+            final long start = System.nanoTime();
+            try {
+                final Map<KEY, DATA> loaded = delegate.getAll(missing);
+                final long end = System.nanoTime();
+                loads.increment();
+                totalLoadTimeNanos.add(end - start);
+                boolean added = false;
+                for (int i = 0; i < missing.size(); ++i) {
+                    final KEY key = missing.get(i);
+                    final DATA data = loaded.get(key);
+                    if (data != null) {
+                        result.put(key, data);
+                    }
+                    final CompletableFuture<Entry<DATA>> future = futures.get(i);
+                    if (future != null) {
+                        final Entry<DATA> entry = new Entry<>(data, end);
+                        added |= store(key, future, entry);
+                        future.complete(entry);
+                    }
+                }
+                if (added && cache.size() > maxSize) {
+                    evict();
+                }
+            } catch (final Throwable e) {
+                loadFailures.increment();
+                for (final CompletableFuture<Entry<DATA>> future : futures) {
+                    if (future != null) {
+                        future.completeExceptionally(e);
+                    }
+                }
+                throw e;
+            } finally {
+                for (int i = 0; i < missing.size(); ++i) {
+                    if (futures.get(i) != null) {
+                        inFlight.remove(missing.get(i), futures.get(i));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /** Loads the entry for the key, or waits for a load which is already in progress. */
+    private Entry<DATA> load(final KEY key) {
+        final CompletableFuture<Entry<DATA>> future = new CompletableFuture<>();
+        final CompletableFuture<Entry<DATA>> running = inFlight.putIfAbsent(key, future);
+        if (running == null) {
+            return loadInto(key, future);
+        }
+        try {
+            return running.join();
+        } catch (final CompletionException e) {
+            // rethrow the original exception of the loading thread
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException)e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error)e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /** Triggers an asynchronous reload of the key, unless one is in progress already. */
+    private void refreshAsync(final KEY key) {
+        if (inFlight.containsKey(key)) {
+            return;     // cheap check first, avoids the allocation
+        }
+        final CompletableFuture<Entry<DATA>> future = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, future) == null) {
+            refreshes.increment();
+            try {
+                refreshExecutor.execute(() -> {
+                    try {
+                        loadInto(key, future);
+                    } catch (final RuntimeException e) {
+                        LOGGER.warn("Refresh of cached entry for key {} failed: {}", key, e.getMessage());
+                    }
+                });
+            } catch (final RuntimeException e) {
+                // executor rejected the task: the entry will be loaded synchronously once it expires
+                inFlight.remove(key, future);
+                future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Performs the load for a future which has been registered in inFlight by the current thread.
+     * The result is stored only if the future is still registered, i.e. if no write or invalidation of the key happened in the meantime.
+     * The future is always completed, also if the delegate throws an Error, because other threads may wait for it.
+     */
+    private Entry<DATA> loadInto(final KEY key, final CompletableFuture<Entry<DATA>> future) {
+        final long start = System.nanoTime();
+        try {
+            final DATA data = delegate.get(key);
+            final long end = System.nanoTime();
+            loads.increment();
+            totalLoadTimeNanos.add(end - start);
+            final Entry<DATA> entry = new Entry<>(data, end);
+            if (store(key, future, entry) && cache.size() > maxSize) {
+                evict();
+            }
+            future.complete(entry);
+            return entry;
+        } catch (final Throwable e) {
+            loadFailures.increment();
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * Stores the loaded entry if the future is still registered in inFlight for the key, and unregisters it.
+     * This is atomic with respect to the removal of the future in invalidate(), therefore a stale result is never stored.
+     * Returns true if a new entry has been added to the cache.
+     */
+    private boolean store(final KEY key, final CompletableFuture<Entry<DATA>> future, final Entry<DATA> entry) {
+        final boolean[] added = new boolean[1];
+        inFlight.computeIfPresent(key, (k, registered) -> {
+            if (registered != future) {
+                return registered;
+            }
+            if (entry.data != null || negativeTtlNanos > 0) {
+                added[0] = cache.put(key, entry) == null;
+            } else {
+                cache.remove(key);
+            }
+            return null;
+        });
+        return added[0];
+    }
+
+    /** Removes expired entries, and if that is not sufficient, the oldest quarter of all entries. */
+    private synchronized void evict() {
+        if (cache.size() <= maxSize) {
+            return;     // another thread has evicted already
+        }
+        final long now = System.nanoTime();
+        int removed = 0;
+        for (final Iterator<Map.Entry<KEY, Entry<DATA>>> iter = cache.entrySet().iterator(); iter.hasNext();) {
+            final Entry<DATA> entry = iter.next().getValue();
+            if (now - entry.loadedAt >= (entry.data == null ? negativeTtlNanos : ttlNanos)) {
+                iter.remove();
+                ++removed;
+            }
+        }
+        final int target = maxSize - maxSize / 4;
+        if (cache.size() > target) {
+            // determine the load time below which entries are evicted
+            final long[] ages = new long[cache.size()];
+            int n = 0;
+            for (final Entry<DATA> entry : cache.values()) {
+                if (n < ages.length) {
+                    ages[n++] = now - entry.loadedAt;
+                }
+            }
+            Arrays.sort(ages, 0, n);
+            final int toRemove = n - target;
+            if (toRemove > 0) {
+                final long minAge = ages[n - toRemove];
+                for (final Iterator<Entry<DATA>> iter = cache.values().iterator(); iter.hasNext();) {
+                    if (now - iter.next().loadedAt >= minAge) {
+                        iter.remove();
+                        ++removed;
+                    }
+                }
+            }
+        }
+        evictions.add(removed);
+    }
+
+    /** Removes the cached entry for a key. A load of the key which is in progress will not store its result. */
+    public void invalidate(final KEY key) {
+        inFlight.remove(key);
+        cache.remove(key);
+    }
+
+    /** Removes all cached entries, without clearing the delegate. Loads which are in progress will not store their results. */
+    public void invalidateAll() {
+        inFlight.clear();
+        cache.clear();
+    }
+
+    /** Returns the current number of cached entries, including negative and expired ones. */
+    public int size() {
+        return cache.size();
+    }
+
+    /** Returns a snapshot of the statistics. */
+    public Statistics getStatistics() {
+        return new Statistics(hits.sum(), negativeHits.sum(), misses.sum(), loads.sum(), loadFailures.sum(), totalLoadTimeNanos.sum(),
+          refreshes.sum(), evictions.sum());
+    }
+
+    @Override
+    public void set(final KEY key, final DATA data) {
+        delegate.set(key, data);
+        invalidate(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        invalidateAll();
+    }
+
+    @Override
+    public void init() {
+        delegate.init();
+    }
+
+    @Override
+    public List<DATA> getAll() {
+        return delegate.getAll();
+    }
+}
@@ -1,69 +1,99 @@
 package de.jpaw.api.iso;
 
 import java.util.Locale;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
-import de.jpaw.util.CharTestsASCII;
-
-/** Utility methods to convert String country / currency codes into a numeric code and vice versa. */
+/** Utility methods to convert String country / currency codes into a numeric code and vice versa.
+ * All conversions are table driven: a dense table of 26 * 26 entries provides the numeric code for every pair of letters,
+ * and the reverse table holds canonical (interned) String instances, which are created once per code.
+ * Lookups therefore neither box nor allocate, once the String of a code has been created. */
 public final class CountryKeyConverter {
     private static final int OFFSET_COMPUTED = 100;
+    private static final int NUM_COMPUTED = 26 * 26;    // number of possible combinations of 2 uppercase letters
     private static final String[] FREQUENT_COUNTRY_CODES_A2 = {            // sorted by descending gross domestic product, 2012
         "XX", "US", "CN", "JP", "DE", "FR", "BR", "GB", "RU", "IN", "IT"    // plus "XX" for default
     };
-    private static final ConcurrentMap<String, Integer> FREQUENT_COUNTRY_CODES_A2_MAP = new ConcurrentHashMap<>(400);
+    /** The numeric code per combination of letters. */
+    private static final short[] CODE_BY_LETTERS = new short[NUM_COMPUTED];
+    /** The canonical String per numeric code, filled on demand. */
+    private static final String[] CODE_TO_STRING = new String[OFFSET_COMPUTED + NUM_COMPUTED];
     static {
+        for (int i = 0; i < NUM_COMPUTED; ++i) {
+            CODE_BY_LETTERS[i] = (short)(OFFSET_COMPUTED + i);
+        }
         for (int i = 0; i < FREQUENT_COUNTRY_CODES_A2.length; ++i) {
-            FREQUENT_COUNTRY_CODES_A2_MAP.put(FREQUENT_COUNTRY_CODES_A2[i], Integer.valueOf(i + 1));
+            final String countryCode = FREQUENT_COUNTRY_CODES_A2[i];
+            final int slot = (countryCode.charAt(0) - 'A') * 26 + countryCode.charAt(1) - 'A';
+            CODE_BY_LETTERS[slot] = (short)(i + 1);
+            CODE_TO_STRING[i + 1] = countryCode;
+            CODE_TO_STRING[OFFSET_COMPUTED + slot] = countryCode;
         }
     }
 
     private CountryKeyConverter() { }
 
+    /** Returns the index of an uppercase letter (0..25), or -1 for any other character. */
+    private static int letter(final int c) {
+        final int i = c - 'A';
+        return i >= 0 && i < 26 ? i : -1;
+    }
+
     /** convert a country code string into a number, or return 0 if the code does not conform to the spec.
      * Frequently occurring codes will get small numbers.
      * The range is within [1..776) (10 bit) */
     public static int countryCodeA2ToInt(final String countryCode) {
-        final Integer frequent = FREQUENT_COUNTRY_CODES_A2_MAP.get(countryCode);
-        if (frequent != null)
-            return frequent.intValue();
-        // error check
-        if (countryCode.length() != 2
-          || !CharTestsASCII.isAsciiUpperCase(countryCode.charAt(0))
-          || !CharTestsASCII.isAsciiUpperCase(countryCode.charAt(1))) {
+        return countryCodeA2ToInt((CharSequence)countryCode);
+    }
+
+    /** convert a country code into a number, or return 0 if the code does not conform to the spec. */
+    public static int countryCodeA2ToInt(final CharSequence countryCode) {
+        if (countryCode.length() != 2)
             return 0;
-        }
-        // default: by formula
-        return OFFSET_COMPUTED + (countryCode.charAt(0) - 'A') * 26 + countryCode.charAt(1) - 'A';
+        return toInt(letter(countryCode.charAt(0)), letter(countryCode.charAt(1)));
     }
 
-    public static String intToCountryCodeA2(int countryCodeIndex) {
-        if (countryCodeIndex <= 0)
+    /** convert a country code provided as ASCII bytes into a number, or return 0 if the code does not conform to the spec. */
+    public static int countryCodeA2ToInt(final byte[] data, final int offset, final int length) {
+        if (length != 2)
+            return 0;
+        return toInt(letter(data[offset]), letter(data[offset + 1]));
+    }
+
+    private static int toInt(final int l0, final int l1) {
+        if ((l0 | l1) < 0)
+            return 0;
+        return CODE_BY_LETTERS[l0 * 26 + l1];
+    }
+
+    public static String intToCountryCodeA2(final int countryCodeIndex) {
+        if (countryCodeIndex <= 0 || countryCodeIndex >= OFFSET_COMPUTED + NUM_COMPUTED)
             return null;  // error
-        if (countryCodeIndex <= FREQUENT_COUNTRY_CODES_A2.length)
-            return FREQUENT_COUNTRY_CODES_A2[countryCodeIndex - 1];
-        if (countryCodeIndex < OFFSET_COMPUTED || countryCodeIndex >= 776)
+        final String cached = CODE_TO_STRING[countryCodeIndex];
+        if (cached != null)
+            return cached;
+        if (countryCodeIndex < OFFSET_COMPUTED)
             return null;  // error
-        countryCodeIndex -= OFFSET_COMPUTED;
-        return String.valueOf((char)('A' + countryCodeIndex / 26)) + String.valueOf((char)('A' + countryCodeIndex % 26));
+        final int slot = countryCodeIndex - OFFSET_COMPUTED;
+        // concurrent creation is harmless, because intern() returns the same instance
+        final String countryCode = new String(new char[] { (char)('A' + slot / 26), (char)('A' + slot % 26) }).intern();
+        CODE_TO_STRING[countryCodeIndex] = countryCode;
+        return countryCode;
+    }
+
+    /** Returns the canonical String instance for a country code, or null if the code does not conform to the spec. */
+    public static String canonicalCountryCodeA2(final CharSequence countryCode) {
+        return intToCountryCodeA2(countryCodeA2ToInt(countryCode));
+    }
+
+    /** Returns the canonical String instance for a country code provided as ASCII bytes, or null if the code does not conform to the spec. */
+    public static String canonicalCountryCodeA2(final byte[] data, final int offset, final int length) {
+        return intToCountryCodeA2(countryCodeA2ToInt(data, offset, length));
     }
 
     /** Fill cache entries for all known countries.
      * If called, subsequent String construction and resulting GC overhead can be avoided. */
     public static void populateCache() {
-        final String[] countries = Locale.getISOCountries();
-        for (int i = 0; i < countries.length; ++i) {
-            final String countryCode = countries[i];
-            final Integer code = FREQUENT_COUNTRY_CODES_A2_MAP.get(countryCode);
-            if (code == null) {
-                // not yet in cache
-                final int newCode = countryCodeA2ToInt(countryCode);
-                if (newCode > 0) {
-                    // valid code: store it with the predictable index
-                    FREQUENT_COUNTRY_CODES_A2_MAP.putIfAbsent(countryCode, Integer.valueOf(newCode));
-                }
-            }
+        for (final String countryCode : Locale.getISOCountries()) {
+            intToCountryCodeA2(countryCodeA2ToInt(countryCode));
         }
     }
 }
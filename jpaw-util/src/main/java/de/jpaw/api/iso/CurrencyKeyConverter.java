@@ -1,70 +1,99 @@
 package de.jpaw.api.iso;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-
-import de.jpaw.util.CharTestsASCII;
-
+/** Utility methods to convert String currency codes into a numeric code and vice versa.
+ * The conversions are table driven in the same way as in {@link CountryKeyConverter}, using a dense table of 26 * 26 * 26 entries. */
 public final class CurrencyKeyConverter {
     private static final int OFFSET_COMPUTED = 100;
     private static final int NUM_COMPUTED = 26 * 26 * 26;  // number of possible combinations of 3 uppercase letters
+    /** All numeric codes are below this value, it can be used to size arrays indexed by the numeric code. */
+    public static final int CODE_INDEX_LIMIT = OFFSET_COMPUTED + NUM_COMPUTED;
     private static final String[] FREQUENT_CURRENCY_CODES_A3 = {            // sorted by descending gross domestic product, 2012
         "XXX", "USD", "CNY", "JPY", "EUR", "BRR", "RUB", "INR", "GBP", "CHF", "HKD", "AUD", "CAD" // plus "XXX" for default
     };
-    private static final ConcurrentMap<String, Integer> FREQUENT_CURRENCY_CODES_A3_MAP = new ConcurrentHashMap<>(500);
+    /** The numeric code per combination of letters. */
+    private static final short[] CODE_BY_LETTERS = new short[NUM_COMPUTED];
+    /** The canonical String per numeric code, filled on demand. */
+    private static final String[] CODE_TO_STRING = new String[CODE_INDEX_LIMIT];
     static {
+        for (int i = 0; i < NUM_COMPUTED; ++i) {
+            CODE_BY_LETTERS[i] = (short)(OFFSET_COMPUTED + i);
+        }
         for (int i = 0; i < FREQUENT_CURRENCY_CODES_A3.length; ++i) {
-            FREQUENT_CURRENCY_CODES_A3_MAP.put(FREQUENT_CURRENCY_CODES_A3[i], Integer.valueOf(i + 1));
+            final String currencyCode = FREQUENT_CURRENCY_CODES_A3[i];
+            final int slot = (currencyCode.charAt(0) - 'A') * 676 + (currencyCode.charAt(1) - 'A') * 26 + (currencyCode.charAt(2) - 'A');
+            CODE_BY_LETTERS[slot] = (short)(i + 1);
+            CODE_TO_STRING[i + 1] = currencyCode;
+            CODE_TO_STRING[OFFSET_COMPUTED + slot] = currencyCode;
         }
     }
 
     private CurrencyKeyConverter() { }
 
+    /** Returns the index of an uppercase letter (0..25), or -1 for any other character. */
+    private static int letter(final int c) {
+        final int i = c - 'A';
+        return i >= 0 && i < 26 ? i : -1;
+    }
+
     /** convert a country code string into a number, or return 0 if the code does not conform to the spec.
      * Frequently occurring codes will get small numbers.
      * The range is within [1..17k) (31 bit) */
     public static int currencyCodeA3ToInt(final String currencyCode) {
-        final Integer frequent = FREQUENT_CURRENCY_CODES_A3_MAP.get(currencyCode);
-        if (frequent != null)
-            return frequent.intValue();
-        // error check
-        if (currencyCode.length() != 3
-          || !CharTestsASCII.isAsciiUpperCase(currencyCode.charAt(0))
-          || !CharTestsASCII.isAsciiUpperCase(currencyCode.charAt(1))
-          || !CharTestsASCII.isAsciiUpperCase(currencyCode.charAt(2))) {
+        return currencyCodeA3ToInt((CharSequence)currencyCode);
+    }
+
+    /** convert a currency code into a number, or return 0 if the code does not conform to the spec. */
+    public static int currencyCodeA3ToInt(final CharSequence currencyCode) {
+        if (currencyCode.length() != 3)
             return 0;
-        }
-        // default: by formula
-        return OFFSET_COMPUTED + (currencyCode.charAt(0) - 'A') * 676 + (currencyCode.charAt(1) - 'A') * 26 + (currencyCode.charAt(2) - 'A');
+        return toInt(letter(currencyCode.charAt(0)), letter(currencyCode.charAt(1)), letter(currencyCode.charAt(2)));
+    }
+
+    /** convert a currency code provided as ASCII bytes into a number, or return 0 if the code does not conform to the spec. */
+    public static int currencyCodeA3ToInt(final byte[] data, final int offset, final int length) {
+        if (length != 3)
+            return 0;
+        return toInt(letter(data[offset]), letter(data[offset + 1]), letter(data[offset + 2]));
+    }
+
+    private static int toInt(final int l0, final int l1, final int l2) {
+        if ((l0 | l1 | l2) < 0)
+            return 0;
+        return CODE_BY_LETTERS[l0 * 676 + l1 * 26 + l2];
     }
 
-    public static String intToCurrencyCodeA3(int currencyCodeIndex) {
-        if (currencyCodeIndex <= 0)
+    public static String intToCurrencyCodeA3(final int currencyCodeIndex) {
+        if (currencyCodeIndex <= 0 || currencyCodeIndex >= CODE_INDEX_LIMIT)
             return null;  // error
-        if (currencyCodeIndex <= FREQUENT_CURRENCY_CODES_A3.length)
-            return FREQUENT_CURRENCY_CODES_A3[currencyCodeIndex - 1];
-        if (currencyCodeIndex < OFFSET_COMPUTED || currencyCodeIndex >= (OFFSET_COMPUTED + NUM_COMPUTED))
+        final String cached = CODE_TO_STRING[currencyCodeIndex];
+        if (cached != null)
+            return cached;
+        if (currencyCodeIndex < OFFSET_COMPUTED)
             return null;  // error
-        currencyCodeIndex -= OFFSET_COMPUTED;
-        return String.valueOf((char)('A' + currencyCodeIndex / 676))
-          + String.valueOf((char)('A' + (currencyCodeIndex / 26) % 26))
-          + String.valueOf((char)('A' + currencyCodeIndex % 26));
+        final int slot = currencyCodeIndex - OFFSET_COMPUTED;
+        // concurrent creation is harmless, because intern() returns the same instance
+        final String currencyCode = new String(new char[] {
+            (char)('A' + slot / 676), (char)('A' + (slot / 26) % 26), (char)('A' + slot % 26)
+        }).intern();
+        CODE_TO_STRING[currencyCodeIndex] = currencyCode;
+        return currencyCode;
+    }
+
+    /** Returns the canonical String instance for a currency code, or null if the code does not conform to the spec. */
+    public static String canonicalCurrencyCodeA3(final CharSequence currencyCode) {
+        return intToCurrencyCodeA3(currencyCodeA3ToInt(currencyCode));
+    }
+
+    /** Returns the canonical String instance for a currency code provided as ASCII bytes, or null if the code does not conform to the spec. */
+    public static String canonicalCurrencyCodeA3(final byte[] data, final int offset, final int length) {
+        return intToCurrencyCodeA3(currencyCodeA3ToInt(data, offset, length));
     }
 
     /** Fill cache entries for all known currencies.
      * If called, subsequent String construction and resulting GC overhead can be avoided. */
     public static void populateCache(final CurrencyDataProvider dp) {
         for (final CurrencyData cd: dp.getAll()) {
-            final String currencyCode = cd.getCurrencyCode();
-            final Integer code = FREQUENT_CURRENCY_CODES_A3_MAP.get(currencyCode);
-            if (code == null) {
-                // not yet in cache
-                final int newCode = currencyCodeA3ToInt(currencyCode);
-                if (newCode > 0) {
-                    // valid code: store it with the predictable index
-                    FREQUENT_CURRENCY_CODES_A3_MAP.putIfAbsent(currencyCode, Integer.valueOf(newCode));
-                }
-            }
+            intToCurrencyCodeA3(currencyCodeA3ToInt(cd.getCurrencyCode()));
         }
     }
 }
@@ -1,94 +1,172 @@
 package de.jpaw.api.iso;
 
 import java.util.Locale;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
-import de.jpaw.util.CharTestsASCII;
-
-/** Utility methods to convert String language / currency codes into a numeric code and vice versa. */
+/** Utility methods to convert String language / currency codes into a numeric code and vice versa.
+ * The numeric code is computed by formula (5 bits per letter), frequent codes are remapped via small tables.
+ * The reverse direction uses tables of canonical (interned) String instances, which are created once per code.
+ * For the codes with country (xx_YY), the table is split into one block per language, allocated when first used. */
 public final class LanguageKeyConverter {
     private static final int OFFSET_COMPUTED_2 = 60;                // offset for 2 letter codes
     private static final int OFFSET_COMPUTED_5 = 60 + 32 * 32;      // offset for 5 letter codes
     private static final String[] FREQUENT_LANGUAGE_CODES = {
         "xx", "es", "en", "hi", "zh", "zh_CN", "zh_TW", "de", "fr", "it", "pt", "en_GB", "en_US"    // "xxx" for default
     };
-    private static final ConcurrentMap<String, Integer> FREQUENT_LANGUAGE_CODES_MAP = new ConcurrentHashMap<>(400);
+    /** The numeric code per 2 letter combination (5 bits per letter). */
+    private static final short[] SHORT_CODE_BY_LETTERS = new short[32 * 32];
+    /** The computed codes of the frequent 5 letter codes (without offset) and their numeric codes. */
+    private static final int[] FREQUENT_LONG_RAW = new int[FREQUENT_LANGUAGE_CODES.length];
+    private static final int[] FREQUENT_LONG_CODE = new int[FREQUENT_LANGUAGE_CODES.length];
+    private static int numFrequentLong = 0;
+    /** The canonical String per numeric code below OFFSET_COMPUTED_5, filled on demand. */
+    private static final String[] SHORT_CODE_TO_STRING = new String[OFFSET_COMPUTED_5];
+    /** The canonical String per 5 letter code, one block of 1024 entries per language, filled on demand. */
+    private static final String[][] LONG_CODE_TO_STRING = new String[32 * 32][];
     static {
+        for (int i = 0; i < SHORT_CODE_BY_LETTERS.length; ++i) {
+            SHORT_CODE_BY_LETTERS[i] = (short)(OFFSET_COMPUTED_2 + i);
+        }
         for (int i = 0; i < FREQUENT_LANGUAGE_CODES.length; ++i) {
-            FREQUENT_LANGUAGE_CODES_MAP.put(FREQUENT_LANGUAGE_CODES[i], Integer.valueOf(i + 1));
+            final String languageCode = FREQUENT_LANGUAGE_CODES[i];
+            SHORT_CODE_TO_STRING[i + 1] = languageCode;
+            if (languageCode.length() == 2) {
+                final int raw = ((languageCode.charAt(0) & 0x1f) << 5) + (languageCode.charAt(1) & 0x1f);
+                SHORT_CODE_BY_LETTERS[raw] = (short)(i + 1);
+                SHORT_CODE_TO_STRING[OFFSET_COMPUTED_2 + raw] = languageCode;
+            } else {
+                final int raw = ((languageCode.charAt(0) & 0x1f) << 15) + ((languageCode.charAt(1) & 0x1f) << 10)
+                  + ((languageCode.charAt(3) & 0x1f) << 5) + (languageCode.charAt(4) & 0x1f);
+                FREQUENT_LONG_RAW[numFrequentLong] = raw;
+                FREQUENT_LONG_CODE[numFrequentLong++] = i + 1;
+                longBlock(raw >> 10)[raw & 0x3ff] = languageCode;
+            }
         }
     }
 
     private LanguageKeyConverter() { }
 
+    /** Returns the 5 bit code of a lowercase letter (1..26), or -1 for any other character. */
+    private static int lower(final int c) {
+        final int i = c - ('a' - 1);
+        return i >= 1 && i <= 26 ? i : -1;
+    }
+
+    /** Returns the 5 bit code of an uppercase letter (1..26), or -1 for any other character. */
+    private static int upper(final int c) {
+        final int i = c - ('A' - 1);
+        return i >= 1 && i <= 26 ? i : -1;
+    }
+
+    /** Returns true if the 5 bit code denotes a letter. */
+    private static boolean isLetter(final int code) {
+        return code >= 1 && code <= 26;
+    }
+
     /** convert a language code string into a number, or return 0 if the code does not conform to the spec.
      * Frequently occurring codes will get small numbers. */
     public static int languageCodeToInt(final String languageCode) {
-        final Integer frequent = FREQUENT_LANGUAGE_CODES_MAP.get(languageCode);
-        if (frequent != null)
-            return frequent.intValue();
-        // error check
-        if (languageCode.length() < 2
-          || !CharTestsASCII.isAsciiLowerCase(languageCode.charAt(0))
-          || !CharTestsASCII.isAsciiLowerCase(languageCode.charAt(1))) {
-            // not OK
+        return languageCodeToInt((CharSequence)languageCode);
+    }
+
+    /** convert a language code into a number, or return 0 if the code does not conform to the spec. */
+    public static int languageCodeToInt(final CharSequence languageCode) {
+        final int length = languageCode.length();
+        if (length == 2)
+            return toInt(lower(languageCode.charAt(0)), lower(languageCode.charAt(1)));
+        if (length != 5 || languageCode.charAt(2) != '_')
             return 0;
-        }
-        if (languageCode.length() == 2) {
-            return OFFSET_COMPUTED_2 + ((languageCode.charAt(0) & 0x1f) << 5) + (languageCode.charAt(1) & 0x1f);
-        }
-        if (languageCode.charAt(2) != '_'
-          || languageCode.length() != 5
-          || !CharTestsASCII.isAsciiUpperCase(languageCode.charAt(3))
-          || !CharTestsASCII.isAsciiUpperCase(languageCode.charAt(4))) {
+        return toInt(lower(languageCode.charAt(0)), lower(languageCode.charAt(1)), upper(languageCode.charAt(3)), upper(languageCode.charAt(4)));
+    }
+
+    /** convert a language code provided as ASCII bytes into a number, or return 0 if the code does not conform to the spec. */
+    public static int languageCodeToInt(final byte[] data, final int offset, final int length) {
+        if (length == 2)
+            return toInt(lower(data[offset]), lower(data[offset + 1]));
+        if (length != 5 || data[offset + 2] != '_')
             return 0;
+        return toInt(lower(data[offset]), lower(data[offset + 1]), upper(data[offset + 3]), upper(data[offset + 4]));
+    }
+
+    private static int toInt(final int l0, final int l1) {
+        if ((l0 | l1) < 0)
+            return 0;
+        return SHORT_CODE_BY_LETTERS[(l0 << 5) + l1];
+    }
+
+    private static int toInt(final int l0, final int l1, final int l3, final int l4) {
+        if ((l0 | l1 | l3 | l4) < 0)
+            return 0;
+        final int raw = (l0 << 15) + (l1 << 10) + (l3 << 5) + l4;
+        for (int i = 0; i < numFrequentLong; ++i) {
+            if (FREQUENT_LONG_RAW[i] == raw)
+                return FREQUENT_LONG_CODE[i];
         }
         // default: by formula
-        return OFFSET_COMPUTED_5
-          + ((languageCode.charAt(0) & 0x1f) << 15)
-          + ((languageCode.charAt(1) & 0x1f) << 10)
-          + ((languageCode.charAt(3) & 0x1f) <<  5)
-          + ((languageCode.charAt(4) & 0x1f));
+        return OFFSET_COMPUTED_5 + raw;
     }
 
-    public static String intToLanguageCode(int languageCodeIndex) {
-        if (languageCodeIndex <= 0)
-            return null;  // error
-        if (languageCodeIndex <= FREQUENT_LANGUAGE_CODES.length)
-            return FREQUENT_LANGUAGE_CODES[languageCodeIndex - 1];
-        if (languageCodeIndex < OFFSET_COMPUTED_2 || languageCodeIndex >= OFFSET_COMPUTED_5 + (1 << 20))
+    // concurrent allocation of a block is harmless, because the entries are interned Strings
+    private static String[] longBlock(final int index) {
+        String[] block = LONG_CODE_TO_STRING[index];
+        if (block == null) {
+            block = new String[1024];
+            LONG_CODE_TO_STRING[index] = block;
+        }
+        return block;
+    }
+
+    public static String intToLanguageCode(final int languageCodeIndex) {
+        if (languageCodeIndex <= 0 || languageCodeIndex >= OFFSET_COMPUTED_5 + (1 << 20))
             return null;  // error
         if (languageCodeIndex < OFFSET_COMPUTED_5) {
+            final String cached = SHORT_CODE_TO_STRING[languageCodeIndex];
+            if (cached != null)
+                return cached;
+            if (languageCodeIndex < OFFSET_COMPUTED_2)
+                return null;  // error
             // short form
-            languageCodeIndex -= OFFSET_COMPUTED_2;
-            return String.valueOf((char)('a' + (languageCodeIndex >> 5) - 1))
-                 + String.valueOf((char)('a' + (languageCodeIndex & 0x1f) - 1));
+            final int raw = languageCodeIndex - OFFSET_COMPUTED_2;
+            if (!isLetter(raw >> 5) || !isLetter(raw & 0x1f))
+                return null;  // error
+            final String languageCode = new String(new char[] {
+                (char)('a' - 1 + (raw >> 5)), (char)('a' - 1 + (raw & 0x1f))
+            }).intern();
+            SHORT_CODE_TO_STRING[languageCodeIndex] = languageCode;
+            return languageCode;
         }
         // long form
-        languageCodeIndex -= OFFSET_COMPUTED_5;
-        return String.valueOf((char)('a' - 1 + (languageCodeIndex >> 15)))
-          + String.valueOf((char)('a' - 1 + ((languageCodeIndex >> 10) & 0x1f)))
-          + "_"
-          + String.valueOf((char)('A' - 1 + ((languageCodeIndex >> 5) & 0x1f)))
-          + String.valueOf((char)('A' - 1 + ((languageCodeIndex) & 0x1f)));
+        final int raw = languageCodeIndex - OFFSET_COMPUTED_5;
+        final String[] block = LONG_CODE_TO_STRING[raw >> 10];
+        if (block != null && block[raw & 0x3ff] != null)
+            return block[raw & 0x3ff];
+        if (!isLetter(raw >> 15) || !isLetter((raw >> 10) & 0x1f) || !isLetter((raw >> 5) & 0x1f) || !isLetter(raw & 0x1f))
+            return null;  // error
+        final String languageCode = new String(new char[] {
+            (char)('a' - 1 + (raw >> 15)),
+            (char)('a' - 1 + ((raw >> 10) & 0x1f)),
+            '_',
+            (char)('A' - 1 + ((raw >> 5) & 0x1f)),
+            (char)('A' - 1 + (raw & 0x1f))
+        }).intern();
+        longBlock(raw >> 10)[raw & 0x3ff] = languageCode;
+        return languageCode;
+    }
+
+    /** Returns the canonical String instance for a language code, or null if the code does not conform to the spec. */
+    public static String canonicalLanguageCode(final CharSequence languageCode) {
+        return intToLanguageCode(languageCodeToInt(languageCode));
+    }
+
+    /** Returns the canonical String instance for a language code provided as ASCII bytes, or null if the code does not conform to the spec. */
+    public static String canonicalLanguageCode(final byte[] data, final int offset, final int length) {
+        return intToLanguageCode(languageCodeToInt(data, offset, length));
     }
 
     /** Fill cache entries for all known languages.
      * If called, subsequent String construction and resulting GC overhead can be avoided. */
     public static void populateCache() {
-        final String[] languages = Locale.getISOLanguages();
-        for (int i = 0; i < languages.length; ++i) {
-            final String languageCode = languages[i];
-            final Integer code = FREQUENT_LANGUAGE_CODES_MAP.get(languageCode);
-            if (code == null) {
-                // not yet in cache
-                final int newCode = languageCodeToInt(languageCode);
-                if (newCode > 0) {
-                    // valid code: store it with the predictable index
-                    FREQUENT_LANGUAGE_CODES_MAP.putIfAbsent(languageCode, Integer.valueOf(newCode));
-                }
-            }
+        for (final String languageCode : Locale.getISOLanguages()) {
+            intToLanguageCode(languageCodeToInt(languageCode));
         }
     }
 }
@@ -7,10 +7,14 @@ import java.util.Set;
 
 import de.jpaw.api.iso.CurrencyData;
 import de.jpaw.api.iso.CurrencyDataProvider;
+import de.jpaw.api.iso.CurrencyKeyConverter;
 
 public final class JavaCurrencyDataProvider implements CurrencyDataProvider {
     public static final JavaCurrencyDataProvider INSTANCE = new JavaCurrencyDataProvider();
 
+    /** The wrappers created so far, indexed by the numeric code of CurrencyKeyConverter. */
+    private static final JavaCurrencyData[] WRAPPERS = new JavaCurrencyData[CurrencyKeyConverter.CODE_INDEX_LIMIT];
+
     private JavaCurrencyDataProvider() { }
 
     public static final class JavaCurrencyData implements CurrencyData {
@@ -45,10 +49,20 @@ public final class JavaCurrencyDataProvider implements CurrencyDataProvider {
         }
 
     }
+    /** Returns the data for a currency. The wrapper instances are created once per currency and reused. */
     @Override
     public CurrencyData get(final String key) {
+        final int index = CurrencyKeyConverter.currencyCodeA3ToInt(key);
+        if (index > 0) {
+            final JavaCurrencyData cached = WRAPPERS[index];
+            if (cached != null)
+                return cached;
+        }
         try {
-            return new JavaCurrencyData(Currency.getInstance(key));
+            final JavaCurrencyData data = new JavaCurrencyData(Currency.getInstance(key));
+            if (index > 0)
+                WRAPPERS[index] = data;     // immutable instance with a final field, therefore safely published
+            return data;
         } catch (final IllegalArgumentException e) {
             return null;
         }
@@ -8,27 +8,10 @@ import java.util.Set;
 import de.jpaw.util.Base64;
 import de.jpaw.util.ByteArray;
 import de.jpaw.util.ByteBuilder;
+import de.jpaw.util.StringEscaper;
 
 public class BaseJsonComposer implements JsonEscaper {
-    private static final int ESCAPE_TAB_SIZE = 128;      // the number of sequences defined in the tab
     private static final char[] HEX_CHARS = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f' };
-    private static String[] jsonEscapes = new String[ESCAPE_TAB_SIZE];
-    // initialize the escape sequences
-    static {
-        // preset special escapes
-        jsonEscapes['\b'] = "\\b";
-        jsonEscapes['\f'] = "\\f";
-        jsonEscapes['\r'] = "\\r";
-        jsonEscapes['\n'] = "\\n";
-        jsonEscapes['\t'] = "\\t";
-        jsonEscapes['\"'] = "\\\"";
-        jsonEscapes['\\'] = "\\\\";
-        // preset other control characters
-        for (int i = 0; i < 32; ++i) {
-            if (jsonEscapes[i] == null)
-                jsonEscapes[i] = "\\u00" + HEX_CHARS[i / 16] + HEX_CHARS[i & 15];
-        }
-    }
 
     protected final Appendable appendable;
     protected final boolean writeNulls;
@@ -74,29 +57,13 @@ public class BaseJsonComposer implements JsonEscaper {
     }
 
     /** Write the String s (which may not be null) to the Appendable.
-     * This implementation may not yet be fully Unicode-compliant.
-     * See here for the explanation: http://stackoverflow.com/questions/1527856/how-can-i-iterate-through-the-unicode-codepoints-of-a-java-string
+     * Characters outside of the BMP (surrogate pairs) are written unchanged, or as two escaped surrogates if escapeNonASCII is set.
+     * Runs of characters which need no escaping are passed to the Appendable in a single call.
      *  */
     @Override
     public void outputUnicodeWithControls(final String s) throws IOException {
         appendable.append('\"');
-        final int len = s.length();
-        for (int i = 0; i < len; ++i) {
-            final char c = s.charAt(i);
-            if ((c & ~0x7f) != 0) {   // TODO: check if this works correctly for Unicodes characters of the upper plane
-                // non-ASCII (0x80 and above)
-                if (escapeNonASCII)
-                    writeUnicodeEscape(c);
-                else
-                    appendable.append(c);
-            } else {
-                // ASCII char (0x00 - 0x7f)
-                if (jsonEscapes[c] == null)
-                    appendable.append(c);
-                else
-                    appendable.append(jsonEscapes[c]);
-            }
-        }
+        (escapeNonASCII ? StringEscaper.JSON_ASCII : StringEscaper.JSON).appendEscaped(appendable, s);
         appendable.append('\"');
     }
 
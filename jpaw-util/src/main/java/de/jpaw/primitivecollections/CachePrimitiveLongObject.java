@@ -0,0 +1,355 @@
+package de.jpaw.primitivecollections;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+import java.util.function.ObjLongConsumer;
+import java.util.function.ToIntFunction;
+
+import de.jpaw.util.IntegralLimits;
+
+/** A size bounded cache with primitive long keys, using the CLOCK (second chance) algorithm for eviction.
+ * The hash function and bucket layout are the same as for {@link HashMapPrimitiveLongObject}.
+ *
+ * Reads are lock-free: a lookup only traverses the bucket chain and sets the reference bit of the entry found.
+ * All modifications are serialized by synchronizing on the cache instance.
+ * Because the number of entries is bounded, the hash table is sized once in the constructor and never rehashed.
+ *
+ * Optionally, a weight function can be provided, in which case the sum of the weights is limited as well,
+ * and an eviction listener, which is invoked (while holding the lock) for every entry removed due to the size limits.
+ *
+ * Null values are not stored, a put of null corresponds to a remove.
+ *
+ * This class is thread-safe.
+ */
+public final class CachePrimitiveLongObject<V> {
+
+    private static final class Entry<V> {
+        final long key;
+        final int slot;                 // position in the clock ring
+        volatile Entry<V> next;         // volatile because unlinking happens concurrently to readers
+        volatile V value;
+        volatile boolean referenced;    // the CLOCK bit, set by readers, cleared by the hand
+        int weight;                     // only accessed while holding the lock
+
+        Entry(final long key, final int slot, final Entry<V> next, final V value, final int weight) {
+            this.key = key;
+            this.slot = slot;
+            this.next = next;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    private final AtomicReferenceArray<Entry<V>> table; // the buckets
+    private final int mask;                             // table size - 1
+    private final Entry<V>[] ring;                      // the clock, one slot per possible entry
+    private final int[] freeSlots;                      // stack of unused ring positions
+    private final long maxWeight;
+    private final ToIntFunction<? super V> weigher;
+    private final ObjLongConsumer<? super V> evictionListener;
+
+    private int freeCount;                              // number of valid entries in freeSlots
+    private int hand;                                   // current position of the clock hand
+    private int elementCount;                           // current count of entries
+    private long totalWeight;                           // sum of the weights of all entries
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private long evictions;
+
+    /**
+     * Constructs a new cache which holds up to maxEntries entries.
+     *
+     * @param maxEntries
+     *            the maximum number of entries.
+     * @throws IllegalArgumentException
+     *                when maxEntries is less than 1.
+     */
+    public CachePrimitiveLongObject(final int maxEntries) {
+        this(maxEntries, Long.MAX_VALUE, null, null);
+    }
+
+    /**
+     * Constructs a new cache which holds up to maxEntries entries, and whose total weight does not exceed maxWeight.
+     *
+     * @param maxEntries
+     *            the maximum number of entries.
+     * @param maxWeight
+     *            the maximum sum of the weights of all entries.
+     * @param weigher
+     *            a function which computes the weight of a value (must be non-negative), or null to assign each value the weight 1.
+     * @param evictionListener
+     *            a callback invoked with value and key of every evicted entry, or null.
+     * @throws IllegalArgumentException
+     *                when maxEntries or maxWeight is less than 1.
+     */
+    @SuppressWarnings("unchecked")
+    public CachePrimitiveLongObject(final int maxEntries, final long maxWeight, final ToIntFunction<? super V> weigher,
+      final ObjLongConsumer<? super V> evictionListener) {
+        if (maxEntries < 1 || maxWeight < 1) {
+            throw new IllegalArgumentException();
+        }
+        final int capacity = IntegralLimits.nextPowerOf2(maxEntries + (maxEntries / 3) + 1);  // load factor 0.75
+        this.table = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.ring = new Entry[maxEntries];
+        this.freeSlots = new int[maxEntries];
+        for (int i = 0; i < maxEntries; ++i) {
+            freeSlots[i] = maxEntries - 1 - i;          // hand out low slots first
+        }
+        this.freeCount = maxEntries;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.evictionListener = evictionListener;
+    }
+
+    /**
+     * Returns the number of elements in this cache.
+     *
+     * @return the number of elements in this cache.
+     */
+    public synchronized int size() {
+        return elementCount;
+    }
+
+    /** Returns the sum of the weights of all entries (the number of entries if no weight function has been specified). */
+    public synchronized long weightedSize() {
+        return totalWeight;
+    }
+
+    /** Returns the maximum number of entries of this cache. */
+    public int capacity() {
+        return ring.length;
+    }
+
+    /** Returns the number of lookups which found an entry. */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /** Returns the number of lookups which did not find an entry. */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /** Returns the number of entries which have been removed due to the size or weight limits. */
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    /** Resets the hit, miss and eviction counters. */
+    public synchronized void resetStatistics() {
+        hits.reset();
+        misses.reset();
+        evictions = 0L;
+    }
+
+    private Entry<V> findEntry(final long key) {
+        Entry<V> m = table.get(HashMapPrimitiveLongObject.longHash(key) & mask);
+        while (m != null && key != m.key) {
+            m = m.next;
+        }
+        return m;
+    }
+
+    /**
+     * Returns the value of the mapping with the specified key. This method does not acquire a lock.
+     *
+     * @param key
+     *            the key.
+     * @return the value of the mapping with the specified key, or {@code null}
+     *         if no mapping for the specified key is found.
+     */
+    public V get(final long key) {
+        final Entry<V> m = findEntry(key);
+        if (m != null) {
+            if (!m.referenced) {
+                m.referenced = true;    // avoid writing the cache line if the bit is already set
+            }
+            hits.increment();
+            return m.value;
+        }
+        misses.increment();
+        return null;
+    }
+
+    /** Returns true if the cache contains an entry for the key. Unlike get(), this neither updates statistics nor the reference bit. */
+    public boolean containsKey(final long key) {
+        return findEntry(key) != null;
+    }
+
+    /**
+     * Returns the value for the specified key. If no entry exists, the loader is invoked (without holding the lock),
+     * and its result stored, unless it is null.
+     * Concurrent misses for the same key can result in multiple invocations of the loader, in which case the first stored result wins.
+     *
+     * @return the cached or loaded value, or null if the loader returned null.
+     */
+    public V computeIfAbsent(final long key, final LongFunction<? extends V> loader) {
+        final V cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+        final V loaded = loader.apply(key);
+        if (loaded == null) {
+            return null;
+        }
+        final V previous = putIfAbsent(key, loaded);
+        return previous != null ? previous : loaded;
+    }
+
+    /**
+     * Maps the specified key to the specified value. A null value removes the mapping.
+     * If the size or weight limits are exceeded afterwards, other entries are evicted.
+     *
+     * @param key
+     *            the key.
+     * @param value
+     *            the value.
+     * @return the value of any previous mapping with the specified key or
+     *         {@code null} if there was no such mapping.
+     */
+    public synchronized V put(final long key, final V value) {
+        if (value == null) {
+            return remove(key);
+        }
+        final Entry<V> entry = findEntry(key);
+        if (entry == null) {
+            insert(key, value);
+            return null;
+        }
+        final V result = entry.value;
+        final int weight = weigh(value);
+        totalWeight += weight - entry.weight;
+        entry.weight = weight;
+        entry.value = value;
+        entry.referenced = true;
+        evictOverweight();
+        return result;
+    }
+
+    /**
+     * Maps the specified key to the specified value, unless a mapping exists already.
+     *
+     * @return the value of an existing mapping, or {@code null} if the new value has been stored.
+     */
+    public synchronized V putIfAbsent(final long key, final V value) {
+        final Entry<V> entry = findEntry(key);
+        if (entry != null) {
+            return entry.value;
+        }
+        if (value != null) {
+            insert(key, value);
+        }
+        return null;
+    }
+
+    /**
+     * Removes the mapping for the specified key. The eviction listener is not invoked.
+     *
+     * @return the value of the removed mapping, or {@code null} if there was no mapping for the key.
+     */
+    public synchronized V remove(final long key) {
+        final Entry<V> entry = findEntry(key);
+        if (entry == null) {
+            return null;
+        }
+        unlink(entry);
+        return entry.value;
+    }
+
+    /**
+     * Removes all mappings from this cache, leaving it empty. The eviction listener is not invoked.
+     */
+    public synchronized void clear() {
+        if (elementCount > 0) {
+            for (int i = 0; i <= mask; ++i) {
+                table.set(i, null);
+            }
+            Arrays.fill(ring, null);
+            for (int i = 0; i < ring.length; ++i) {
+                freeSlots[i] = ring.length - 1 - i;
+            }
+            freeCount = ring.length;
+            elementCount = 0;
+            totalWeight = 0L;
+            hand = 0;
+        }
+    }
+
+    private int weigh(final V value) {
+        if (weigher == null) {
+            return 1;
+        }
+        final int weight = weigher.applyAsInt(value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("negative weight " + weight);
+        }
+        return weight;
+    }
+
+    // must be called while holding the lock, and only if the key does not exist yet
+    private void insert(final long key, final V value) {
+        final int weight = weigh(value);
+        if (freeCount == 0) {
+            evictOne();
+        }
+        final int slot = freeSlots[--freeCount];
+        final int index = HashMapPrimitiveLongObject.longHash(key) & mask;
+        final Entry<V> entry = new Entry<>(key, slot, table.get(index), value, weight);
+        ring[slot] = entry;
+        table.set(index, entry);        // publishes the fully constructed entry
+        ++elementCount;
+        totalWeight += weight;
+        evictOverweight();
+    }
+
+    private void evictOverweight() {
+        while (totalWeight > maxWeight && elementCount > 0) {
+            evictOne();
+        }
+    }
+
+    // advances the clock hand until an entry without reference bit is found, and evicts it. Requires at least one entry.
+    private void evictOne() {
+        for (;;) {
+            final Entry<V> entry = ring[hand];
+            if (++hand == ring.length) {
+                hand = 0;
+            }
+            if (entry != null) {
+                if (entry.referenced) {
+                    entry.referenced = false;   // second chance
+                } else {
+                    unlink(entry);
+                    ++evictions;
+                    if (evictionListener != null) {
+                        evictionListener.accept(entry.value, entry.key);
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    // Removes the entry from its bucket. The next pointer of the removed entry is left intact, so concurrent readers
+    // positioned on it continue to see the remainder of the chain.
+    private void unlink(final Entry<V> entry) {
+        final int index = HashMapPrimitiveLongObject.longHash(entry.key) & mask;
+        Entry<V> m = table.get(index);
+        if (m == entry) {
+            table.set(index, entry.next);
+        } else {
+            while (m.next != entry) {
+                m = m.next;
+            }
+            m.next = entry.next;
+        }
+        ring[entry.slot] = null;
+        freeSlots[freeCount++] = entry.slot;
+        --elementCount;
+        totalWeight -= entry.weight;
+    }
+}
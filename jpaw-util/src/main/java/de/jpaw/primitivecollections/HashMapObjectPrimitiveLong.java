@@ -1,6 +1,7 @@
 package de.jpaw.primitivecollections;
 
 import java.util.Arrays;
+import java.util.function.ObjLongConsumer;
 
 import de.jpaw.util.IntegralLimits;
 
@@ -235,4 +236,16 @@ public final class HashMapObjectPrimitiveLong<K> {
         elementCount--;
         return entry;
     }
+
+    /**
+     * Invokes the consumer for every mapping of this map, in no particular order.
+     * The map must not be modified by the consumer.
+     */
+    public void forEach(final ObjLongConsumer<? super K> consumer) {
+        for (int i = 0; i < elementData.length; i++) {
+            for (Entry<K> entry = elementData[i]; entry != null; entry = entry.next) {
+                consumer.accept(entry.key, entry.value);
+            }
+        }
+    }
 }
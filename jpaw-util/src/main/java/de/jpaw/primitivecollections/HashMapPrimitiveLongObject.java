@@ -1,6 +1,7 @@
 package de.jpaw.primitivecollections;
 
 import java.util.Arrays;
+import java.util.function.ObjLongConsumer;
 
 import de.jpaw.util.IntegralLimits;
 
@@ -252,4 +253,15 @@ public final class HashMapPrimitiveLongObject<V> {
         return entry;
     }
 
+    /**
+     * Invokes the consumer for every mapping of this map, in no particular order.
+     * The map must not be modified by the consumer.
+     */
+    public void forEach(final ObjLongConsumer<? super V> consumer) {
+        for (int i = 0; i < elementData.length; i++) {
+            for (Entry<V> entry = elementData[i]; entry != null; entry = entry.next) {
+                consumer.accept(entry.value, entry.key);
+            }
+        }
+    }
 }
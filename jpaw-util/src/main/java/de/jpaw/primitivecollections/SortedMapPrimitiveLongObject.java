@@ -0,0 +1,446 @@
+package de.jpaw.primitivecollections;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.ObjLongConsumer;
+
+/** A sorted map with primitive long keys, as a compact replacement for TreeMap&lt;Long, V&gt;.
+ *
+ * The entries are stored in a pair of parallel sorted arrays (keys and values), which makes lookups a binary search
+ * and range scans a sequential walk over adjacent memory.
+ * In order to avoid moving the whole array for every random insert, new keys are first collected in a small sorted merge buffer,
+ * which is merged into the main arrays once it is full. The buffer capacity grows with the square root of the map size.
+ * Read operations consult both the main arrays and the buffer and never modify the map.
+ *
+ * Bulk loading of already sorted data is supported by {@link #putAllSorted(long[], Object[], int, int)}, which runs in linear time.
+ *
+ * Null values are allowed, but cannot be distinguished from missing entries by {@link #get(long)}.
+ *
+ * This class is not thread-safe.
+ */
+public final class SortedMapPrimitiveLongObject<V> {
+    private static final int DEFAULT_SIZE = 16;         // initial size for the default constructor
+    private static final int MIN_BUFFER_SIZE = 32;      // minimum capacity of the merge buffer
+    private static final long[] EMPTY_KEYS = new long[0];
+    private static final Object[] EMPTY_VALUES = new Object[0];
+
+    private long[] keys;                                // main sorted run
+    private Object[] values;
+    private int size;                                   // number of entries in the main run
+
+    private long[] bufferKeys;                          // merge buffer, sorted as well
+    private Object[] bufferValues;
+    private int bufferSize;                             // number of entries in the merge buffer
+
+    /**
+     * Constructs a new empty {@code SortedMapPrimitiveLongObject} instance.
+     */
+    public SortedMapPrimitiveLongObject() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * Constructs a new {@code SortedMapPrimitiveLongObject} instance with the specified capacity.
+     *
+     * @param capacity
+     *            the initial capacity of this map.
+     * @throws IllegalArgumentException
+     *                when the capacity is less than zero.
+     */
+    public SortedMapPrimitiveLongObject(final int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException();
+        }
+        keys = capacity == 0 ? EMPTY_KEYS : new long[capacity];
+        values = capacity == 0 ? EMPTY_VALUES : new Object[capacity];
+        bufferKeys = new long[MIN_BUFFER_SIZE];
+        bufferValues = new Object[MIN_BUFFER_SIZE];
+    }
+
+    /**
+     * Returns the number of elements in this map.
+     *
+     * @return the number of elements in this map.
+     */
+    public int size() {
+        return size + bufferSize;
+    }
+
+    /** Returns true if this map contains no entries. */
+    public boolean isEmpty() {
+        return size + bufferSize == 0;
+    }
+
+    /**
+     * Removes all mappings from this map, leaving it empty.
+     *
+     * @see #size
+     */
+    public void clear() {
+        Arrays.fill(values, 0, size, null);
+        Arrays.fill(bufferValues, 0, bufferSize, null);
+        size = 0;
+        bufferSize = 0;
+    }
+
+    /**
+     * Returns the value of the mapping with the specified key.
+     *
+     * @param key
+     *            the key.
+     * @return the value of the mapping with the specified key, or {@code null}
+     *         if no mapping for the specified key is found.
+     */
+    public V get(final long key) {
+        final int i = Arrays.binarySearch(keys, 0, size, key);
+        if (i >= 0) {
+            return valueAt(i);
+        }
+        final int j = Arrays.binarySearch(bufferKeys, 0, bufferSize, key);
+        return j >= 0 ? valueAt(size + j) : null;
+    }
+
+    /** Returns true if a mapping for the specified key exists. */
+    public boolean containsKey(final long key) {
+        return Arrays.binarySearch(keys, 0, size, key) >= 0 || Arrays.binarySearch(bufferKeys, 0, bufferSize, key) >= 0;
+    }
+
+    /**
+     * Maps the specified key to the specified value.
+     *
+     * @param key
+     *            the key.
+     * @param value
+     *            the value.
+     * @return the value of any previous mapping with the specified key or
+     *         {@code null} if there was no such mapping.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(final long key, final V value) {
+        final int i = Arrays.binarySearch(keys, 0, size, key);
+        if (i >= 0) {
+            final V result = (V) values[i];
+            values[i] = value;
+            return result;
+        }
+        int j = Arrays.binarySearch(bufferKeys, 0, bufferSize, key);
+        if (j >= 0) {
+            final V result = (V) bufferValues[j];
+            bufferValues[j] = value;
+            return result;
+        }
+        if (bufferSize == bufferKeys.length) {
+            mergeBuffer();
+            j = 0;
+        } else {
+            j = -(j + 1);
+        }
+        final int toMove = bufferSize - j;
+        if (toMove > 0) {
+            System.arraycopy(bufferKeys, j, bufferKeys, j + 1, toMove);
+            System.arraycopy(bufferValues, j, bufferValues, j + 1, toMove);
+        }
+        bufferKeys[j] = key;
+        bufferValues[j] = value;
+        ++bufferSize;
+        return null;
+    }
+
+    /**
+     * Removes the mapping with the specified key.
+     *
+     * @return the value of the removed mapping, or {@code null} if there was no mapping for the key.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(final long key) {
+        final int i = Arrays.binarySearch(keys, 0, size, key);
+        if (i >= 0) {
+            final V result = (V) values[i];
+            final int toMove = --size - i;
+            if (toMove > 0) {
+                System.arraycopy(keys, i + 1, keys, i, toMove);
+                System.arraycopy(values, i + 1, values, i, toMove);
+            }
+            values[size] = null;
+            return result;
+        }
+        final int j = Arrays.binarySearch(bufferKeys, 0, bufferSize, key);
+        if (j >= 0) {
+            final V result = (V) bufferValues[j];
+            final int toMove = --bufferSize - j;
+            if (toMove > 0) {
+                System.arraycopy(bufferKeys, j + 1, bufferKeys, j, toMove);
+                System.arraycopy(bufferValues, j + 1, bufferValues, j, toMove);
+            }
+            bufferValues[bufferSize] = null;
+            return result;
+        }
+        return null;
+    }
+
+    /**
+     * Inserts or replaces entries from sorted input in linear time.
+     * The keys must be strictly ascending. Existing entries with the same key are replaced.
+     *
+     * @throws IllegalArgumentException
+     *                when the keys are not strictly ascending, or the range is out of bounds.
+     */
+    public void putAllSorted(final long[] srcKeys, final V[] srcValues, final int offset, final int length) {
+        if (offset < 0 || length < 0 || offset + length > srcKeys.length || offset + length > srcValues.length) {
+            throw new IllegalArgumentException();
+        }
+        for (int k = offset + 1; k < offset + length; ++k) {
+            if (srcKeys[k - 1] >= srcKeys[k]) {
+                throw new IllegalArgumentException("keys not strictly ascending at index " + k);
+            }
+        }
+        if (length == 0) {
+            return;
+        }
+        if (bufferSize > 0) {
+            mergeBuffer();
+        }
+        final int end = offset + length;
+        final long[] newKeys = new long[size + length];
+        final Object[] newValues = new Object[size + length];
+        int i = 0;
+        int j = offset;
+        int n = 0;
+        while (i < size && j < end) {
+            final long a = keys[i];
+            final long b = srcKeys[j];
+            if (a < b) {
+                newKeys[n] = a;
+                newValues[n++] = values[i++];
+            } else {
+                if (a == b) {
+                    ++i;        // replaced by the new value
+                }
+                newKeys[n] = b;
+                newValues[n++] = srcValues[j++];
+            }
+        }
+        while (i < size) {
+            newKeys[n] = keys[i];
+            newValues[n++] = values[i++];
+        }
+        while (j < end) {
+            newKeys[n] = srcKeys[j];
+            newValues[n++] = srcValues[j++];
+        }
+        keys = newKeys;
+        values = newValues;
+        size = n;
+        resizeBuffer();
+    }
+
+    /** Returns the lowest key in this map.
+     * @throws NoSuchElementException if the map is empty. */
+    public long firstKey() {
+        if (size == 0) {
+            if (bufferSize == 0) {
+                throw new NoSuchElementException();
+            }
+            return bufferKeys[0];
+        }
+        return bufferSize == 0 ? keys[0] : Math.min(keys[0], bufferKeys[0]);
+    }
+
+    /** Returns the highest key in this map.
+     * @throws NoSuchElementException if the map is empty. */
+    public long lastKey() {
+        if (size == 0) {
+            if (bufferSize == 0) {
+                throw new NoSuchElementException();
+            }
+            return bufferKeys[bufferSize - 1];
+        }
+        return bufferSize == 0 ? keys[size - 1] : Math.max(keys[size - 1], bufferKeys[bufferSize - 1]);
+    }
+
+    /** Returns the greatest key less than or equal to the given key, or notFound if there is no such key. */
+    public long floorKey(final long key, final long notFound) {
+        final int slot = floorSlot(key);
+        return slot >= 0 ? keyAt(slot) : notFound;
+    }
+
+    /** Returns the least key greater than or equal to the given key, or notFound if there is no such key. */
+    public long ceilingKey(final long key, final long notFound) {
+        final int slot = ceilingSlot(key);
+        return slot >= 0 ? keyAt(slot) : notFound;
+    }
+
+    /** Returns the greatest key strictly less than the given key, or notFound if there is no such key. */
+    public long lowerKey(final long key, final long notFound) {
+        final int slot = lowerSlot(key);
+        return slot >= 0 ? keyAt(slot) : notFound;
+    }
+
+    /** Returns the least key strictly greater than the given key, or notFound if there is no such key. */
+    public long higherKey(final long key, final long notFound) {
+        final int slot = higherSlot(key);
+        return slot >= 0 ? keyAt(slot) : notFound;
+    }
+
+    /** Returns the value associated with the greatest key less than or equal to the given key, or null if there is no such key. */
+    public V floorValue(final long key) {
+        final int slot = floorSlot(key);
+        return slot >= 0 ? valueAt(slot) : null;
+    }
+
+    /** Returns the value associated with the least key greater than or equal to the given key, or null if there is no such key. */
+    public V ceilingValue(final long key) {
+        final int slot = ceilingSlot(key);
+        return slot >= 0 ? valueAt(slot) : null;
+    }
+
+    /** Invokes the consumer for all entries, in ascending key order. */
+    public void forEach(final ObjLongConsumer<? super V> consumer) {
+        forEachInRange(Long.MIN_VALUE, Long.MAX_VALUE, consumer);
+    }
+
+    /** Invokes the consumer for all entries with fromKey &lt;= key &lt;= toKey (both inclusive), in ascending key order.
+     * The map must not be modified by the consumer. */
+    @SuppressWarnings("unchecked")
+    public void forEachInRange(final long fromKey, final long toKey, final ObjLongConsumer<? super V> consumer) {
+        if (fromKey > toKey) {
+            return;
+        }
+        int i = ceilingIndex(keys, size, fromKey);
+        int j = ceilingIndex(bufferKeys, bufferSize, fromKey);
+        final int iEnd = higherIndex(keys, size, toKey);
+        final int jEnd = higherIndex(bufferKeys, bufferSize, toKey);
+        while (i < iEnd && j < jEnd) {
+            if (keys[i] < bufferKeys[j]) {
+                consumer.accept((V) values[i], keys[i]);
+                ++i;
+            } else {
+                consumer.accept((V) bufferValues[j], bufferKeys[j]);
+                ++j;
+            }
+        }
+        for (; i < iEnd; ++i) {
+            consumer.accept((V) values[i], keys[i]);
+        }
+        for (; j < jEnd; ++j) {
+            consumer.accept((V) bufferValues[j], bufferKeys[j]);
+        }
+    }
+
+    /** Returns the number of entries with fromKey &lt;= key &lt;= toKey (both inclusive). */
+    public int countInRange(final long fromKey, final long toKey) {
+        if (fromKey > toKey) {
+            return 0;
+        }
+        return higherIndex(keys, size, toKey) - ceilingIndex(keys, size, fromKey)
+          + higherIndex(bufferKeys, bufferSize, toKey) - ceilingIndex(bufferKeys, bufferSize, fromKey);
+    }
+
+    /** Merges the buffer into the main arrays. Can be called after a series of random inserts, before a read-mostly phase. */
+    public void compact() {
+        if (bufferSize > 0) {
+            mergeBuffer();
+        }
+    }
+
+    // slots address both arrays: values below size refer to the main arrays, higher values to the buffer
+    private long keyAt(final int slot) {
+        return slot < size ? keys[slot] : bufferKeys[slot - size];
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(final int slot) {
+        return (V) (slot < size ? values[slot] : bufferValues[slot - size]);
+    }
+
+    // selects the greater of two candidate indexes, where -1 means "none"
+    private int pickGreater(final int i, final int j) {
+        if (j < 0) {
+            return i;
+        }
+        if (i < 0 || bufferKeys[j] > keys[i]) {
+            return size + j;
+        }
+        return i;
+    }
+
+    // selects the lesser of two candidate indexes, where the array length means "none"
+    private int pickLesser(final int i, final int j) {
+        if (j >= bufferSize) {
+            return i < size ? i : -1;
+        }
+        if (i >= size || bufferKeys[j] < keys[i]) {
+            return size + j;
+        }
+        return i;
+    }
+
+    private int floorSlot(final long key) {
+        return pickGreater(floorIndex(keys, size, key), floorIndex(bufferKeys, bufferSize, key));
+    }
+
+    private int lowerSlot(final long key) {
+        return pickGreater(ceilingIndex(keys, size, key) - 1, ceilingIndex(bufferKeys, bufferSize, key) - 1);
+    }
+
+    private int ceilingSlot(final long key) {
+        return pickLesser(ceilingIndex(keys, size, key), ceilingIndex(bufferKeys, bufferSize, key));
+    }
+
+    private int higherSlot(final long key) {
+        return pickLesser(higherIndex(keys, size, key), higherIndex(bufferKeys, bufferSize, key));
+    }
+
+    /** Returns the index of the greatest element &lt;= key, or -1. */
+    private static int floorIndex(final long[] a, final int n, final long key) {
+        final int i = Arrays.binarySearch(a, 0, n, key);
+        return i >= 0 ? i : -(i + 1) - 1;
+    }
+
+    /** Returns the index of the least element &gt;= key, or n. */
+    private static int ceilingIndex(final long[] a, final int n, final long key) {
+        final int i = Arrays.binarySearch(a, 0, n, key);
+        return i >= 0 ? i : -(i + 1);
+    }
+
+    /** Returns the index of the least element &gt; key, or n. */
+    private static int higherIndex(final long[] a, final int n, final long key) {
+        final int i = Arrays.binarySearch(a, 0, n, key);
+        return i >= 0 ? i + 1 : -(i + 1);
+    }
+
+    // merges the buffer into the main arrays, from the back, so no temporary storage is required
+    private void mergeBuffer() {
+        final int newSize = size + bufferSize;
+        if (newSize > keys.length) {
+            final int newCapacity = Math.max(newSize, keys.length < DEFAULT_SIZE ? DEFAULT_SIZE : keys.length + (keys.length >> 1));
+            keys = Arrays.copyOf(keys, newCapacity);
+            values = Arrays.copyOf(values, newCapacity);
+        }
+        int i = size - 1;
+        int j = bufferSize - 1;
+        int n = newSize - 1;
+        while (j >= 0) {
+            if (i >= 0 && keys[i] > bufferKeys[j]) {
+                keys[n] = keys[i];
+                values[n--] = values[i--];
+            } else {
+                keys[n] = bufferKeys[j];
+                values[n--] = bufferValues[j--];
+            }
+        }
+        Arrays.fill(bufferValues, 0, bufferSize, null);
+        size = newSize;
+        bufferSize = 0;
+        resizeBuffer();
+    }
+
+    // adjusts the buffer capacity to the square root of the map size. Must only be called while the buffer is empty.
+    private void resizeBuffer() {
+        final int desired = Math.max(MIN_BUFFER_SIZE, (int) Math.sqrt(size));
+        if (desired > bufferKeys.length) {
+            bufferKeys = new long[desired];
+            bufferValues = new Object[desired];
+        }
+    }
+}
@@ -15,9 +15,10 @@
  */
 package de.jpaw.util;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
@@ -37,7 +38,11 @@ import jakarta.annotation.Nullable;
  * Error codes are defined in a way such that the 8th digit (error code divided by 10 to the power of 8)
  * provides a good classification of the problem.
  * The classifications provided are actually targeting at full application coverage and not only message serialization / deserialization.
- *
+ * <p>
+ * Capturing the stack trace is the most expensive part of creating an exception. For expected errors (for example validation errors in batch runs),
+ * stack traces can be suppressed per classification (see {@link #setStacklessClassification(int, boolean)}) or per call site
+ * (see {@link #stackless(int, String)} and {@link #cached(int)}, or the protected constructor for subclasses).
+ * Exceptions of classification {@link #CL_INTERNAL_LOGIC_ERROR} always capture the stack trace, because it is required to analyze them.
  */
 
 public class ApplicationException extends RuntimeException {
@@ -133,7 +138,7 @@ public class ApplicationException extends RuntimeException {
     public record ExceptionRangeDescription(int errorCodeOffset, int range, @Nonnull Class<? extends ApplicationException> exceptionClass,
       @Nonnull ApplicationLevelType layer, @Nonnull String description) {}
 
-    private static Map<Integer, ExceptionRangeDescription> EXCEPTION_RANGES = new ConcurrentHashMap<>(64);
+    private static final IntKeyTable<ExceptionRangeDescription> EXCEPTION_RANGES = new IntKeyTable<>(64);
     private static final int BIG_RANGE = 10_000;   // ranges of 10000 are used by large application modules (often anything except core libraries)
     private static final int SMALL_RANGE = 1_000;  // ranges of 1000 are used by small core libraries.
 
@@ -151,7 +156,7 @@ public class ApplicationException extends RuntimeException {
         }
         final int base = errorCodeOffset % CLASSIFICATION_FACTOR;
         final ExceptionRangeDescription newEntry = new ExceptionRangeDescription(base, rangeSize, exceptionClass, layer, description);
-        final ExceptionRangeDescription oldEntry = EXCEPTION_RANGES.put(base, newEntry);
+        final ExceptionRangeDescription oldEntry = EXCEPTION_RANGES.put(base, newEntry);   // lookups are done without boxing
         if (oldEntry != null && !oldEntry.equals(newEntry)) {
             LOGGER.error("Duplicate range definition: {} / {}", oldEntry, newEntry);
         }
@@ -159,9 +164,7 @@ public class ApplicationException extends RuntimeException {
 
     /** Iterates the registered exception code ranges. */
     public static void forEachRange(@Nonnull final Consumer<ExceptionRangeDescription> processor) {
-        for (final ExceptionRangeDescription r: EXCEPTION_RANGES.values()) {
-            processor.accept(r);
-        }
+        EXCEPTION_RANGES.forEach((base, r) -> processor.accept(r));
     }
 
     /** Returns the number of registered error codes. */
@@ -172,18 +175,17 @@ public class ApplicationException extends RuntimeException {
     /** Retrieves a description of the exception code range (if it exists). */
     @Nullable
     public static ExceptionRangeDescription getRangeInfoForExceptionCode(final int exceptionCode) {
-        final Integer smallRangeStart = (exceptionCode - exceptionCode % SMALL_RANGE) % CLASSIFICATION_FACTOR;
+        final int smallRangeStart = (exceptionCode - exceptionCode % SMALL_RANGE) % CLASSIFICATION_FACTOR;
         final ExceptionRangeDescription smallRangeEntry = EXCEPTION_RANGES.get(smallRangeStart);
         if (smallRangeEntry != null) {
             return smallRangeEntry;
         }
-        final Integer bigRangeStart = (exceptionCode - exceptionCode % BIG_RANGE) % CLASSIFICATION_FACTOR;
+        final int bigRangeStart = (exceptionCode - exceptionCode % BIG_RANGE) % CLASSIFICATION_FACTOR;
         return EXCEPTION_RANGES.get(bigRangeStart);
     }
 
-    private static final Map<Integer, String> CODE_TO_DESCRIPTION = new ConcurrentHashMap<>(2000);
-    private static final Map<Integer, Integer> DUPLICATE_CODE_COUNTER = new ConcurrentHashMap<>(2000);
-    private static final Integer ONE = Integer.valueOf(1);
+    /** The registered descriptions, keyed by the full error code. The table also counts how often a code has been registered. */
+    private static final IntKeyTable<String> CODE_TO_DESCRIPTION = new IntKeyTable<>(2000);
 
     /**
      * Provides the mapping of error codes to textual descriptions. It is the responsibility of superclasses
@@ -195,22 +197,20 @@ public class ApplicationException extends RuntimeException {
 
         @Deprecated  // use registerCode()
         public void put(final int errorCode, final String description) {
-            final Integer errorCodeBoxed = Integer.valueOf(errorCode);
             if (errorCode < 0 || errorCode > 10 * CLASSIFICATION_FACTOR) {
-                LOGGER.error("Attempted to create error message out of range for {}: {}", errorCodeBoxed, description);
+                LOGGER.error("Attempted to create error message out of range for {}: {}", errorCode, description);
                 throw new IllegalArgumentException("out of range");
             }
             if ((errorCode % 10000) == 0) {
-                LOGGER.error("Attempted to create error message with zero module offset for {}: {}", errorCodeBoxed, description);
+                LOGGER.error("Attempted to create error message with zero module offset for {}: {}", errorCode, description);
                 throw new IllegalArgumentException("module offset");
             }
             // Validate that the exception code has not been used before. In case it has, throw an exception.
-            final String oldDescription = CODE_TO_DESCRIPTION.put(errorCodeBoxed, description);
+            final String oldDescription = CODE_TO_DESCRIPTION.put(errorCode, description);
             if (oldDescription != null) {
-                LOGGER.error("Overwriting error message for {} with '{}' (previously '{}')", errorCodeBoxed, description, oldDescription);
+                LOGGER.error("Overwriting error message for {} with '{}' (previously '{}')", errorCode, description, oldDescription);
                 // throw new IllegalArgumentException("duplicate error code");
             }
-            DUPLICATE_CODE_COUNTER.merge(errorCode % CLASSIFICATION_FACTOR, ONE, (a, b) -> (a + b));
         }
         @Deprecated  // use codeToString()
         public String get(final int errorCode) {
@@ -218,7 +218,9 @@ public class ApplicationException extends RuntimeException {
         }
         @Deprecated  // rewrite code to use forEachCode() instead
         public Set<Map.Entry<Integer, String>> entrySet() {
-            return CODE_TO_DESCRIPTION.entrySet();
+            final Map<Integer, String> copy = new HashMap<>(2 * CODE_TO_DESCRIPTION.size());
+            CODE_TO_DESCRIPTION.forEach(copy::put);
+            return copy.entrySet();
         }
     }
 
@@ -229,9 +231,7 @@ public class ApplicationException extends RuntimeException {
     }
 
     public static void forEachCode(final BiConsumer<Integer, String> processor) {
-        for (final Map.Entry<Integer, String> e: CODE_TO_DESCRIPTION.entrySet()) {
-            processor.accept(e.getKey(), e.getValue());
-        }
+        CODE_TO_DESCRIPTION.forEach(processor);
     }
 
     /** Returns the number of registered error codes. */
@@ -241,24 +241,119 @@ public class ApplicationException extends RuntimeException {
 
     /**
      * Checks all stored codes for duplicate values - including duplicates of just the base value.
+     * The check runs in linear time of the number of registered codes.
      */
     public static boolean checkForDuplicates() {
-        boolean foundDuplicates = false;
-        for (Map.Entry<Integer, Integer> codeAndCount: DUPLICATE_CODE_COUNTER.entrySet()) {
-            if (codeAndCount.getValue() > 1) {
-                LOGGER.error("Code {} has been used {} times", codeAndCount.getKey(), codeAndCount.getValue());
-                foundDuplicates = true;
+        // count the registrations per base value (code without classification)
+        final IntKeyTable<int[]> countPerBase = new IntKeyTable<>(CODE_TO_DESCRIPTION.size());
+        CODE_TO_DESCRIPTION.forEachWithCount((code, description, count) -> {
+            final int[] counter = countPerBase.putIfAbsent(code % CLASSIFICATION_FACTOR, new int[1]);
+            counter[0] += count;
+        });
+        final boolean[] foundDuplicates = new boolean[1];
+        countPerBase.forEach((base, counter) -> {
+            if (counter[0] > 1) {
+                LOGGER.error("Code {} has been used {} times", base, counter[0]);
+                foundDuplicates[0] = true;
                 // Now list all (not yet overwritten) entries. Note this could be a single entry if the codes matched exactly.
                 for (int i = 0; i < 10; ++i) {
-                    final int codeWithClassification = (i * CLASSIFICATION_FACTOR) + codeAndCount.getKey();
+                    final int codeWithClassification = (i * CLASSIFICATION_FACTOR) + base;
                     final String desc = CODE_TO_DESCRIPTION.get(codeWithClassification);
                     if (desc != null) {
                         LOGGER.error("    Code {}: '{}'", codeWithClassification, desc);
                     }
                 }
             }
+        });
+        return foundDuplicates[0];
+    }
+
+    /** Bitmap of the classifications for which no stack traces are captured by default. */
+    private static volatile int stacklessClassifications = 0;
+    private static final LongAdder STACK_TRACES_CAPTURED = new LongAdder();
+    private static final LongAdder STACK_TRACES_SUPPRESSED = new LongAdder();
+    private static final LongAdder CACHED_INSTANCES_USED = new LongAdder();
+    private static final IntKeyTable<ApplicationException> CACHED_INSTANCES = new IntKeyTable<>(64);
+    private static final StackTraceElement[] NO_STACK_TRACE = new StackTraceElement[0];
+
+    /**
+     * Defines whether exceptions of the given classification are created without stack trace by default.
+     * This setting is global and should be done during startup. It does not apply to {@link #CL_INTERNAL_LOGIC_ERROR}.
+     */
+    public static void setStacklessClassification(final int classification, final boolean stackless) {
+        if (classification < 0 || classification >= 32) {
+            throw new IllegalArgumentException("Invalid classification " + classification);
+        }
+        if (classification == CL_INTERNAL_LOGIC_ERROR) {
+            if (stackless) {
+                LOGGER.warn("Stack traces cannot be suppressed for internal logic errors, request ignored");
+            }
+            return;
+        }
+        synchronized (ApplicationException.class) {
+            final int mask = 1 << classification;
+            stacklessClassifications = stackless ? stacklessClassifications | mask : stacklessClassifications & ~mask;
+        }
+    }
+
+    /** Returns true if exceptions of the given classification are created without stack trace by default. */
+    public static boolean isStacklessClassification(final int classification) {
+        return classification >= 0 && classification < 32 && (stacklessClassifications & (1 << classification)) != 0;
+    }
+
+    /** Determines if a stack trace should be captured and updates the counters. */
+    private static boolean captureStackTrace(final int errorCode, final boolean requested) {
+        final boolean capture = requested && !isStacklessClassification(errorCode / CLASSIFICATION_FACTOR)
+          || errorCode / CLASSIFICATION_FACTOR == CL_INTERNAL_LOGIC_ERROR;
+        (capture ? STACK_TRACES_CAPTURED : STACK_TRACES_SUPPRESSED).increment();
+        return capture;
+    }
+
+    /** Returns the number of exceptions created with stack trace since startup or the last reset. */
+    public static long getNumberOfStackTracesCaptured() {
+        return STACK_TRACES_CAPTURED.sum();
+    }
+
+    /** Returns the number of exceptions created without stack trace since startup or the last reset. */
+    public static long getNumberOfStackTracesSuppressed() {
+        return STACK_TRACES_SUPPRESSED.sum();
+    }
+
+    /** Returns the number of times a cached instance has been returned by {@link #cached(int)} since startup or the last reset. */
+    public static long getNumberOfCachedInstancesUsed() {
+        return CACHED_INSTANCES_USED.sum();
+    }
+
+    /** Resets the counters. */
+    public static void resetCounters() {
+        STACK_TRACES_CAPTURED.reset();
+        STACK_TRACES_SUPPRESSED.reset();
+        CACHED_INSTANCES_USED.reset();
+    }
+
+    /**
+     * Creates a new ApplicationException without stack trace, independent of the setting for the classification
+     * (but internal logic errors still get a stack trace).
+     */
+    public static ApplicationException stackless(final int errorCode, final String detailedMessage) {
+        return new ApplicationException(errorCode, detailedMessage, false);
+    }
+
+    /**
+     * Returns a shared, immutable instance for the given error code, without stack trace and without details.
+     * The stack trace, suppressed exceptions and cause of the instance cannot be modified.
+     * Internal logic errors are not cached, for these a new instance with stack trace is returned.
+     */
+    public static ApplicationException cached(final int errorCode) {
+        if (errorCode / CLASSIFICATION_FACTOR == CL_INTERNAL_LOGIC_ERROR) {
+            return new ApplicationException(errorCode);
+        }
+        final ApplicationException e = CACHED_INSTANCES.get(errorCode);
+        if (e != null) {
+            CACHED_INSTANCES_USED.increment();
+            return e;
         }
-        return foundDuplicates;
+        return CACHED_INSTANCES.putIfAbsent(errorCode, new ApplicationException(errorCode, false, false));
     }
 
     private final int errorCode;      // the unique 9 digit exception code
@@ -272,6 +367,11 @@ public class ApplicationException extends RuntimeException {
         return errorCode;
     }
 
+    // Throwable's constructor calls fillInStackTrace() before the error code is known. The call is therefore deferred (see fillInStackTrace())
+    // until the end of the constructor, which then decides whether to capture the stack trace. The cause remains settable via initCause().
+    // Subclasses which override fillInStackTrace() to suppress the stack trace are called at that point as well.
+    private boolean constructed;
+
     /** Creates a new ApplicationException for a given error code, plus additional information. */
     public ApplicationException(final int errorCode, final String fieldName, final String className, final Integer index) {
         super("Code " + Integer.toString(errorCode) + " @ " + className + "." + fieldName + (index == null ? "" : ": " + index));
@@ -280,16 +380,31 @@ public class ApplicationException extends RuntimeException {
         this.fieldName = fieldName;
         this.className = className;
         this.index = index;
+        if (initStackTrace(true)) {
+            fillInStackTrace();             // virtual call, so that overrides in subclasses are honoured
+        }
     }
 
     /** Creates a new ApplicationException for a given error code, with some explanatory details. */
     public ApplicationException(final int errorCode, final String detailedMessage) {
+        this(errorCode, detailedMessage, true);
+    }
+
+    /**
+     * Creates a new ApplicationException for a given error code, with some explanatory details.
+     * If withStackTrace is false, no stack trace is captured.
+     * This constructor is intended for subclasses which throw exceptions for expected conditions at a high rate.
+     */
+    protected ApplicationException(final int errorCode, final String detailedMessage, final boolean withStackTrace) {
         super("Code " + Integer.toString(errorCode) + (detailedMessage == null ? "" : " @ " + detailedMessage));
         this.errorCode = errorCode;
         this.detailedMessage = detailedMessage;
         this.fieldName = null;
         this.className = null;
         this.index = null;
+        if (initStackTrace(withStackTrace)) {
+            fillInStackTrace();             // virtual call, so that overrides in subclasses are honoured
+        }
     }
 
     /** Creates a new ApplicationException for a given error code, without any further details. */
@@ -300,6 +415,37 @@ public class ApplicationException extends RuntimeException {
         this.fieldName = null;
         this.className = null;
         this.index = null;
+        if (initStackTrace(true)) {
+            fillInStackTrace();             // virtual call, so that overrides in subclasses are honoured
+        }
+    }
+
+    /** Creates the shared instances returned by cached(): no stack trace, no suppressed exceptions, and no cause can be set. */
+    private ApplicationException(final int errorCode, final boolean enableSuppression, final boolean writableStackTrace) {
+        super("Code " + Integer.toString(errorCode), null, enableSuppression, writableStackTrace);
+        this.errorCode = errorCode;
+        this.detailedMessage = null;
+        this.fieldName = null;
+        this.className = null;
+        this.index = null;
+        this.constructed = true;
+        STACK_TRACES_SUPPRESSED.increment();
+    }
+
+    /** Completes construction and returns true if the caller should capture the stack trace. */
+    private boolean initStackTrace(final boolean requested) {
+        constructed = true;
+        if (captureStackTrace(errorCode, requested)) {
+            return true;
+        }
+        setStackTrace(NO_STACK_TRACE);
+        return false;
+    }
+
+    /** Captures the stack trace, unless called from Throwable's constructor, as the constructor of this class decides itself whether to capture it. */
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return constructed ? super.fillInStackTrace() : this;
     }
 
     // some boilerplate code to retrieve exception properties
@@ -347,7 +493,7 @@ public class ApplicationException extends RuntimeException {
 
     /** returns a text representation of an error code, independent of an existing exception */
     public static String codeToString(final int code) {
-        final String msg = CODE_TO_DESCRIPTION.get(Integer.valueOf(code));
+        final String msg = CODE_TO_DESCRIPTION.get(code);
         return msg != null ? msg : "unknown code";
     }
 
@@ -1,5 +1,8 @@
 package de.jpaw.util;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
 import java.util.Arrays;
 
 /** A very fast and memory efficient class to encode and decode to and from BASE64 in full accordance
@@ -74,11 +77,13 @@ import java.util.Arrays;
  * stripped out functions not required (String and char[] versions) and only left the byte[] version
  * moved package to de.jpaw.util (from just util)
  * encoder modified to work with ByteBuilder
+ * encoder and decoder kernels working on array ranges, used by the streaming classes Base64OutputStream, Base64InputStream and Base64Channel
+ * encoder and decoder process 8 characters per step via long loads and stores, as long as enough data is left
  */
 
 public final class Base64 {
     private static final char[] CA = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
-    private static final int[] IA = new int[256];
+    static final int[] IA = new int[256];     // also used by the streaming decoder
     static {
         Arrays.fill(IA, -1);
         for (int i = 0, iS = CA.length; i < iS; i++) {
@@ -87,6 +92,19 @@ public final class Base64 {
         IA['='] = 0;
     }
 
+    // tables for the word-at-a-time kernels, which process 6 raw bytes / 8 characters per step
+    private static final VarHandle LONG_BE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final long[] CA_PAIRS = new long[4096];    // two characters for each 12 bit value, halving the number of lookups
+    private static final long[] IA_STRICT = new long[256];    // as IA, but -1 for the padding character as well
+    static {
+        for (int i = 0; i < 4096; i++) {
+            CA_PAIRS[i] = CA[i >> 6] << 8 | CA[i & 0x3f];
+        }
+        for (int i = 0; i < 256; i++) {
+            IA_STRICT[i] = i == '=' ? -1 : IA[i];
+        }
+    }
+
     private Base64() { }
 
     // ****************************************************************************************
@@ -99,18 +117,42 @@ public final class Base64 {
      * little faster.
      * return A BASE64 encoded array. Never <code>null</code>.
      */
-    public static void encodeToByte(final ByteBuilder target, final byte[] sArr, int offset, final int length) {
+    public static void encodeToByte(final ByteBuilder target, final byte[] sArr, final int offset, final int length) {
         // Check special case
         if (length == 0)
             return;
-        int d = target.length();
-        final int eLen = (length / 3) * 3 + offset;                              // Length of even 24-bits.
-        final int cCnt = ((length - 1) / 3 + 1) << 2;                   // Returned character count
-        final int dLen = d + cCnt; // end position of returned array
+        final int d = target.length();
+        final int dLen = d + (((length - 1) / 3 + 1) << 2); // end position of returned array
         target.ensureCapacity(dLen);
-        final byte[] dArr = target.getCurrentBuffer();
+        encode(sArr, offset, length, target.getCurrentBuffer(), d);
+        // great! Now set the correct size in the target array
+        target.setLength(dLen);
+    }
+
+    /** Encodes a range of bytes into BASE64, writing the result into dArr, starting at position d.
+     * The target array must provide space for <code>((length + 2) / 3) * 4</code> bytes.
+     * Unless length is a multiple of 3, the output is padded, therefore subsequent calls can be used to encode
+     * a larger input piecewise, if all except the last piece have a length which is a multiple of 3.
+     * @return the number of bytes written.
+     */
+    public static int encode(final byte[] sArr, int offset, final int length, final byte[] dArr, int d) {
+        final int dStart = d;
+        final int eLen = (length / 3) * 3 + offset;                     // End of even 24-bits.
         final int left = offset + length - eLen; // 0 - 2.
 
+        // Encode 48 bits at a time, while a full long can be read. The output of 8 characters is written in a single store.
+        final int wLen = offset + length - 8;
+        while (offset <= wLen && offset + 6 <= eLen) {
+            final long i = (long) LONG_BE.get(sArr, offset);          // the upper 6 bytes are used
+            LONG_BE.set(dArr, d,
+                CA_PAIRS[(int) (i >>> 52)]         << 48
+              | CA_PAIRS[(int) (i >>> 40) & 0xfff] << 32
+              | CA_PAIRS[(int) (i >>> 28) & 0xfff] << 16
+              | CA_PAIRS[(int) (i >>> 16) & 0xfff]);
+            offset += 6;
+            d += 8;
+        }
+
         // Encode even 24-bits
         while (offset < eLen) {
             // Copy next three bytes into lower 24 bits of int, paying attention to sign.
@@ -126,19 +168,15 @@ public final class Base64 {
         // Pad and encode last bits if source isn't an even 24 bits.
         if (left > 0) {
             // Prepare the int
-            final int i = ((sArr[eLen] & 0xff) << 10) | (left == 2 ? ((sArr[length - 1] & 0xff) << 2) : 0);
-            if (d != dLen - 4)
-                System.out.println("Mismatch! d = " + d + ", dLen-4 = " + (dLen - 4));
-
+            final int i = ((sArr[eLen] & 0xff) << 10) | (left == 2 ? ((sArr[eLen + 1] & 0xff) << 2) : 0);
 
             // Set last four chars
-            dArr[dLen - 4] = (byte) CA[i >> 12];
-            dArr[dLen - 3] = (byte) CA[(i >>> 6) & 0x3f];
-            dArr[dLen - 2] = left == 2 ? (byte) CA[i & 0x3f] : (byte) '=';
-            dArr[dLen - 1] = '=';
+            dArr[d++] = (byte) CA[i >> 12];
+            dArr[d++] = (byte) CA[(i >>> 6) & 0x3f];
+            dArr[d++] = left == 2 ? (byte) CA[i & 0x3f] : (byte) '=';
+            dArr[d++] = '=';
         }
-        // great! Now set the correct size in the target array
-        target.setLength(dLen);
+        return d - dStart;
     }
 
     /** Decodes a BASE64 encoded byte array. All illegal characters will be ignored and can handle both arrays with
@@ -148,10 +186,35 @@ public final class Base64 {
      * isn't divideable by 4. (I.e. definitely corrupted).
      */
     public static byte[] decode(final byte[] sArr, final int offset, final int sLen) {
+        final int len = decodedLength(sArr, offset, sLen);
+        if (len < 0)
+            return null;
 
+        final byte[] dArr = new byte[len];       // Preallocate byte[] of exact length
+        decode(sArr, offset, offset + sLen, dArr, 0, len);
+        return dArr;
+    }
+
+    /** Decodes a BASE64 encoded byte array and appends the result to a ByteBuilder, without allocating an intermediate array.
+     * The same rules as for {@link #decode(byte[], int, int)} apply.
+     * @return the number of bytes appended, or -1 if the length of the source isn't divideable by 4, in which case the target is unchanged.
+     */
+    public static int decodeInto(final ByteBuilder target, final byte[] sArr, final int offset, final int sLen) {
+        final int len = decodedLength(sArr, offset, sLen);
+        if (len <= 0)
+            return len;
+        final int d = target.length();
+        target.ensureCapacity(d + len);
+        decode(sArr, offset, offset + sLen, target.getCurrentBuffer(), d, len);
+        target.setLength(d + len);
+        return len;
+    }
+
+    // computes the number of decoded bytes, or -1 if the input is definitely corrupted
+    private static int decodedLength(final byte[] sArr, final int offset, final int sLen) {
         // Check so that legal chars (including '=') are evenly divideable by 4 as specified in RFC 2045.
         if ((sLen) % 4 != 0)
-            return null;
+            return -1;
 
         int pad = 0;
         for (int i = sLen; i > 1 && IA[sArr[offset + --i] & 0xff] <= 0;) {
@@ -159,11 +222,45 @@ public final class Base64 {
                 pad++;
         }
 
-        final int len = ((sLen) * 6 >> 3) - pad;
+        return ((sLen) * 6 >> 3) - pad;
+    }
 
-        final byte[] dArr = new byte[len];       // Preallocate byte[] of exact length
+    /** Decodes 8 characters starting at sArr[s] into the lower 48 bits of the result.
+     * Returns a negative number if any of the characters is not part of the BASE64 alphabet, including padding.
+     * The caller must ensure that 8 bytes can be read.
+     */
+    static long decode8(final byte[] sArr, final int s) {
+        final long w = (long) LONG_BE.get(sArr, s);
+        return IA_STRICT[(int) (w >>> 56)]        << 42
+             | IA_STRICT[(int) (w >>> 48) & 0xff] << 36
+             | IA_STRICT[(int) (w >>> 40) & 0xff] << 30
+             | IA_STRICT[(int) (w >>> 32) & 0xff] << 24
+             | IA_STRICT[(int) (w >>> 24) & 0xff] << 18
+             | IA_STRICT[(int) (w >>> 16) & 0xff] << 12
+             | IA_STRICT[(int) (w >>> 8)  & 0xff] << 6
+             | IA_STRICT[(int) w          & 0xff];
+    }
+
+    /** Stores the 6 bytes computed by decode8 at dArr[d]. The caller must ensure that 8 bytes can be written,
+     * the last 2 of them are overwritten with zeroes. */
+    static void store6(final byte[] dArr, final int d, final long bits) {
+        LONG_BE.set(dArr, d, bits << 16);
+    }
+
+    private static void decode(final byte[] sArr, final int offset, final int sEnd, final byte[] dArr, int d, final int len) {
+        final int dLen = d + len;
+        for (int s = offset; d < dLen;) {
+            // if there are 8 more valid characters and 8 bytes of room, process them in one step
+            if (d + 8 <= dLen && s + 8 <= sEnd) {
+                final long bits = decode8(sArr, s);
+                if (bits >= 0) {
+                    store6(dArr, d, bits);
+                    s += 8;
+                    d += 6;
+                    continue;
+                }
+            }
 
-        for (int s = offset, d = 0; d < len;) {
             // Assemble three bytes into an int from four "valid" characters.
             int i = 0;
             for (int j = 0; j < 4; j++) {   // j only increased if a valid char was found.
@@ -176,14 +273,12 @@ public final class Base64 {
 
             // Add the bytes
             dArr[d++] = (byte) (i >> 16);
-            if (d < len) {
+            if (d < dLen) {
                 dArr[d++] = (byte) (i >> 8);
-                if (d < len)
+                if (d < dLen)
                     dArr[d++] = (byte) i;
             }
         }
-
-        return dArr;
     }
 
 
@@ -225,7 +320,19 @@ public final class Base64 {
 
         // Decode all but the last 0 - 2 bytes.
         int d = 0;
-        for (int cc = 0, eLen = (len / 3) * 3; d < eLen;) {
+        final int eLen = (len / 3) * 3;
+        if (sepCnt == 0) {
+            // no line separators: process 8 characters per step while there is room to store 8 bytes
+            while (d + 8 <= len) {
+                final long bits = decode8(sArr, sIx);
+                if (bits < 0)
+                    break;
+                store6(dArr, d, bits);
+                sIx += 8;
+                d += 6;
+            }
+        }
+        for (int cc = 0; d < eLen;) {
             // Assemble three bytes into an int from four "valid" characters.
             final int i = IA[sArr[sIx++]] << 18 | IA[sArr[sIx++]] << 12 | IA[sArr[sIx++]] << 6 | IA[sArr[sIx++]];
 
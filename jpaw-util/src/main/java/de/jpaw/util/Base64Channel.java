@@ -0,0 +1,97 @@
+package de.jpaw.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+
+/** A WritableByteChannel which BASE64 encodes or decodes all data written to it, and writes the result to another channel.
+ * Data is processed incrementally, using small fixed buffers.
+ * Instances are obtained via {@link #encoding(WritableByteChannel)} or {@link #decoding(WritableByteChannel)}.
+ * Closing the channel writes the final padding (when encoding) or validates the end of the data (when decoding),
+ * and then closes the target channel.
+ * This class is not thread-safe.
+ */
+public final class Base64Channel implements WritableByteChannel {
+    private static final int CHUNK_SIZE = 3072;     // input bytes processed per step, a multiple of 3 and 4
+    private final WritableByteChannel target;
+    private final Base64StreamEncoder encoder;      // null when decoding
+    private final Base64StreamDecoder decoder;      // null when encoding
+    private final byte[] input = new byte[CHUNK_SIZE];
+    private final byte[] output;
+    private final ByteBuffer outputBuffer;          // wraps output
+    private boolean open = true;
+
+    private Base64Channel(final WritableByteChannel target, final boolean encode) {
+        this.target = target;
+        this.encoder = encode ? new Base64StreamEncoder() : null;
+        this.decoder = encode ? null : new Base64StreamDecoder();
+        this.output = new byte[encode ? Base64StreamEncoder.maxEncodedLength(CHUNK_SIZE) : Base64StreamDecoder.maxDecodedLength(CHUNK_SIZE)];
+        this.outputBuffer = ByteBuffer.wrap(output);
+    }
+
+    /** Returns a channel which writes the BASE64 encoding of the data written to it into target. */
+    public static Base64Channel encoding(final WritableByteChannel target) {
+        return new Base64Channel(target, true);
+    }
+
+    /** Returns a channel which expects BASE64 encoded data and writes the decoded bytes into target. */
+    public static Base64Channel decoding(final WritableByteChannel target) {
+        return new Base64Channel(target, false);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public int write(final ByteBuffer src) throws IOException {
+        if (!open)
+            throw new ClosedChannelException();
+        final int total = src.remaining();
+        while (src.hasRemaining()) {
+            final int n = Math.min(CHUNK_SIZE, src.remaining());
+            final int written;
+            if (src.hasArray()) {
+                final int pos = src.position();
+                written = process(src.array(), src.arrayOffset() + pos, n);
+                src.position(pos + n);
+            } else {
+                src.get(input, 0, n);
+                written = process(input, 0, n);
+            }
+            writeFully(written);
+        }
+        return total;
+    }
+
+    private int process(final byte[] data, final int offset, final int length) throws IOException {
+        return encoder != null ? encoder.encode(data, offset, length, output, 0) : decoder.decode(data, offset, length, output, 0);
+    }
+
+    private void writeFully(final int length) throws IOException {
+        if (length > 0) {
+            outputBuffer.clear().limit(length);
+            while (outputBuffer.hasRemaining()) {
+                target.write(outputBuffer);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (open) {
+            open = false;
+            try {
+                if (encoder != null) {
+                    writeFully(encoder.finish(output, 0));
+                } else {
+                    decoder.finish();
+                }
+            } finally {
+                target.close();
+            }
+        }
+    }
+}
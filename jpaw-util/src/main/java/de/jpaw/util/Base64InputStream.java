@@ -0,0 +1,100 @@
+package de.jpaw.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/** An InputStream which reads BASE64 encoded data from another InputStream and returns the decoded bytes.
+ * Data is processed incrementally, using small fixed buffers, so arbitrarily large content can be decoded.
+ * Line separators and other characters outside of the BASE64 alphabet are ignored.
+ * An IOException is thrown if the data contains misplaced padding or does not end at a group boundary.
+ */
+public class Base64InputStream extends FilterInputStream {
+    private static final int BUFFER_SIZE = 4096;
+    private final Base64StreamDecoder decoder = new Base64StreamDecoder();
+    private final byte[] encoded = new byte[BUFFER_SIZE];
+    private final byte[] decoded = new byte[Base64StreamDecoder.maxDecodedLength(BUFFER_SIZE)];
+    private int pos = 0;            // next byte of decoded to return
+    private int limit = 0;          // number of valid bytes in decoded
+    private boolean eof = false;
+
+    public Base64InputStream(final InputStream in) {
+        super(in);
+    }
+
+    // refills the decoded buffer, returns false at the end of the data
+    private boolean fill() throws IOException {
+        while (pos >= limit) {
+            if (eof)
+                return false;
+            final int n = in.read(encoded, 0, BUFFER_SIZE);
+            if (n < 0) {
+                eof = true;
+                decoder.finish();
+                return false;
+            }
+            pos = 0;
+            limit = decoder.decode(encoded, 0, n, decoded, 0);
+        }
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (pos >= limit && !fill())
+            return -1;
+        return decoded[pos++] & 0xff;
+    }
+
+    @Override
+    public int read(final byte[] b, final int offset, final int len) throws IOException {
+        if (len == 0)
+            return 0;
+        int done = 0;
+        while (done < len) {
+            if (pos >= limit) {
+                // do not block if some data has been returned already
+                if (done > 0 && in.available() <= 0)
+                    break;
+                if (!fill())
+                    break;
+            }
+            final int n = Math.min(len - done, limit - pos);
+            System.arraycopy(decoded, pos, b, offset + done, n);
+            pos += n;
+            done += n;
+        }
+        return done == 0 ? -1 : done;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n && (pos < limit || fill())) {
+            final int k = (int) Math.min(n - skipped, limit - pos);
+            pos += k;
+            skipped += k;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return limit - pos;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(final int readlimit) {
+        // not supported
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+}
@@ -0,0 +1,63 @@
+package de.jpaw.util;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/** An OutputStream which BASE64 encodes all data written to it, and passes the encoded data to another OutputStream.
+ * Data is processed incrementally, using a small fixed buffer, so arbitrarily large content can be encoded.
+ * The output has no line separators, and is identical to the output of {@link Base64#encodeToByte(ByteBuilder, byte[], int, int)}
+ * for the concatenated input.
+ * Padding is written by {@link #finish()} or {@link #close()}.
+ * In order to encode into a ByteBuilder, wrap it into a {@link ByteBuilderOutputStream}.
+ */
+public class Base64OutputStream extends FilterOutputStream {
+    private static final int CHUNK_SIZE = 3072;     // input bytes encoded per step, a multiple of 3
+    private final Base64StreamEncoder encoder = new Base64StreamEncoder();
+    private final byte[] encoded = new byte[Base64StreamEncoder.maxEncodedLength(CHUNK_SIZE)];
+    private final byte[] single = new byte[1];
+    private boolean finished = false;
+
+    public Base64OutputStream(final OutputStream out) {
+        super(out);
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        single[0] = (byte) b;
+        write(single, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] b, int offset, int len) throws IOException {
+        if (finished)
+            throw new IOException("Base64OutputStream has been finished");
+        while (len > 0) {
+            final int n = len > CHUNK_SIZE ? CHUNK_SIZE : len;
+            final int written = encoder.encode(b, offset, n, encoded, 0);
+            if (written > 0)
+                out.write(encoded, 0, written);
+            offset += n;
+            len -= n;
+        }
+    }
+
+    /** Writes the final group including padding, without closing the underlying stream. No further data can be written afterwards. */
+    public void finish() throws IOException {
+        if (!finished) {
+            finished = true;
+            final int written = encoder.finish(encoded, 0);
+            if (written > 0)
+                out.write(encoded, 0, written);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            super.close();
+        }
+    }
+}
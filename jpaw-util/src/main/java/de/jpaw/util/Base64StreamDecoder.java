@@ -0,0 +1,87 @@
+package de.jpaw.util;
+
+import java.io.IOException;
+
+/** Incremental BASE64 decoder state, shared by the streaming classes.
+ * As {@link Base64#decode(byte[], int, int)}, it ignores illegal characters such as line separators.
+ * Padding is only accepted at the end of the data, and the data must end with a complete group of 4 characters.
+ */
+final class Base64StreamDecoder {
+    private int bits;               // accumulated 6 bit groups
+    private int count;              // number of characters accumulated in bits (0..3)
+    private boolean padded;         // a '=' has been seen, only further padding is allowed
+    private int missingPadding;     // number of '=' still expected
+
+    /** Returns the maximum number of bytes produced by decoding len bytes of input. */
+    static int maxDecodedLength(final int len) {
+        return ((len + 3) / 4) * 3;
+    }
+
+    /** Decodes the input, writing the bytes of all completed groups into dArr at position d.
+     * @return the number of bytes written, which is at most maxDecodedLength(len).
+     * @throws IOException if the input is not valid BASE64
+     */
+    int decode(final byte[] sArr, int offset, final int length, final byte[] dArr, int d) throws IOException {
+        final int dStart = d;
+        final int[] ia = Base64.IA;
+        final int end = offset + length;
+        for (; offset < end; ++offset) {
+            // at a group boundary, try to process 8 characters in one step
+            while (count == 0 && !padded && offset + 8 <= end && d + 8 <= dArr.length) {
+                final long group = Base64.decode8(sArr, offset);
+                if (group < 0)
+                    break;
+                Base64.store6(dArr, d, group);
+                offset += 8;
+                d += 6;
+            }
+            if (offset >= end)
+                break;
+            final int b = sArr[offset] & 0xff;
+            final int c = ia[b];
+            if (c < 0)
+                continue;           // line separators and other illegal characters
+            if (b == '=') {
+                if (padded) {
+                    if (missingPadding == 0)
+                        throw new IOException("Excess BASE64 padding");
+                    --missingPadding;
+                    continue;
+                }
+                if (count == 2) {
+                    dArr[d++] = (byte) (bits >> 4);
+                    missingPadding = 1;
+                } else if (count == 3) {
+                    dArr[d++] = (byte) (bits >> 10);
+                    dArr[d++] = (byte) (bits >> 2);
+                    missingPadding = 0;
+                } else {
+                    throw new IOException("Misplaced BASE64 padding");
+                }
+                padded = true;
+                bits = 0;
+                count = 0;
+                continue;
+            }
+            if (padded)
+                throw new IOException("BASE64 data after padding");
+            bits = (bits << 6) | c;
+            if (++count == 4) {
+                dArr[d++] = (byte) (bits >> 16);
+                dArr[d++] = (byte) (bits >> 8);
+                dArr[d++] = (byte) bits;
+                bits = 0;
+                count = 0;
+            }
+        }
+        return d - dStart;
+    }
+
+    /** Checks that the input ended at a group boundary.
+     * @throws IOException if the input was truncated
+     */
+    void finish() throws IOException {
+        if (count != 0 || missingPadding != 0)
+            throw new IOException("Truncated BASE64 data");
+    }
+}
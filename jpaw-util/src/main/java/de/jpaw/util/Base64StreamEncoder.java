@@ -0,0 +1,45 @@
+package de.jpaw.util;
+
+/** Incremental BASE64 encoder state, shared by the streaming classes.
+ * Holds back up to 2 bytes of input, so that padding is only written at the end of the data.
+ */
+final class Base64StreamEncoder {
+    private final byte[] pending = new byte[3];
+    private int pendingCount;
+
+    /** Returns the maximum number of bytes produced by encoding len bytes of input. */
+    static int maxEncodedLength(final int len) {
+        return ((len + 2) / 3) * 4;
+    }
+
+    /** Encodes the input, writing complete groups of 4 characters into dArr at position d.
+     * @return the number of bytes written, which is at most maxEncodedLength(len).
+     */
+    int encode(final byte[] sArr, int offset, int length, final byte[] dArr, final int d) {
+        int written = 0;
+        if (pendingCount > 0) {
+            while (pendingCount < 3 && length > 0) {
+                pending[pendingCount++] = sArr[offset++];
+                --length;
+            }
+            if (pendingCount < 3)
+                return 0;
+            written = Base64.encode(pending, 0, 3, dArr, d);
+            pendingCount = 0;
+        }
+        final int rest = length % 3;
+        written += Base64.encode(sArr, offset, length - rest, dArr, d + written);
+        for (int i = length - rest; i < length; ++i)
+            pending[pendingCount++] = sArr[offset + i];
+        return written;
+    }
+
+    /** Writes the remaining bytes, including padding, into dArr (which must provide space for 4 bytes).
+     * @return the number of bytes written (0 or 4).
+     */
+    int finish(final byte[] dArr, final int d) {
+        final int written = Base64.encode(pending, 0, pendingCount, dArr, d);
+        pendingCount = 0;
+        return written;
+    }
+}
@@ -445,6 +445,17 @@ public final class ByteArray implements Externalizable, Cloneable {
         b.write(buffer, offset, length);
     }
 
+    /** Returns the contents of this ByteArray decoded as CESU-8, or null if it is not valid CESU-8. */
+    public String decodeCesu8() {
+        return Cesu8Decoder.decode(buffer, offset, length);
+    }
+
+    /** Appends the contents of this ByteArray decoded as CESU-8 to a StringBuilder.
+     * @return the number of characters appended, or -1 if the contents is not valid CESU-8 */
+    public int decodeCesu8Into(final StringBuilder sb) {
+        return Cesu8Decoder.decodeInto(sb, buffer, offset, length);
+    }
+
     /** Returns the contents of this ByteArray as a base64 encoded string.
      * @since 1.2.12 */
     public String asBase64() {
@@ -15,6 +15,10 @@
   */
 package de.jpaw.util;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
 /**
  *          This class defines a couple of simple tests for the Java primitive type {@code byte} which correspond to the
  *          macros included in the header file ctype.h for the programming
@@ -25,9 +29,14 @@ package de.jpaw.util;
  *
  * Changes:
  * 1.2.1:   changed 0x7f to be no longer considered as a "printable" character, in order to be consistent with the Java patterns and common expectation
+ *
+ *          The range based checks test 8 bytes per step, by loading them into a long and testing all bytes in parallel (SWAR).
  */
 
 public final class ByteTestsASCII {
+    private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
     /**
      * The constructor is defined as private, in order to prevent that anyone
      * instantiates this class, which is not meaningful, because it contains
@@ -106,4 +115,111 @@ public final class ByteTestsASCII {
         return c >= '0' && c <= '9';
     }
 
+    /**
+     * Returns a word which has the high bit of every byte set which is not within the range lo .. hi, and all other bits cleared.
+     * Bytes with the high bit set (non ASCII) are always outside of the range. The result is exact for every byte,
+     * because no addition can carry into the next byte.
+     * Requires 0 &lt;= lo &lt;= hi &lt;= 0x7f.
+     */
+    private static long outsideOf(final long w, final int lo, final int hi) {
+        final long low7 = w & ~HIGH_BITS;
+        final long atLeastLo = low7 + ONES * (0x80 - lo);       // high bit set if byte >= lo
+        final long aboveHi   = low7 + ONES * (0x7f - hi);       // high bit set if byte > hi
+        return (~atLeastLo | aboveHi | w) & HIGH_BITS;
+    }
+
+    // returns the index of the first byte which is not within the range, or -1
+    private static int firstOutsideOf(final byte[] data, final int offset, final int length, final int lo, final int hi) {
+        final int end = offset + length;
+        int i = offset;
+        for (; i + 8 <= end; i += 8) {
+            final long bad = outsideOf((long) LONG_LE.get(data, i), lo, hi);
+            if (bad != 0)
+                return i + (Long.numberOfTrailingZeros(bad) >>> 3);
+        }
+        for (; i < end; ++i) {
+            final int c = data[i];
+            if (c < lo || c > hi)
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * <code>firstNonAscii()</code> returns the position of the first byte within the given range of the array
+     * which is not a US-ASCII (7 bit) character.
+     *
+     * @param data
+     *            the array to test
+     * @param offset
+     *            the position of the first byte to test
+     * @param length
+     *            the number of bytes to test
+     * @return the index of the first byte with the high bit set, or -1 if all bytes are ASCII characters.
+     */
+    public static int firstNonAscii(final byte[] data, final int offset, final int length) {
+        final int end = offset + length;
+        int i = offset;
+        for (; i + 8 <= end; i += 8) {
+            final long bad = (long) LONG_LE.get(data, i) & HIGH_BITS;
+            if (bad != 0)
+                return i + (Long.numberOfTrailingZeros(bad) >>> 3);
+        }
+        for (; i < end; ++i) {
+            if (data[i] < 0)
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * <code>firstNonPrintable()</code> returns the position of the first byte within the given range of the array
+     * which is not a US-ASCII (7 bit) printable character <code>(0x20 .. 0x7e)</code>.
+     *
+     * @return the index of the first non printable byte, or -1 if all bytes are printable.
+     */
+    public static int firstNonPrintable(final byte[] data, final int offset, final int length) {
+        return firstOutsideOf(data, offset, length, 0x20, 0x7e);
+    }
+
+    /** Returns true if all bytes of the given range are US-ASCII (7 bit) characters. */
+    public static boolean isAscii(final byte[] data, final int offset, final int length) {
+        return firstNonAscii(data, offset, length) < 0;
+    }
+
+    /** Returns true if all bytes of the given range are US-ASCII printable characters <code>(0x20 .. 0x7e)</code>. */
+    public static boolean isAsciiPrintable(final byte[] data, final int offset, final int length) {
+        return firstOutsideOf(data, offset, length, 0x20, 0x7e) < 0;
+    }
+
+    /** Returns true if all bytes of the given range are US-ASCII printable characters or TABs. */
+    public static boolean isAsciiPrintableOrTab(final byte[] data, final int offset, final int length) {
+        final int end = offset + length;
+        int i = offset;
+        for (; i + 8 <= end; i += 8) {
+            final long w = (long) LONG_LE.get(data, i);
+            if ((outsideOf(w, 0x20, 0x7e) & outsideOf(w, '\t', '\t')) != 0)
+                return false;
+        }
+        for (; i < end; ++i) {
+            if (!isAsciiPrintableOrTab(data[i]))
+                return false;
+        }
+        return true;
+    }
+
+    /** Returns true if all bytes of the given range are digits <code>(0 .. 9)</code>. */
+    public static boolean isAllDigits(final byte[] data, final int offset, final int length) {
+        return firstOutsideOf(data, offset, length, '0', '9') < 0;
+    }
+
+    /** Returns true if all bytes of the given range are upper case letters <code>(A .. Z)</code>. */
+    public static boolean isAllUpperCase(final byte[] data, final int offset, final int length) {
+        return firstOutsideOf(data, offset, length, 'A', 'Z') < 0;
+    }
+
+    /** Returns true if all bytes of the given range are lower case letters <code>(a .. z)</code>. */
+    public static boolean isAllLowerCase(final byte[] data, final int offset, final int length) {
+        return firstOutsideOf(data, offset, length, 'a', 'z') < 0;
+    }
 }
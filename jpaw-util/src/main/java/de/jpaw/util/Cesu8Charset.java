@@ -0,0 +1,227 @@
+package de.jpaw.util;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A Charset for CESU-8, using the same encoding rules as {@link Cesu8Encoder} and {@link Cesu8Decoder}.
+ * It can be used wherever the JDK expects a Charset, for example with InputStreamReader / OutputStreamWriter
+ * or {@link java.nio.channels.Channels#newWriter(java.nio.channels.WritableByteChannel, CharsetEncoder, int)},
+ * to convert large data incrementally.
+ * <p>
+ * Heap buffers are processed via their backing arrays, with a fast path for runs of ASCII characters.
+ * The charset is not registered with a CharsetProvider, use {@link #INSTANCE}.
+ */
+public final class Cesu8Charset extends Charset {
+    public static final Cesu8Charset INSTANCE = new Cesu8Charset();
+
+    private Cesu8Charset() {
+        super("x-jpaw-CESU-8", null);
+    }
+
+    @Override
+    public boolean contains(final Charset cs) {
+        // CESU-8 can represent all UTF-16 sequences
+        return cs instanceof Cesu8Charset
+          || cs.equals(StandardCharsets.US_ASCII) || cs.equals(StandardCharsets.ISO_8859_1)
+          || cs.name().startsWith("UTF-") || cs.name().equals("CESU-8");
+    }
+
+    @Override
+    public CharsetDecoder newDecoder() {
+        return new Decoder(this);
+    }
+
+    @Override
+    public CharsetEncoder newEncoder() {
+        return new Encoder(this);
+    }
+
+    // returns the number of bytes of the sequence starting with the given byte, or 0 if the byte cannot start a sequence
+    private static int sequenceLength(final int b0) {
+        if (b0 >= 0)
+            return 1;
+        if ((b0 & 0xe0) == 0xc0)
+            return 2;
+        if ((b0 & 0xf0) == 0xe0)
+            return 3;
+        return 0;
+    }
+
+    private static final class Decoder extends CharsetDecoder {
+        private Decoder(final Charset cs) {
+            super(cs, 1.0f, 1.0f);
+        }
+
+        @Override
+        protected CoderResult decodeLoop(final ByteBuffer src, final CharBuffer dst) {
+            if (src.hasArray() && dst.hasArray())
+                return decodeArrays(src, dst);
+            int sp = src.position();
+            final int sl = src.limit();
+            try {
+                while (sp < sl) {
+                    final int b0 = src.get(sp);
+                    final int n = sequenceLength(b0);
+                    if (n == 0)
+                        return CoderResult.malformedForLength(1);
+                    final int c;
+                    if (n == 1) {
+                        c = b0;
+                    } else {
+                        for (int i = 1; i < n; ++i) {
+                            if (sp + i >= sl)
+                                return CoderResult.UNDERFLOW;       // wait for more input
+                            if ((src.get(sp + i) & 0xc0) != 0x80)
+                                return CoderResult.malformedForLength(1);
+                        }
+                        c = n == 2
+                          ? ((b0 & 0x1f) << 6) | (src.get(sp + 1) & 0x3f)
+                          : ((b0 & 0x0f) << 12) | ((src.get(sp + 1) & 0x3f) << 6) | (src.get(sp + 2) & 0x3f);
+                        if (c < (n == 2 ? 0x80 : 0x800))
+                            return CoderResult.malformedForLength(1);
+                    }
+                    if (!dst.hasRemaining())
+                        return CoderResult.OVERFLOW;
+                    dst.put((char)c);
+                    sp += n;
+                }
+                return CoderResult.UNDERFLOW;
+            } finally {
+                src.position(sp);
+            }
+        }
+
+        private static CoderResult decodeArrays(final ByteBuffer src, final CharBuffer dst) {
+            final byte[] sa = src.array();
+            final int so = src.arrayOffset();
+            int sp = so + src.position();
+            final int sl = so + src.limit();
+            final char[] da = dst.array();
+            final int dOff = dst.arrayOffset();
+            int dp = dOff + dst.position();
+            final int dl = dOff + dst.limit();
+            try {
+                // fast path: ASCII characters
+                final int asciiEnd = sp + Math.min(sl - sp, dl - dp);
+                while (sp < asciiEnd && sa[sp] >= 0)
+                    da[dp++] = (char)sa[sp++];
+                while (sp < sl) {
+                    final int b0 = sa[sp];
+                    final int n = sequenceLength(b0);
+                    if (n == 0)
+                        return CoderResult.malformedForLength(1);
+                    if (sp + n > sl) {
+                        // incomplete sequence: malformed if what is there already is invalid, else wait for more input
+                        for (int i = sp + 1; i < sl; ++i) {
+                            if ((sa[i] & 0xc0) != 0x80)
+                                return CoderResult.malformedForLength(1);
+                        }
+                        return CoderResult.UNDERFLOW;
+                    }
+                    final int c = n == 1 ? b0 : Cesu8Decoder.decodeMultiByte(sa, sp, sl);
+                    if (c < 0)
+                        return CoderResult.malformedForLength(1);
+                    if (dp >= dl)
+                        return CoderResult.OVERFLOW;
+                    da[dp++] = (char)c;
+                    sp += n;
+                }
+                return CoderResult.UNDERFLOW;
+            } finally {
+                src.position(sp - so);
+                dst.position(dp - dOff);
+            }
+        }
+    }
+
+    private static final class Encoder extends CharsetEncoder {
+        private Encoder(final Charset cs) {
+            super(cs, 1.1f, 3.0f);
+        }
+
+        @Override
+        public boolean canEncode(final char c) {
+            return true;
+        }
+
+        @Override
+        protected CoderResult encodeLoop(final CharBuffer src, final ByteBuffer dst) {
+            if (src.hasArray() && dst.hasArray())
+                return encodeArrays(src, dst);
+            int sp = src.position();
+            final int sl = src.limit();
+            try {
+                while (sp < sl) {
+                    final char c = src.get(sp);
+                    if (c < 0x80) {
+                        if (!dst.hasRemaining())
+                            return CoderResult.OVERFLOW;
+                        dst.put((byte)c);
+                    } else if (c < 0x800) {
+                        if (dst.remaining() < 2)
+                            return CoderResult.OVERFLOW;
+                        dst.put((byte)(0xc0 + (c >> 6)));
+                        dst.put((byte)(0x80 + (c & 0x3f)));
+                    } else {
+                        if (dst.remaining() < 3)
+                            return CoderResult.OVERFLOW;
+                        dst.put((byte)(0xe0 + (c >> 12)));
+                        dst.put((byte)(0x80 + ((c >> 6) & 0x3f)));
+                        dst.put((byte)(0x80 + (c & 0x3f)));
+                    }
+                    ++sp;
+                }
+                return CoderResult.UNDERFLOW;
+            } finally {
+                src.position(sp);
+            }
+        }
+
+        private static CoderResult encodeArrays(final CharBuffer src, final ByteBuffer dst) {
+            final char[] sa = src.array();
+            final int so = src.arrayOffset();
+            int sp = so + src.position();
+            final int sl = so + src.limit();
+            final byte[] da = dst.array();
+            final int dOff = dst.arrayOffset();
+            int dp = dOff + dst.position();
+            final int dl = dOff + dst.limit();
+            try {
+                // fast path: ASCII characters
+                final int asciiEnd = sp + Math.min(sl - sp, dl - dp);
+                while (sp < asciiEnd && sa[sp] < 0x80)
+                    da[dp++] = (byte)sa[sp++];
+                while (sp < sl) {
+                    final char c = sa[sp];
+                    if (c < 0x80) {
+                        if (dp >= dl)
+                            return CoderResult.OVERFLOW;
+                        da[dp++] = (byte)c;
+                    } else if (c < 0x800) {
+                        if (dl - dp < 2)
+                            return CoderResult.OVERFLOW;
+                        da[dp++] = (byte)(0xc0 + (c >> 6));
+                        da[dp++] = (byte)(0x80 + (c & 0x3f));
+                    } else {
+                        if (dl - dp < 3)
+                            return CoderResult.OVERFLOW;
+                        da[dp++] = (byte)(0xe0 + (c >> 12));
+                        da[dp++] = (byte)(0x80 + ((c >> 6) & 0x3f));
+                        da[dp++] = (byte)(0x80 + (c & 0x3f));
+                    }
+                    ++sp;
+                }
+                return CoderResult.UNDERFLOW;
+            } finally {
+                src.position(sp - so);
+                dst.position(dp - dOff);
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package de.jpaw.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decoder for CESU-8 data, the counterpart of {@link Cesu8Encoder}.
+ * Every sequence of 1 to 3 bytes is decoded into a single UTF-16 character, surrogates are therefore passed through as encoded.
+ * Overlong forms and 4 byte sequences (as used by UTF-8 for supplementary characters) are rejected.
+ * Decoding works on byte array ranges directly, see also {@link ByteArray#decodeCesu8()}.
+ */
+public final class Cesu8Decoder {
+
+    private Cesu8Decoder() { }
+
+    /** Decodes the given range into a String.
+     * @return the decoded String, or null if the data is not valid CESU-8
+     */
+    public static String decode(final byte[] data, final int offset, final int length) {
+        final int firstNonAscii = ByteTestsASCII.firstNonAscii(data, offset, length);
+        if (firstNonAscii < 0)
+            return new String(data, offset, length, StandardCharsets.US_ASCII);   // compact string, no intermediate char[]
+        final char[] chars = new char[length];    // the number of characters never exceeds the number of bytes
+        int n = firstNonAscii - offset;
+        for (int i = 0; i < n; ++i)
+            chars[i] = (char)data[offset + i];
+        n = decode(data, firstNonAscii, offset + length, chars, n);
+        return n < 0 ? null : new String(chars, 0, n);
+    }
+
+    /** Decodes the given range and appends the characters to a StringBuilder.
+     * If the data is not valid CESU-8, the StringBuilder contains the characters decoded up to the error.
+     * @return the number of characters appended, or -1 if the data is not valid CESU-8
+     */
+    public static int decodeInto(final StringBuilder sb, final byte[] data, final int offset, final int length) {
+        final int end = offset + length;
+        final int start = sb.length();
+        int i = offset;
+        while (i < end) {
+            final int b0 = data[i];
+            if (b0 >= 0) {
+                sb.append((char)b0);
+                ++i;
+                continue;
+            }
+            final int c = decodeMultiByte(data, i, end);
+            if (c < 0)
+                return -1;
+            sb.append((char)c);
+            i += (b0 & 0xf0) == 0xe0 ? 3 : 2;
+        }
+        return sb.length() - start;
+    }
+
+    /** Decodes bytes from src (range i .. end) into dst starting at d.
+     * @return the position after the last character written, or -1 if the data is not valid CESU-8
+     */
+    static int decode(final byte[] src, int i, final int end, final char[] dst, int d) {
+        while (i < end) {
+            final int b0 = src[i];
+            if (b0 >= 0) {
+                dst[d++] = (char)b0;
+                ++i;
+                continue;
+            }
+            final int c = decodeMultiByte(src, i, end);
+            if (c < 0)
+                return -1;
+            dst[d++] = (char)c;
+            i += (b0 & 0xf0) == 0xe0 ? 3 : 2;
+        }
+        return d;
+    }
+
+    /** Decodes the 2 or 3 byte sequence starting at src[i], whose first byte is known to be non-ASCII.
+     * @return the character, or -1 if the sequence is malformed or truncated
+     */
+    static int decodeMultiByte(final byte[] src, final int i, final int end) {
+        final int b0 = src[i];
+        if ((b0 & 0xe0) == 0xc0) {
+            if (i + 1 >= end)
+                return -1;
+            final int b1 = src[i + 1];
+            if ((b1 & 0xc0) != 0x80)
+                return -1;
+            final int c = ((b0 & 0x1f) << 6) | (b1 & 0x3f);
+            return c < 0x80 ? -1 : c;       // reject overlong forms
+        }
+        if ((b0 & 0xf0) == 0xe0) {
+            if (i + 2 >= end)
+                return -1;
+            final int b1 = src[i + 1];
+            final int b2 = src[i + 2];
+            if ((b1 & 0xc0) != 0x80 || (b2 & 0xc0) != 0x80)
+                return -1;
+            final int c = ((b0 & 0x0f) << 12) | ((b1 & 0x3f) << 6) | (b2 & 0x3f);
+            return c < 0x800 ? -1 : c;      // reject overlong forms
+        }
+        return -1;                          // continuation byte or 4 byte sequence
+    }
+}
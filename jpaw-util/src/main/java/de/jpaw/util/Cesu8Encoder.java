@@ -2,6 +2,10 @@ package de.jpaw.util;
 
 import java.util.Arrays;
 
+/**
+ * Encoder for CESU-8, the variant of UTF-8 which encodes every UTF-16 character separately (surrogates as 3 bytes each).
+ * The matching decoder is {@link Cesu8Decoder}, a Charset is provided by {@link Cesu8Charset}.
+ */
 public final class Cesu8Encoder {
 
     private Cesu8Encoder() { }
@@ -54,4 +58,43 @@ public final class Cesu8Encoder {
         }
         return Arrays.copyOf(buff, j + 1);    // create an array of appropriate length
     }
+
+    /** Appends the CESU-8 encoding of s to the ByteBuilder, without intermediate copies.
+     * Leading ASCII characters are copied without further checks, and the buffer is extended at most once for the remaining characters. */
+    public static void encodeTo(final ByteBuilder b, final CharSequence s) {
+        final int len = s.length();
+        int pos = b.length();
+        b.ensureCapacity(pos + len);
+        byte[] buff = b.getCurrentBuffer();
+        int i = 0;
+        // fast path: ASCII characters
+        for (; i < len; ++i) {
+            final char c = s.charAt(i);
+            if (c >= 128)
+                break;
+            buff[pos++] = (byte)c;
+        }
+        if (i < len) {
+            // non-ASCII data: reserve the worst case for the remaining characters
+            b.setLength(pos);
+            b.ensureCapacity(pos + 3 * (len - i));
+            buff = b.getCurrentBuffer();
+            for (; i < len; ++i) {
+                final char c = s.charAt(i);
+                if (c < 2048) {
+                    if (c < 128) {
+                        buff[pos++] = (byte)c;
+                    } else {
+                        buff[pos++] = (byte)(0xc0 + (c >> 6));
+                        buff[pos++] = (byte)(0x80 + (c & 0x3f));
+                    }
+                } else {
+                    buff[pos++] = (byte) (0xe0 + (c >> 12));
+                    buff[pos++] = (byte) (0x80 + ((c >> 6) & 0x3f));
+                    buff[pos++] = (byte) (0x80 + (c & 0x3f));
+                }
+            }
+        }
+        b.setLength(pos);
+    }
 }
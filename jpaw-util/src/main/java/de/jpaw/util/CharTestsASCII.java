@@ -276,6 +276,120 @@ public final class CharTestsASCII {
     }
 
 
+    // Range checks for whole sequences and char arrays.
+    // In contrast to the byte array checks in ByteTestsASCII, there is no cheap way to load 4 or 8 characters into a long here,
+    // and neither combining the checks of several characters without branches nor a single unsigned comparison per character
+    // beat the plain two-sided comparison (see AsciiChecksBench). Strings are scanned via a String typed loop,
+    // because calls of charAt() through the CharSequence interface are not inlined as reliably.
+
+    // returns the index of the first character which is not within the range, or -1
+    private static int firstOutsideOf(final CharSequence s, final int lo, final int hi) {
+        if (s instanceof String)
+            return firstOutsideOf((String) s, lo, hi);
+        final int len = s.length();
+        for (int i = 0; i < len; ++i) {
+            final char c = s.charAt(i);
+            if (c < lo || c > hi)
+                return i;
+        }
+        return -1;
+    }
+
+    // returns the index of the first character which is not within the range, or -1
+    private static int firstOutsideOf(final String s, final int lo, final int hi) {
+        for (int i = 0; i < s.length(); ++i) {
+            final char c = s.charAt(i);
+            if (c < lo || c > hi)
+                return i;
+        }
+        return -1;
+    }
+
+    // returns the index of the first character which is not within the range, or -1
+    private static int firstOutsideOf(final char[] data, final int offset, final int length, final int lo, final int hi) {
+        final int end = offset + length;
+        for (int i = offset; i < end; ++i) {
+            final char c = data[i];
+            if (c < lo || c > hi)
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * <code>firstNonAscii()</code> returns the position of the first character of a sequence which is not a US-ASCII (7 bit) character.
+     *
+     * @param s
+     *            the characters to test
+     * @return the index of the first character above 0x7f, or -1 if all characters are ASCII characters.
+     */
+    public static int firstNonAscii(final CharSequence s) {
+        return firstOutsideOf(s, 0, 0x7f);
+    }
+
+    /**
+     * <code>firstNonAscii()</code> returns the position of the first character within the given range of the array
+     * which is not a US-ASCII (7 bit) character.
+     *
+     * @return the index of the first character above 0x7f, or -1 if all characters are ASCII characters.
+     */
+    public static int firstNonAscii(final char[] data, final int offset, final int length) {
+        return firstOutsideOf(data, offset, length, 0, 0x7f);
+    }
+
+    /** Returns the position of the first character which is not a US-ASCII printable character <code>(0x20 .. 0x7e)</code>, or -1. */
+    public static int firstNonPrintable(final CharSequence s) {
+        return firstOutsideOf(s, 0x20, 0x7e);
+    }
+
+    /** Returns true if the sequence contains ASCII characters only, else false. */
+    public static boolean isAscii(final CharSequence s) {
+        return firstOutsideOf(s, 0, 0x7f) < 0;
+    }
+
+    /** Returns true if the sequence contains ASCII printable characters only (range 0x20 .. 0x7e), else false. */
+    public static boolean isAsciiPrintable(final CharSequence s) {
+        return firstOutsideOf(s, 0x20, 0x7e) < 0;
+    }
+
+    /** Returns true if the given range of the array contains ASCII printable characters only (range 0x20 .. 0x7e), else false. */
+    public static boolean isAsciiPrintable(final char[] data, final int offset, final int length) {
+        return firstOutsideOf(data, offset, length, 0x20, 0x7e) < 0;
+    }
+
+    /** Returns true if the sequence contains ASCII printable characters or TABs only (range 0x20 .. 0x7e and 0x09), else false. */
+    public static boolean isAsciiPrintableOrTab(final CharSequence s) {
+        // usually there are no TABs, therefore check for printable first, and continue character by character from the first exception
+        int i = firstOutsideOf(s, 0x20, 0x7e);
+        if (i < 0)
+            return true;
+        for (final int len = s.length(); i < len; ++i) {
+            if (!isAsciiPrintableOrTab(s.charAt(i)))
+                return false;
+        }
+        return true;
+    }
+
+    /** Returns true if the sequence contains ASCII digits only, else false. */
+    public static boolean isAllDigits(final CharSequence s) {
+        return firstOutsideOf(s, '0', '9') < 0;
+    }
+
+    /** Returns true if the given range of the array contains ASCII digits only, else false. */
+    public static boolean isAllDigits(final char[] data, final int offset, final int length) {
+        return firstOutsideOf(data, offset, length, '0', '9') < 0;
+    }
+
+    /** Returns true if the sequence contains ASCII upper case characters only, else false. */
+    public static boolean isAllUpperCase(final CharSequence s) {
+        return firstOutsideOf(s, 'A', 'Z') < 0;
+    }
+
+    /** Returns true if the sequence contains ASCII lower case characters only, else false. */
+    public static boolean isAllLowerCase(final CharSequence s) {
+        return firstOutsideOf(s, 'a', 'z') < 0;
+    }
+
     // some redundant implementations, for comparison (GC overhead / execution time) and preference purposes
 
     /** Returns true if the whole String contains ASCII upper case characters only, else false. */
@@ -1,6 +1,7 @@
 package de.jpaw.util;
 
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Paths;
 import java.util.Map;
@@ -19,6 +20,9 @@ public final class ConfigurationReaderFactory {
     /** A cache to keep all instances of the readers. */
     private static final Map<String, ConfigurationReaderInstance> INSTANCES = new ConcurrentHashMap<>();
 
+    /** A cache to keep all instances of the watching readers. */
+    private static final Map<String, WatchingConfigurationReader> WATCHING_INSTANCES = new ConcurrentHashMap<>();
+
     private ConfigurationReaderFactory() { }
 
     private static ConfigurationReaderInstance getConfigReaderFromPath(final String path) {
@@ -84,6 +88,20 @@ public final class ConfigurationReaderFactory {
         });
     }
 
+    /** Returns a configuration reader which serves reads from a snapshot, and reloads the file (path, ~ is expanded) whenever it is modified. */
+    public static WatchingConfigurationReader getWatchingConfigReader(final String propertiesFilePath) {
+        return WATCHING_INSTANCES.computeIfAbsent(propertiesFilePath, path -> {
+            final String realPath = path.charAt(0) == '~' ? System.getProperty("user.home") + path.substring(1) : path;
+            final WatchingConfigurationReader reader = new WatchingConfigurationReader(Paths.get(realPath));
+            try {
+                reader.startWatching();
+            } catch (IOException e) {
+                LOGGER.warn("Cannot watch properties file {}, changes will not be detected: {} {}", realPath, e.getMessage(), ExceptionUtil.causeChain(e));
+            }
+            return reader;
+        });
+    }
+
     public static ConfigurationReaderInstance getDefaultJpawConfigReader() {
         final String jpawPropertiesPath = FALLBACK_READER.getProperty("jpaw.properties", DEFAULT_JPAW_PROPERTIES);
         LOGGER.info("Reading jpaw.properties from path {}", jpawPropertiesPath);
@@ -0,0 +1,196 @@
+package de.jpaw.util;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.jpaw.api.ConfigurationReader;
+
+/**
+ * An immutable view of the configuration at a certain point in time.
+ * System properties, environment variables and the contents of an optional properties file are captured when the snapshot is created,
+ * and resolved with the same precedence as in {@link ConfigurationReaderInstance}: system property, then environment variable
+ * (upper case, dots replaced by underscores), then properties file.
+ * <p>
+ * Every key which exists is resolved only once, and the typed values are parsed only once. Subsequent lookups are a single hash map access,
+ * therefore a snapshot is suitable for reading configuration per request. Keys which do not exist are not cached, in order to avoid unbounded
+ * growth for arbitrary keys. For hot keys, the resolved {@link Value} can be obtained once via {@link #getValue(String)} and kept in a field.
+ * Changes of system properties or environment after creation are not visible, a new snapshot must be created for that,
+ * see {@link WatchingConfigurationReader}.
+ */
+public final class ConfigurationSnapshot implements ConfigurationReader {
+    /** Upper limit for the number of cached keys. Different spellings of environment variable keys could otherwise grow the cache. */
+    private static final int MAX_CACHED_KEYS = 4096;
+    private static final Value NOT_FOUND = new Value(null);
+
+    /**
+     * The resolved value of a key, with lazily parsed typed representations. Races only result in redundant parsing.
+     * Instances are bound to the snapshot which created them, reads are field accesses.
+     */
+    public static final class Value {
+        private final String raw;
+        private Integer intValue;
+        private Boolean booleanValue;
+        private UUID uuidValue;
+
+        private Value(final String raw) {
+            this.raw = raw;
+        }
+
+        /** Returns true if the key exists. */
+        public boolean isPresent() {
+            return raw != null;
+        }
+
+        /** Returns the value as a String, or null if the key does not exist. */
+        public String get() {
+            return raw;
+        }
+
+        public String get(final String defaultValue) {
+            return raw != null ? raw : defaultValue;
+        }
+
+        /** Returns the value as an Integer, or null if the key does not exist. */
+        public Integer getInt() {
+            if (raw == null)
+                return null;
+            Integer result = intValue;
+            if (result == null) {
+                result = Integer.valueOf(raw);
+                intValue = result;
+            }
+            return result;
+        }
+
+        public int getInt(final int defaultValue) {
+            final Integer actualValue = getInt();
+            return actualValue != null ? actualValue : defaultValue;
+        }
+
+        /** Returns the value as a Boolean, or null if the key does not exist. "1" and "y" are accepted as true as well. */
+        public Boolean getBoolean() {
+            if (raw == null)
+                return null;
+            Boolean result = booleanValue;
+            if (result == null) {
+                result = raw.equals("1") || raw.equalsIgnoreCase("y") ? Boolean.TRUE : Boolean.valueOf(raw);
+                booleanValue = result;
+            }
+            return result;
+        }
+
+        public boolean getBoolean(final boolean defaultValue) {
+            final Boolean actualValue = getBoolean();
+            return actualValue != null ? actualValue : defaultValue;
+        }
+
+        /** Returns the value as a UUID, or null if the key does not exist. */
+        public UUID getUUID() {
+            if (raw == null)
+                return null;
+            UUID result = uuidValue;
+            if (result == null) {
+                result = UUID.fromString(raw);
+                uuidValue = result;
+            }
+            return result;
+        }
+    }
+
+    private final Map<String, String> systemProperties;
+    private final Map<String, String> environment;
+    private final Map<String, String> fileProperties;
+    private final ConcurrentHashMap<String, Value> resolved = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a snapshot of the current system properties and environment, plus the given properties (which may be null).
+     * The properties are copied.
+     */
+    public ConfigurationSnapshot(final Properties props) {
+        this.systemProperties = copyOf(System.getProperties());
+        this.environment = System.getenv();     // an unmodifiable map already
+        this.fileProperties = copyOf(props);
+    }
+
+    private static Map<String, String> copyOf(final Properties props) {
+        final Map<String, String> map = new HashMap<>();
+        if (props != null) {
+            for (final String key : props.stringPropertyNames()) {
+                map.put(key, props.getProperty(key));
+            }
+        }
+        return map;
+    }
+
+    /** Returns true if the properties file contents of this snapshot is identical to the one of the other snapshot. */
+    public boolean samePropertiesAs(final ConfigurationSnapshot other) {
+        return fileProperties.equals(other.fileProperties);
+    }
+
+    /**
+     * Returns the resolved value of a key. The result is never null; for keys which do not exist, {@link Value#isPresent()} returns false.
+     * Callers which read the same key frequently can keep the result for the lifetime of this snapshot.
+     */
+    public Value getValue(final String key) {
+        final Value value = resolved.get(key);
+        if (value != null)
+            return value;
+        final Value newValue = lookup(key);
+        if (newValue == NOT_FOUND || resolved.size() >= MAX_CACHED_KEYS)
+            return newValue;
+        final Value existing = resolved.putIfAbsent(key, newValue);
+        return existing != null ? existing : newValue;
+    }
+
+    private Value lookup(final String key) {
+        String value = systemProperties.get(key);
+        if (value == null) {
+            value = environment.get(key.toUpperCase(Locale.ROOT).replace('.', '_'));
+            if (value == null) {
+                value = fileProperties.get(key);
+                if (value == null)
+                    return NOT_FOUND;
+            }
+        }
+        return new Value(value);
+    }
+
+    @Override
+    public String getProperty(final String key) {
+        return getValue(key).get();
+    }
+
+    @Override
+    public String getProperty(final String key, final String defaultValue) {
+        return getValue(key).get(defaultValue);
+    }
+
+    @Override
+    public Integer getIntProperty(final String key) {
+        return getValue(key).getInt();
+    }
+
+    @Override
+    public int getIntProperty(final String key, final int defaultValue) {
+        return getValue(key).getInt(defaultValue);
+    }
+
+    @Override
+    public Boolean getBooleanProperty(final String key) {
+        return getValue(key).getBoolean();
+    }
+
+    @Override
+    public boolean getBooleanProperty(final String key, final boolean defaultValue) {
+        return getValue(key).getBoolean(defaultValue);
+    }
+
+    @Override
+    public UUID getUUIDProperty(final String key) {
+        return getValue(key).getUUID();
+    }
+}
@@ -1,6 +1,8 @@
 package de.jpaw.util;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -8,11 +10,19 @@ import java.time.LocalTime;
 /**
  * A collection of parsers and formatters for JSON and XML input / output.
  * These formats allow certain control (parser strictness settings, output formatting).
+ *
+ * The writers for char[] and ByteBuilder targets and the parsers for CharSequence and byte ranges work digit by digit,
+ * without allocating temporary objects. The parsers handle the plain ISO formats (4 digit years) directly, and delegate
+ * anything else to the JDK parsers, which means they accept the same input and throw the same exceptions as those.
  */
 public final class FormattersAndParsers {
     public static final int LENGTH_OF_ISO_DATE = 10;   // yyyy-mm-dd
 
     private static final char[] DIGITS = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9' };
+    private static final int[] NANO_SCALE = { 100000000, 10000000, 1000000, 100000, 10000, 1000, 100, 10, 1 };
+
+    /** The maximum number of characters written by writeLocalDateTime, excluding the time zone suffix. */
+    public static final int MAX_LENGTH_OF_ISO_DATE_TIME = 23;   // yyyy-mm-ddThh:mm:ss.fff
 
     private FormattersAndParsers() { }
 
@@ -66,38 +76,358 @@ public final class FormattersAndParsers {
         }
     }
 
+    // writers for char arrays and ByteBuilders
+
+    private static int put2Digits(final char[] buf, final int pos, final int n) {
+        buf[pos]     = (char)('0' + (n / 10) % 10);
+        buf[pos + 1] = (char)('0' + n % 10);
+        return pos + 2;
+    }
+
+    /** Writes the date as yyyy-mm-dd into buf, starting at pos. The array must have space for 10 characters.
+     * @return the position after the last character written */
+    public static int writeLocalDate(final char[] buf, int pos, final LocalDate ld) {
+        final int year = ld.getYear();
+        pos = put2Digits(buf, pos, year / 100);
+        pos = put2Digits(buf, pos, year);
+        buf[pos++] = '-';
+        pos = put2Digits(buf, pos, ld.getMonthValue());
+        buf[pos++] = '-';
+        return put2Digits(buf, pos, ld.getDayOfMonth());
+    }
+
+    /** Writes the time as hh:mm:ss, optionally followed by milliseconds, into buf, starting at pos. The array must have space for 12 characters.
+     * @return the position after the last character written */
+    public static int writeLocalTime(final char[] buf, int pos, final LocalTime lt, final boolean outputFractionalSeconds, final boolean alwaysOutputFractionals) {
+        pos = put2Digits(buf, pos, lt.getHour());
+        buf[pos++] = ':';
+        pos = put2Digits(buf, pos, lt.getMinute());
+        buf[pos++] = ':';
+        pos = put2Digits(buf, pos, lt.getSecond());
+        if (outputFractionalSeconds) {
+            final int millis = lt.getNano() / 1000000;
+            if (alwaysOutputFractionals || millis != 0) {
+                buf[pos++] = '.';
+                buf[pos++] = (char)('0' + millis / 100);
+                pos = put2Digits(buf, pos, millis);
+            }
+        }
+        return pos;
+    }
+
+    /** Writes the timestamp in ISO format into buf, starting at pos.
+     * The array must have space for MAX_LENGTH_OF_ISO_DATE_TIME characters plus the length of the time zone suffix.
+     * @return the position after the last character written */
+    public static int writeLocalDateTime(final char[] buf, int pos, final LocalDateTime ldt, final boolean outputFractionalSeconds,
+      final boolean alwaysOutputFractionals, final String addSuffixTimezone) {
+        pos = writeLocalDate(buf, pos, ldt.toLocalDate());
+        buf[pos++] = 'T';
+        pos = writeLocalTime(buf, pos, ldt.toLocalTime(), outputFractionalSeconds, alwaysOutputFractionals);
+        if (addSuffixTimezone != null) {
+            final int len = addSuffixTimezone.length();
+            addSuffixTimezone.getChars(0, len, buf, pos);
+            pos += len;
+        }
+        return pos;
+    }
+
+    private static int put2Digits(final byte[] buf, final int pos, final int n) {
+        buf[pos]     = (byte)('0' + (n / 10) % 10);
+        buf[pos + 1] = (byte)('0' + n % 10);
+        return pos + 2;
+    }
+
+    private static int putLocalDate(final byte[] buf, int pos, final LocalDate ld) {
+        final int year = ld.getYear();
+        pos = put2Digits(buf, pos, year / 100);
+        pos = put2Digits(buf, pos, year);
+        buf[pos++] = '-';
+        pos = put2Digits(buf, pos, ld.getMonthValue());
+        buf[pos++] = '-';
+        return put2Digits(buf, pos, ld.getDayOfMonth());
+    }
+
+    private static int putLocalTime(final byte[] buf, int pos, final LocalTime lt, final boolean outputFractionalSeconds, final boolean alwaysOutputFractionals) {
+        pos = put2Digits(buf, pos, lt.getHour());
+        buf[pos++] = ':';
+        pos = put2Digits(buf, pos, lt.getMinute());
+        buf[pos++] = ':';
+        pos = put2Digits(buf, pos, lt.getSecond());
+        if (outputFractionalSeconds) {
+            final int millis = lt.getNano() / 1000000;
+            if (alwaysOutputFractionals || millis != 0) {
+                buf[pos++] = '.';
+                buf[pos++] = (byte)('0' + millis / 100);
+                pos = put2Digits(buf, pos, millis);
+            }
+        }
+        return pos;
+    }
+
+    /** Appends the date as yyyy-mm-dd to the ByteBuilder. */
+    public static void appendLocalDate(final ByteBuilder b, final LocalDate ld) {
+        final int pos = b.length();
+        b.ensureCapacity(pos + LENGTH_OF_ISO_DATE);
+        b.setLength(putLocalDate(b.getCurrentBuffer(), pos, ld));
+    }
+
+    /** Appends the time as hh:mm:ss, optionally followed by milliseconds, to the ByteBuilder. */
+    public static void appendLocalTime(final ByteBuilder b, final LocalTime lt, final boolean outputFractionalSeconds, final boolean alwaysOutputFractionals) {
+        final int pos = b.length();
+        b.ensureCapacity(pos + 12);
+        b.setLength(putLocalTime(b.getCurrentBuffer(), pos, lt, outputFractionalSeconds, alwaysOutputFractionals));
+    }
+
+    /** Appends the timestamp in ISO format to the ByteBuilder. The time zone suffix (if not null) must consist of ASCII characters. */
+    public static void appendLocalDateTime(final ByteBuilder b, final LocalDateTime ldt, final boolean outputFractionalSeconds,
+      final boolean alwaysOutputFractionals, final String addSuffixTimezone) {
+        int pos = b.length();
+        b.ensureCapacity(pos + MAX_LENGTH_OF_ISO_DATE_TIME);
+        final byte[] buf = b.getCurrentBuffer();
+        pos = putLocalDate(buf, pos, ldt.toLocalDate());
+        buf[pos++] = 'T';
+        b.setLength(putLocalTime(buf, pos, ldt.toLocalTime(), outputFractionalSeconds, alwaysOutputFractionals));
+        if (addSuffixTimezone != null) {
+            b.appendAscii(addSuffixTimezone);
+        }
+    }
+
+    // parsers: fast paths for CharSequences
+
+    // returns the value of the 2 digits at pos, or a negative value if any of them is not a digit
+    private static int digits2(final CharSequence s, final int pos) {
+        final int d1 = s.charAt(pos) - '0';
+        final int d2 = s.charAt(pos + 1) - '0';
+        return (d1 | d2 | (9 - d1) | (9 - d2)) < 0 ? -1 : d1 * 10 + d2;
+    }
+
+    // parses yyyy-mm-dd at offset, returns null if the input has a different format or an invalid date
+    private static LocalDate fastLocalDate(final CharSequence s, final int offset) {
+        final int y1 = digits2(s, offset);
+        final int y2 = digits2(s, offset + 2);
+        final int m  = digits2(s, offset + 5);
+        final int d  = digits2(s, offset + 8);
+        if ((y1 | y2 | m | d) < 0 || s.charAt(offset + 4) != '-' || s.charAt(offset + 7) != '-')
+            return null;
+        try {
+            return LocalDate.of(y1 * 100 + y2, m, d);
+        } catch (final DateTimeException e) {
+            return null;            // let the JDK parser create the exception
+        }
+    }
+
+    // parses hh:mm, hh:mm:ss or hh:mm:ss.f (1 to 9 fractional digits), returns null if the input has a different format or an invalid time
+    private static LocalTime fastLocalTime(final CharSequence s, final int offset, final int end) {
+        final int len = end - offset;
+        if (len < 5 || s.charAt(offset + 2) != ':')
+            return null;
+        final int h = digits2(s, offset);
+        final int m = digits2(s, offset + 3);
+        int sec = 0;
+        int nanos = 0;
+        if (len > 5) {
+            if (len < 8 || s.charAt(offset + 5) != ':')
+                return null;
+            sec = digits2(s, offset + 6);
+            if (len > 8) {
+                final int digits = len - 9;
+                if (digits < 1 || digits > 9 || s.charAt(offset + 8) != '.')
+                    return null;
+                for (int i = 0; i < digits; ++i) {
+                    final int d = s.charAt(offset + 9 + i) - '0';
+                    if (d < 0 || d > 9)
+                        return null;
+                    nanos += d * NANO_SCALE[i];
+                }
+            }
+        }
+        if ((h | m | sec) < 0 || h > 23 || m > 59 || sec > 59)
+            return null;
+        return LocalTime.of(h, m, sec, nanos);
+    }
+
+    // returns the position of the first '.' in the range, or -1
+    private static int indexOfDot(final CharSequence s, final int offset, final int end) {
+        for (int i = offset; i < end; ++i) {
+            if (s.charAt(i) == '.')
+                return i;
+        }
+        return -1;
+    }
+
+    /** Parses an ISO date (yyyy-mm-dd). */
+    public static LocalDate parseLocalDate(final CharSequence s) {
+        return parseLocalDate(s, 0, s.length());
+    }
+
+    /** Parses an ISO date (yyyy-mm-dd) from a range of a CharSequence, without creating a substring. */
+    public static LocalDate parseLocalDate(final CharSequence s, final int offset, final int length) {
+        if (length == LENGTH_OF_ISO_DATE) {
+            final LocalDate ld = fastLocalDate(s, offset);
+            if (ld != null)
+                return ld;
+        }
+        return LocalDate.parse(s.subSequence(offset, offset + length));
+    }
+
     public static LocalTime parseLocalTime(final String time, final boolean ignoreFractionalSeconds) {
+        return parseLocalTime(time, 0, time.length(), ignoreFractionalSeconds);
+    }
+
+    /** Parses an ISO time from a range of a CharSequence, without creating a substring.
+     * If ignoreFractionalSeconds is set, anything starting at a decimal point is ignored. */
+    public static LocalTime parseLocalTime(final CharSequence s, final int offset, final int length, final boolean ignoreFractionalSeconds) {
+        int end = offset + length;
         if (ignoreFractionalSeconds) {
-            final int pos = time.indexOf('.');
-            if (pos > 0) {
+            final int pos = indexOfDot(s, offset, end);
+            if (pos > offset) {
                 // skipping UTC suffix is implied...
-                return LocalTime.parse(time.substring(0, pos));
+                end = pos;
             }
         }
-        return LocalTime.parse(time);
+        final LocalTime lt = fastLocalTime(s, offset, end);
+        return lt != null ? lt : LocalTime.parse(s.subSequence(offset, end));
     }
 
     public static LocalDateTime parseLocalDateTime(final String dateTime, final boolean ignoreFractionalSeconds, final boolean tolerateSuffixUTC,
       final boolean tolerateMissingTime) {
-        if (tolerateMissingTime) {
-            if (dateTime.length() == LENGTH_OF_ISO_DATE) {
-                final LocalDate justDate = LocalDate.parse(dateTime);
-                return LocalDateTime.of(justDate, LocalTime.MIDNIGHT);
+        return parseLocalDateTime(dateTime, 0, dateTime.length(), ignoreFractionalSeconds, tolerateSuffixUTC, tolerateMissingTime);
+    }
+
+    /** Parses an ISO timestamp from a range of a CharSequence, without creating a substring. */
+    public static LocalDateTime parseLocalDateTime(final CharSequence s, final int offset, final int length, final boolean ignoreFractionalSeconds,
+      final boolean tolerateSuffixUTC, final boolean tolerateMissingTime) {
+        if (tolerateMissingTime && length == LENGTH_OF_ISO_DATE) {
+            return LocalDateTime.of(parseLocalDate(s, offset, length), LocalTime.MIDNIGHT);
+        }
+        int end = offset + length;
+        final int dot = ignoreFractionalSeconds ? indexOfDot(s, offset, end) : -1;
+        if (dot > offset) {
+            // skipping UTC suffix is implied...
+            end = dot;
+        } else if (tolerateSuffixUTC && length > 0 && s.charAt(end - 1) == 'Z') {
+            --end;
+        }
+        if (end - offset > LENGTH_OF_ISO_DATE && s.charAt(offset + LENGTH_OF_ISO_DATE) == 'T') {
+            final LocalDate ld = fastLocalDate(s, offset);
+            if (ld != null) {
+                final LocalTime lt = fastLocalTime(s, offset + LENGTH_OF_ISO_DATE + 1, end);
+                if (lt != null)
+                    return LocalDateTime.of(ld, lt);
+            }
+        }
+        return LocalDateTime.parse(s.subSequence(offset, end));
+    }
+
+    // parsers: fast paths for byte arrays (ASCII / UTF-8 encoded data)
+
+    private static int digits2(final byte[] s, final int pos) {
+        final int d1 = s[pos] - '0';
+        final int d2 = s[pos + 1] - '0';
+        return (d1 | d2 | (9 - d1) | (9 - d2)) < 0 ? -1 : d1 * 10 + d2;
+    }
+
+    private static LocalDate fastLocalDate(final byte[] s, final int offset) {
+        final int y1 = digits2(s, offset);
+        final int y2 = digits2(s, offset + 2);
+        final int m  = digits2(s, offset + 5);
+        final int d  = digits2(s, offset + 8);
+        if ((y1 | y2 | m | d) < 0 || s[offset + 4] != '-' || s[offset + 7] != '-')
+            return null;
+        try {
+            return LocalDate.of(y1 * 100 + y2, m, d);
+        } catch (final DateTimeException e) {
+            return null;            // let the JDK parser create the exception
+        }
+    }
+
+    private static LocalTime fastLocalTime(final byte[] s, final int offset, final int end) {
+        final int len = end - offset;
+        if (len < 5 || s[offset + 2] != ':')
+            return null;
+        final int h = digits2(s, offset);
+        final int m = digits2(s, offset + 3);
+        int sec = 0;
+        int nanos = 0;
+        if (len > 5) {
+            if (len < 8 || s[offset + 5] != ':')
+                return null;
+            sec = digits2(s, offset + 6);
+            if (len > 8) {
+                final int digits = len - 9;
+                if (digits < 1 || digits > 9 || s[offset + 8] != '.')
+                    return null;
+                for (int i = 0; i < digits; ++i) {
+                    final int d = s[offset + 9 + i] - '0';
+                    if (d < 0 || d > 9)
+                        return null;
+                    nanos += d * NANO_SCALE[i];
+                }
             }
         }
+        if ((h | m | sec) < 0 || h > 23 || m > 59 || sec > 59)
+            return null;
+        return LocalTime.of(h, m, sec, nanos);
+    }
+
+    private static int indexOfDot(final byte[] s, final int offset, final int end) {
+        for (int i = offset; i < end; ++i) {
+            if (s[i] == '.')
+                return i;
+        }
+        return -1;
+    }
+
+    // only used for unusual input and for errors
+    private static String asString(final byte[] data, final int offset, final int end) {
+        return new String(data, offset, end - offset, StandardCharsets.ISO_8859_1);
+    }
+
+    /** Parses an ISO date (yyyy-mm-dd) from a range of a byte array. */
+    public static LocalDate parseLocalDate(final byte[] data, final int offset, final int length) {
+        if (length == LENGTH_OF_ISO_DATE) {
+            final LocalDate ld = fastLocalDate(data, offset);
+            if (ld != null)
+                return ld;
+        }
+        return LocalDate.parse(asString(data, offset, offset + length));
+    }
+
+    /** Parses an ISO time from a range of a byte array.
+     * If ignoreFractionalSeconds is set, anything starting at a decimal point is ignored. */
+    public static LocalTime parseLocalTime(final byte[] data, final int offset, final int length, final boolean ignoreFractionalSeconds) {
+        int end = offset + length;
         if (ignoreFractionalSeconds) {
-            final int pos = dateTime.indexOf('.');
-            if (pos > 0) {
-                // skipping UTC suffix is implied...
-                return LocalDateTime.parse(dateTime.substring(0, pos));
+            final int pos = indexOfDot(data, offset, end);
+            if (pos > offset) {
+                end = pos;
             }
         }
-        if (tolerateSuffixUTC) {
-            final int len = dateTime.length();
-            if (len > 0 && dateTime.charAt(len - 1) == 'Z') {
-                return LocalDateTime.parse(dateTime.substring(0, len - 1));
+        final LocalTime lt = fastLocalTime(data, offset, end);
+        return lt != null ? lt : LocalTime.parse(asString(data, offset, end));
+    }
+
+    /** Parses an ISO timestamp from a range of a byte array. */
+    public static LocalDateTime parseLocalDateTime(final byte[] data, final int offset, final int length, final boolean ignoreFractionalSeconds,
+      final boolean tolerateSuffixUTC, final boolean tolerateMissingTime) {
+        if (tolerateMissingTime && length == LENGTH_OF_ISO_DATE) {
+            return LocalDateTime.of(parseLocalDate(data, offset, length), LocalTime.MIDNIGHT);
+        }
+        int end = offset + length;
+        final int dot = ignoreFractionalSeconds ? indexOfDot(data, offset, end) : -1;
+        if (dot > offset) {
+            end = dot;
+        } else if (tolerateSuffixUTC && length > 0 && data[end - 1] == 'Z') {
+            --end;
+        }
+        if (end - offset > LENGTH_OF_ISO_DATE && data[offset + LENGTH_OF_ISO_DATE] == 'T') {
+            final LocalDate ld = fastLocalDate(data, offset);
+            if (ld != null) {
+                final LocalTime lt = fastLocalTime(data, offset + LENGTH_OF_ISO_DATE + 1, end);
+                if (lt != null)
+                    return LocalDateTime.of(ld, lt);
             }
         }
-        return LocalDateTime.parse(dateTime);
+        return LocalDateTime.parse(asString(data, offset, end));
     }
 }
@@ -0,0 +1,139 @@
+package de.jpaw.util;
+
+import java.util.function.BiConsumer;
+
+/**
+ * A hash table with primitive int keys, using open addressing with linear probing, and a registration counter per key.
+ * It is intended for registries which are populated during startup and read frequently afterwards, such as the
+ * error code descriptions of {@link ApplicationException}.
+ * <p>
+ * Reads are lock-free and allocation-free, modifications are synchronized. The slots are replaced as a whole when the table grows,
+ * and the reference to them is volatile, therefore readers always see a consistent table.
+ * A reader which runs concurrently to a registration of a new key may not see that key yet.
+ * Null values are not supported, a null value denotes an empty slot.
+ */
+final class IntKeyTable<V> {
+    private static final class Slots {
+        private final int[] keys;
+        private final Object[] values;
+        private final int[] counts;
+        private final int shift;
+
+        private Slots(final int capacity) {
+            keys = new int[capacity];
+            values = new Object[capacity];
+            counts = new int[capacity];
+            shift = Integer.numberOfLeadingZeros(capacity - 1);
+        }
+
+        // Fibonacci hashing, spreads the regular patterns of error codes (multiples of 1000) well
+        private int indexOf(final int key) {
+            int i = (key * 0x9E3779B9) >>> shift;
+            final int mask = keys.length - 1;
+            while (values[i] != null && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+    }
+
+    private volatile Slots slots;
+    private int size;
+
+    /** Creates a table which can hold the expected number of keys without growing. */
+    IntKeyTable(final int expectedSize) {
+        int capacity = 16;
+        while (capacity < 2 * expectedSize) {
+            capacity <<= 1;
+        }
+        slots = new Slots(capacity);
+    }
+
+    /** Returns the value stored for the key, or null. */
+    @SuppressWarnings("unchecked")
+    V get(final int key) {
+        final Slots s = slots;
+        return (V) s.values[s.indexOf(key)];
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /** Stores a value, increments the counter, and returns the previous value, or null. */
+    @SuppressWarnings("unchecked")
+    synchronized V put(final int key, final V value) {
+        return (V) store(key, value, true);
+    }
+
+    /** Stores a value if the key is not yet present. Returns the value stored for the key after the call. */
+    @SuppressWarnings("unchecked")
+    synchronized V putIfAbsent(final int key, final V value) {
+        final Object old = store(key, value, false);
+        return old != null ? (V) old : value;
+    }
+
+    private Object store(final int key, final Object value, final boolean overwrite) {
+        if (value == null)
+            throw new NullPointerException("null values are not supported");
+        Slots s = slots;
+        int i = s.indexOf(key);
+        final Object old = s.values[i];
+        if (old == null) {
+            if (2 * (size + 1) > s.keys.length) {
+                s = grow(s);
+                i = s.indexOf(key);
+            }
+            ++size;
+            s.keys[i] = key;        // key before value, a reader seeing the value also sees a matching key
+        } else if (!overwrite) {
+            return old;
+        }
+        s.counts[i]++;
+        s.values[i] = value;
+        slots = s;                  // volatile write publishes the modification
+        return old;
+    }
+
+    private Slots grow(final Slots s) {
+        final Slots larger = new Slots(2 * s.keys.length);
+        for (int j = 0; j < s.keys.length; ++j) {
+            if (s.values[j] != null) {
+                final int i = larger.indexOf(s.keys[j]);
+                larger.keys[i] = s.keys[j];
+                larger.values[i] = s.values[j];
+                larger.counts[i] = s.counts[j];
+            }
+        }
+        return larger;
+    }
+
+    /** Invokes the processor for all entries, in no particular order. */
+    @SuppressWarnings("unchecked")
+    void forEach(final BiConsumer<Integer, ? super V> processor) {
+        final Slots s = slots;
+        for (int i = 0; i < s.keys.length; ++i) {
+            final Object value = s.values[i];
+            if (value != null) {
+                processor.accept(s.keys[i], (V) value);
+            }
+        }
+    }
+
+    /** Functional interface to process entries including their registration count, without boxing of the key. */
+    interface EntryProcessor<V> {
+        void accept(int key, V value, int count);
+    }
+
+    /** Invokes the processor for all entries, in no particular order. */
+    @SuppressWarnings("unchecked")
+    void forEachWithCount(final EntryProcessor<? super V> processor) {
+        final Slots s = slots;
+        for (int i = 0; i < s.keys.length; ++i) {
+            final Object value = s.values[i];
+            if (value != null) {
+                processor.accept(s.keys[i], (V) value, s.counts[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package de.jpaw.util;
+
+import java.io.IOException;
+
+/**
+ * A table driven escaping engine, shared by the Java, JSON and serialization escapers.
+ * <p>
+ * ASCII characters (0x00 .. 0x7f) are mapped via a table of escape sequences (null means the character is copied unchanged),
+ * characters starting at a configurable threshold are written as Unicode escapes <code>\\uXXXX</code>,
+ * and all other characters are copied unchanged.
+ * <p>
+ * The methods first scan for the first character which requires escaping, because for the vast majority of data there is none.
+ * In that case, {@link #escape(String)} returns the original instance, and the append methods copy the data in a single step.
+ * Otherwise, runs of unchanged characters are copied as a whole, into the caller supplied target.
+ * <p>
+ * Instances are immutable and thread-safe.
+ */
+public final class StringEscaper {
+    private static final char[] HEX_UPPER = "0123456789ABCDEF".toCharArray();
+    private static final char[] HEX_LOWER = "0123456789abcdef".toCharArray();
+
+    /** Escapes as Java string literals (compatible to Apache commons <code>StringEscapeUtils.escapeJava</code>). */
+    public static final StringEscaper JAVA;
+
+    /** Escapes as JSON strings, non-ASCII characters are written unchanged. */
+    public static final StringEscaper JSON;
+
+    /** Escapes as JSON strings, non-ASCII characters are written as Unicode escapes. */
+    public static final StringEscaper JSON_ASCII;
+
+    static {
+        final String[] java = new String[128];
+        java['\b'] = "\\b";
+        java['\t'] = "\\t";
+        java['\n'] = "\\n";
+        java['\f'] = "\\f";
+        java['\r'] = "\\r";
+        java['\"'] = "\\\"";
+        java['\\'] = "\\\\";
+        for (int i = 0; i < 32; ++i) {
+            if (java[i] == null)
+                java[i] = unicodeEscape(i, HEX_UPPER);
+        }
+        java[0x7f] = unicodeEscape(0x7f, HEX_UPPER);
+        JAVA = new StringEscaper(java, 0x80, true);
+
+        final String[] json = new String[128];
+        json['\b'] = "\\b";
+        json['\f'] = "\\f";
+        json['\r'] = "\\r";
+        json['\n'] = "\\n";
+        json['\t'] = "\\t";
+        json['\"'] = "\\\"";
+        json['\\'] = "\\\\";
+        for (int i = 0; i < 32; ++i) {
+            if (json[i] == null)
+                json[i] = unicodeEscape(i, HEX_LOWER);
+        }
+        JSON       = new StringEscaper(json, 0x10000, false);
+        JSON_ASCII = new StringEscaper(json, 0x80, false);
+    }
+
+    private final String[] asciiEscapes;    // escape sequence per ASCII character, or null
+    private final int unicodeEscapeFrom;    // characters with a code of at least this value are written as Unicode escapes
+    private final char[] hexDigits;
+
+    private static String unicodeEscape(final int c, final char[] hex) {
+        return new String(new char[] { '\\', 'u', hex[0xf & (c >> 12)], hex[0xf & (c >> 8)], hex[0xf & (c >> 4)], hex[0xf & c] });
+    }
+
+    /**
+     * Creates a new escaper.
+     *
+     * @param asciiEscapes
+     *            the escape sequences for the characters 0x00 to 0x7f, null entries denote characters which are not escaped.
+     *            The array may be shorter than 128 entries, it is copied.
+     * @param unicodeEscapeFrom
+     *            the lowest character code which is written as Unicode escape sequence. Use 0x10000 to disable Unicode escapes.
+     * @param upperCaseHex
+     *            if true, upper case hex digits are used for Unicode escapes, else lower case
+     */
+    public StringEscaper(final String[] asciiEscapes, final int unicodeEscapeFrom, final boolean upperCaseHex) {
+        if (asciiEscapes.length > 128)
+            throw new IllegalArgumentException("Escape table covers more than the ASCII range: " + asciiEscapes.length);
+        if (unicodeEscapeFrom < 0x80)
+            throw new IllegalArgumentException("Unicode escapes must start above the ASCII range: " + unicodeEscapeFrom);
+        this.asciiEscapes = new String[128];
+        System.arraycopy(asciiEscapes, 0, this.asciiEscapes, 0, asciiEscapes.length);
+        this.unicodeEscapeFrom = unicodeEscapeFrom;
+        this.hexDigits = upperCaseHex ? HEX_UPPER : HEX_LOWER;
+    }
+
+    /** Returns true if the character must be escaped. */
+    private boolean needsEscape(final char c) {
+        return c < 128 ? asciiEscapes[c] != null : c >= unicodeEscapeFrom;
+    }
+
+    /** Returns the index of the first character which requires escaping, or -1 if the sequence can be output unchanged. */
+    public int indexOfFirstEscape(final CharSequence s) {
+        final int len = s.length();
+        for (int i = 0; i < len; ++i) {
+            if (needsEscape(s.charAt(i)))
+                return i;
+        }
+        return -1;
+    }
+
+    /** Returns the escaped string. If no character requires escaping, the parameter itself is returned, and nothing is allocated. */
+    public String escape(final String s) {
+        final int first = indexOfFirstEscape(s);
+        if (first < 0)
+            return s;
+        final StringBuilder sb = new StringBuilder(s.length() + 16);
+        sb.append(s, 0, first);
+        appendFrom(sb, s, first);
+        return sb.toString();
+    }
+
+    /** Appends the escaped sequence to a StringBuilder. */
+    public void appendEscaped(final StringBuilder sb, final CharSequence s) {
+        final int first = indexOfFirstEscape(s);
+        if (first < 0) {
+            sb.append(s);
+        } else {
+            sb.append(s, 0, first);
+            appendFrom(sb, s, first);
+        }
+    }
+
+    /** Appends the escaped sequence to an Appendable. */
+    public void appendEscaped(final Appendable a, final CharSequence s) throws IOException {
+        if (a instanceof StringBuilder) {
+            appendEscaped((StringBuilder) a, s);
+            return;
+        }
+        final int len = s.length();
+        int start = 0;                  // start of the current run of unchanged characters
+        for (int i = indexOfFirstEscape(s); i >= 0 && i < len; ++i) {
+            final char c = s.charAt(i);
+            if (needsEscape(c)) {
+                if (i > start)
+                    a.append(s, start, i);
+                if (c < 128) {
+                    a.append(asciiEscapes[c]);
+                } else {
+                    a.append('\\').append('u')
+                     .append(hexDigits[0xf & (c >> 12)]).append(hexDigits[0xf & (c >> 8)])
+                     .append(hexDigits[0xf & (c >> 4)]).append(hexDigits[0xf & c]);
+                }
+                start = i + 1;
+            }
+        }
+        if (start < len)
+            a.append(s, start, len);
+    }
+
+    // the StringBuilder version of the loop, to avoid the IOException and the interface calls
+    private void appendFrom(final StringBuilder sb, final CharSequence s, final int first) {
+        final int len = s.length();
+        int start = first;
+        for (int i = first; i < len; ++i) {
+            final char c = s.charAt(i);
+            if (needsEscape(c)) {
+                if (i > start)
+                    sb.append(s, start, i);
+                if (c < 128) {
+                    sb.append(asciiEscapes[c]);
+                } else {
+                    sb.append('\\').append('u')
+                      .append(hexDigits[0xf & (c >> 12)]).append(hexDigits[0xf & (c >> 8)])
+                      .append(hexDigits[0xf & (c >> 4)]).append(hexDigits[0xf & c]);
+                }
+                start = i + 1;
+            }
+        }
+        if (start < len)
+            sb.append(s, start, len);
+    }
+
+    /**
+     * Appends the escaped sequence to a ByteBuilder, in UTF-8 encoding (independent of the charset configured for the ByteBuilder).
+     * Unpaired surrogates are written as '?', as done by {@link String#getBytes(java.nio.charset.Charset)}.
+     */
+    public void appendEscaped(final ByteBuilder b, final CharSequence s) {
+        final int len = s.length();
+        int pos = b.length();
+        b.ensureCapacity(pos + len);            // sufficient for ASCII data without escapes
+        byte[] buffer = b.getCurrentBuffer();
+        for (int i = 0; i < len; ++i) {
+            final char c = s.charAt(i);
+            if (c < 128 && asciiEscapes[c] == null) {
+                if (pos >= buffer.length) {
+                    b.setLength(pos);
+                    b.ensureCapacity(pos + (len - i) + 16);
+                    buffer = b.getCurrentBuffer();
+                }
+                buffer[pos++] = (byte) c;
+                continue;
+            }
+            // slow path: up to 6 bytes per character
+            if (pos + 6 > buffer.length) {
+                b.setLength(pos);
+                b.ensureCapacity(pos + (len - i) + 16);
+                buffer = b.getCurrentBuffer();
+            }
+            if (c < 128) {
+                final String esc = asciiEscapes[c];
+                for (int j = 0; j < esc.length(); ++j) {
+                    if (pos >= buffer.length) {
+                        b.setLength(pos);
+                        b.ensureCapacity(pos + esc.length() + (len - i) + 16);
+                        buffer = b.getCurrentBuffer();
+                    }
+                    buffer[pos++] = (byte) esc.charAt(j);
+                }
+            } else if (c >= unicodeEscapeFrom) {
+                buffer[pos++] = '\\';
+                buffer[pos++] = 'u';
+                buffer[pos++] = (byte) hexDigits[0xf & (c >> 12)];
+                buffer[pos++] = (byte) hexDigits[0xf & (c >> 8)];
+                buffer[pos++] = (byte) hexDigits[0xf & (c >> 4)];
+                buffer[pos++] = (byte) hexDigits[0xf & c];
+            } else if (c < 0x800) {
+                buffer[pos++] = (byte) (0xc0 | (c >> 6));
+                buffer[pos++] = (byte) (0x80 | (c & 0x3f));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    final int cp = Character.toCodePoint(c, s.charAt(++i));
+                    buffer[pos++] = (byte) (0xf0 | (cp >> 18));
+                    buffer[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+                    buffer[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+                    buffer[pos++] = (byte) (0x80 | (cp & 0x3f));
+                } else {
+                    buffer[pos++] = '?';
+                }
+            } else {
+                buffer[pos++] = (byte) (0xe0 | (c >> 12));
+                buffer[pos++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                buffer[pos++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        b.setLength(pos);
+    }
+}
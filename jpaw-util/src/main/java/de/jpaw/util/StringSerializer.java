@@ -12,6 +12,25 @@ public final class StringSerializer {
      */
     protected static final char ESC = '\\';
 
+    /** Escapes tabs in Java notation, other control characters as backslash plus a letter, and the backslash itself. */
+    private static final StringEscaper CONTROL_CHAR_ESCAPER;
+
+    /** Escapes control characters as a letter in angle brackets. */
+    private static final StringEscaper ALT_CONTROL_CHAR_ESCAPER;
+
+    static {
+        final String[] escapes = new String[128];
+        final String[] altEscapes = new String[128];
+        for (int i = 0; i < 32; ++i) {
+            escapes[i] = new String(new char[] { ESC, (char) (i + 64) });
+            altEscapes[i] = new String(new char[] { '<', (char) (i + 64), '>' });
+        }
+        escapes['\t'] = "\\t";
+        escapes[ESC] = "\\\\";
+        CONTROL_CHAR_ESCAPER = new StringEscaper(escapes, 0x10000, false);
+        ALT_CONTROL_CHAR_ESCAPER = new StringEscaper(altEscapes, 0x10000, false);
+    }
+
     /**
      * Converts a bonaPortable provided with a Stringbuilder to a simple string representation. All bonaportable control characters, tabs and backslashes are
      * converted to escaped chars.
@@ -21,25 +40,27 @@ public final class StringSerializer {
      * @return the converted bonaportable
      */
     public static String toString(final StringBuilder builder) {
-        final StringBuilder result = new StringBuilder();
-        for (final char c : builder.toString().toCharArray()) {
-            if (c == '\t') {
-                // special handling for tabs that only appear in ascii/unicode fields. We want java notation
-                result.append("\\t");
-            } else if (c < 32) {
-                // all chars 0..31 are control chars, prefix with \ and shift value to letter space (+64)
-                result.append('\\').append((char) (c + 64));
-            } else if (c == '\\') {
-                // escape the escape char
-                result.append("\\\\");
-            } else {
-                // leave everything else untouched
-                result.append(c);
-            }
-        }
+        if (CONTROL_CHAR_ESCAPER.indexOfFirstEscape(builder) < 0)
+            return builder.toString();
+        final StringBuilder result = new StringBuilder(builder.length() + 16);
+        CONTROL_CHAR_ESCAPER.appendEscaped(result, builder);
         return result.toString();
     }
 
+    /**
+     * Appends the escaped representation of a bonaPortable to a StringBuilder, without intermediate copies.
+     */
+    public static void appendEscaped(final StringBuilder result, final CharSequence data) {
+        CONTROL_CHAR_ESCAPER.appendEscaped(result, data);
+    }
+
+    /**
+     * Appends the escaped representation of a bonaPortable to a ByteBuilder, in UTF-8 encoding.
+     */
+    public static void appendEscaped(final ByteBuilder result, final CharSequence data) {
+        CONTROL_CHAR_ESCAPER.appendEscaped(result, data);
+    }
+
     /**
      * Converts a bonaPortable provided with a simple String representation to Stringbuilder.
      */
@@ -69,19 +90,7 @@ public final class StringSerializer {
     }
 
     public static String altToString(final String src) {
-        final StringBuilder result = new StringBuilder();
-        final int i = 0;
-        while (i < src.length()) {
-            final char c = src.charAt(i);
-            if (c < 32) {
-                // escaped
-                result.append('<').append((char) (c + 64)).append('>');
-            } else {
-                // leave everything else untouched
-                result.append(c);
-            }
-        }
-        return result.toString();
+        return ALT_CONTROL_CHAR_ESCAPER.escape(src);
     }
 
     /**
@@ -0,0 +1,199 @@
+package de.jpaw.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.jpaw.api.ConfigurationReader;
+
+/**
+ * A configuration reader based on a properties file, which serves all reads from an immutable {@link ConfigurationSnapshot}.
+ * The file can be reloaded explicitly via {@link #reload()}, or automatically by a file watcher (see {@link #startWatching()}).
+ * A reload atomically replaces the snapshot, and notifies the registered listeners if the file contents has changed.
+ * <p>
+ * Components which need their settings on every request should either keep the snapshot obtained by {@link #getSnapshot()} for the
+ * duration of the request (for a consistent view), store their settings in fields and update them from a listener,
+ * or obtain a {@link Handle} for each hot key, which always refers to the value of the current snapshot.
+ * <p>
+ * If the file cannot be read, the previous snapshot (or an empty one, initially) is kept.
+ */
+public class WatchingConfigurationReader implements ConfigurationReader, Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WatchingConfigurationReader.class);
+
+    private final Path file;
+    private final List<Consumer<ConfigurationSnapshot>> listeners = new CopyOnWriteArrayList<>();
+    private final List<Handle> handles = new CopyOnWriteArrayList<>();
+    private volatile ConfigurationSnapshot snapshot;
+    private WatchService watchService;      // only set while watching
+    private Thread watcherThread;
+
+    /** Creates a reader for the given properties file and loads it initially. No watcher is started. */
+    public WatchingConfigurationReader(final Path file) {
+        this.file = file.toAbsolutePath();
+        this.snapshot = new ConfigurationSnapshot(null);
+        reload();
+    }
+
+    /** A pre-resolved key. Reading the current value is a single (volatile) field access, the value is replaced on every reload. */
+    public static final class Handle {
+        private final String key;
+        private volatile ConfigurationSnapshot.Value value;
+
+        private Handle(final String key, final ConfigurationSnapshot.Value value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        /** Returns the value of the key in the current snapshot. */
+        public ConfigurationSnapshot.Value get() {
+            return value;
+        }
+    }
+
+    /** Returns the current snapshot. */
+    public ConfigurationSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /** Registers a listener, which is invoked with the new snapshot after every change of the file contents. */
+    public void addListener(final Consumer<ConfigurationSnapshot> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(final Consumer<ConfigurationSnapshot> listener) {
+        listeners.remove(listener);
+    }
+
+    /** Returns a handle for the given key, which is updated whenever the snapshot is replaced. Handles should be created once and stored. */
+    public synchronized Handle getHandle(final String key) {
+        final Handle handle = new Handle(key, snapshot.getValue(key));
+        handles.add(handle);
+        return handle;
+    }
+
+    /** Reads the file again and replaces the snapshot. Returns true if the file could be read. */
+    public synchronized boolean reload() {
+        final Properties props = new Properties();
+        try (InputStream is = Files.newInputStream(file)) {
+            props.load(is);
+        } catch (final IOException e) {
+            LOGGER.warn("Cannot read properties from {}, keeping previous configuration: {} {}", file, e.getMessage(), ExceptionUtil.causeChain(e));
+            return false;
+        }
+        final ConfigurationSnapshot previous = snapshot;
+        final ConfigurationSnapshot current = new ConfigurationSnapshot(props);
+        snapshot = current;
+        for (final Handle handle : handles) {
+            handle.value = current.getValue(handle.key);
+        }
+        if (!current.samePropertiesAs(previous)) {
+            LOGGER.info("Loaded properties from file {} with {} values", file, props.size());
+            for (final Consumer<ConfigurationSnapshot> listener : listeners) {
+                try {
+                    listener.accept(current);
+                } catch (final RuntimeException e) {
+                    LOGGER.error("Configuration listener failed: {} {}", e.getMessage(), ExceptionUtil.causeChain(e));
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Starts a daemon thread which reloads the file whenever it is modified. Calling this method again has no effect. */
+    public synchronized void startWatching() throws IOException {
+        if (watchService != null)
+            return;
+        final Path directory = file.getParent();
+        final Path name = file.getFileName();
+        final WatchService ws = FileSystems.getDefault().newWatchService();
+        directory.register(ws, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        watchService = ws;
+        watcherThread = new Thread(() -> {
+            try {
+                for (;;) {
+                    final WatchKey key = ws.take();
+                    boolean changed = false;
+                    for (final WatchEvent<?> event : key.pollEvents()) {
+                        if (name.equals(event.context()) || event.kind() == StandardWatchEventKinds.OVERFLOW)
+                            changed = true;
+                    }
+                    if (changed)
+                        reload();
+                    if (!key.reset())
+                        break;      // directory no longer accessible
+                }
+            } catch (final InterruptedException | ClosedWatchServiceException e) {
+                // stopped
+            }
+        }, "config-watcher-" + name);
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+        LOGGER.info("Watching {} for changes", file);
+    }
+
+    /** Stops the file watcher, if running. */
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+            watcherThread.interrupt();
+            watchService = null;
+            watcherThread = null;
+        }
+    }
+
+    @Override
+    public String getProperty(final String key) {
+        return snapshot.getProperty(key);
+    }
+
+    @Override
+    public String getProperty(final String key, final String defaultValue) {
+        return snapshot.getProperty(key, defaultValue);
+    }
+
+    @Override
+    public Integer getIntProperty(final String key) {
+        return snapshot.getIntProperty(key);
+    }
+
+    @Override
+    public int getIntProperty(final String key, final int defaultValue) {
+        return snapshot.getIntProperty(key, defaultValue);
+    }
+
+    @Override
+    public Boolean getBooleanProperty(final String key) {
+        return snapshot.getBooleanProperty(key);
+    }
+
+    @Override
+    public boolean getBooleanProperty(final String key, final boolean defaultValue) {
+        return snapshot.getBooleanProperty(key, defaultValue);
+    }
+
+    @Override
+    public UUID getUUIDProperty(final String key) {
+        return snapshot.getUUIDProperty(key);
+    }
+}
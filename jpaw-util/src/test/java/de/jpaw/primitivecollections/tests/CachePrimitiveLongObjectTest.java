@@ -0,0 +1,68 @@
+package de.jpaw.primitivecollections.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.jpaw.primitivecollections.CachePrimitiveLongObject;
+
+public class CachePrimitiveLongObjectTest {
+
+    @Test
+    public void testPutGetRemove() throws Exception {
+        final CachePrimitiveLongObject<String> cache = new CachePrimitiveLongObject<>(100);
+        for (long i = 0; i < 50; ++i) {
+            Assertions.assertNull(cache.put(i * 1_000_000_007L, "v" + i));
+        }
+        Assertions.assertEquals(50, cache.size());
+        Assertions.assertEquals("v7", cache.get(7 * 1_000_000_007L));
+        Assertions.assertEquals("v7", cache.put(7 * 1_000_000_007L, "w7"));
+        Assertions.assertEquals("w7", cache.remove(7 * 1_000_000_007L));
+        Assertions.assertNull(cache.get(7 * 1_000_000_007L));
+        Assertions.assertEquals(49, cache.size());
+        Assertions.assertEquals(1, cache.getHitCount());
+        Assertions.assertEquals(1, cache.getMissCount());
+        cache.clear();
+        Assertions.assertEquals(0, cache.size());
+        Assertions.assertNull(cache.get(0L));
+    }
+
+    @Test
+    public void testClockEviction() throws Exception {
+        final List<Long> evicted = new ArrayList<>();
+        final CachePrimitiveLongObject<String> cache = new CachePrimitiveLongObject<>(4, Long.MAX_VALUE, null, (v, k) -> evicted.add(k));
+        for (long i = 1; i <= 4; ++i) {
+            cache.put(i, "v" + i);
+        }
+        cache.get(1L);                  // gives key 1 a second chance
+        cache.put(5L, "v5");            // evicts key 2
+        Assertions.assertEquals(List.of(2L), evicted);
+        Assertions.assertEquals(4, cache.size());
+        Assertions.assertEquals("v1", cache.get(1L));
+        Assertions.assertNull(cache.get(2L));
+        Assertions.assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testWeightLimit() throws Exception {
+        final CachePrimitiveLongObject<String> cache = new CachePrimitiveLongObject<>(100, 10, String::length, null);
+        cache.put(1L, "aaaa");
+        cache.put(2L, "bbbb");
+        Assertions.assertEquals(8, cache.weightedSize());
+        cache.put(3L, "cccc");
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertEquals(8, cache.weightedSize());
+        Assertions.assertFalse(cache.containsKey(1L));
+    }
+
+    @Test
+    public void testComputeIfAbsent() throws Exception {
+        final CachePrimitiveLongObject<String> cache = new CachePrimitiveLongObject<>(10);
+        Assertions.assertEquals("42", cache.computeIfAbsent(42L, Long::toString));
+        Assertions.assertEquals("42", cache.computeIfAbsent(42L, k -> "other"));
+        Assertions.assertNull(cache.computeIfAbsent(43L, k -> null));
+        Assertions.assertEquals(1, cache.size());
+    }
+}
@@ -0,0 +1,69 @@
+package de.jpaw.primitivecollections.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.jpaw.primitivecollections.SortedMapPrimitiveLongObject;
+
+public class SortedMapPrimitiveLongObjectTest {
+    private static final long NONE = Long.MIN_VALUE;
+
+    private static long orNone(final Long l) {
+        return l == null ? NONE : l.longValue();
+    }
+
+    @Test
+    public void testAgainstTreeMap() throws Exception {
+        final Random rnd = new Random(4711L);
+        final TreeMap<Long, String> ref = new TreeMap<>();
+        final SortedMapPrimitiveLongObject<String> map = new SortedMapPrimitiveLongObject<>();
+        for (int n = 0; n < 20000; ++n) {
+            final long key = rnd.nextInt(5000);
+            if (rnd.nextInt(4) == 0) {
+                Assertions.assertEquals(ref.remove(key), map.remove(key));
+            } else {
+                Assertions.assertEquals(ref.put(key, "v" + n), map.put(key, "v" + n));
+            }
+            if (n % 97 == 0) {
+                final long probe = rnd.nextInt(5200) - 100;
+                Assertions.assertEquals(ref.size(), map.size());
+                Assertions.assertEquals(ref.get(probe), map.get(probe));
+                Assertions.assertEquals(orNone(ref.floorKey(probe)), map.floorKey(probe, NONE));
+                Assertions.assertEquals(orNone(ref.ceilingKey(probe)), map.ceilingKey(probe, NONE));
+                Assertions.assertEquals(orNone(ref.lowerKey(probe)), map.lowerKey(probe, NONE));
+                Assertions.assertEquals(orNone(ref.higherKey(probe)), map.higherKey(probe, NONE));
+                final Map.Entry<Long, String> floor = ref.floorEntry(probe);
+                Assertions.assertEquals(floor == null ? null : floor.getValue(), map.floorValue(probe));
+
+                final List<Long> expected = new ArrayList<>(ref.subMap(probe, true, probe + 300, true).keySet());
+                final List<Long> actual = new ArrayList<>();
+                map.forEachInRange(probe, probe + 300, (v, k) -> actual.add(k));
+                Assertions.assertEquals(expected, actual);
+                Assertions.assertEquals(expected.size(), map.countInRange(probe, probe + 300));
+            }
+        }
+        Assertions.assertEquals(ref.firstKey().longValue(), map.firstKey());
+        Assertions.assertEquals(ref.lastKey().longValue(), map.lastKey());
+    }
+
+    @Test
+    public void testPutAllSorted() throws Exception {
+        final SortedMapPrimitiveLongObject<String> map = new SortedMapPrimitiveLongObject<>(0);
+        map.put(5L, "old5");
+        map.put(7L, "old7");
+        map.putAllSorted(new long[] { 1L, 5L, 9L }, new String[] { "1", "5", "9" }, 0, 3);
+        Assertions.assertEquals(4, map.size());
+        Assertions.assertEquals("5", map.get(5L));
+        Assertions.assertEquals("old7", map.get(7L));
+        Assertions.assertEquals(1L, map.firstKey());
+        Assertions.assertEquals(9L, map.lastKey());
+        Assertions.assertThrows(IllegalArgumentException.class,
+          () -> map.putAllSorted(new long[] { 3L, 2L }, new String[] { "3", "2" }, 0, 2));
+    }
+}
@@ -1,8 +1,12 @@
 package de.jpaw.util.tests;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import de.jpaw.util.ByteTestsASCII;
 import de.jpaw.util.CharTestsASCII;
 
 /** Tests for the various CharTestASCII checks. */
@@ -19,6 +23,17 @@ public class ASCIITest {
         Assertions.assertEquals(isPrintable,     CharTestsASCII.isPrintableByPattern(data));
         Assertions.assertEquals(isPrintableOrTab, CharTestsASCII.isPrintableOrTab(data));
         Assertions.assertEquals(isPrintableOrTab, CharTestsASCII.isPrintableOrTabByPattern(data));
+        Assertions.assertEquals(isDigits,        CharTestsASCII.isAllDigits(data));
+        Assertions.assertEquals(isUpper,         CharTestsASCII.isAllUpperCase(data));
+        Assertions.assertEquals(isLower,         CharTestsASCII.isAllLowerCase(data));
+        Assertions.assertEquals(isPrintable,     CharTestsASCII.isAsciiPrintable(data.toCharArray(), 0, data.length()));
+
+        final byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+        Assertions.assertEquals(isDigits,        ByteTestsASCII.isAllDigits(bytes, 0, bytes.length));
+        Assertions.assertEquals(isUpper,         ByteTestsASCII.isAllUpperCase(bytes, 0, bytes.length));
+        Assertions.assertEquals(isLower,         ByteTestsASCII.isAllLowerCase(bytes, 0, bytes.length));
+        Assertions.assertEquals(isPrintable,     ByteTestsASCII.isAsciiPrintable(bytes, 0, bytes.length));
+        Assertions.assertEquals(isPrintableOrTab, ByteTestsASCII.isAsciiPrintableOrTab(bytes, 0, bytes.length));
     }
 
     @Test
@@ -29,5 +44,61 @@ public class ASCIITest {
         runTest("hello",        false, false, true,  true,  true);
         runTest("HELLO",        false, true,  false, true,  true);
         runTest("HELLO\r\n",    false, false, false, false, false);
+        runTest("",             true,  true,  true,  true,  true);
+        runTest("12345678901234567890",         true,  false, false, true,  true);
+        runTest("1234567890123456789x",         false, false, false, true,  true);
+        runTest("ABCDEFGHIJKLMNOPQRSTUVWXYZ",   false, true,  false, true,  true);
+        runTest("abcdefghijklmnopqrstuvwxyz",   false, false, true,  true,  true);
+        runTest("The quick brown fox\tjumps",   false, false, false, false, true);
+        runTest("Gr\u00fc\u00dfe aus M\u00fcnchen!", false, false, false, false, false);
+        runTest("0123456789\u007f",             false, false, false, false, false);
+    }
+
+    // compares the word based range checks against the single byte / character checks, for all positions and lengths
+    @Test
+    public void testRangesAgainstSingleChecks() throws Exception {
+        final Random rnd = new Random(42L);
+        final byte[] data = new byte[40];
+        final char[] chars = new char[data.length];
+        for (int round = 0; round < 200; ++round) {
+            // mostly printable data, with a few exceptions
+            for (int i = 0; i < data.length; ++i) {
+                final int r = rnd.nextInt(100);
+                data[i] = (byte) (r < 3 ? 0x80 + rnd.nextInt(128) : r < 6 ? rnd.nextInt(0x20) : r < 8 ? 0x7f : r < 50 ? '0' + rnd.nextInt(10) : 0x20 + rnd.nextInt(0x5f));
+                chars[i] = (char) (data[i] & 0xff);
+            }
+            final String s = new String(chars);
+            for (int offset = 0; offset < 12; ++offset) {
+                for (int length = 0; offset + length <= data.length; ++length) {
+                    int firstNonAscii = -1;
+                    int firstNonPrintable = -1;
+                    boolean printableOrTab = true;
+                    boolean digits = true;
+                    for (int i = offset; i < offset + length; ++i) {
+                        if (firstNonAscii < 0 && data[i] < 0)
+                            firstNonAscii = i;
+                        if (firstNonPrintable < 0 && !ByteTestsASCII.isAsciiPrintable(data[i]))
+                            firstNonPrintable = i;
+                        printableOrTab &= ByteTestsASCII.isAsciiPrintableOrTab(data[i]);
+                        digits &= ByteTestsASCII.isAsciiDigit(data[i]);
+                    }
+                    Assertions.assertEquals(firstNonAscii,          ByteTestsASCII.firstNonAscii(data, offset, length));
+                    Assertions.assertEquals(firstNonPrintable,      ByteTestsASCII.firstNonPrintable(data, offset, length));
+                    Assertions.assertEquals(firstNonPrintable < 0,  ByteTestsASCII.isAsciiPrintable(data, offset, length));
+                    Assertions.assertEquals(printableOrTab,         ByteTestsASCII.isAsciiPrintableOrTab(data, offset, length));
+                    Assertions.assertEquals(digits,                 ByteTestsASCII.isAllDigits(data, offset, length));
+                    Assertions.assertEquals(firstNonAscii < 0,      ByteTestsASCII.isAscii(data, offset, length));
+
+                    final String sub = s.substring(offset, offset + length);
+                    Assertions.assertEquals(firstNonAscii,          CharTestsASCII.firstNonAscii(chars, offset, length));
+                    Assertions.assertEquals(firstNonAscii < 0 ? -1 : firstNonAscii - offset,         CharTestsASCII.firstNonAscii(sub));
+                    Assertions.assertEquals(firstNonPrintable < 0 ? -1 : firstNonPrintable - offset, CharTestsASCII.firstNonPrintable(sub));
+                    Assertions.assertEquals(firstNonPrintable < 0,  CharTestsASCII.isAsciiPrintable(chars, offset, length));
+                    Assertions.assertEquals(printableOrTab,         CharTestsASCII.isAsciiPrintableOrTab(sub));
+                    Assertions.assertEquals(digits,                 CharTestsASCII.isAllDigits(chars, offset, length));
+                    Assertions.assertEquals(digits,                 CharTestsASCII.isAllDigits(sub));
+                }
+            }
+        }
     }
 }
@@ -0,0 +1,139 @@
+package de.jpaw.util.tests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.jpaw.util.ApplicationException;
+
+public class ApplicationExceptionTest {
+    private static final int VALIDATION_CODE = ApplicationException.CL_VALIDATION_ERROR * ApplicationException.CLASSIFICATION_FACTOR + 99001;
+    private static final int PARAMETER_CODE  = ApplicationException.CL_PARAMETER_ERROR * ApplicationException.CLASSIFICATION_FACTOR + 99002;
+    private static final int LOGIC_CODE      = ApplicationException.CL_INTERNAL_LOGIC_ERROR * ApplicationException.CLASSIFICATION_FACTOR + 99003;
+
+    @Test
+    public void testDefaultHasStackTrace() {
+        Assertions.assertTrue(new ApplicationException(VALIDATION_CODE).getStackTrace().length > 0);
+        Assertions.assertTrue(new ApplicationException(VALIDATION_CODE, "details").getStackTrace().length > 0);
+        // the top frame is the caller, not the constructor
+        Assertions.assertEquals("testDefaultHasStackTrace", new ApplicationException(VALIDATION_CODE).getStackTrace()[0].getMethodName());
+    }
+
+    /** A subclass which never captures a stack trace, by overriding fillInStackTrace(). */
+    private static class TracelessException extends ApplicationException {
+        private static final long serialVersionUID = 1L;
+        private int errorCodeSeen;      // no initializer, as Throwable's constructor calls fillInStackTrace() before it would run
+
+        TracelessException(final int errorCode) {
+            super(errorCode);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            errorCodeSeen = getErrorCode();
+            return this;
+        }
+    }
+
+    @Test
+    public void testSubclassSuppressesStackTrace() {
+        final TracelessException e = new TracelessException(VALIDATION_CODE);
+        Assertions.assertEquals(0, e.getStackTrace().length);
+        // the override has also been called once the error code was known, and not only from Throwable's constructor
+        Assertions.assertEquals(VALIDATION_CODE, e.errorCodeSeen);
+    }
+
+    @Test
+    public void testCauseCanBeSet() {
+        final RuntimeException cause = new RuntimeException("c");
+        Assertions.assertSame(cause, new ApplicationException(VALIDATION_CODE).initCause(cause).getCause());
+        Assertions.assertSame(cause, new ApplicationException(VALIDATION_CODE, "details").initCause(cause).getCause());
+        Assertions.assertSame(cause, new ApplicationException(VALIDATION_CODE, "x", null, 3).initCause(cause).getCause());
+        Assertions.assertSame(cause, ApplicationException.stackless(VALIDATION_CODE, "details").initCause(cause).getCause());
+
+        // suppressed exceptions are recorded
+        final ApplicationException e = new ApplicationException(VALIDATION_CODE);
+        e.addSuppressed(cause);
+        Assertions.assertEquals(1, e.getSuppressed().length);
+    }
+
+    @Test
+    public void testStacklessCallSite() {
+        final ApplicationException e = ApplicationException.stackless(VALIDATION_CODE, "details");
+        Assertions.assertEquals(0, e.getStackTrace().length);
+        Assertions.assertEquals(VALIDATION_CODE, e.getErrorCode());
+        Assertions.assertEquals("details", e.getDetailedMessage());
+        // internal logic errors keep their stack trace
+        Assertions.assertTrue(ApplicationException.stackless(LOGIC_CODE, null).getStackTrace().length > 0);
+    }
+
+    @Test
+    public void testStacklessClassification() {
+        ApplicationException.setStacklessClassification(ApplicationException.CL_PARAMETER_ERROR, true);
+        try {
+            Assertions.assertTrue(ApplicationException.isStacklessClassification(ApplicationException.CL_PARAMETER_ERROR));
+            final long suppressedBefore = ApplicationException.getNumberOfStackTracesSuppressed();
+            Assertions.assertEquals(0, new ApplicationException(PARAMETER_CODE).getStackTrace().length);
+            Assertions.assertEquals(0, new ApplicationException(PARAMETER_CODE, "x", null, 3).getStackTrace().length);
+            Assertions.assertTrue(ApplicationException.getNumberOfStackTracesSuppressed() >= suppressedBefore + 2);
+            // other classifications are not affected
+            Assertions.assertTrue(new ApplicationException(VALIDATION_CODE).getStackTrace().length > 0);
+        } finally {
+            ApplicationException.setStacklessClassification(ApplicationException.CL_PARAMETER_ERROR, false);
+        }
+        Assertions.assertTrue(new ApplicationException(PARAMETER_CODE).getStackTrace().length > 0);
+
+        // cannot be set for internal logic errors
+        ApplicationException.setStacklessClassification(ApplicationException.CL_INTERNAL_LOGIC_ERROR, true);
+        Assertions.assertFalse(ApplicationException.isStacklessClassification(ApplicationException.CL_INTERNAL_LOGIC_ERROR));
+        Assertions.assertTrue(new ApplicationException(LOGIC_CODE).getStackTrace().length > 0);
+    }
+
+    @Test
+    public void testCachedInstances() {
+        final ApplicationException e1 = ApplicationException.cached(VALIDATION_CODE);
+        final long usedBefore = ApplicationException.getNumberOfCachedInstancesUsed();
+        final ApplicationException e2 = ApplicationException.cached(VALIDATION_CODE);
+        Assertions.assertSame(e1, e2);
+        Assertions.assertEquals(usedBefore + 1, ApplicationException.getNumberOfCachedInstancesUsed());
+        Assertions.assertEquals(0, e1.getStackTrace().length);
+
+        // the shared instance is immutable
+        e1.setStackTrace(new Throwable().getStackTrace());
+        e1.addSuppressed(new RuntimeException());
+        Assertions.assertEquals(0, e1.getStackTrace().length);
+        Assertions.assertEquals(0, e1.getSuppressed().length);
+        Assertions.assertThrows(IllegalStateException.class, () -> e1.initCause(new RuntimeException()));
+
+        // internal logic errors are never shared
+        Assertions.assertNotSame(ApplicationException.cached(LOGIC_CODE), ApplicationException.cached(LOGIC_CODE));
+    }
+
+    @Test
+    public void testRegistry() {
+        final int base = 99100;
+        final int numberOfCodesBefore = ApplicationException.getNumberOfErrorCodes();
+        for (int i = 1; i <= 500; ++i) {
+            ApplicationException.registerCode(ApplicationException.CL_DENIED * ApplicationException.CLASSIFICATION_FACTOR + base + i, "Description " + i);
+        }
+        Assertions.assertEquals(numberOfCodesBefore + 500, ApplicationException.getNumberOfErrorCodes());
+        for (int i = 1; i <= 500; ++i) {
+            Assertions.assertEquals("Description " + i,
+              ApplicationException.codeToString(ApplicationException.CL_DENIED * ApplicationException.CLASSIFICATION_FACTOR + base + i));
+        }
+        Assertions.assertEquals("unknown code", ApplicationException.codeToString(ApplicationException.CL_DENIED * ApplicationException.CLASSIFICATION_FACTOR + base + 501));
+        Assertions.assertFalse(ApplicationException.checkForDuplicates());
+
+        // the same base value in a different classification is a duplicate
+        ApplicationException.registerCode(ApplicationException.CL_TIMEOUT * ApplicationException.CLASSIFICATION_FACTOR + base + 7, "Duplicate");
+        Assertions.assertTrue(ApplicationException.checkForDuplicates());
+    }
+
+    @Test
+    public void testRanges() {
+        ApplicationException.registerRange(98000, false, ApplicationException.class, ApplicationException.ApplicationLevelType.CORE_LIBRARY, "small");
+        ApplicationException.registerRange(970000, true, ApplicationException.class, ApplicationException.ApplicationLevelType.APPLICATION, "big");
+        Assertions.assertEquals("small", ApplicationException.getRangeInfoForExceptionCode(VALIDATION_CODE - 99001 + 98123).description());
+        Assertions.assertEquals("big", ApplicationException.getRangeInfoForExceptionCode(PARAMETER_CODE - 99002 + 975555).description());
+        Assertions.assertNull(ApplicationException.getRangeInfoForExceptionCode(PARAMETER_CODE - 99002 + 960001));
+    }
+}
@@ -1,11 +1,23 @@
 package de.jpaw.util.tests;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.util.Arrays;
+import java.util.Random;
 
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import de.jpaw.util.Base64;
+import de.jpaw.util.Base64Channel;
+import de.jpaw.util.Base64InputStream;
+import de.jpaw.util.Base64OutputStream;
 import de.jpaw.util.ByteBuilder;
+import de.jpaw.util.ByteBuilderOutputStream;
 
 public class Base64Test {
 
@@ -36,4 +48,99 @@ public class Base64Test {
 
         }
     }
+
+    private static byte[] randomBytes(int length) {
+        byte[] data = new byte[length];
+        new Random(length).nextBytes(data);
+        return data;
+    }
+
+    @Test
+    public void testEncodeWithOffsetAndDecodeInto() throws Exception {
+        byte[] data = randomBytes(20);
+        for (int len = 0; len <= 14; ++len) {
+            ByteBuilder encoded = new ByteBuilder();
+            Base64.encodeToByte(encoded, data, 5, len);
+            ByteBuilder decoded = new ByteBuilder();
+            decoded.append((byte)42);
+            Assertions.assertEquals(len, Base64.decodeInto(decoded, encoded.getCurrentBuffer(), 0, encoded.length()));
+            Assertions.assertArrayEquals(Arrays.copyOfRange(data, 5, 5 + len), Arrays.copyOfRange(decoded.getBytes(), 1, 1 + len));
+        }
+        Assertions.assertEquals(-1, Base64.decodeInto(new ByteBuilder(), new byte[] { 'A', 'B', 'C' }, 0, 3));
+    }
+
+    @Test
+    public void testStreams() throws Exception {
+        for (int len : new int[] { 0, 1, 2, 3, 1000, 3072, 10001 }) {
+            byte[] data = randomBytes(len);
+            ByteBuilder expected = new ByteBuilder();
+            Base64.encodeToByte(expected, data, 0, len);
+
+            // encode in pieces of odd size
+            ByteBuilder encoded = new ByteBuilder();
+            try (Base64OutputStream os = new Base64OutputStream(new ByteBuilderOutputStream(encoded))) {
+                for (int pos = 0; pos < len; pos += 7) {
+                    os.write(data, pos, Math.min(7, len - pos));
+                }
+            }
+            Assertions.assertArrayEquals(expected.getBytes(), encoded.getBytes());
+
+            // decode, with line breaks inserted
+            ByteBuilder withBreaks = new ByteBuilder();
+            for (int pos = 0; pos < encoded.length(); pos += 76) {
+                withBreaks.write(encoded.getCurrentBuffer(), pos, Math.min(76, encoded.length() - pos));
+                withBreaks.append("\r\n");
+            }
+            try (InputStream is = new Base64InputStream(withBreaks.asByteArrayInputStream())) {
+                Assertions.assertArrayEquals(data, is.readAllBytes());
+            }
+        }
+    }
+
+    @Test
+    public void testChannels() throws Exception {
+        byte[] data = randomBytes(5000);
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        try (Base64Channel ch = Base64Channel.encoding(Channels.newChannel(encoded))) {
+            ch.write(ByteBuffer.wrap(data, 0, 1234));
+            ByteBuffer direct = ByteBuffer.allocateDirect(data.length - 1234);
+            direct.put(data, 1234, data.length - 1234).flip();
+            ch.write(direct);
+        }
+        Assertions.assertArrayEquals(data, Base64.decode(encoded.toByteArray(), 0, encoded.size()));
+
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        try (Base64Channel ch = Base64Channel.decoding(Channels.newChannel(decoded))) {
+            ch.write(ByteBuffer.wrap(encoded.toByteArray()));
+        }
+        Assertions.assertArrayEquals(data, decoded.toByteArray());
+    }
+
+    @Test
+    public void testInvalidStreams() throws Exception {
+        for (String bad : new String[] { "QUJD=", "QU", "QQ==QQ==", "Q===" }) {
+            try (InputStream is = new Base64InputStream(new ByteArrayInputStream(bad.getBytes()))) {
+                Assertions.assertThrows(IOException.class, () -> is.readAllBytes(), bad);
+            }
+        }
+    }
+
+    @Test
+    public void testAgainstJdk() throws Exception {
+        byte[] data = randomBytes(200);
+        for (int len = 0; len <= 100; ++len) {
+            for (int offset = 0; offset < 4; ++offset) {
+                byte[] expected = java.util.Base64.getEncoder().encode(Arrays.copyOfRange(data, offset, offset + len));
+                ByteBuilder target = new ByteBuilder();
+                Base64.encodeToByte(target, data, offset, len);
+                Assertions.assertArrayEquals(expected, target.getBytes());
+                Assertions.assertArrayEquals(Arrays.copyOfRange(data, offset, offset + len), Base64.decode(expected, 0, expected.length));
+                Assertions.assertArrayEquals(Arrays.copyOfRange(data, offset, offset + len), Base64.decodeFast(expected));
+
+                // MIME style line breaks
+                byte[] mime = java.util.Base64.getMimeEncoder().encode(Arrays.copyOfRange(data, offset, offset + len));
+                Assertions.assertArrayEquals(Arrays.copyOfRange(data, offset, offset + len), Base64.decodeFast(mime));
+            }
+        }
+    }
 }
@@ -0,0 +1,153 @@
+package de.jpaw.util.tests;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.jpaw.api.impl.BatchingDataProvider;
+import de.jpaw.api.impl.CachingDataProvider;
+
+public class BatchingDataProviderTest {
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor();
+
+    /** Counts bulk requests and the keys requested in them. */
+    static class BulkProvider extends CachingDataProviderTest.CountingProvider {
+        final AtomicInteger bulkCalls = new AtomicInteger();
+        final List<Integer> batchSizes = new ArrayList<>();
+
+        @Override
+        public Map<String, String> getAll(final Collection<String> keys) {
+            bulkCalls.incrementAndGet();
+            synchronized (batchSizes) {
+                batchSizes.add(keys.size());
+            }
+            return super.getAll(keys);     // default implementation, calls get() per key
+        }
+    }
+
+    @AfterAll
+    public static void shutdown() {
+        SCHEDULER.shutdown();
+    }
+
+    @Test
+    public void testDefaultMethods() throws Exception {
+        final CachingDataProviderTest.CountingProvider provider = new CachingDataProviderTest.CountingProvider();
+        provider.set("a", "A");
+        provider.set("b", "B");
+        final Map<String, String> result = provider.getAll(List.of("a", "x", "b"));
+        Assertions.assertEquals(Map.of("a", "A", "b", "B"), result);
+        Assertions.assertEquals(List.of("a", "b"), new ArrayList<>(result.keySet()));    // order of the request
+        Assertions.assertEquals("A", provider.getAsync("a").get());
+        Assertions.assertNull(provider.getAsync("x").get());
+        Assertions.assertEquals(result, provider.getAllAsync(List.of("a", "x", "b")).get());
+    }
+
+    @Test
+    public void testBatchingByTime() throws Exception {
+        final BulkProvider delegate = new BulkProvider();
+        for (int i = 0; i < 10; ++i) {
+            delegate.set("k" + i, "v" + i);
+        }
+        final BatchingDataProvider<String, String> batching = new BatchingDataProvider<>(delegate, 100_000L, 100, SCHEDULER);
+        final List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            futures.add(batching.getAsync("k" + i));
+        }
+        futures.add(batching.getAsync("k3"));       // duplicate key shares the request
+        futures.add(batching.getAsync("missing"));
+        for (int i = 0; i < 10; ++i) {
+            Assertions.assertEquals("v" + i, futures.get(i).get());
+        }
+        Assertions.assertEquals("v3", futures.get(10).get());
+        Assertions.assertNull(futures.get(11).get());
+        Assertions.assertEquals(1, delegate.bulkCalls.get());
+        Assertions.assertEquals(List.of(11), delegate.batchSizes);
+    }
+
+    @Test
+    public void testBatchingBySize() throws Exception {
+        final BulkProvider delegate = new BulkProvider();
+        final BatchingDataProvider<String, String> batching = new BatchingDataProvider<>(delegate, 50_000L, 4, SCHEDULER);
+        final List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            futures.add(batching.getAsync("k" + i));
+        }
+        for (final CompletableFuture<String> f : futures) {
+            Assertions.assertNull(f.get());
+        }
+        Assertions.assertEquals(3, delegate.bulkCalls.get());
+        Assertions.assertEquals(List.of(4, 4, 2), delegate.batchSizes);
+        Assertions.assertNull(batching.get("k0"));     // synchronous call, waits for the window
+        Assertions.assertEquals(4, delegate.bulkCalls.get());
+    }
+
+    @Test
+    public void testTimerCancelledForFullBatch() throws Exception {
+        final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1);
+        scheduler.setRemoveOnCancelPolicy(true);
+        try {
+            final BulkProvider delegate = new BulkProvider();
+            final BatchingDataProvider<String, String> batching = new BatchingDataProvider<>(delegate, 60_000_000L, 2, scheduler);
+            for (int i = 0; i < 50; ++i) {
+                final CompletableFuture<String> f1 = batching.getAsync("a" + i);
+                final CompletableFuture<String> f2 = batching.getAsync("b" + i);
+                Assertions.assertNull(f1.get(10, TimeUnit.SECONDS));
+                Assertions.assertNull(f2.get(10, TimeUnit.SECONDS));
+            }
+            Assertions.assertEquals(50, delegate.bulkCalls.get());
+            Assertions.assertEquals(0, scheduler.getQueue().size());    // no timers of the full batches are left, although the window is a minute
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testErrorAndRejection() throws Exception {
+        final BulkProvider failing = new BulkProvider() {
+            @Override
+            public Map<String, String> getAll(final Collection<String> keys) {
+                throw new StackOverflowError("test");
+            }
+        };
+        final BatchingDataProvider<String, String> batching = new BatchingDataProvider<>(failing, 1000L, 100, SCHEDULER);
+        final CompletableFuture<String> f = batching.getAsync("a");
+        final ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> f.get(10, TimeUnit.SECONDS));
+        Assertions.assertTrue(e.getCause() instanceof StackOverflowError);
+
+        // a scheduler which has been shut down rejects the batches, which must not leave callers waiting
+        final ScheduledExecutorService stopped = Executors.newSingleThreadScheduledExecutor();
+        stopped.shutdown();
+        final BatchingDataProvider<String, String> rejecting = new BatchingDataProvider<>(new BulkProvider(), 1000L, 100, stopped);
+        for (int i = 0; i < 3; ++i) {
+            Assertions.assertThrows(RejectedExecutionException.class, () -> rejecting.get("a"));
+        }
+    }
+
+    @Test
+    public void testCachingBulkLoad() {
+        final BulkProvider delegate = new BulkProvider();
+        delegate.set("a", "A");
+        delegate.set("b", "B");
+        final CachingDataProvider<String, String> cache = new CachingDataProvider<>(delegate, 100, 60_000L);
+        Assertions.assertEquals("A", cache.get("a"));
+        Assertions.assertEquals(Map.of("a", "A", "b", "B"), cache.getAll(List.of("a", "b", "c")));
+        Assertions.assertEquals(1, delegate.bulkCalls.get());
+        Assertions.assertEquals(List.of(2), delegate.batchSizes);      // only the missing keys
+        Assertions.assertEquals(Map.of("a", "A", "b", "B"), cache.getAll(List.of("a", "b")));
+        Assertions.assertEquals(1, delegate.bulkCalls.get());
+    }
+}
@@ -0,0 +1,265 @@
+package de.jpaw.util.tests;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.jpaw.api.DataProvider;
+import de.jpaw.api.impl.CachingDataProvider;
+import de.jpaw.api.iso.impl.JavaCurrencyDataProvider;
+
+public class CachingDataProviderTest {
+
+    /** A data provider which counts its calls and can delay them. */
+    static class CountingProvider implements DataProvider<String, String> {
+        final Map<String, String> data = new ConcurrentHashMap<>();
+        final AtomicInteger calls = new AtomicInteger();
+        volatile CountDownLatch gate = null;
+
+        @Override
+        public String get(final String key) {
+            calls.incrementAndGet();
+            final CountDownLatch g = gate;
+            if (g != null) {
+                try {
+                    g.await(10, TimeUnit.SECONDS);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return data.get(key);
+        }
+
+        @Override
+        public void set(final String key, final String value) {
+            if (value == null)
+                data.remove(key);
+            else
+                data.put(key, value);
+        }
+
+        @Override
+        public void clear() {
+            data.clear();
+        }
+
+        @Override
+        public void init() {
+        }
+
+        @Override
+        public List<String> getAll() {
+            return new ArrayList<>(data.values());
+        }
+    }
+
+    @Test
+    public void testHitsAndInvalidation() {
+        final CountingProvider delegate = new CountingProvider();
+        delegate.set("a", "A");
+        final CachingDataProvider<String, String> cache = new CachingDataProvider<>(delegate, 100, 60_000L);
+        Assertions.assertEquals("A", cache.get("a"));
+        Assertions.assertEquals("A", cache.get("a"));
+        Assertions.assertEquals(1, delegate.calls.get());
+
+        cache.set("a", "B");        // write through invalidates
+        Assertions.assertEquals("B", cache.get("a"));
+        Assertions.assertEquals(2, delegate.calls.get());
+
+        // no negative caching configured
+        Assertions.assertNull(cache.get("x"));
+        Assertions.assertNull(cache.get("x"));
+        Assertions.assertEquals(4, delegate.calls.get());
+
+        final CachingDataProvider.Statistics stats = cache.getStatistics();
+        Assertions.assertEquals(1, stats.hits());
+        Assertions.assertEquals(4, stats.misses());
+        Assertions.assertEquals(4, stats.loads());
+    }
+
+    @Test
+    public void testNegativeCachingAndExpiry() throws Exception {
+        final CountingProvider delegate = new CountingProvider();
+        final CachingDataProvider<String, String> cache = new CachingDataProvider<>(delegate, 100, 200L, 0L, 200L, null);
+        Assertions.assertNull(cache.get("x"));
+        Assertions.assertNull(cache.get("x"));
+        Assertions.assertEquals(1, delegate.calls.get());
+        Assertions.assertEquals(1, cache.getStatistics().negativeHits());
+
+        delegate.set("x", "X");
+        Thread.sleep(300L);
+        Assertions.assertEquals("X", cache.get("x"));
+        Assertions.assertEquals(2, delegate.calls.get());
+    }
+
+    @Test
+    public void testRefreshAhead() throws Exception {
+        final CountingProvider delegate = new CountingProvider();
+        delegate.set("a", "A");
+        final CachingDataProvider<String, String> cache = new CachingDataProvider<>(delegate, 100, 400L, 300L, 0L, Runnable::run);
+        Assertions.assertEquals("A", cache.get("a"));
+        delegate.set("a", "B");
+        Thread.sleep(150L);
+        // within the refresh period: returns the cached value, and reloads (synchronously, due to the executor used here)
+        Assertions.assertEquals("A", cache.get("a"));
+        Assertions.assertEquals(2, delegate.calls.get());
+        Assertions.assertEquals("B", cache.get("a"));
+        Assertions.assertEquals(1, cache.getStatistics().refreshes());
+    }
+
+    @Test
+    public void testSingleFlight() throws Exception {
+        final CountingProvider delegate = new CountingProvider();
+        delegate.set("a", "A");
+        delegate.gate = new CountDownLatch(1);
+        final CachingDataProvider<String, String> cache = new CachingDataProvider<>(delegate, 100, 60_000L);
+        final List<Thread> threads = new ArrayList<>();
+        final AtomicInteger correct = new AtomicInteger();
+        for (int i = 0; i < 8; ++i) {
+            final Thread t = new Thread(() -> {
+                if ("A".equals(cache.get("a")))
+                    correct.incrementAndGet();
+            });
+            threads.add(t);
+            t.start();
+        }
+        Thread.sleep(200L);         // let all threads arrive at the cache
+        delegate.gate.countDown();
+        for (final Thread t : threads) {
+            t.join(10_000L);
+        }
+        Assertions.assertEquals(8, correct.get());
+        Assertions.assertEquals(1, delegate.calls.get());
+    }
+
+    @Test
+    public void testWriteDuringLoad() throws Exception {
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountingProvider delegate = new CountingProvider() {
+            @Override
+            public String get(final String key) {
+                final String value = super.get(key);    // reads the old value
+                loading.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return value;
+            }
+        };
+        delegate.set("a", "A");
+        final CachingDataProvider<String, String> cache = new CachingDataProvider<>(delegate, 100, 60_000L);
+        final Thread loader = new Thread(() -> cache.get("a"));
+        loader.start();
+        Assertions.assertTrue(loading.await(10, TimeUnit.SECONDS));
+        cache.set("a", "B");        // while the load of the old value is in progress
+        release.countDown();
+        loader.join(10_000L);
+        Assertions.assertEquals("B", cache.get("a"));
+    }
+
+    @Test
+    public void testInvalidateDuringBulkLoad() throws Exception {
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountingProvider delegate = new CountingProvider() {
+            @Override
+            public Map<String, String> getAll(final Collection<String> keys) {
+                final Map<String, String> values = new HashMap<>();
+                for (final String key : keys) {
+                    values.put(key, data.get(key));     // reads the old values
+                }
+                loading.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return values;
+            }
+        };
+        delegate.set("a", "A");
+        delegate.set("b", "B");
+        final CachingDataProvider<String, String> cache = new CachingDataProvider<>(delegate, 100, 60_000L);
+        final Thread loader = new Thread(() -> cache.getAll(List.of("a", "b")));
+        loader.start();
+        Assertions.assertTrue(loading.await(10, TimeUnit.SECONDS));
+        delegate.set("a", "A2");    // changed behind the cache
+        cache.invalidate("a");      // while the bulk load of the old values is in progress
+        release.countDown();
+        loader.join(10_000L);
+        Assertions.assertFalse(loader.isAlive());
+        Assertions.assertEquals("A2", cache.get("a"));
+        Assertions.assertEquals("B", cache.get("b"));
+        Assertions.assertEquals(1, delegate.calls.get());  // only "a" has been reloaded, "b" has been stored by the bulk load
+    }
+
+    @Test
+    public void testErrorCompletesWaiters() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountingProvider delegate = new CountingProvider() {
+            @Override
+            public String get(final String key) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new StackOverflowError("test");
+            }
+        };
+        final CachingDataProvider<String, String> cache = new CachingDataProvider<>(delegate, 100, 60_000L);
+        final AtomicInteger failed = new AtomicInteger();
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; ++i) {
+            final Thread t = new Thread(() -> {
+                try {
+                    cache.get("a");
+                } catch (final StackOverflowError e) {
+                    failed.incrementAndGet();
+                }
+            });
+            threads.add(t);
+            t.start();
+        }
+        Thread.sleep(200L);         // let all threads arrive at the cache
+        release.countDown();
+        for (final Thread t : threads) {
+            t.join(10_000L);
+            Assertions.assertFalse(t.isAlive());
+        }
+        Assertions.assertEquals(4, failed.get());
+    }
+
+    @Test
+    public void testSizeBound() {
+        final CountingProvider delegate = new CountingProvider();
+        for (int i = 0; i < 1000; ++i) {
+            delegate.set("k" + i, "v" + i);
+        }
+        final CachingDataProvider<String, String> cache = new CachingDataProvider<>(delegate, 100, 60_000L);
+        for (int i = 0; i < 1000; ++i) {
+            Assertions.assertEquals("v" + i, cache.get("k" + i));
+            Assertions.assertTrue(cache.size() <= 100);
+        }
+        Assertions.assertTrue(cache.getStatistics().evictions() >= 900);
+    }
+
+    @Test
+    public void testCurrencyWrappersAreReused() {
+        Assertions.assertSame(JavaCurrencyDataProvider.INSTANCE.get("EUR"), JavaCurrencyDataProvider.INSTANCE.get("EUR"));
+        Assertions.assertEquals(2, JavaCurrencyDataProvider.INSTANCE.get("EUR").getDefaultFractionDigits());
+        Assertions.assertNull(JavaCurrencyDataProvider.INSTANCE.get("QQQ"));
+    }
+}
@@ -0,0 +1,117 @@
+package de.jpaw.util.tests;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.jpaw.util.ByteArray;
+import de.jpaw.util.ByteBuilder;
+import de.jpaw.util.Cesu8Charset;
+import de.jpaw.util.Cesu8Decoder;
+import de.jpaw.util.Cesu8Encoder;
+
+public class Cesu8Test {
+    private static final Charset JDK_CESU8 = Charset.forName("CESU-8");
+    private static final String SAMPLE = "ASCII text, Grüße, € and 😀 and \u0000 and ￿";
+
+    // a string with every UTF-16 value, including (paired and unpaired) surrogates
+    private static String allChars() {
+        final StringBuilder sb = new StringBuilder(0x10000);
+        for (int i = 0; i < 0x10000; ++i)
+            sb.append((char)i);
+        return sb.toString();
+    }
+
+    @Test
+    public void testEncodeToByteBuilder() throws Exception {
+        final String all = allChars();
+        final ByteBuilder b = new ByteBuilder(4, null);
+        b.append((byte)'x');
+        Cesu8Encoder.encodeTo(b, all);
+        Assertions.assertEquals(1 + Cesu8Encoder.encodeToCesu8(all).length, b.length());
+        Assertions.assertArrayEquals(Cesu8Encoder.encodeToCesu8(all), new ByteArray(b.getBytes(), 1, b.length() - 1).getBytes());
+
+        // ASCII only
+        b.setLength(0);
+        Cesu8Encoder.encodeTo(b, "hello");
+        Assertions.assertEquals("hello", b.toString());
+
+        // same as the JDK for valid data
+        b.setLength(0);
+        Cesu8Encoder.encodeTo(b, SAMPLE);
+        Assertions.assertArrayEquals(SAMPLE.getBytes(JDK_CESU8), b.getBytes());
+    }
+
+    @Test
+    public void testDecode() throws Exception {
+        final String all = allChars();
+        final byte[] encoded = Cesu8Encoder.encodeToCesu8(all);
+        Assertions.assertEquals(all, Cesu8Decoder.decode(encoded, 0, encoded.length));
+
+        final StringBuilder sb = new StringBuilder("x");
+        Assertions.assertEquals(all.length(), Cesu8Decoder.decodeInto(sb, encoded, 0, encoded.length));
+        Assertions.assertEquals("x" + all, sb.toString());
+
+        // ranges of a ByteArray
+        final byte[] sample = SAMPLE.getBytes(JDK_CESU8);
+        final ByteArray ba = new ByteArray(sample);
+        Assertions.assertEquals(SAMPLE, ba.decodeCesu8());
+        Assertions.assertEquals("Grüße", ba.subArray(12, 7).decodeCesu8());
+        Assertions.assertEquals("ASCII", ba.subArray(0, 5).decodeCesu8());
+    }
+
+    @Test
+    public void testDecodeRejectsMalformed() throws Exception {
+        final byte[][] invalid = {
+            { (byte)0x80 },                                         // continuation byte
+            { (byte)0xc3 },                                         // truncated
+            { (byte)0xe2, (byte)0x82 },                             // truncated
+            { (byte)0xc0, (byte)0x80 },                             // overlong NUL (modified UTF-8)
+            { (byte)0xf0, (byte)0x9f, (byte)0x98, (byte)0x80 },     // 4 byte UTF-8 sequence
+            { (byte)0xc3, (byte)0x41 }                              // missing continuation
+        };
+        for (final byte[] data : invalid) {
+            Assertions.assertNull(Cesu8Decoder.decode(data, 0, data.length));
+            Assertions.assertEquals(-1, Cesu8Decoder.decodeInto(new StringBuilder(), data, 0, data.length));
+            Assertions.assertThrows(CharacterCodingException.class, () ->
+              Cesu8Charset.INSTANCE.newDecoder().onMalformedInput(CodingErrorAction.REPORT).decode(ByteBuffer.wrap(data)));
+        }
+    }
+
+    @Test
+    public void testCharsetStreaming() throws Exception {
+        final String all = allChars();
+        // write and read via small buffers, so that sequences are split between calls
+        final ByteArrayOutputStream os = new ByteArrayOutputStream();
+        try (Writer w = new OutputStreamWriter(os, Cesu8Charset.INSTANCE)) {
+            for (int i = 0; i < all.length(); i += 7)
+                w.write(all, i, Math.min(7, all.length() - i));
+        }
+        Assertions.assertArrayEquals(Cesu8Encoder.encodeToCesu8(all), os.toByteArray());
+
+        final StringBuilder sb = new StringBuilder();
+        try (Reader r = new InputStreamReader(new ByteArrayInputStream(os.toByteArray()), Cesu8Charset.INSTANCE)) {
+            final char[] buffer = new char[5];
+            int n;
+            while ((n = r.read(buffer)) > 0)
+                sb.append(buffer, 0, n);
+        }
+        Assertions.assertEquals(all, sb.toString());
+
+        // direct buffers use the non-array code path
+        final ByteBuffer direct = ByteBuffer.allocateDirect(os.size());
+        direct.put(os.toByteArray()).flip();
+        Assertions.assertEquals(all, Cesu8Charset.INSTANCE.newDecoder().decode(direct).toString());
+        Assertions.assertEquals(SAMPLE, new String(SAMPLE.getBytes(Cesu8Charset.INSTANCE), JDK_CESU8));
+    }
+}
@@ -0,0 +1,94 @@
+package de.jpaw.util.tests;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.jpaw.util.ConfigurationSnapshot;
+import de.jpaw.util.WatchingConfigurationReader;
+
+public class ConfigSnapshotTest {
+
+    @Test
+    public void testSnapshotPrecedenceAndTypes() throws Exception {
+        final Properties props = new Properties();
+        props.setProperty("jpaw.snapshot.int", "42");
+        props.setProperty("jpaw.snapshot.bool", "y");
+        props.setProperty("jpaw.snapshot.uuid", "6ba7b810-9dad-11d1-80b4-00c04fd430c8");
+        props.setProperty("jpaw.snapshot.overridden", "fromFile");
+        System.setProperty("jpaw.snapshot.overridden", "fromSystem");
+        try {
+            final ConfigurationSnapshot snapshot = new ConfigurationSnapshot(props);
+            Assertions.assertEquals(42, snapshot.getIntProperty("jpaw.snapshot.int"));
+            Assertions.assertSame(snapshot.getIntProperty("jpaw.snapshot.int"), snapshot.getIntProperty("jpaw.snapshot.int"));
+            Assertions.assertEquals(Boolean.TRUE, snapshot.getBooleanProperty("jpaw.snapshot.bool"));
+            Assertions.assertEquals(UUID.fromString("6ba7b810-9dad-11d1-80b4-00c04fd430c8"), snapshot.getUUIDProperty("jpaw.snapshot.uuid"));
+            Assertions.assertEquals("fromSystem", snapshot.getProperty("jpaw.snapshot.overridden"));
+            Assertions.assertNull(snapshot.getProperty("jpaw.snapshot.missing"));
+            Assertions.assertEquals(7, snapshot.getIntProperty("jpaw.snapshot.missing", 7));
+            Assertions.assertFalse(snapshot.getValue("jpaw.snapshot.missing").isPresent());
+
+            // a pre-resolved value
+            final ConfigurationSnapshot.Value intValue = snapshot.getValue("jpaw.snapshot.int");
+            Assertions.assertSame(intValue, snapshot.getValue("jpaw.snapshot.int"));
+            Assertions.assertEquals(42, intValue.getInt(0));
+
+            // later changes are not visible in an existing snapshot
+            System.setProperty("jpaw.snapshot.overridden", "changed");
+            props.setProperty("jpaw.snapshot.int", "43");
+            Assertions.assertEquals("fromSystem", snapshot.getProperty("jpaw.snapshot.overridden"));
+            Assertions.assertEquals(42, snapshot.getIntProperty("jpaw.snapshot.int"));
+        } finally {
+            System.clearProperty("jpaw.snapshot.overridden");
+        }
+    }
+
+    @Test
+    public void testReloadAndWatcher(@TempDir final Path dir) throws Exception {
+        final Path file = dir.resolve("test.properties");
+        Files.writeString(file, "jpaw.watched=1\n");
+        try (WatchingConfigurationReader reader = new WatchingConfigurationReader(file)) {
+            Assertions.assertEquals(1, reader.getIntProperty("jpaw.watched"));
+            final WatchingConfigurationReader.Handle handle = reader.getHandle("jpaw.watched");
+            Assertions.assertEquals(1, handle.get().getInt(0));
+
+            // explicit reload
+            final AtomicReference<ConfigurationSnapshot> notified = new AtomicReference<>();
+            reader.addListener(notified::set);
+            Files.writeString(file, "jpaw.watched=2\n");
+            Assertions.assertTrue(reader.reload());
+            Assertions.assertEquals(2, reader.getIntProperty("jpaw.watched"));
+            Assertions.assertEquals(2, handle.get().getInt(0));
+            Assertions.assertSame(reader.getSnapshot(), notified.get());
+
+            // no notification if the contents did not change
+            notified.set(null);
+            Assertions.assertTrue(reader.reload());
+            Assertions.assertNull(notified.get());
+
+            // watcher
+            final CountDownLatch latch = new CountDownLatch(1);
+            reader.addListener(snapshot -> {
+                if (snapshot.getIntProperty("jpaw.watched", 0) == 3)
+                    latch.countDown();
+            });
+            reader.startWatching();
+            Files.writeString(file, "jpaw.watched=3\n");
+            Assertions.assertTrue(latch.await(30, TimeUnit.SECONDS), "change not detected");
+            Assertions.assertEquals(3, reader.getIntProperty("jpaw.watched"));
+
+            // a missing file keeps the previous configuration
+            Files.delete(file);
+            Assertions.assertFalse(reader.reload());
+            Assertions.assertEquals(3, reader.getIntProperty("jpaw.watched"));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package de.jpaw.util.tests;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.jpaw.util.ByteBuilder;
+import de.jpaw.util.FormattersAndParsers;
+
+public class FormattersAndParsersTest {
+
+    private static String viaAppendable(final LocalDateTime ldt, final boolean fractions, final boolean always, final String suffix) throws Exception {
+        final StringBuilder sb = new StringBuilder();
+        FormattersAndParsers.appendLocalDateTime(sb, ldt, fractions, always, suffix);
+        return sb.toString();
+    }
+
+    @Test
+    public void testWritersAgainstAppendable() throws Exception {
+        final Random rnd = new Random(4711L);
+        final char[] buf = new char[40];
+        final ByteBuilder b = new ByteBuilder(4, null);
+        for (int i = 0; i < 2000; ++i) {
+            final LocalDateTime ldt = LocalDateTime.of(1 + rnd.nextInt(9999), 1 + rnd.nextInt(12), 1 + rnd.nextInt(28),
+              rnd.nextInt(24), rnd.nextInt(60), rnd.nextInt(60), rnd.nextInt(3) == 0 ? 0 : rnd.nextInt(1000000000));
+            for (int variant = 0; variant < 4; ++variant) {
+                final boolean fractions = (variant & 1) != 0;
+                final boolean always = (variant & 2) != 0;
+                final String suffix = variant == 3 ? "Z" : null;
+                final String expected = viaAppendable(ldt, fractions, always, suffix);
+
+                final int end = FormattersAndParsers.writeLocalDateTime(buf, 3, ldt, fractions, always, suffix);
+                Assertions.assertEquals(expected, new String(buf, 3, end - 3));
+
+                b.setLength(0);
+                b.append((byte)'>');
+                FormattersAndParsers.appendLocalDateTime(b, ldt, fractions, always, suffix);
+                Assertions.assertEquals(">" + expected, b.toString());
+            }
+            b.setLength(0);
+            FormattersAndParsers.appendLocalDate(b, ldt.toLocalDate());
+            FormattersAndParsers.appendLocalTime(b, ldt.toLocalTime(), true, false);
+            final int end = FormattersAndParsers.writeLocalTime(buf, FormattersAndParsers.writeLocalDate(buf, 0, ldt.toLocalDate()), ldt.toLocalTime(), true, false);
+            Assertions.assertEquals(b.toString(), new String(buf, 0, end));
+        }
+    }
+
+    @Test
+    public void testParsersAgainstJdk() throws Exception {
+        final String[] timestamps = {
+            "2024-02-29T23:59:59", "0001-01-01T00:00", "9999-12-31T12:34:56.789", "2020-06-15T08:15:30.123456789",
+            "2020-06-15T08:15:30.1", "+12345-01-01T00:00:00"
+        };
+        for (final String ts : timestamps) {
+            final LocalDateTime expected = LocalDateTime.parse(ts);
+            final byte[] bytes = ("xx" + ts + "yy").getBytes(StandardCharsets.US_ASCII);
+            final String padded = "xx" + ts + "yy";
+            Assertions.assertEquals(expected, FormattersAndParsers.parseLocalDateTime(ts, false, false, false));
+            Assertions.assertEquals(expected, FormattersAndParsers.parseLocalDateTime(padded, 2, ts.length(), false, false, false));
+            Assertions.assertEquals(expected, FormattersAndParsers.parseLocalDateTime(bytes, 2, ts.length(), false, false, false));
+            Assertions.assertEquals(expected, FormattersAndParsers.parseLocalDateTime(ts + "Z", false, true, false));
+            if (ts.indexOf('.') >= 0) {
+                // anything from the decimal point is ignored, including a time zone suffix
+                Assertions.assertEquals(expected.withNano(0), FormattersAndParsers.parseLocalDateTime(ts + "Z", true, false, false));
+            }
+
+            final String time = ts.substring(ts.indexOf('T') + 1);
+            final byte[] timeBytes = time.getBytes(StandardCharsets.US_ASCII);
+            Assertions.assertEquals(expected.toLocalTime(), FormattersAndParsers.parseLocalTime(time, false));
+            Assertions.assertEquals(expected.toLocalTime(), FormattersAndParsers.parseLocalTime(timeBytes, 0, timeBytes.length, false));
+            Assertions.assertEquals(expected.toLocalTime().withNano(0), FormattersAndParsers.parseLocalTime(time, true));
+        }
+        Assertions.assertEquals(LocalDate.of(2020, 2, 29), FormattersAndParsers.parseLocalDate("2020-02-29"));
+        Assertions.assertEquals(LocalDate.of(2020, 2, 29), FormattersAndParsers.parseLocalDate("2020-02-29".getBytes(StandardCharsets.US_ASCII), 0, 10));
+        Assertions.assertEquals(LocalDateTime.of(2020, 2, 29, 0, 0), FormattersAndParsers.parseLocalDateTime("2020-02-29", false, false, true));
+    }
+
+    @Test
+    public void testParserErrors() throws Exception {
+        final String[] invalid = { "2021-02-29T00:00", "2020-13-01T00:00", "2020-01-01T24:00", "2020-01-01T12:60", "2020-01-01 12:00", "2020-01-01T1:00",
+            "2020-01-01T12:00:00.1234567890", "2020-01-01T12:00Z", "abcd-01-01T00:00" };
+        for (final String ts : invalid) {
+            final byte[] bytes = ts.getBytes(StandardCharsets.US_ASCII);
+            Assertions.assertThrows(DateTimeParseException.class, () -> LocalDateTime.parse(ts), ts);
+            Assertions.assertThrows(DateTimeParseException.class, () -> FormattersAndParsers.parseLocalDateTime(ts, false, false, false), ts);
+            Assertions.assertThrows(DateTimeParseException.class, () -> FormattersAndParsers.parseLocalDateTime(bytes, 0, bytes.length, false, false, false), ts);
+        }
+        Assertions.assertThrows(DateTimeParseException.class, () -> FormattersAndParsers.parseLocalDate("2021-02-29"));
+        Assertions.assertThrows(DateTimeParseException.class, () -> FormattersAndParsers.parseLocalTime("25:00", false));
+    }
+}
@@ -1,7 +1,10 @@
 package de.jpaw.util.tests;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
 
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
@@ -71,4 +74,64 @@ public class KeyConverterTest {
         Assertions.assertEquals("bb", LanguageKeyConverter.intToLanguageCode(60 + 2 * 32 + 2));
         Assertions.assertEquals("xx", LanguageKeyConverter.intToLanguageCode(1));
     }
+
+    @Test
+    public void testCountryRoundTrip() throws Exception {
+        for (char c0 = 'A'; c0 <= 'Z'; ++c0) {
+            for (char c1 = 'A'; c1 <= 'Z'; ++c1) {
+                final String code = new String(new char[] { c0, c1 });
+                final int index = CountryKeyConverter.countryCodeA2ToInt(code);
+                Assertions.assertTrue(index > 0);
+                Assertions.assertEquals(code, CountryKeyConverter.intToCountryCodeA2(index));
+                Assertions.assertSame(CountryKeyConverter.intToCountryCodeA2(index), CountryKeyConverter.intToCountryCodeA2(index));
+                Assertions.assertEquals(index, CountryKeyConverter.countryCodeA2ToInt(new StringBuilder(code)));
+                Assertions.assertEquals(index, CountryKeyConverter.countryCodeA2ToInt(("x" + code).getBytes(StandardCharsets.US_ASCII), 1, 2));
+            }
+        }
+        Assertions.assertEquals(0, CountryKeyConverter.countryCodeA2ToInt("De"));
+        Assertions.assertEquals(0, CountryKeyConverter.countryCodeA2ToInt("DEU"));
+        Assertions.assertEquals(0, CountryKeyConverter.countryCodeA2ToInt(new byte[] { 'D', (byte)0xc4 }, 0, 2));
+        Assertions.assertNull(CountryKeyConverter.intToCountryCodeA2(50));
+        Assertions.assertNull(CountryKeyConverter.intToCountryCodeA2(776));
+        Assertions.assertSame(CountryKeyConverter.canonicalCountryCodeA2(new StringBuilder("ES")),
+          CountryKeyConverter.canonicalCountryCodeA2("ES".getBytes(StandardCharsets.US_ASCII), 0, 2));
+        Assertions.assertNull(CountryKeyConverter.canonicalCountryCodeA2("E1"));
+    }
+
+    @Test
+    public void testCurrencyConversions() throws Exception {
+        Assertions.assertEquals(5, CurrencyKeyConverter.currencyCodeA3ToInt(new StringBuilder("EUR")));
+        Assertions.assertEquals(5, CurrencyKeyConverter.currencyCodeA3ToInt("EUR".getBytes(StandardCharsets.US_ASCII), 0, 3));
+        Assertions.assertEquals("EUR", CurrencyKeyConverter.intToCurrencyCodeA3(100 + 4 * 676 + 20 * 26 + 17));   // formula index of a frequent code
+        Assertions.assertEquals("ZZZ", CurrencyKeyConverter.intToCurrencyCodeA3(100 + 26 * 26 * 26 - 1));
+        Assertions.assertNull(CurrencyKeyConverter.intToCurrencyCodeA3(100 + 26 * 26 * 26));
+        Assertions.assertEquals(0, CurrencyKeyConverter.currencyCodeA3ToInt("EU"));
+        Assertions.assertEquals(0, CurrencyKeyConverter.currencyCodeA3ToInt("EUr"));
+        final String tnd = CurrencyKeyConverter.canonicalCurrencyCodeA3(new StringBuilder("TND"));
+        Assertions.assertEquals("TND", tnd);
+        Assertions.assertSame(tnd, CurrencyKeyConverter.canonicalCurrencyCodeA3("TND".getBytes(StandardCharsets.US_ASCII), 0, 3));
+    }
+
+    @Test
+    public void testLanguageConversions() throws Exception {
+        for (final String language : Locale.getISOLanguages()) {
+            final int index = LanguageKeyConverter.languageCodeToInt(language);
+            Assertions.assertTrue(index > 0);
+            Assertions.assertEquals(language, LanguageKeyConverter.intToLanguageCode(index));
+        }
+        for (final String code : new String[] { "zh_CN", "en_US", "de_CH", "pt_BR" }) {
+            final int index = LanguageKeyConverter.languageCodeToInt(code);
+            Assertions.assertTrue(index > 0);
+            Assertions.assertEquals(index, LanguageKeyConverter.languageCodeToInt(code.getBytes(StandardCharsets.US_ASCII), 0, 5));
+            Assertions.assertEquals(code, LanguageKeyConverter.intToLanguageCode(index));
+            Assertions.assertSame(LanguageKeyConverter.intToLanguageCode(index), LanguageKeyConverter.canonicalLanguageCode(new StringBuilder(code)));
+        }
+        Assertions.assertEquals(6, LanguageKeyConverter.languageCodeToInt("zh_CN"));
+        Assertions.assertEquals(60 + 32 * 32 + (4 << 15) + (5 << 10) + (3 << 5) + 8, LanguageKeyConverter.languageCodeToInt("de_CH"));
+        Assertions.assertEquals(0, LanguageKeyConverter.languageCodeToInt("de-CH"));
+        Assertions.assertEquals(0, LanguageKeyConverter.languageCodeToInt("de_ch"));
+        Assertions.assertEquals(0, LanguageKeyConverter.languageCodeToInt("deu"));
+        Assertions.assertNull(LanguageKeyConverter.intToLanguageCode(60));                  // letter code 0
+        Assertions.assertNull(LanguageKeyConverter.intToLanguageCode(60 + 32 * 32));
+    }
 }
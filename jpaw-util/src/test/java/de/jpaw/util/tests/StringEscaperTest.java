@@ -0,0 +1,87 @@
+package de.jpaw.util.tests;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.text.StringEscapeUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.jpaw.json.BaseJsonComposer;
+import de.jpaw.util.ByteBuilder;
+import de.jpaw.util.Escape2Java;
+import de.jpaw.util.StringEscaper;
+import de.jpaw.util.StringSerializer;
+
+public class StringEscaperTest {
+    private static final String[] SAMPLES = {
+        "",
+        "Hello, world",
+        "tab\there",
+        "quote \" and backslash \\ inside",
+        "Grüße € and 😀 emoji",
+        "\u0000\u0001\u001f",
+        "lone \ud800 surrogate",
+        "line 1\r\nline 2\n"
+    };
+
+    @Test
+    public void testUnchangedInstanceIsReturned() throws Exception {
+        final String s = "Nothing to escape here, 0123456789";
+        Assertions.assertSame(s, StringEscaper.JAVA.escape(s));
+        Assertions.assertSame(s, StringEscaper.JSON.escape(s));
+        Assertions.assertSame(s, Escape2Java.escapeString2Java(s));
+        Assertions.assertSame(s, StringSerializer.altToString(s));
+        Assertions.assertEquals(-1, StringEscaper.JSON.indexOfFirstEscape("äöü"));
+        Assertions.assertEquals(0,  StringEscaper.JSON_ASCII.indexOfFirstEscape("äöü"));
+        Assertions.assertNull(Escape2Java.escapeString2Java(null));
+    }
+
+    @Test
+    public void testJavaAgainstApache() throws Exception {
+        for (final String s : SAMPLES) {
+            Assertions.assertEquals(StringEscapeUtils.escapeJava(s), Escape2Java.escapeString2Java(s), s);
+        }
+        // unlike Apache commons, DEL is escaped as well
+        Assertions.assertEquals("\\u007F", Escape2Java.escapeString2Java("\u007f"));
+    }
+
+    @Test
+    public void testJson() throws Exception {
+        Assertions.assertEquals("a\\u0001\\\"\\\\\\tä", StringEscaper.JSON.escape("a\u0001\"\\\tä"));
+        Assertions.assertEquals("a\\u0001\\\"\\\\\\t\\u00e4", StringEscaper.JSON_ASCII.escape("a\u0001\"\\\tä"));
+
+        final StringBuilder buff = new StringBuilder();
+        new BaseJsonComposer(buff, true, true).outputUnicodeWithControls("€\n");
+        Assertions.assertEquals("\"\\u20ac\\n\"", buff.toString());
+    }
+
+    @Test
+    public void testAppendableAndByteBuilderTargets() throws Exception {
+        for (final StringEscaper escaper : new StringEscaper[] { StringEscaper.JAVA, StringEscaper.JSON, StringEscaper.JSON_ASCII }) {
+            for (final String s : SAMPLES) {
+                final String expected = escaper.escape(s);
+
+                // a non-StringBuilder Appendable
+                final StringBuffer sb = new StringBuffer("prefix");
+                escaper.appendEscaped(sb, s);
+                Assertions.assertEquals("prefix" + expected, sb.toString());
+
+                // a small ByteBuilder, to test the buffer extension
+                final ByteBuilder bb = new ByteBuilder(4, null);
+                bb.append((byte) '>');
+                escaper.appendEscaped(bb, s);
+                Assertions.assertArrayEquals((">" + expected).getBytes(StandardCharsets.UTF_8), bb.getBytes());
+            }
+        }
+    }
+
+    @Test
+    public void testStringSerializer() throws Exception {
+        final StringBuilder data = new StringBuilder("A\u0001B\tC\\D");
+        final String escaped = StringSerializer.toString(data);
+        Assertions.assertEquals("A\\AB\\tC\\\\D", escaped);
+        Assertions.assertEquals(data.toString(), StringSerializer.fromString(escaped).toString());
+        Assertions.assertEquals("A<A>B<I>C", StringSerializer.altToString("A\u0001B\tC"));
+        Assertions.assertEquals("A\u0001B\tC", StringSerializer.altFromString("A<A>B<I>C"));
+    }
+}
@@ -27,9 +27,9 @@ public class LocalDateAdapter  extends XmlAdapter<String, LocalDate> {
     @Override
     public LocalDate unmarshal(final String v) throws Exception {
         if (v.length() > FormattersAndParsers.LENGTH_OF_ISO_DATE && v.charAt(FormattersAndParsers.LENGTH_OF_ISO_DATE) == 'T') {
-            return LocalDate.parse(v.substring(0, FormattersAndParsers.LENGTH_OF_ISO_DATE));
+            return FormattersAndParsers.parseLocalDate(v, 0, FormattersAndParsers.LENGTH_OF_ISO_DATE);
         } else {
-            return LocalDate.parse(v);
+            return FormattersAndParsers.parseLocalDate(v);
         }
     }
 